@@ -3,105 +3,224 @@ package algoritmos;
 
 import lib.Aresta;
 import lib.Grafo;
+import lib.GrafoCompacto;
 import lib.Vertice;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Set;
+import java.util.Objects;
 import java.util.function.BiFunction;
 
+/**
+ * Implementação do algoritmo A*, que direciona a busca ao objetivo usando uma heurística.
+ * O conjunto aberto é um {@link HeapIndexado} ordenado por fScore = gScore + heurística,
+ * com decrease-key: cada vértice aparece nele no máximo uma vez e a ordem do heap
+ * é sempre mantida quando o fScore de um vértice diminui.
+ * <p>
+ * Se a heurística for admissível o caminho devolvido é ótimo; vértices já fechados são
+ * reabertos caso um caminho melhor até eles apareça (o que só ocorre se a heurística
+ * não for consistente).
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
 public class AEstrela<T> {
-    private BiFunction<Vertice<T>, Vertice<T>, Double> heuristica;
+    private final Heuristica<T> heuristica;
 
+    public AEstrela(Heuristica<T> heuristica) {
+        this.heuristica = Objects.requireNonNull(heuristica, "A heurística não pode ser nula.");
+    }
+
+    /**
+     * Construtor mantido por compatibilidade com heurísticas escritas como {@link BiFunction}.
+     */
     public AEstrela(BiFunction<Vertice<T>, Vertice<T>, Double> heuristica) {
-        this.heuristica = heuristica;
+        this(adaptar(heuristica));
     }
 
-    public List<Vertice<T>> encontrarCaminhoMaisCurto(Grafo<T> grafo, Vertice<T> inicio, Vertice<T> objetivo) {
-        // gScore: Custo do inicio até o nó atual
-        Map<Vertice<T>, Double> gScore = new HashMap<>();
-        gScore.put(inicio, 0.0);
-
-        // fScore: gScore + heuristica. É o custo estimado do inicio ao objetivo através do nó atual.
-        Map<Vertice<T>, Double> fScore = new HashMap<>();
-        // Para o nó inicial, fScore é a heurística (gScore é 0)
-        fScore.put(inicio, heuristica(inicio, objetivo));
-
-        // cameFrom: Para reconstruir o caminho
-        Map<Vertice<T>, Vertice<T>> cameFrom = new HashMap<>();
-
-        // openSet: Conjunto de nós a serem avaliados, ordenados pelo fScore
-        PriorityQueue<Vertice<T>> openSet = new PriorityQueue<>((v1, v2) -> {
-            // Retorna 0 se fScore não existe para qualquer um dos vértices (deve ser tratado)
-            double score1 = fScore.getOrDefault(v1, Double.POSITIVE_INFINITY);
-            double score2 = fScore.getOrDefault(v2, Double.POSITIVE_INFINITY);
-            return Double.compare(score1, score2);
-        });
-        openSet.add(inicio);
-
-        // closedSet: Conjunto de nós já avaliados
-        Set<Vertice<T>> closedSet = new HashSet<>();
+    @SuppressWarnings("unchecked")
+    private static <T> Heuristica<T> adaptar(BiFunction<Vertice<T>, Vertice<T>, Double> heuristica) {
+        Objects.requireNonNull(heuristica, "A heurística não pode ser nula.");
+        if (heuristica instanceof Heuristica) {
+            return (Heuristica<T>) heuristica;
+        }
+        return heuristica::apply;
+    }
 
-        while (!openSet.isEmpty()) {
-            Vertice<T> atual = openSet.poll();
+    public Heuristica<T> getHeuristica() {
+        return heuristica;
+    }
 
-            if (atual.equals(objetivo)) {
-                return reconstruirCaminho(cameFrom, atual);
-            }
+    public List<Vertice<T>> encontrarCaminhoMaisCurto(Grafo<T> grafo, Vertice<T> inicio, Vertice<T> objetivo) {
+        return buscarRota(inicio, objetivo).getCaminho();
+    }
 
-            closedSet.add(atual);
+    /**
+     * Calcula a rota com o A* sobre o grafo de objetos e devolve um resultado imutável, com as
+     * arestas percorridas e os custos acumulados.
+     *
+     * @param grafo O grafo a ser percorrido.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @param dadoDestino O dado do vértice de destino.
+     * @return O resultado da consulta (sem caminho se o destino for inalcançável).
+     */
+    public ResultadoRota<T> calcularRota(Grafo<T> grafo, T dadoOrigem, T dadoDestino) {
+        Vertice<T> origem = grafo.getVertice(dadoOrigem);
+        Vertice<T> destino = grafo.getVertice(dadoDestino);
+        if (origem == null || destino == null) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+        return buscarRota(origem, destino);
+    }
 
-            // Percorre os vizinhos do nó atual
-            // No seu Vertice.java, getArestasSaida() retorna as arestas que saem do vértice
-            for (Aresta<T> arestaSaida : atual.getArestasSaida()) {
-                Vertice<T> vizinho = arestaSaida.getFim(); // O fim da aresta é o vizinho
+    private ResultadoRota<T> buscarRota(Vertice<T> inicio, Vertice<T> objetivo) {
+        // O grafo de objetos não tem índices densos: cada vértice recebe um índice local
+        // quando é descoberto, e as pontuações ficam em vetores primitivos que crescem sob demanda.
+        long inicioMedicao = Metricas.iniciar();
+        int fixados = 0, insercoes = 1, remocoes = 0, picoDaFila = 1;
+        long relaxacoes = 0;
+        Map<Vertice<T>, Integer> indices = new HashMap<>();
+        List<Vertice<T>> porIndice = new ArrayList<>();
+        double[] gScore = new double[16];
+        int[] cameFrom = new int[16];
+        // Aresta pela qual cada vértice foi alcançado, no mesmo índice de 'porIndice'
+        List<Aresta<T>> arestasDeChegada = new ArrayList<>();
+
+        indices.put(inicio, 0);
+        porIndice.add(inicio);
+        arestasDeChegada.add(null);
+        gScore[0] = 0.0;
+        cameFrom[0] = -1;
+
+        // openSet: vértices a serem avaliados, ordenados pelo fScore
+        HeapIndexado openSet = new HeapIndexado(16);
+        openSet.inserirOuDiminuir(0, heuristica.estimar(inicio, objetivo));
+
+        int chegada = -1;
+        while (!openSet.isEmpty()) {
+            int atual = openSet.removerMinimo();
+            remocoes++;
+            Vertice<T> verticeAtual = porIndice.get(atual);
+            fixados++;
+
+            if (verticeAtual.equals(objetivo)) {
+                chegada = atual;
+                break;
+            }
 
-                if (closedSet.contains(vizinho)) {
-                    continue; // Já avaliado
+            for (Aresta<T> arestaSaida : verticeAtual.getArestasSaida()) {
+                relaxacoes++;
+                Vertice<T> vizinho = arestaSaida.getFim();
+                double tentative_gScore = gScore[atual] + arestaSaida.getPeso();
+
+                Integer indiceVizinho = indices.get(vizinho);
+                if (indiceVizinho == null) {
+                    indiceVizinho = porIndice.size();
+                    indices.put(vizinho, indiceVizinho);
+                    porIndice.add(vizinho);
+                    arestasDeChegada.add(null);
+                    if (indiceVizinho == gScore.length) {
+                        gScore = Arrays.copyOf(gScore, gScore.length * 2);
+                        cameFrom = Arrays.copyOf(cameFrom, cameFrom.length * 2);
+                        openSet.garantirCapacidade(gScore.length);
+                    }
+                    gScore[indiceVizinho] = Double.POSITIVE_INFINITY;
                 }
 
-                // Custo provisório do inicio ao vizinho
-                double tentative_gScore = gScore.getOrDefault(atual, Double.POSITIVE_INFINITY) + arestaSaida.getPeso();
-
                 // Se o novo caminho para o vizinho é melhor
-                if (tentative_gScore < gScore.getOrDefault(vizinho, Double.POSITIVE_INFINITY)) {
-                    cameFrom.put(vizinho, atual);
-                    gScore.put(vizinho, tentative_gScore);
-                    fScore.put(vizinho, tentative_gScore + heuristica(vizinho, objetivo));
-
-                    if (!openSet.contains(vizinho)) {
-                        openSet.add(vizinho);
-                    }
+                if (tentative_gScore < gScore[indiceVizinho]) {
+                    cameFrom[indiceVizinho] = atual;
+                    arestasDeChegada.set(indiceVizinho, arestaSaida);
+                    gScore[indiceVizinho] = tentative_gScore;
+                    openSet.inserirOuDiminuir(indiceVizinho, tentative_gScore + heuristica.estimar(vizinho, objetivo));
+                    insercoes++;
+                    picoDaFila = Math.max(picoDaFila, openSet.tamanho());
                 }
             }
         }
+        MedicaoDeBusca estatisticas =
+                Metricas.concluir(Algoritmo.A_ESTRELA, inicioMedicao, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
 
         // Se o objetivo não foi alcançado
-        return Collections.emptyList();
+        if (chegada < 0) {
+            return ResultadoRota.vazio(estatisticas);
+        }
+        List<Aresta<T>> arestas = new ArrayList<>();
+        for (int v = chegada; cameFrom[v] >= 0; v = cameFrom[v]) {
+            arestas.add(arestasDeChegada.get(v));
+        }
+        Collections.reverse(arestas);
+        return new ResultadoRota<>(inicio, arestas, estatisticas);
+    }
+
+    /**
+     * Versão do A* que roda diretamente sobre a fotografia compacta (CSR) de um grafo,
+     * usando o espaço de trabalho da thread atual. Não aloca além do caminho devolvido se a
+     * heurística sobrescrever {@link Heuristica#estimar(GrafoCompacto, int, int)} sem criar
+     * objetos; a implementação padrão cria dois vértices por relaxação.
+     */
+    public List<Vertice<T>> encontrarCaminhoMaisCurto(GrafoCompacto<T> grafo, Vertice<T> inicio, Vertice<T> objetivo) {
+        int origem = grafo.getIndice(inicio.getDado());
+        int alvo = grafo.getIndice(objetivo.getDado());
+        if (origem < 0 || alvo < 0) {
+            return Collections.emptyList();
+        }
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        buscar(grafo, espaco, origem, alvo);
+        return Dijkstra.reconstruirCaminho(grafo, espaco, alvo);
     }
 
-    private double heuristica(Vertice<T> atual, Vertice<T> objetivo) {
-        // Exemplo de uma heurística mais complexa se 'T' contiver coordenadas:
-        // if (atual.getDado() instanceof Ponto && objetivo.getDado() instanceof Ponto) {
-        //     Ponto p1 = (Ponto) atual.getDado();
-        //     Ponto p2 = (Ponto) objetivo.getDado();
-        //     return Math.sqrt(Math.pow(p1.getX() - p2.getX(), 2) + Math.pow(p1.getY() - p2.getY(), 2));
-        // }
-        return 0.0; // Heurística trivial
+    /**
+     * Calcula a rota com o A* sobre um grafo compacto e devolve um resultado imutável,
+     * já com o custo total do caminho.
+     */
+    public ResultadoRota<T> calcularRota(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino) {
+        int origem = grafo.getIndice(dadoOrigem);
+        int alvo = grafo.getIndice(dadoDestino);
+        if (origem < 0 || alvo < 0) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        buscar(grafo, espaco, origem, alvo);
+        return Dijkstra.montarRota(grafo, espaco, alvo);
     }
 
-    private List<Vertice<T>> reconstruirCaminho(Map<Vertice<T>, Vertice<T>> cameFrom, Vertice<T> atual) {
-        List<Vertice<T>> caminho = new ArrayList<>();
-        while (cameFrom.containsKey(atual)) {
-            caminho.add(atual);
-            atual = cameFrom.get(atual);
+    /**
+     * Núcleo do A* sobre vetores primitivos. As distâncias (gScore) e predecessores ficam
+     * no espaço de trabalho; o heap guarda o fScore.
+     */
+    void buscar(GrafoCompacto<T> grafo, EspacoDeTrabalho espaco, int origem, int alvo) {
+        long inicio = Metricas.iniciar();
+        int fixados = 0, insercoes = 1, remocoes = 0, picoDaFila = 1;
+        long relaxacoes = 0;
+        espaco.iniciar();
+        HeapIndexado openSet = espaco.heap();
+        espaco.definir(origem, 0.0, -1);
+        openSet.inserirOuDiminuir(origem, heuristica.estimar(grafo, origem, alvo));
+
+        while (!openSet.isEmpty()) {
+            int atual = openSet.removerMinimo();
+            remocoes++;
+            fixados++;
+            if (atual == alvo) {
+                break;
+            }
+            double gAtual = espaco.distancia(atual);
+            int primeira = grafo.inicioSaida(atual), fim = grafo.fimSaida(atual);
+            relaxacoes += fim - primeira;
+            for (int e = primeira; e < fim; e++) {
+                int vizinho = grafo.destino(e);
+                double tentative_gScore = gAtual + grafo.peso(e);
+                if (tentative_gScore < espaco.distancia(vizinho)) {
+                    espaco.definir(vizinho, tentative_gScore, atual, e);
+                    openSet.inserirOuDiminuir(vizinho, tentative_gScore + heuristica.estimar(grafo, vizinho, alvo));
+                    insercoes++;
+                    picoDaFila = Math.max(picoDaFila, openSet.tamanho());
+                }
+            }
         }
-        caminho.add(atual); // Adiciona o nó inicial
-        Collections.reverse(caminho); // Inverte para obter o caminho do inicio ao fim
-        return caminho;
+        espaco.concluirBusca(Algoritmo.A_ESTRELA, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
     }
-}
\ No newline at end of file
+}
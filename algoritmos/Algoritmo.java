@@ -0,0 +1,13 @@
+package algoritmos;
+
+/**
+ * Algoritmos de rota ponto a ponto, usados para separar as {@link Metricas} de cada um. O
+ * {@link ExecutorDeConsultas} executa os três primeiros.
+ */
+public enum Algoritmo {
+    DIJKSTRA,
+    A_ESTRELA,
+    BUSCA_EM_LARGURA,
+    /** {@link DijkstraTemporal}, com ou sem heurística. */
+    DIJKSTRA_TEMPORAL
+}
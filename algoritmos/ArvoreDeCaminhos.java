@@ -0,0 +1,116 @@
+package algoritmos;
+
+import lib.Aresta;
+import lib.GrafoCompacto;
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado imutável de uma busca a partir de uma única origem: as distâncias mínimas e a
+ * árvore de predecessores para todos os vértices de um {@link GrafoCompacto}.
+ * <p>
+ * Ao contrário de {@link Dijkstra#executar}, cada consulta gera o seu próprio objeto,
+ * então várias threads podem consultar árvores diferentes (ou a mesma) sem interferência.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public final class ArvoreDeCaminhos<T> {
+
+    private final GrafoCompacto<T> grafo;
+    private final int origem;
+    private final double[] distancias;
+    private final int[] anteriores;
+    // Aresta de saída do predecessor pela qual cada vértice é alcançado na árvore
+    private final int[] arestas;
+
+    ArvoreDeCaminhos(GrafoCompacto<T> grafo, int origem, double[] distancias, int[] anteriores, int[] arestas) {
+        this.grafo = grafo;
+        this.origem = origem;
+        this.distancias = distancias;
+        this.anteriores = anteriores;
+        this.arestas = arestas;
+    }
+
+    // Copia o resultado que está no espaço de trabalho para vetores próprios
+    static <T> ArvoreDeCaminhos<T> copiar(GrafoCompacto<T> grafo, int origem, EspacoDeTrabalho espaco) {
+        int n = grafo.getNumeroVertices();
+        double[] distancias = new double[n];
+        int[] anteriores = new int[n];
+        int[] arestas = new int[n];
+        for (int v = 0; v < n; v++) {
+            distancias[v] = espaco.distancia(v);
+            anteriores[v] = espaco.anterior(v);
+            arestas[v] = espaco.aresta(v);
+        }
+        return new ArvoreDeCaminhos<>(grafo, origem, distancias, anteriores, arestas);
+    }
+
+    public GrafoCompacto<T> getGrafo() {
+        return grafo;
+    }
+
+    public Vertice<T> getOrigem() {
+        return grafo.getVertice(origem);
+    }
+
+    /**
+     * Retorna a distância mínima da origem até o vértice de índice {@code indice}.
+     */
+    public double getDistancia(int indice) {
+        return distancias[indice];
+    }
+
+    /**
+     * Retorna a distância mínima da origem até um vértice, ou infinito se ele for inalcançável.
+     */
+    public double getDistancia(Vertice<T> alvo) {
+        int indice = grafo.getIndice(alvo.getDado());
+        return indice < 0 ? Double.POSITIVE_INFINITY : distancias[indice];
+    }
+
+    /**
+     * Retorna o índice do predecessor de um vértice na árvore, ou -1 para a origem e inalcançáveis.
+     */
+    public int getAnterior(int indice) {
+        return anteriores[indice];
+    }
+
+    /**
+     * Retorna o caminho mais curto da origem até o alvo, ou uma lista vazia se não houver caminho.
+     */
+    public List<Vertice<T>> getCaminho(Vertice<T> alvo) {
+        int indice = grafo.getIndice(alvo.getDado());
+        if (indice < 0 || distancias[indice] == Double.POSITIVE_INFINITY) {
+            return Collections.emptyList();
+        }
+        List<Vertice<T>> caminho = new ArrayList<>();
+        for (int v = indice; v >= 0; v = anteriores[v]) {
+            caminho.add(grafo.getVertice(v));
+        }
+        Collections.reverse(caminho);
+        return caminho;
+    }
+
+    /**
+     * Retorna a rota até o alvo como um {@link ResultadoRota}, com as arestas da árvore; o
+     * custo é a soma dos pesos dessas arestas. A rota não traz estatísticas de busca.
+     */
+    public ResultadoRota<T> getRota(Vertice<T> alvo) {
+        int indice = grafo.getIndice(alvo.getDado());
+        if (indice < 0 || distancias[indice] == Double.POSITIVE_INFINITY) {
+            return ResultadoRota.vazio();
+        }
+        List<Aresta<T>> caminho = new ArrayList<>();
+        Vertice<T> atual = grafo.getVertice(indice);
+        for (int v = indice; anteriores[v] >= 0; v = anteriores[v]) {
+            Vertice<T> anterior = grafo.getVertice(anteriores[v]);
+            caminho.add(new Aresta<>(grafo.peso(arestas[v]), anterior, atual));
+            atual = anterior;
+        }
+        Collections.reverse(caminho);
+        return new ResultadoRota<>(atual, caminho, null);
+    }
+}
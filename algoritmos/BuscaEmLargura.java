@@ -1,10 +1,14 @@
 package algoritmos;
 
 import lib.Grafo;
+import lib.GrafoCompacto;
 import lib.Vertice;
 import lib.Aresta;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
 
 /**
  * Implementação do algoritmo de Busca em Largura (BFS).
@@ -15,6 +19,15 @@ import java.util.*;
  */
 public class BuscaEmLargura<T> {
 
+    // Parâmetros da troca de direção do percurso paralelo (valores sugeridos por Beamer et al.)
+    private static final int ALFA = 14;
+    private static final int BETA = 24;
+    // Vértices da fronteira por tarefa (de cima para baixo) e palavras do bitset por tarefa (de baixo para cima)
+    private static final int BLOCO_FRONTEIRA = 1024;
+    private static final int BLOCO_PALAVRAS = 64;
+    // Abaixo disso um nível é expandido na própria thread
+    private static final int LIMITE_SEQUENCIAL = 4096;
+
     /**
      * Encontra o caminho mais curto (em número de arestas) entre um vértice de origem e um de destino.
      *
@@ -24,6 +37,19 @@ public class BuscaEmLargura<T> {
      * @return Uma lista de vértices representando o caminho. Retorna uma lista vazia se não houver caminho.
      */
     public List<Vertice<T>> encontrarCaminho(Grafo<T> grafo, T dadoOrigem, T dadoDestino) {
+        return calcularRota(grafo, dadoOrigem, dadoDestino).getCaminho();
+    }
+
+    /**
+     * Calcula a rota com menos arestas entre dois vértices e devolve um resultado imutável, com
+     * as arestas percorridas e o custo acumulado pelos seus pesos.
+     *
+     * @param grafo O grafo a ser percorrido.
+     * @param dadoOrigem O dado do vértice de início da busca.
+     * @param dadoDestino O dado do vértice de destino.
+     * @return O resultado da consulta (sem caminho se o destino for inalcançável).
+     */
+    public ResultadoRota<T> calcularRota(Grafo<T> grafo, T dadoOrigem, T dadoDestino) {
         Vertice<T> origem = grafo.getVertice(dadoOrigem);
         Vertice<T> destino = grafo.getVertice(dadoDestino);
 
@@ -31,49 +57,178 @@ public class BuscaEmLargura<T> {
             throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
         }
 
+        long inicio = Metricas.iniciar();
+        int fixados = 0, insercoes = 1, remocoes = 0, picoDaFila = 1;
+        long relaxacoes = 0;
+
         // Estruturas de dados eficientes
         Queue<Vertice<T>> fila = new LinkedList<>();
         Set<Vertice<T>> visitados = new HashSet<>();
-        Map<Vertice<T>, Vertice<T>> predecessores = new HashMap<>();
+        // Aresta pela qual cada vértice foi descoberto (a origem não tem)
+        Map<Vertice<T>, Aresta<T>> arestasDeChegada = new HashMap<>();
 
         // Configuração inicial
         fila.add(origem);
         visitados.add(origem);
-        predecessores.put(origem, null); // A origem não tem predecessor
 
+        boolean encontrado = false;
         while (!fila.isEmpty()) {
             Vertice<T> atual = fila.poll(); // O(1) para remover da fila
+            remocoes++;
+            fixados++;
 
             // Se encontramos o destino, podemos parar e reconstruir o caminho
             if (atual.equals(destino)) {
-                return reconstruirCaminho(predecessores, destino);
+                encontrado = true;
+                break;
             }
 
             for (Aresta<T> aresta : atual.getArestasSaida()) {
+                relaxacoes++;
                 Vertice<T> vizinho = aresta.getFim();
                 
                 // O(1) para verificar se já foi visitado
                 if (!visitados.contains(vizinho)) {
                     visitados.add(vizinho);
-                    predecessores.put(vizinho, atual);
+                    arestasDeChegada.put(vizinho, aresta);
                     fila.add(vizinho); // O(1) para adicionar na fila
+                    insercoes++;
+                    picoDaFila = Math.max(picoDaFila, fila.size());
                 }
             }
         }
+        MedicaoDeBusca estatisticas =
+                Metricas.concluir(Algoritmo.BUSCA_EM_LARGURA, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
         
         // Se o loop terminar e não encontrarmos o destino, não há caminho
-        return Collections.emptyList();
+        return encontrado
+                ? Dijkstra.montarRota(origem, destino, arestasDeChegada, estatisticas)
+                : ResultadoRota.vazio(estatisticas);
     }
 
     /**
-     * Método auxiliar para reconstruir o caminho a partir do mapa de predecessores.
+     * Busca em largura bidirecional: avança um nível inteiro por vez a partir da origem
+     * (arestas de saída) e do destino (arestas de entrada), sempre pelo lado com a menor
+     * fronteira. Quando um nível encontra vértices já vistos pelo outro lado, o encontro de
+     * menor profundidade total define o caminho mais curto (em número de arestas).
+     *
+     * @param grafo O grafo a ser percorrido.
+     * @param dadoOrigem O dado do vértice de início da busca.
+     * @param dadoDestino O dado do vértice de destino.
+     * @return Uma lista de vértices representando o caminho. Retorna uma lista vazia se não houver caminho.
      */
-    private List<Vertice<T>> reconstruirCaminho(Map<Vertice<T>, Vertice<T>> predecessores, Vertice<T> destino) {
-        LinkedList<Vertice<T>> caminho = new LinkedList<>();
-        for (Vertice<T> v = destino; v != null; v = predecessores.get(v)) {
-            caminho.addFirst(v);
+    public List<Vertice<T>> encontrarCaminhoBidirecional(Grafo<T> grafo, T dadoOrigem, T dadoDestino) {
+        return calcularRotaBidirecional(grafo, dadoOrigem, dadoDestino).getCaminho();
+    }
+
+    /**
+     * Igual a {@link #encontrarCaminhoBidirecional}, mas devolve um resultado imutável com as
+     * arestas percorridas, o custo acumulado pelos seus pesos e as estatísticas.
+     *
+     * @return O resultado da consulta (sem caminho se o destino for inalcançável).
+     */
+    public ResultadoRota<T> calcularRotaBidirecional(Grafo<T> grafo, T dadoOrigem, T dadoDestino) {
+        Vertice<T> origem = grafo.getVertice(dadoOrigem);
+        Vertice<T> destino = grafo.getVertice(dadoDestino);
+
+        if (origem == null || destino == null) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+
+        // Os contadores somam os dois lados; cada vértice de uma fronteira expandida conta como
+        // retirado da fila e fixado, e o pico é o das duas fronteiras juntas
+        long inicio = Metricas.iniciar();
+        if (origem.equals(destino)) {
+            return new ResultadoRota<>(origem, Collections.<Aresta<T>>emptyList(),
+                    Metricas.concluir(Algoritmo.BUSCA_EM_LARGURA, inicio, 1, 0, 1, 1, 1));
+        }
+        int fixados = 0, insercoes = 2, picoDaFila = 2;
+        long relaxacoes = 0;
+
+        // Aresta de chegada na frente e aresta de saída (rumo ao destino) atrás; as chaves
+        // também servem como conjuntos de visitados
+        Map<Vertice<T>, Aresta<T>> arestasFrente = new HashMap<>();
+        Map<Vertice<T>, Aresta<T>> arestasTras = new HashMap<>();
+        Map<Vertice<T>, Integer> profundidadeFrente = new HashMap<>();
+        Map<Vertice<T>, Integer> profundidadeTras = new HashMap<>();
+        arestasFrente.put(origem, null);
+        arestasTras.put(destino, null);
+        profundidadeFrente.put(origem, 0);
+        profundidadeTras.put(destino, 0);
+
+        List<Vertice<T>> fronteiraFrente = new ArrayList<>(Collections.singletonList(origem));
+        List<Vertice<T>> fronteiraTras = new ArrayList<>(Collections.singletonList(destino));
+        int nivelFrente = 0;
+        int nivelTras = 0;
+        Vertice<T> encontro = null;
+
+        while (encontro == null && !fronteiraFrente.isEmpty() && !fronteiraTras.isEmpty()) {
+            // Os encontros só podem surgir entre os vértices descobertos neste nível; entre eles,
+            // vence o de menor profundidade no outro lado (a profundidade deste lado é a mesma)
+            int melhorProfundidade = Integer.MAX_VALUE;
+            List<Vertice<T>> proxima = new ArrayList<>();
+
+            if (fronteiraFrente.size() <= fronteiraTras.size()) {
+                nivelFrente++;
+                fixados += fronteiraFrente.size();
+                for (Vertice<T> atual : fronteiraFrente) {
+                    for (Aresta<T> aresta : atual.getArestasSaida()) {
+                        relaxacoes++;
+                        Vertice<T> vizinho = aresta.getFim();
+                        if (arestasFrente.containsKey(vizinho)) {
+                            continue;
+                        }
+                        arestasFrente.put(vizinho, aresta);
+                        profundidadeFrente.put(vizinho, nivelFrente);
+                        proxima.add(vizinho);
+                        Integer profundidade = profundidadeTras.get(vizinho);
+                        if (profundidade != null && profundidade < melhorProfundidade) {
+                            melhorProfundidade = profundidade;
+                            encontro = vizinho;
+                        }
+                    }
+                }
+                fronteiraFrente = proxima;
+            } else {
+                nivelTras++;
+                fixados += fronteiraTras.size();
+                for (Vertice<T> atual : fronteiraTras) {
+                    for (Aresta<T> aresta : atual.getArestasEntrada()) {
+                        relaxacoes++;
+                        Vertice<T> vizinho = aresta.getInicio();
+                        if (arestasTras.containsKey(vizinho)) {
+                            continue;
+                        }
+                        arestasTras.put(vizinho, aresta);
+                        profundidadeTras.put(vizinho, nivelTras);
+                        proxima.add(vizinho);
+                        Integer profundidade = profundidadeFrente.get(vizinho);
+                        if (profundidade != null && profundidade < melhorProfundidade) {
+                            melhorProfundidade = profundidade;
+                            encontro = vizinho;
+                        }
+                    }
+                }
+                fronteiraTras = proxima;
+            }
+            insercoes += proxima.size();
+            picoDaFila = Math.max(picoDaFila, fronteiraFrente.size() + fronteiraTras.size());
+        }
+        MedicaoDeBusca estatisticas =
+                Metricas.concluir(Algoritmo.BUSCA_EM_LARGURA, inicio, fixados, relaxacoes, insercoes, fixados, picoDaFila);
+
+        if (encontro == null) {
+            return ResultadoRota.vazio(estatisticas);
+        }
+        List<Aresta<T>> arestas = new ArrayList<>();
+        for (Aresta<T> a = arestasFrente.get(encontro); a != null; a = arestasFrente.get(a.getInicio())) {
+            arestas.add(a);
+        }
+        Collections.reverse(arestas);
+        for (Aresta<T> a = arestasTras.get(encontro); a != null; a = arestasTras.get(a.getFim())) {
+            arestas.add(a);
         }
-        return caminho;
+        return new ResultadoRota<>(origem, arestas, estatisticas);
     }
 
     /**
@@ -110,4 +265,333 @@ public class BuscaEmLargura<T> {
         }
         return ordemDeVisita;
     }
-}
\ No newline at end of file
+
+    /**
+     * Versão de {@link #encontrarCaminho(Grafo, Object, Object)} que percorre a fotografia
+     * compacta (CSR) do grafo. Delega a {@link #calcularRota(GrafoCompacto, Object, Object)},
+     * que reaproveita o espaço de trabalho da thread em vez de alocar vetores por consulta.
+     */
+    public List<Vertice<T>> encontrarCaminho(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino) {
+        return calcularRota(grafo, dadoOrigem, dadoDestino).getCaminho();
+    }
+
+    /**
+     * Calcula a rota com menos arestas entre dois vértices de um grafo compacto e devolve um
+     * resultado imutável. O custo é a soma dos pesos das arestas do caminho encontrado,
+     * acumulada durante a própria busca. Usa o espaço de trabalho da thread atual.
+     */
+    public ResultadoRota<T> calcularRota(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino) {
+        int origem = grafo.getIndice(dadoOrigem);
+        int destino = grafo.getIndice(dadoDestino);
+
+        if (origem < 0 || destino < 0) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+
+        // Do espaço de trabalho só se usam os carimbos: o 'anterior' guarda a árvore da busca
+        // e a 'distância', o custo acumulado das arestas até cada vértice
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        espaco.iniciar();
+        espaco.definir(origem, 0.0, -1);
+        ListaDeInteiros fila = new ListaDeInteiros();
+        fila.adicionar(origem);
+
+        long inicio = Metricas.iniciar();
+        int picoDaFila = 1;
+        long relaxacoes = 0;
+        int cabeca = 0;
+        boolean encontrado = false;
+        for (; cabeca < fila.tamanho(); cabeca++) {
+            int atual = fila.get(cabeca);
+            if (atual == destino) {
+                encontrado = true;
+                break;
+            }
+            int primeira = grafo.inicioSaida(atual), fim = grafo.fimSaida(atual);
+            relaxacoes += fim - primeira;
+            for (int e = primeira; e < fim; e++) {
+                int vizinho = grafo.destino(e);
+                if (!espaco.visitado(vizinho)) {
+                    espaco.definir(vizinho, espaco.distancia(atual) + grafo.peso(e), atual, e);
+                    fila.adicionar(vizinho);
+                    picoDaFila = Math.max(picoDaFila, fila.tamanho() - cabeca - 1);
+                }
+            }
+        }
+        int remocoes = encontrado ? cabeca + 1 : cabeca;
+        espaco.concluirBusca(Algoritmo.BUSCA_EM_LARGURA, inicio, remocoes, relaxacoes, fila.tamanho(), remocoes, picoDaFila);
+        return Dijkstra.montarRota(grafo, espaco, destino);
+    }
+
+    /**
+     * Versão de {@link #percurso(Grafo, Object)} sobre a fotografia compacta (CSR) do grafo.
+     */
+    public List<Vertice<T>> percurso(GrafoCompacto<T> grafo, T dadoOrigem) {
+        int origem = grafo.getIndice(dadoOrigem);
+        if (origem < 0) {
+            throw new IllegalArgumentException("Vértice de origem não encontrado.");
+        }
+
+        int[] fila = new int[grafo.getNumeroVertices()];
+        boolean[] visitados = new boolean[grafo.getNumeroVertices()];
+        int cabeca = 0, cauda = 0;
+        fila[cauda++] = origem;
+        visitados[origem] = true;
+
+        while (cabeca < cauda) {
+            int atual = fila[cabeca++];
+            for (int e = grafo.inicioSaida(atual), fim = grafo.fimSaida(atual); e < fim; e++) {
+                int vizinho = grafo.destino(e);
+                if (!visitados[vizinho]) {
+                    visitados[vizinho] = true;
+                    fila[cauda++] = vizinho;
+                }
+            }
+        }
+
+        // A própria fila, até 'cauda', já é a ordem de visitação
+        List<Vertice<T>> ordemDeVisita = new ArrayList<>(cauda);
+        for (int i = 0; i < cauda; i++) {
+            ordemDeVisita.add(grafo.getVertice(fila[i]));
+        }
+        return ordemDeVisita;
+    }
+
+    /**
+     * Congela o grafo e faz o percurso paralelo a partir da origem.
+     */
+    public ArvoreDeCaminhos<T> percursoParalelo(Grafo<T> grafo, T dadoOrigem) {
+        return percursoParalelo(grafo.congelar(), dadoOrigem);
+    }
+
+    /**
+     * Percurso em largura paralelo, sincronizado por níveis, que troca de direção conforme a
+     * fronteira cresce (BFS "direction-optimizing"):
+     * <ul>
+     *   <li>de cima para baixo: cada vértice da fronteira examina as suas arestas de saída e
+     *       disputa, com CAS no bitset de visitados, os vizinhos ainda não visitados;</li>
+     *   <li>de baixo para cima: cada vértice ainda não visitado examina as suas arestas de
+     *       entrada até achar um pai na fronteira, o que evita examinar as muitas arestas que
+     *       levam a vértices já visitados quando a fronteira é grande.</li>
+     * </ul>
+     * A busca passa para baixo-para-cima quando as arestas que saem da fronteira superam
+     * 1/14 das arestas que ainda chegam a vértices não visitados, e volta quando a
+     * fronteira cai abaixo de 1/24 dos vértices. Cada nível é dividido em blocos
+     * processados em paralelo no pool comum do ForkJoin.
+     * <p>
+     * O resultado é uma {@link ArvoreDeCaminhos} em que a distância de cada vértice é o seu
+     * número de arestas a partir da origem (infinito para inalcançáveis).
+     *
+     * @param grafo O grafo compacto a ser percorrido.
+     * @param dadoOrigem O dado do vértice de início.
+     * @return A árvore de largura a partir da origem.
+     */
+    public ArvoreDeCaminhos<T> percursoParalelo(GrafoCompacto<T> grafo, T dadoOrigem) {
+        int origem = grafo.getIndice(dadoOrigem);
+        if (origem < 0) {
+            throw new IllegalArgumentException("Vértice de origem não encontrado.");
+        }
+        int n = grafo.getNumeroVertices();
+        AtomicLongArray visitados = new AtomicLongArray((n + 63) >>> 6);
+        AtomicIntegerArray pais = new AtomicIntegerArray(n);
+        // Como os níveis, cada posição é escrita só pela tarefa que marcou o vértice
+        int[] arestas = new int[n];
+        int[] niveis = new int[n];
+        for (int v = 0; v < n; v++) {
+            pais.lazySet(v, -1);
+        }
+        Arrays.fill(niveis, -1);
+
+        marcar(visitados, origem);
+        niveis[origem] = 0;
+        Fronteira fronteira = new Fronteira();
+        fronteira.vertices = new int[] {origem};
+        fronteira.tamanho = 1;
+        fronteira.arestasSaida = grafo.fimSaida(origem) - grafo.inicioSaida(origem);
+        long arestasNaoExploradas = grafo.getNumeroArestas() - (grafo.fimEntrada(origem) - grafo.inicioEntrada(origem));
+
+        for (int nivel = 1; fronteira.tamanho > 0; nivel++) {
+            if (fronteira.bits == null && fronteira.arestasSaida > arestasNaoExploradas / ALFA) {
+                fronteira.paraBits(n);
+            } else if (fronteira.bits != null && fronteira.tamanho < n / BETA) {
+                fronteira.paraLista();
+            }
+            fronteira = fronteira.bits == null
+                    ? expandirDeCimaParaBaixo(grafo, fronteira, visitados, pais, arestas, niveis, nivel)
+                    : expandirDeBaixoParaCima(grafo, fronteira.bits, visitados, pais, arestas, niveis, nivel);
+            arestasNaoExploradas -= fronteira.arestasEntrada;
+        }
+
+        double[] distancias = new double[n];
+        int[] anteriores = new int[n];
+        for (int v = 0; v < n; v++) {
+            distancias[v] = niveis[v] < 0 ? Double.POSITIVE_INFINITY : niveis[v];
+            anteriores[v] = pais.get(v);
+        }
+        return new ArvoreDeCaminhos<>(grafo, origem, distancias, anteriores, arestas);
+    }
+
+    private static Fronteira expandirDeCimaParaBaixo(GrafoCompacto<?> grafo, Fronteira atual, AtomicLongArray visitados,
+                                                     AtomicIntegerArray pais, int[] arestas, int[] niveis, int nivel) {
+        int[] vertices = atual.vertices;
+        int tamanho = atual.tamanho;
+        int blocos = (tamanho + BLOCO_FRONTEIRA - 1) / BLOCO_FRONTEIRA;
+        int[][] partes = new int[blocos][];
+        long[] saidas = new long[blocos];
+        long[] entradas = new long[blocos];
+        IntStream tarefas = IntStream.range(0, blocos);
+        if (tamanho >= LIMITE_SEQUENCIAL) {
+            tarefas = tarefas.parallel();
+        }
+        tarefas.forEach(b -> {
+            ListaDeInteiros descobertos = new ListaDeInteiros();
+            long arestasSaida = 0;
+            long arestasEntrada = 0;
+            for (int i = b * BLOCO_FRONTEIRA, fim = Math.min(tamanho, i + BLOCO_FRONTEIRA); i < fim; i++) {
+                int u = vertices[i];
+                for (int e = grafo.inicioSaida(u), fimSaida = grafo.fimSaida(u); e < fimSaida; e++) {
+                    int v = grafo.destino(e);
+                    // A leitura simples descarta os já visitados sem pagar o CAS
+                    if (!visitado(visitados, v) && marcar(visitados, v)) {
+                        pais.set(v, u);
+                        arestas[v] = e;
+                        niveis[v] = nivel;
+                        descobertos.adicionar(v);
+                        arestasSaida += grafo.fimSaida(v) - grafo.inicioSaida(v);
+                        arestasEntrada += grafo.fimEntrada(v) - grafo.inicioEntrada(v);
+                    }
+                }
+            }
+            partes[b] = descobertos.paraVetor();
+            saidas[b] = arestasSaida;
+            entradas[b] = arestasEntrada;
+        });
+
+        Fronteira proxima = new Fronteira();
+        for (int[] parte : partes) {
+            proxima.tamanho += parte.length;
+        }
+        proxima.vertices = new int[proxima.tamanho];
+        int posicao = 0;
+        for (int b = 0; b < blocos; b++) {
+            System.arraycopy(partes[b], 0, proxima.vertices, posicao, partes[b].length);
+            posicao += partes[b].length;
+            proxima.arestasSaida += saidas[b];
+            proxima.arestasEntrada += entradas[b];
+        }
+        return proxima;
+    }
+
+    private static Fronteira expandirDeBaixoParaCima(GrafoCompacto<?> grafo, long[] fronteira, AtomicLongArray visitados,
+                                                     AtomicIntegerArray pais, int[] arestas, int[] niveis, int nivel) {
+        int n = grafo.getNumeroVertices();
+        int palavras = fronteira.length;
+        long[] proxima = new long[palavras];
+        int blocos = (palavras + BLOCO_PALAVRAS - 1) / BLOCO_PALAVRAS;
+        int[] contagens = new int[blocos];
+        long[] saidas = new long[blocos];
+        long[] entradas = new long[blocos];
+        IntStream tarefas = IntStream.range(0, blocos);
+        if (n >= LIMITE_SEQUENCIAL) {
+            tarefas = tarefas.parallel();
+        }
+        tarefas.forEach(b -> {
+            int contagem = 0;
+            long arestasSaida = 0;
+            long arestasEntrada = 0;
+            // Cada tarefa é dona das suas palavras do bitset: não há disputa por elas
+            for (int w = b * BLOCO_PALAVRAS, fim = Math.min(palavras, w + BLOCO_PALAVRAS); w < fim; w++) {
+                long livres = ~visitados.get(w);
+                long novos = 0;
+                while (livres != 0) {
+                    int bit = Long.numberOfTrailingZeros(livres);
+                    livres &= livres - 1;
+                    int v = (w << 6) + bit;
+                    if (v >= n) {
+                        break;
+                    }
+                    for (int i = grafo.inicioEntrada(v), fimEntrada = grafo.fimEntrada(v); i < fimEntrada; i++) {
+                        int u = grafo.origem(i);
+                        if ((fronteira[u >>> 6] & (1L << u)) != 0) {
+                            pais.set(v, u);
+                            arestas[v] = grafo.arestaDireta(i);
+                            niveis[v] = nivel;
+                            novos |= 1L << bit;
+                            contagem++;
+                            arestasSaida += grafo.fimSaida(v) - grafo.inicioSaida(v);
+                            arestasEntrada += fimEntrada - grafo.inicioEntrada(v);
+                            break;
+                        }
+                    }
+                }
+                if (novos != 0) {
+                    visitados.set(w, visitados.get(w) | novos);
+                    proxima[w] = novos;
+                }
+            }
+            contagens[b] = contagem;
+            saidas[b] = arestasSaida;
+            entradas[b] = arestasEntrada;
+        });
+
+        Fronteira resultado = new Fronteira();
+        resultado.bits = proxima;
+        for (int b = 0; b < blocos; b++) {
+            resultado.tamanho += contagens[b];
+            resultado.arestasSaida += saidas[b];
+            resultado.arestasEntrada += entradas[b];
+        }
+        return resultado;
+    }
+
+    private static boolean visitado(AtomicLongArray bits, int v) {
+        return (bits.get(v >>> 6) & (1L << v)) != 0;
+    }
+
+    /** Marca {@code v} como visitado; retorna falso se outra thread o marcou antes. */
+    private static boolean marcar(AtomicLongArray bits, int v) {
+        int palavra = v >>> 6;
+        long mascara = 1L << v;
+        while (true) {
+            long atual = bits.get(palavra);
+            if ((atual & mascara) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(palavra, atual, atual | mascara)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Fronteira de um nível: lista de vértices (de cima para baixo) ou bitset (de baixo para
+     * cima), com as somas dos graus usadas para decidir a direção do próximo nível.
+     */
+    private static final class Fronteira {
+        int[] vertices;
+        long[] bits;
+        int tamanho;
+        long arestasSaida;
+        long arestasEntrada;
+
+        void paraBits(int n) {
+            bits = new long[(n + 63) >>> 6];
+            for (int i = 0; i < tamanho; i++) {
+                int v = vertices[i];
+                bits[v >>> 6] |= 1L << v;
+            }
+            vertices = null;
+        }
+
+        void paraLista() {
+            vertices = new int[tamanho];
+            int posicao = 0;
+            for (int w = 0; w < bits.length; w++) {
+                for (long palavra = bits[w]; palavra != 0; palavra &= palavra - 1) {
+                    vertices[posicao++] = (w << 6) + Long.numberOfTrailingZeros(palavra);
+                }
+            }
+            bits = null;
+        }
+    }
+}
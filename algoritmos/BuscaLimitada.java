@@ -0,0 +1,154 @@
+package algoritmos;
+
+import lib.Grafo;
+import lib.GrafoCompacto;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Dijkstra de uma origem para todos, limitado por custo e/ou por quantidade de alvos: responde
+ * perguntas como "que paradas um entregador alcança em 15 minutos a partir do depósito?" ou
+ * "quais são as 5 paradas mais próximas?".
+ * <p>
+ * A busca roda em um espaço de trabalho reservado da thread atual, que é invalidado em O(1), e nunca coloca
+ * no heap um vértice além do custo máximo. Por isso o custo de uma consulta é proporcional à
+ * região explorada, e não ao tamanho do grafo. Os vértices fixados podem ser recebidos um a um
+ * por um {@link OuvinteDeFixacao}, à medida que são fixados, e ficam na
+ * {@link RegiaoAlcancavel} devolvida, da qual se pode tirar a {@link Isocrona}.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class BuscaLimitada<T> {
+
+    private final double custoMaximo;
+    private final int maximoDeAlvos;
+
+    /**
+     * Cria uma busca limitada apenas pelo custo.
+     * @param custoMaximo O maior custo a partir da origem que ainda é explorado.
+     */
+    public BuscaLimitada(double custoMaximo) {
+        this(custoMaximo, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param custoMaximo O maior custo a partir da origem que ainda é explorado
+     *                    ({@code Double.POSITIVE_INFINITY} para limitar só pela quantidade).
+     * @param maximoDeAlvos Quantos alvos fixar antes de parar; sem alvos definidos, todo vértice
+     *                      fixado (inclusive a origem) conta como alvo.
+     */
+    public BuscaLimitada(double custoMaximo, int maximoDeAlvos) {
+        if (!(custoMaximo >= 0.0)) {
+            throw new IllegalArgumentException("O custo máximo deve ser não negativo.");
+        }
+        if (maximoDeAlvos <= 0) {
+            throw new IllegalArgumentException("O número máximo de alvos deve ser positivo.");
+        }
+        this.custoMaximo = custoMaximo;
+        this.maximoDeAlvos = maximoDeAlvos;
+    }
+
+    /**
+     * Congela o grafo e explora a região a partir da origem.
+     */
+    public RegiaoAlcancavel<T> explorar(Grafo<T> grafo, T dadoOrigem) {
+        return explorar(grafo.congelar(), dadoOrigem, null, null);
+    }
+
+    public RegiaoAlcancavel<T> explorar(GrafoCompacto<T> grafo, T dadoOrigem) {
+        return explorar(grafo, dadoOrigem, null, null);
+    }
+
+    /**
+     * Explora a região a partir da origem até atingir o custo máximo ou fixar o número máximo
+     * de alvos. Com alvos definidos, a busca também para assim que todos eles forem fixados.
+     *
+     * @param grafo O grafo compacto.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @param alvos Os dados dos vértices que contam para o limite de quantidade, ou {@code null}
+     *              para contar todos.
+     * @param ouvinte Recebe cada vértice no momento em que é fixado, ou {@code null}.
+     * @return Os vértices fixados, em ordem crescente de custo, com custos e predecessores.
+     */
+    public RegiaoAlcancavel<T> explorar(GrafoCompacto<T> grafo, T dadoOrigem, Collection<T> alvos,
+                                        OuvinteDeFixacao<T> ouvinte) {
+        int origem = grafo.getIndice(dadoOrigem);
+        if (origem < 0) {
+            throw new IllegalArgumentException("Erro: Vértice de origem '" + dadoOrigem + "' não encontrado no grafo.");
+        }
+        int[] indicesAlvo = alvos == null ? null : indicesOrdenados(grafo, alvos);
+        int limiteDeAlvos = indicesAlvo == null ? maximoDeAlvos : Math.min(maximoDeAlvos, indicesAlvo.length);
+
+        // O ouvinte pode fazer consultas de rota nesta mesma thread: a busca usa um espaço
+        // reservado, que essas consultas não tocam
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.reservarDaThreadAtual(grafo.getNumeroVertices());
+        try {
+            return explorar(grafo, origem, indicesAlvo, limiteDeAlvos, ouvinte, espaco);
+        } finally {
+            espaco.devolver();
+        }
+    }
+
+    private RegiaoAlcancavel<T> explorar(GrafoCompacto<T> grafo, int origem, int[] indicesAlvo, int limiteDeAlvos,
+                                         OuvinteDeFixacao<T> ouvinte, EspacoDeTrabalho espaco) {
+        espaco.iniciar();
+        HeapIndexado heap = espaco.heap();
+        espaco.definir(origem, 0.0, -1, -1);
+        heap.inserirOuDiminuir(origem, 0.0);
+
+        ListaDeInteiros fixados = new ListaDeInteiros();
+        int alvosFixados = 0;
+        boolean parouNosAlvos = false;
+        while (!heap.isEmpty()) {
+            double distanciaU = heap.chaveMinima();
+            int u = heap.removerMinimo();
+            fixados.adicionar(u);
+            if (ouvinte != null) {
+                ouvinte.verticeFixado(grafo.getVertice(u), distanciaU);
+            }
+            if (indicesAlvo == null || Arrays.binarySearch(indicesAlvo, u) >= 0) {
+                alvosFixados++;
+            }
+            if (alvosFixados >= limiteDeAlvos) {
+                parouNosAlvos = true;
+                break;
+            }
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                int v = grafo.destino(e);
+                double distanciaAtravesU = distanciaU + grafo.peso(e);
+                if (distanciaAtravesU <= custoMaximo && distanciaAtravesU < espaco.distancia(v)) {
+                    espaco.definir(v, distanciaAtravesU, u, e);
+                    heap.inserirOuDiminuir(v, distanciaAtravesU);
+                }
+            }
+        }
+
+        // A região está completa até o custo do último fixado (parada pelos alvos) ou até o limite
+        double raio = parouNosAlvos
+                ? espaco.distancia(fixados.get(fixados.tamanho() - 1))
+                : custoMaximo;
+        return RegiaoAlcancavel.copiar(grafo, fixados, espaco, raio);
+    }
+
+    // Índices distintos dos alvos, ordenados para a busca binária
+    private static <T> int[] indicesOrdenados(GrafoCompacto<T> grafo, Collection<T> alvos) {
+        int[] indices = new int[alvos.size()];
+        int i = 0;
+        for (T dado : alvos) {
+            indices[i] = grafo.getIndice(dado);
+            if (indices[i] < 0) {
+                throw new IllegalArgumentException("Vértice '" + dado + "' não encontrado no grafo.");
+            }
+            i++;
+        }
+        Arrays.sort(indices);
+        int distintos = 0;
+        for (int j = 0; j < indices.length; j++) {
+            if (j == 0 || indices[j] != indices[j - 1]) {
+                indices[distintos++] = indices[j];
+            }
+        }
+        return Arrays.copyOf(indices, distintos);
+    }
+}
@@ -0,0 +1,295 @@
+package algoritmos;
+
+import lib.Grafo;
+import lib.GrafoCompacto;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache limitado de resultados de rota sobre um {@link Grafo}, indexado por algoritmo,
+ * origem e destino.
+ * <p>
+ * As entradas ficam divididas em segmentos, cada um com sua própria trava e sua própria
+ * ordem de acesso: consultas concorrentes só disputam a trava quando caem no mesmo
+ * segmento. Quando um segmento enche, a entrada usada há mais tempo é descartada (LRU).
+ * <p>
+ * Cada segmento lembra a {@link Grafo#getVersao() versão do grafo} de onde vieram suas
+ * entradas. Se o grafo for alterado, a versão muda e o segmento é
+ * esvaziado no próximo acesso, então uma rota calculada antes da alteração nunca é
+ * devolvida depois dela. As falhas são calculadas sobre uma fotografia compacta do grafo
+ * ({@link Grafo#congelar()}), refeita apenas quando a versão muda.
+ * <p>
+ * As consultas podem vir de várias threads, mas o grafo não deve ser alterado durante
+ * uma consulta.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class CacheDeRotas<T> {
+
+    private static final int NUMERO_SEGMENTOS = 16;
+
+    private final Grafo<T> grafo;
+    private final Dijkstra<T> dijkstra = new Dijkstra<>();
+    private final AEstrela<T> aEstrela;
+    private final BuscaEmLargura<T> buscaEmLargura = new BuscaEmLargura<>();
+    private final Segmento<T>[] segmentos;
+    private final int capacidade;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder descartes = new LongAdder();
+    private final LongAdder invalidacoes = new LongAdder();
+
+    private volatile Fotografia<T> fotografia;
+
+    /**
+     * Cria um cache com A* guiado pela heurística nula.
+     */
+    public CacheDeRotas(Grafo<T> grafo, int capacidade) {
+        this(grafo, capacidade, Heuristica.nula());
+    }
+
+    /**
+     * @param grafo O grafo consultado.
+     * @param capacidade O número máximo de rotas guardadas.
+     * @param heuristica A heurística usada nas consultas de {@link Algoritmo#A_ESTRELA}.
+     */
+    @SuppressWarnings("unchecked")
+    public CacheDeRotas(Grafo<T> grafo, int capacidade, Heuristica<T> heuristica) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade do cache deve ser positiva.");
+        }
+        this.grafo = Objects.requireNonNull(grafo, "O grafo não pode ser nulo.");
+        this.aEstrela = new AEstrela<>(heuristica);
+        this.capacidade = capacidade;
+        // Capacidades pequenas usam menos segmentos, para que o limite total seja respeitado
+        int quantidade = Math.min(NUMERO_SEGMENTOS, Integer.highestOneBit(capacidade));
+        this.segmentos = (Segmento<T>[]) new Segmento<?>[quantidade];
+        for (int s = 0; s < quantidade; s++) {
+            int capacidadeSegmento = capacidade / quantidade + (s < capacidade % quantidade ? 1 : 0);
+            segmentos[s] = new Segmento<>(capacidadeSegmento, descartes);
+        }
+    }
+
+    /**
+     * Devolve a rota guardada para a consulta ou, se não houver uma válida para a versão
+     * atual do grafo, calcula, guarda e devolve.
+     *
+     * @param algoritmo O algoritmo a ser usado.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @param dadoDestino O dado do vértice de destino.
+     * @return O resultado imutável da consulta.
+     */
+    public ResultadoRota<T> calcularRota(Algoritmo algoritmo, T dadoOrigem, T dadoDestino) {
+        Objects.requireNonNull(algoritmo, "O algoritmo não pode ser nulo.");
+        Chave<T> chave = new Chave<>(algoritmo, dadoOrigem, dadoDestino);
+        Segmento<T> segmento = segmentos[(chave.hashCode() ^ (chave.hashCode() >>> 16)) & (segmentos.length - 1)];
+        long versao = grafo.getVersao();
+
+        ResultadoRota<T> resultado;
+        synchronized (segmento) {
+            validar(segmento, versao);
+            resultado = segmento.get(chave);
+        }
+        if (resultado != null) {
+            acertos.increment();
+            return resultado;
+        }
+        falhas.increment();
+
+        // O cálculo roda fora da trava; duas threads podem calcular a mesma rota ao mesmo tempo
+        resultado = calcular(algoritmo, fotografiaDaVersao(versao), dadoOrigem, dadoDestino);
+        synchronized (segmento) {
+            validar(segmento, versao);
+            if (segmento.versao == versao) {
+                segmento.put(chave, resultado);
+            }
+        }
+        return resultado;
+    }
+
+    // Esvazia o segmento se as suas entradas vieram de uma versão mais antiga do grafo
+    private void validar(Segmento<T> segmento, long versao) {
+        if (segmento.versao < versao) {
+            if (!segmento.isEmpty()) {
+                invalidacoes.add(segmento.size());
+                segmento.clear();
+            }
+            segmento.versao = versao;
+        }
+    }
+
+    private GrafoCompacto<T> fotografiaDaVersao(long versao) {
+        Fotografia<T> atual = fotografia;
+        if (atual != null && atual.versao >= versao) {
+            return atual.grafo;
+        }
+        synchronized (this) {
+            atual = fotografia;
+            if (atual == null || atual.versao < versao) {
+                // A versão é lida antes de congelar: se o grafo mudar no meio, a fotografia
+                // fica marcada como antiga e é refeita na próxima falha
+                long versaoAtual = grafo.getVersao();
+                atual = new Fotografia<>(versaoAtual, grafo.congelar());
+                fotografia = atual;
+            }
+            return atual.grafo;
+        }
+    }
+
+    private ResultadoRota<T> calcular(Algoritmo algoritmo, GrafoCompacto<T> compacto, T dadoOrigem, T dadoDestino) {
+        switch (algoritmo) {
+            case DIJKSTRA:
+                return dijkstra.calcularRota(compacto, dadoOrigem, dadoDestino);
+            case A_ESTRELA:
+                return aEstrela.calcularRota(compacto, dadoOrigem, dadoDestino);
+            case BUSCA_EM_LARGURA:
+                return buscaEmLargura.calcularRota(compacto, dadoOrigem, dadoDestino);
+            default:
+                throw new IllegalArgumentException("Algoritmo não suportado: " + algoritmo);
+        }
+    }
+
+    /**
+     * Descarta todas as rotas guardadas. As estatísticas são mantidas.
+     */
+    public void limpar() {
+        for (Segmento<T> segmento : segmentos) {
+            synchronized (segmento) {
+                segmento.clear();
+            }
+        }
+    }
+
+    /** Número de rotas guardadas no momento. */
+    public int tamanho() {
+        int total = 0;
+        for (Segmento<T> segmento : segmentos) {
+            synchronized (segmento) {
+                total += segmento.size();
+            }
+        }
+        return total;
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    /** Consultas respondidas com uma rota guardada. */
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    /** Consultas que precisaram calcular a rota. */
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    /** Rotas descartadas por falta de espaço. */
+    public long getDescartes() {
+        return descartes.sum();
+    }
+
+    /** Rotas descartadas porque o grafo mudou depois de calculadas. */
+    public long getInvalidacoes() {
+        return invalidacoes.sum();
+    }
+
+    /** Fração das consultas respondidas pelo cache, ou 0 se ainda não houve consultas. */
+    public double getTaxaDeAcerto() {
+        long a = acertos.sum();
+        long total = a + falhas.sum();
+        return total == 0 ? 0.0 : (double) a / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheDeRotas[tamanho=%d/%d, acertos=%d, falhas=%d, descartes=%d, invalidacoes=%d]",
+                tamanho(), capacidade, getAcertos(), getFalhas(), getDescartes(), getInvalidacoes());
+    }
+
+    // Mapa em ordem de acesso que descarta a entrada mais antiga ao passar da capacidade
+    private static final class Segmento<T> {
+        private final LinkedHashMap<Chave<T>, ResultadoRota<T>> entradas = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacidade;
+        private final LongAdder descartes;
+        long versao;
+
+        Segmento(int capacidade, LongAdder descartes) {
+            this.capacidade = capacidade;
+            this.descartes = descartes;
+        }
+
+        ResultadoRota<T> get(Chave<T> chave) {
+            return entradas.get(chave);
+        }
+
+        void put(Chave<T> chave, ResultadoRota<T> resultado) {
+            entradas.put(chave, resultado);
+            if (entradas.size() > capacidade) {
+                Iterator<Chave<T>> maisAntiga = entradas.keySet().iterator();
+                maisAntiga.next();
+                maisAntiga.remove();
+                descartes.increment();
+            }
+        }
+
+        int size() {
+            return entradas.size();
+        }
+
+        boolean isEmpty() {
+            return entradas.isEmpty();
+        }
+
+        void clear() {
+            entradas.clear();
+        }
+    }
+
+    private static final class Chave<T> {
+        private final Algoritmo algoritmo;
+        private final T origem;
+        private final T destino;
+        private final int hash;
+
+        Chave(Algoritmo algoritmo, T origem, T destino) {
+            this.algoritmo = algoritmo;
+            this.origem = origem;
+            this.destino = destino;
+            this.hash = 31 * (31 * algoritmo.ordinal() + Objects.hashCode(origem)) + Objects.hashCode(destino);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave<?> outra = (Chave<?>) o;
+            return algoritmo == outra.algoritmo && Objects.equals(origem, outra.origem)
+                    && Objects.equals(destino, outra.destino);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Fotografia<T> {
+        final long versao;
+        final GrafoCompacto<T> grafo;
+
+        Fotografia(long versao, GrafoCompacto<T> grafo) {
+            this.versao = versao;
+            this.grafo = grafo;
+        }
+    }
+}
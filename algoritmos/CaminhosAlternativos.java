@@ -0,0 +1,389 @@
+package algoritmos;
+
+import lib.Aresta;
+import lib.Grafo;
+import lib.GrafoCompacto;
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Rotas alternativas: os {@code k} caminhos sem ciclos mais curtos entre dois vértices,
+ * pelo algoritmo de Yen.
+ * <p>
+ * Cada caminho aceito gera candidatos por desvio: para cada vértice do caminho (o vértice de
+ * desvio), o trecho até ele (a raiz) é mantido e o restante é trocado pelo caminho mínimo até
+ * o destino que não reutiliza os vértices da raiz nem as arestas de saída já usadas, a partir
+ * da mesma raiz, pelos caminhos aceitos. O candidato mais barato ainda não aceito é o próximo
+ * caminho. Sobre o algoritmo básico:
+ * <ul>
+ *   <li>uma única busca reversa a partir do destino calcula a árvore de caminhos mínimos até
+ *   ele, limitada à vizinhança da origem. Para os vértices dentro da árvore, a distância ao
+ *   destino é exata; para os que ficaram de fora, a busca só dá um limite inferior. Com essas
+ *   estimativas as buscas de desvio viram A* bem direcionados; e cada busca de desvio para
+ *   assim que alcança um vértice cujo caminho da árvore não passa pela raiz, em geral poucos
+ *   passos depois do vértice de desvio;</li>
+ *   <li>os desvios de um caminho só começam a partir do ponto em que ele próprio se desviou do
+ *   caminho que o gerou (melhoria de Lawler): os anteriores repetiriam candidatos;</li>
+ *   <li>as buscas de desvio de um mesmo caminho são independentes e rodam em paralelo no pool
+ *   comum do ForkJoin, cada uma no espaço de trabalho da sua thread;</li>
+ *   <li>os candidatos ficam em um heap por custo e um conjunto das sequências de arestas já
+ *   geradas descarta os repetidos.</li>
+ * </ul>
+ * Os caminhos são distinguidos pelas arestas: com arestas paralelas, dois caminhos pelos mesmos
+ * vértices e arestas diferentes são alternativas distintas.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class CaminhosAlternativos<T> {
+
+    // Até onde vai a árvore reversa, em múltiplos da distância entre a origem e o destino
+    private static final double FOLGA_DA_ARVORE = 1.5;
+
+    /**
+     * Congela o grafo e calcula as rotas alternativas.
+     */
+    public List<ResultadoRota<T>> calcularRotas(Grafo<T> grafo, T dadoOrigem, T dadoDestino, int k) {
+        return calcularRotas(grafo.congelar(), dadoOrigem, dadoDestino, k);
+    }
+
+    /**
+     * Calcula até {@code k} caminhos sem ciclos da origem ao destino, em ordem crescente de custo.
+     *
+     * @param grafo O grafo compacto.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @param dadoDestino O dado do vértice de destino.
+     * @param k O número máximo de rotas.
+     * @return As rotas, a primeira sendo a mais curta; menos de {@code k} se não houver tantos
+     *         caminhos e uma lista vazia se o destino for inalcançável. As rotas não trazem
+     *         estatísticas de busca.
+     */
+    public List<ResultadoRota<T>> calcularRotas(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino, int k) {
+        int origem = grafo.getIndice(dadoOrigem);
+        int destino = grafo.getIndice(dadoDestino);
+        if (origem < 0 || destino < 0) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("O número de rotas deve ser positivo.");
+        }
+
+        int n = grafo.getNumeroVertices();
+        double[] ateDestino = new double[n];
+        int[] proximaAresta = new int[n];
+        calcularArvoreReversa(grafo, origem, destino, ateDestino, proximaAresta);
+        if (ateDestino[origem] == Double.POSITIVE_INFINITY) {
+            return new ArrayList<>();
+        }
+
+        List<Candidato> aceitos = new ArrayList<>(k);
+        PriorityQueue<Candidato> candidatos = new PriorityQueue<>();
+        Set<Candidato> gerados = new HashSet<>();
+        Candidato primeiro = new Candidato(caminhoDaArvore(grafo, origem, destino, proximaAresta), ateDestino[origem], 0);
+        candidatos.add(primeiro);
+        gerados.add(primeiro);
+
+        // Posição de cada vértice no caminho que está gerando desvios (-1 fora dele)
+        int[] posicao = new int[n];
+        Arrays.fill(posicao, -1);
+
+        while (aceitos.size() < k && !candidatos.isEmpty()) {
+            Candidato caminho = candidatos.poll();
+            aceitos.add(caminho);
+            if (aceitos.size() == k) {
+                break;
+            }
+
+            int[] vertices = vertices(grafo, origem, caminho.arestas);
+            double[] custos = custosAcumulados(grafo, caminho.arestas);
+            for (int i = 0; i < vertices.length; i++) {
+                posicao[vertices[i]] = i;
+            }
+            Candidato[] desvios = new Candidato[caminho.arestas.length];
+            IntStream.range(caminho.desvio, caminho.arestas.length).parallel().forEach(i ->
+                    desvios[i] = desviar(grafo, caminho, i, vertices[i], custos[i], aceitos, posicao,
+                            destino, ateDestino, proximaAresta));
+            for (int v : vertices) {
+                posicao[v] = -1;
+            }
+
+            for (Candidato desvio : desvios) {
+                if (desvio != null && gerados.add(desvio)) {
+                    candidatos.add(desvio);
+                }
+            }
+        }
+
+        List<ResultadoRota<T>> rotas = new ArrayList<>(aceitos.size());
+        for (Candidato caminho : aceitos) {
+            rotas.add(montarRota(grafo, origem, caminho.arestas));
+        }
+        return rotas;
+    }
+
+    /**
+     * Dijkstra pelas arestas de entrada a partir do destino: distância de cada vértice até ele e
+     * a aresta de saída (índice CSR) que inicia o caminho mínimo. A busca para quando as chaves
+     * passam de {@link #FOLGA_DA_ARVORE} vezes a distância da origem; os vértices que ficaram
+     * de fora recebem a menor chave do heap nesse momento, que ainda é um limite inferior (e
+     * mantém a heurística consistente), e nenhuma aresta da árvore ({@code -1}).
+     */
+    private static void calcularArvoreReversa(GrafoCompacto<?> grafo, int origem, int destino,
+                                              double[] ateDestino, int[] proximaAresta) {
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        espaco.iniciar();
+        HeapIndexado heap = espaco.heap();
+        espaco.definir(destino, 0.0, -1, -1);
+        heap.inserirOuDiminuir(destino, 0.0);
+        double limite = Double.POSITIVE_INFINITY;
+        while (!heap.isEmpty() && heap.chaveMinima() <= limite) {
+            double distanciaU = heap.chaveMinima();
+            int u = heap.removerMinimo();
+            if (u == origem) {
+                limite = distanciaU * FOLGA_DA_ARVORE;
+            }
+            for (int e = grafo.inicioEntrada(u), fim = grafo.fimEntrada(u); e < fim; e++) {
+                int v = grafo.origem(e);
+                double distanciaAtravesU = distanciaU + grafo.pesoEntrada(e);
+                if (distanciaAtravesU < espaco.distancia(v)) {
+                    espaco.definir(v, distanciaAtravesU, u, grafo.arestaDireta(e));
+                    heap.inserirOuDiminuir(v, distanciaAtravesU);
+                }
+            }
+        }
+        double foraDaArvore = heap.isEmpty() ? Double.POSITIVE_INFINITY : heap.chaveMinima();
+        for (int v = 0; v < ateDestino.length; v++) {
+            boolean fixado = espaco.visitado(v) && !heap.contem(v);
+            ateDestino[v] = fixado ? espaco.distancia(v) : foraDaArvore;
+            proximaAresta[v] = fixado ? espaco.aresta(v) : -1;
+        }
+    }
+
+    private static int[] caminhoDaArvore(GrafoCompacto<?> grafo, int de, int destino, int[] proximaAresta) {
+        ListaDeInteiros arestas = new ListaDeInteiros();
+        for (int v = de; v != destino; v = grafo.destino(proximaAresta[v])) {
+            arestas.adicionar(proximaAresta[v]);
+        }
+        return arestas.paraVetor();
+    }
+
+    /**
+     * Gera o candidato que se desvia de {@code caminho} no vértice da posição {@code i}, ou
+     * null se não houver desvio. Só lê as estruturas compartilhadas.
+     */
+    private static Candidato desviar(GrafoCompacto<?> grafo, Candidato caminho, int i, int verticeDeDesvio,
+                                     double custoDaRaiz, List<Candidato> aceitos, int[] posicao, int destino,
+                                     double[] ateDestino, int[] proximaAresta) {
+        if (ateDestino[verticeDeDesvio] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        // Arestas de saída do vértice de desvio já usadas pelos caminhos aceitos com a mesma raiz
+        ListaDeInteiros proibidas = new ListaDeInteiros();
+        for (Candidato aceito : aceitos) {
+            if (aceito.arestas.length > i && mesmaRaiz(aceito.arestas, caminho.arestas, i)) {
+                proibidas.adicionar(aceito.arestas[i]);
+            }
+        }
+
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        int encontro = buscarTrecho(grafo, espaco, verticeDeDesvio, i, posicao, proibidas, destino, ateDestino, proximaAresta);
+        if (encontro < 0) {
+            return null;
+        }
+        ListaDeInteiros trecho = juntarTrecho(grafo, espaco, verticeDeDesvio, encontro, destino, proximaAresta);
+        double custoDoTrecho = 0.0;
+        for (int j = 0; j < trecho.tamanho(); j++) {
+            custoDoTrecho += grafo.peso(trecho.get(j));
+        }
+
+        int[] arestas = Arrays.copyOf(caminho.arestas, i + trecho.tamanho());
+        for (int j = 0; j < trecho.tamanho(); j++) {
+            arestas[i + j] = trecho.get(j);
+        }
+        return new Candidato(arestas, custoDaRaiz + custoDoTrecho, i);
+    }
+
+    /**
+     * A* do vértice de desvio ao destino sem passar pela raiz nem pelas arestas proibidas. A
+     * distância até o destino no grafo completo é uma heurística consistente para o subgrafo
+     * (retirar vértices e arestas só aumenta as distâncias), então o topo do heap nunca passa
+     * do custo ótimo. Por isso, ao retirar um vértice cujo caminho da árvore reversa está
+     * livre, a busca pode parar: esse caminho custa exatamente a chave do topo.
+     *
+     * @return O vértice em que a busca alcançou a árvore reversa, ou -1 se não houver desvio.
+     */
+    private static int buscarTrecho(GrafoCompacto<?> grafo, EspacoDeTrabalho espaco, int verticeDeDesvio, int i,
+                                    int[] posicao, ListaDeInteiros proibidas, int destino, double[] ateDestino,
+                                    int[] proximaAresta) {
+        espaco.iniciar();
+        HeapIndexado heap = espaco.heap();
+        espaco.definir(verticeDeDesvio, 0.0, -1, -1);
+        heap.inserirOuDiminuir(verticeDeDesvio, ateDestino[verticeDeDesvio]);
+        while (!heap.isEmpty()) {
+            int u = heap.removerMinimo();
+            if (u == destino || arvoreLivre(grafo, u, verticeDeDesvio, i, posicao, proibidas, destino, proximaAresta)) {
+                return u;
+            }
+            double distanciaU = espaco.distancia(u);
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                int v = grafo.destino(e);
+                if (ateDestino[v] == Double.POSITIVE_INFINITY || naRaiz(posicao, v, i)
+                        || (u == verticeDeDesvio && contem(proibidas, e))) {
+                    continue;
+                }
+                double distanciaAtravesU = distanciaU + grafo.peso(e);
+                if (distanciaAtravesU < espaco.distancia(v)) {
+                    espaco.definir(v, distanciaAtravesU, u, e);
+                    heap.inserirOuDiminuir(v, distanciaAtravesU + ateDestino[v]);
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Se o caminho da árvore reversa a partir de u não passa pela raiz nem pelo vértice de
+    // desvio (e, saindo do próprio vértice de desvio, não começa por uma aresta proibida)
+    private static boolean arvoreLivre(GrafoCompacto<?> grafo, int u, int verticeDeDesvio, int i, int[] posicao,
+                                       ListaDeInteiros proibidas, int destino, int[] proximaAresta) {
+        if (proximaAresta[u] < 0 || (u == verticeDeDesvio && contem(proibidas, proximaAresta[u]))) {
+            return false;
+        }
+        for (int v = u; v != destino; ) {
+            v = grafo.destino(proximaAresta[v]);
+            if (posicao[v] >= 0 && posicao[v] <= i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Arestas do vértice de desvio ao destino: o caminho do A* até o encontro seguido do caminho
+     * da árvore a partir dele. Se os dois se cruzarem, o ciclo é cortado no primeiro vértice do
+     * A* que também está na árvore, cujo caminho da árvore é um sufixo do caminho do encontro.
+     */
+    private static ListaDeInteiros juntarTrecho(GrafoCompacto<?> grafo, EspacoDeTrabalho espaco, int verticeDeDesvio,
+                                                int encontro, int destino, int[] proximaAresta) {
+        ListaDeInteiros busca = new ListaDeInteiros();
+        for (int v = encontro; v != verticeDeDesvio; v = espaco.anterior(v)) {
+            busca.adicionar(espaco.aresta(v));
+        }
+        inverter(busca);
+        Set<Integer> naArvore = new HashSet<>();
+        for (int v = encontro; v != destino; ) {
+            v = grafo.destino(proximaAresta[v]);
+            naArvore.add(v);
+        }
+
+        ListaDeInteiros trecho = new ListaDeInteiros(busca.tamanho() + naArvore.size());
+        int juncao = encontro;
+        for (int j = 0; j < busca.tamanho(); j++) {
+            int v = grafo.destino(busca.get(j));
+            trecho.adicionar(busca.get(j));
+            if (naArvore.contains(v)) {
+                juncao = v;
+                break;
+            }
+        }
+        for (int v = juncao; v != destino; v = grafo.destino(proximaAresta[v])) {
+            trecho.adicionar(proximaAresta[v]);
+        }
+        return trecho;
+    }
+
+    // Vértices antes do desvio fazem parte da raiz e não podem ser revisitados
+    private static boolean naRaiz(int[] posicao, int v, int i) {
+        return posicao[v] >= 0 && posicao[v] < i;
+    }
+
+    private static boolean mesmaRaiz(int[] a, int[] b, int tamanho) {
+        for (int j = 0; j < tamanho; j++) {
+            if (a[j] != b[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contem(ListaDeInteiros lista, int valor) {
+        for (int j = 0; j < lista.tamanho(); j++) {
+            if (lista.get(j) == valor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void inverter(ListaDeInteiros lista) {
+        for (int a = 0, b = lista.tamanho() - 1; a < b; a++, b--) {
+            int troca = lista.get(a);
+            lista.set(a, lista.get(b));
+            lista.set(b, troca);
+        }
+    }
+
+    private static int[] vertices(GrafoCompacto<?> grafo, int origem, int[] arestas) {
+        int[] vertices = new int[arestas.length + 1];
+        vertices[0] = origem;
+        for (int j = 0; j < arestas.length; j++) {
+            vertices[j + 1] = grafo.destino(arestas[j]);
+        }
+        return vertices;
+    }
+
+    private static double[] custosAcumulados(GrafoCompacto<?> grafo, int[] arestas) {
+        double[] custos = new double[arestas.length + 1];
+        for (int j = 0; j < arestas.length; j++) {
+            custos[j + 1] = custos[j] + grafo.peso(arestas[j]);
+        }
+        return custos;
+    }
+
+    private static <T> ResultadoRota<T> montarRota(GrafoCompacto<T> grafo, int origem, int[] indices) {
+        List<Vertice<T>> caminho = new ArrayList<>(indices.length + 1);
+        List<Aresta<T>> arestas = new ArrayList<>(indices.length);
+        double[] custos = custosAcumulados(grafo, indices);
+        caminho.add(grafo.getVertice(origem));
+        for (int j = 0; j < indices.length; j++) {
+            Vertice<T> vertice = grafo.getVertice(grafo.destino(indices[j]));
+            arestas.add(new Aresta<>(grafo.peso(indices[j]), caminho.get(j), vertice));
+            caminho.add(vertice);
+        }
+        return new ResultadoRota<>(caminho, arestas, custos, null);
+    }
+
+    // Caminho candidato: arestas (índices CSR), custo e posição em que se desviou do que o gerou
+    private static final class Candidato implements Comparable<Candidato> {
+        final int[] arestas;
+        final double custo;
+        final int desvio;
+
+        Candidato(int[] arestas, double custo, int desvio) {
+            this.arestas = arestas;
+            this.custo = custo;
+            this.desvio = desvio;
+        }
+
+        @Override
+        public int compareTo(Candidato outro) {
+            int porCusto = Double.compare(custo, outro.custo);
+            return porCusto != 0 ? porCusto : Integer.compare(arestas.length, outro.arestas.length);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Candidato && Arrays.equals(arestas, ((Candidato) o).arestas);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(arestas);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package algoritmos;
+
+import lib.Aresta;
+import lib.Grafo;
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Árvore de caminhos mínimos a partir de uma origem fixa que é consertada, em vez de
+ * recalculada, quando o {@link Grafo} muda (no estilo de Ramalingam e Reps).
+ * <p>
+ * Depois de alterar o grafo, avise a árvore com o método correspondente:
+ * <ul>
+ *   <li>{@link #arestaAdicionada} ou uma redução em {@link #pesoAlterado}: se a aresta
+ *   encurta o caminho até o seu fim, a melhora é propagada por um Dijkstra que parte só
+ *   desse vértice e para onde as distâncias deixam de cair;</li>
+ *   <li>{@link #arestaRemovida} ou um aumento em {@link #pesoAlterado}: se a aresta fazia
+ *   parte da árvore, apenas a subárvore abaixo dela é invalidada e recalculada, a partir
+ *   das arestas que chegam nela vindas de vértices não afetados.</li>
+ * </ul>
+ * Assim, o custo de cada atualização é proporcional à região afetada, não ao grafo todo.
+ * Várias árvores (uma por origem) podem acompanhar o mesmo grafo; cada uma precisa ser
+ * avisada de todas as alterações. Cada aviso confere se a versão do grafo avançou
+ * exatamente o esperado para aquela alteração; se alguma outra mudança (inclusive a
+ * adição de um vértice) ficou sem aviso, a árvore é recalculada do zero em vez de
+ * consertada. {@link #isAtualizada()} indica se há alterações ainda não avisadas, e
+ * {@link #recalcular()} reconstrói a árvore a qualquer momento.
+ * <p>
+ * Os pesos das arestas não podem ser negativos. Instâncias não são seguras para uso
+ * concorrente.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class CaminhosDinamicos<T> {
+
+    private final Grafo<T> grafo;
+    private final Vertice<T> origem;
+    // Vértices inalcançáveis não aparecem nos mapas
+    private final Map<Vertice<T>, Double> distancias = new HashMap<>();
+    // Aresta da árvore que chega a cada vértice alcançável (exceto a origem)
+    private final Map<Vertice<T>, Aresta<T>> arestasDaArvore = new HashMap<>();
+    private long versao;
+
+    /**
+     * Calcula a árvore inicial de caminhos mínimos a partir da origem.
+     *
+     * @param grafo O grafo acompanhado.
+     * @param dadoOrigem O dado do vértice de origem.
+     */
+    public CaminhosDinamicos(Grafo<T> grafo, T dadoOrigem) {
+        this.grafo = grafo;
+        this.origem = grafo.getVertice(dadoOrigem);
+        if (origem == null) {
+            throw new IllegalArgumentException("Vértice de origem não encontrado no grafo.");
+        }
+        recalcular();
+    }
+
+    /**
+     * Descarta a árvore e a recalcula do zero com o grafo atual.
+     */
+    public void recalcular() {
+        distancias.clear();
+        arestasDaArvore.clear();
+        distancias.put(origem, 0.0);
+        PriorityQueue<EntradaFila<T>> fila = new PriorityQueue<>();
+        fila.add(new EntradaFila<>(origem, 0.0));
+        propagar(fila, null);
+        versao = grafo.getVersao();
+    }
+
+    /**
+     * Atualiza a árvore depois de {@link Grafo#adicionarAresta}.
+     *
+     * @param aresta A aresta adicionada.
+     * @return O número de vértices cuja distância mudou.
+     */
+    public int arestaAdicionada(Aresta<T> aresta) {
+        if (perdeuAlteracoes(1)) {
+            return recalcularContando();
+        }
+        int alterados = diminuir(aresta);
+        versao = grafo.getVersao();
+        return alterados;
+    }
+
+    /**
+     * Atualiza a árvore depois de {@link Grafo#removerAresta}.
+     *
+     * @param aresta A aresta removida.
+     * @return O número de vértices cuja distância mudou.
+     */
+    public int arestaRemovida(Aresta<T> aresta) {
+        if (perdeuAlteracoes(1)) {
+            return recalcularContando();
+        }
+        int alterados = aumentar(aresta);
+        versao = grafo.getVersao();
+        return alterados;
+    }
+
+    /**
+     * Atualiza a árvore depois de {@link Grafo#alterarPeso}.
+     *
+     * @param antiga A aresta antes da alteração.
+     * @param nova A aresta devolvida por {@link Grafo#alterarPeso}.
+     * @return O número de vértices cuja distância mudou.
+     */
+    public int pesoAlterado(Aresta<T> antiga, Aresta<T> nova) {
+        // alterarPeso remove a aresta antiga e adiciona a nova: a versão avança duas vezes
+        if (perdeuAlteracoes(2)) {
+            return recalcularContando();
+        }
+        int alterados;
+        if (nova.getPeso() < antiga.getPeso()) {
+            alterados = diminuir(nova);
+        } else if (nova.getPeso() > antiga.getPeso()) {
+            // O recálculo da subárvore lê o grafo atual, que já contém a aresta nova
+            alterados = aumentar(antiga);
+        } else {
+            alterados = 0;
+        }
+        versao = grafo.getVersao();
+        return alterados;
+    }
+
+    // Verdadeiro se o grafo mudou além da alteração avisada, que avança a versão em 'incremento'
+    private boolean perdeuAlteracoes(long incremento) {
+        return grafo.getVersao() != versao + incremento;
+    }
+
+    // Recálculo do zero após alterações perdidas; conta os vértices cuja distância mudou
+    private int recalcularContando() {
+        Map<Vertice<T>, Double> antigas = new HashMap<>(distancias);
+        recalcular();
+        int alterados = 0;
+        for (Map.Entry<Vertice<T>, Double> entrada : distancias.entrySet()) {
+            if (!entrada.getValue().equals(antigas.remove(entrada.getKey()))) {
+                alterados++;
+            }
+        }
+        // Os que sobraram ficaram inalcançáveis
+        return alterados + antigas.size();
+    }
+
+    // Inserção ou redução de peso: propaga a melhora a partir do fim da aresta
+    private int diminuir(Aresta<T> aresta) {
+        Vertice<T> u = aresta.getInicio();
+        Vertice<T> v = aresta.getFim();
+        double candidata = getDistancia(u) + aresta.getPeso();
+        if (!(candidata < getDistancia(v))) {
+            return 0;
+        }
+        distancias.put(v, candidata);
+        arestasDaArvore.put(v, aresta);
+        Set<Vertice<T>> alterados = new HashSet<>();
+        alterados.add(v);
+        PriorityQueue<EntradaFila<T>> fila = new PriorityQueue<>();
+        fila.add(new EntradaFila<>(v, candidata));
+        propagar(fila, alterados);
+        return alterados.size();
+    }
+
+    // Remoção ou aumento de peso: recalcula a subárvore pendurada na aresta, se houver uma
+    private int aumentar(Aresta<T> aresta) {
+        Vertice<T> u = aresta.getInicio();
+        Vertice<T> v = aresta.getFim();
+        if (!aresta.equals(arestasDaArvore.get(v))) {
+            return 0; // a aresta não estava na árvore
+        }
+
+        // Subárvore de 'v': descendentes pelos predecessores, encontrados pelas arestas de saída
+        List<Vertice<T>> afetados = new ArrayList<>();
+        Map<Vertice<T>, Double> antigas = new HashMap<>();
+        afetados.add(v);
+        antigas.put(v, distancias.get(v));
+        for (int i = 0; i < afetados.size(); i++) {
+            Vertice<T> x = afetados.get(i);
+            for (Aresta<T> saida : x.getArestasSaida()) {
+                Vertice<T> y = saida.getFim();
+                Aresta<T> daArvore = arestasDaArvore.get(y);
+                if (daArvore != null && daArvore.getInicio() == x && !antigas.containsKey(y)) {
+                    antigas.put(y, distancias.get(y));
+                    afetados.add(y);
+                }
+            }
+        }
+        for (Vertice<T> x : afetados) {
+            distancias.remove(x);
+            arestasDaArvore.remove(x);
+        }
+
+        // Cada vértice afetado recebe a melhor distância vinda de fora da subárvore
+        PriorityQueue<EntradaFila<T>> fila = new PriorityQueue<>();
+        for (Vertice<T> x : afetados) {
+            double melhor = Double.POSITIVE_INFINITY;
+            Aresta<T> melhorEntrada = null;
+            for (Aresta<T> entrada : x.getArestasEntrada()) {
+                Double distanciaP = distancias.get(entrada.getInicio());
+                if (distanciaP != null && distanciaP + entrada.getPeso() < melhor) {
+                    melhor = distanciaP + entrada.getPeso();
+                    melhorEntrada = entrada;
+                }
+            }
+            if (melhorEntrada != null) {
+                distancias.put(x, melhor);
+                arestasDaArvore.put(x, melhorEntrada);
+                fila.add(new EntradaFila<>(x, melhor));
+            }
+        }
+        // Só os afetados podem mudar: um aumento nunca melhora os demais vértices
+        propagar(fila, null);
+
+        int alterados = 0;
+        for (Vertice<T> x : afetados) {
+            if (getDistancia(x) != antigas.get(x)) {
+                alterados++;
+            }
+        }
+        return alterados;
+    }
+
+    // Dijkstra a partir das entradas da fila; registra em 'alterados' os vértices melhorados
+    private void propagar(PriorityQueue<EntradaFila<T>> fila, Set<Vertice<T>> alterados) {
+        while (!fila.isEmpty()) {
+            EntradaFila<T> entrada = fila.poll();
+            Vertice<T> u = entrada.vertice;
+            if (entrada.distancia > distancias.get(u)) {
+                continue; // entrada obsoleta
+            }
+            for (Aresta<T> aresta : u.getArestasSaida()) {
+                Vertice<T> v = aresta.getFim();
+                double distancia = entrada.distancia + aresta.getPeso();
+                if (distancia < getDistancia(v)) {
+                    distancias.put(v, distancia);
+                    arestasDaArvore.put(v, aresta);
+                    fila.add(new EntradaFila<>(v, distancia));
+                    if (alterados != null) {
+                        alterados.add(v);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica se a árvore acompanhou todas as alterações do grafo, isto é, se nenhuma
+     * alteração foi feita depois do último aviso recebido ou recálculo. Alterações
+     * perdidas entre dois avisos são detectadas pelo aviso seguinte, que recalcula a árvore.
+     */
+    public boolean isAtualizada() {
+        return versao == grafo.getVersao();
+    }
+
+    public Vertice<T> getOrigem() {
+        return origem;
+    }
+
+    /**
+     * Retorna a distância mínima da origem até o vértice, ou infinito se ele for inalcançável.
+     */
+    public double getDistancia(Vertice<T> vertice) {
+        return distancias.getOrDefault(vertice, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Retorna o predecessor do vértice na árvore, ou null para a origem e vértices inalcançáveis.
+     */
+    public Vertice<T> getAnterior(Vertice<T> vertice) {
+        Aresta<T> aresta = arestasDaArvore.get(vertice);
+        return aresta == null ? null : aresta.getInicio();
+    }
+
+    /**
+     * Retorna o caminho mais curto da origem até o vértice, ou uma lista vazia se não houver.
+     */
+    public List<Vertice<T>> getMenorCaminho(Vertice<T> alvo) {
+        if (!distancias.containsKey(alvo)) {
+            return Collections.emptyList();
+        }
+        List<Vertice<T>> caminho = new ArrayList<>();
+        caminho.add(alvo);
+        for (Aresta<T> a = arestasDaArvore.get(alvo); a != null; a = arestasDaArvore.get(a.getInicio())) {
+            caminho.add(a.getInicio());
+        }
+        Collections.reverse(caminho);
+        return caminho;
+    }
+
+    /**
+     * Retorna a rota da origem até o vértice como um resultado imutável, com as arestas da árvore.
+     */
+    public ResultadoRota<T> getRota(Vertice<T> alvo) {
+        if (!distancias.containsKey(alvo)) {
+            return ResultadoRota.vazio();
+        }
+        List<Aresta<T>> arestas = new ArrayList<>();
+        for (Aresta<T> a = arestasDaArvore.get(alvo); a != null; a = arestasDaArvore.get(a.getInicio())) {
+            arestas.add(a);
+        }
+        Collections.reverse(arestas);
+        return new ResultadoRota<>(origem, arestas, null);
+    }
+
+    // Entrada imutável da fila, como em Dijkstra
+    private static final class EntradaFila<T> implements Comparable<EntradaFila<T>> {
+        final Vertice<T> vertice;
+        final double distancia;
+
+        EntradaFila(Vertice<T> vertice, double distancia) {
+            this.vertice = vertice;
+            this.distancia = distancia;
+        }
+
+        @Override
+        public int compareTo(EntradaFila<T> outra) {
+            return Double.compare(distancia, outra.distancia);
+        }
+    }
+}
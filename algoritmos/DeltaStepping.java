@@ -0,0 +1,302 @@
+package algoritmos;
+
+import lib.Grafo;
+import lib.GrafoCompacto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Caminhos mínimos a partir de uma única origem pelo algoritmo delta-stepping
+ * (Meyer e Sanders), que relaxa muitas arestas em paralelo.
+ * <p>
+ * Os vértices ficam em baldes de largura {@code delta} conforme a sua distância provisória.
+ * Os baldes são processados em ordem; dentro de um balde, as arestas leves (peso até
+ * {@code delta}) de todos os vértices são relaxadas em paralelo, repetidamente, até o balde
+ * esvaziar. Só então as arestas pesadas dos vértices que passaram pelo balde são relaxadas,
+ * uma única vez, já que não podem devolver vértices ao mesmo balde. As distâncias ficam em
+ * um {@link AtomicLongArray} e cada relaxação é um mínimo por CAS, sem travas.
+ * <p>
+ * As distâncias obtidas são as mesmas do {@link Dijkstra}. A árvore de predecessores é
+ * montada ao final a partir das distâncias (para cada vértice, uma aresta de entrada
+ * "justa"), o que evita disputar o predecessor junto com a distância durante a busca.
+ * Os pesos das arestas não podem ser negativos.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class DeltaStepping<T> {
+
+    private static final int AMOSTRA_PESOS = 10_000;
+    // Vértices por tarefa paralela; conjuntos menores que o limite são relaxados na própria thread
+    private static final int BLOCO = 256;
+    private static final int LIMITE_SEQUENCIAL = 1024;
+
+    private final double delta;
+
+    /**
+     * Cria o algoritmo com {@code delta} ajustado automaticamente para cada grafo.
+     */
+    public DeltaStepping() {
+        this.delta = 0.0;
+    }
+
+    /**
+     * Cria o algoritmo com uma largura de balde fixa.
+     * @param delta A largura dos baldes; deve ser positiva e finita.
+     */
+    public DeltaStepping(double delta) {
+        if (!(delta > 0.0) || Double.isInfinite(delta)) {
+            throw new IllegalArgumentException("O delta deve ser positivo e finito.");
+        }
+        this.delta = delta;
+    }
+
+    /**
+     * Congela o grafo e calcula a árvore de caminhos mínimos a partir da origem.
+     */
+    public ArvoreDeCaminhos<T> calcularArvore(Grafo<T> grafo, T dadoOrigem) {
+        return calcularArvore(grafo.congelar(), dadoOrigem);
+    }
+
+    /**
+     * Calcula as distâncias mínimas e a árvore de caminhos mínimos a partir da origem,
+     * relaxando as arestas em paralelo no pool comum do ForkJoin (ou no pool em que a
+     * chamada estiver rodando).
+     *
+     * @param grafo O grafo compacto.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @return A árvore de caminhos mínimos.
+     */
+    public ArvoreDeCaminhos<T> calcularArvore(GrafoCompacto<T> grafo, T dadoOrigem) {
+        int origem = grafo.getIndice(dadoOrigem);
+        if (origem < 0) {
+            throw new IllegalArgumentException("Vértice de origem não encontrado no grafo.");
+        }
+        int n = grafo.getNumeroVertices();
+        double largura = delta > 0.0 ? delta : estimarDelta(grafo);
+
+        AtomicLongArray distancias = new AtomicLongArray(n);
+        long infinito = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int v = 0; v < n; v++) {
+            distancias.lazySet(v, infinito);
+        }
+        distancias.set(origem, Double.doubleToRawLongBits(0.0));
+
+        List<ListaDeInteiros> baldes = new ArrayList<>();
+        inserir(baldes, origem, 0.0, largura);
+        // Carimbos: 'marcaRodada' evita repetir um vértice dentro de uma rodada de arestas leves,
+        // 'marcaBalde' registra os vértices que passaram pelo balde atual (para as arestas pesadas)
+        int[] marcaRodada = new int[n];
+        int[] marcaBalde = new int[n];
+        int rodada = 0;
+        ListaDeInteiros passaram = new ListaDeInteiros();
+        ListaDeInteiros atuais = new ListaDeInteiros();
+
+        for (int i = 0; i < baldes.size(); i++) {
+            if (baldes.get(i) == null) {
+                continue;
+            }
+            passaram.limpar();
+            ListaDeInteiros balde;
+            while ((balde = baldes.get(i)) != null) {
+                baldes.set(i, null);
+                rodada++;
+                atuais.limpar();
+                for (int k = 0; k < balde.tamanho(); k++) {
+                    int v = balde.get(k);
+                    // Entradas obsoletas (o vértice já caiu para outro balde ou está repetido) são ignoradas
+                    if (marcaRodada[v] != rodada && indiceDoBalde(distancia(distancias, v), largura) == i) {
+                        marcaRodada[v] = rodada;
+                        atuais.adicionar(v);
+                        if (marcaBalde[v] != i + 1) {
+                            marcaBalde[v] = i + 1;
+                            passaram.adicionar(v);
+                        }
+                    }
+                }
+                if (atuais.isEmpty()) {
+                    break;
+                }
+                int[] atualizados = relaxar(grafo, distancias, atuais.paraVetor(), largura, true);
+                for (int v : atualizados) {
+                    inserir(baldes, v, distancia(distancias, v), largura);
+                }
+            }
+            int[] atualizados = relaxar(grafo, distancias, passaram.paraVetor(), largura, false);
+            for (int v : atualizados) {
+                inserir(baldes, v, distancia(distancias, v), largura);
+            }
+        }
+
+        double[] resultado = new double[n];
+        for (int v = 0; v < n; v++) {
+            resultado[v] = distancia(distancias, v);
+        }
+        int[] arestas = new int[n];
+        int[] anteriores = predecessores(grafo, resultado, origem, arestas);
+        return new ArvoreDeCaminhos<>(grafo, origem, resultado, anteriores, arestas);
+    }
+
+    /**
+     * Escolhe {@code delta} pela distribuição dos pesos: a média de uma amostra das arestas
+     * (ignorando pesos nulos e infinitos). Assim, aproximadamente as arestas abaixo da média
+     * são leves; baldes mais largos dariam mais paralelismo, mas também mais relaxações repetidas.
+     */
+    static double estimarDelta(GrafoCompacto<?> grafo) {
+        int m = grafo.getNumeroArestas();
+        int passo = Math.max(1, m / AMOSTRA_PESOS);
+        double soma = 0.0;
+        int quantidade = 0;
+        for (int e = 0; e < m; e += passo) {
+            double peso = grafo.peso(e);
+            if (peso > 0.0 && !Double.isInfinite(peso)) {
+                soma += peso;
+                quantidade++;
+            }
+        }
+        return quantidade == 0 ? 1.0 : soma / quantidade;
+    }
+
+    // Relaxa, em paralelo, as arestas leves ou pesadas dos vértices dados; retorna os vértices melhorados
+    private static int[] relaxar(GrafoCompacto<?> grafo, AtomicLongArray distancias, int[] vertices,
+                                 double largura, boolean leves) {
+        int blocos = (vertices.length + BLOCO - 1) / BLOCO;
+        int[][] partes = new int[blocos][];
+        IntStream tarefas = IntStream.range(0, blocos);
+        if (vertices.length >= LIMITE_SEQUENCIAL) {
+            tarefas = tarefas.parallel();
+        }
+        tarefas.forEach(b -> {
+            ListaDeInteiros melhorados = new ListaDeInteiros();
+            for (int i = b * BLOCO, fim = Math.min(vertices.length, i + BLOCO); i < fim; i++) {
+                int u = vertices[i];
+                double distanciaU = distancia(distancias, u);
+                for (int e = grafo.inicioSaida(u), fimSaida = grafo.fimSaida(u); e < fimSaida; e++) {
+                    double peso = grafo.peso(e);
+                    if ((peso <= largura) == leves) {
+                        int v = grafo.destino(e);
+                        if (diminuir(distancias, v, distanciaU + peso)) {
+                            melhorados.adicionar(v);
+                        }
+                    }
+                }
+            }
+            partes[b] = melhorados.paraVetor();
+        });
+
+        int total = 0;
+        for (int[] parte : partes) {
+            total += parte.length;
+        }
+        int[] resultado = new int[total];
+        int posicao = 0;
+        for (int[] parte : partes) {
+            System.arraycopy(parte, 0, resultado, posicao, parte.length);
+            posicao += parte.length;
+        }
+        return resultado;
+    }
+
+    /**
+     * Mínimo atômico. Para doubles não negativos a ordem dos bits (como long) é a mesma
+     * ordem dos valores, então a comparação é feita diretamente sobre os bits.
+     */
+    private static boolean diminuir(AtomicLongArray distancias, int v, double nova) {
+        long bitsNova = Double.doubleToRawLongBits(nova);
+        while (true) {
+            long atual = distancias.get(v);
+            if (atual <= bitsNova) {
+                return false;
+            }
+            if (distancias.compareAndSet(v, atual, bitsNova)) {
+                return true;
+            }
+        }
+    }
+
+    private static double distancia(AtomicLongArray distancias, int v) {
+        return Double.longBitsToDouble(distancias.get(v));
+    }
+
+    private static int indiceDoBalde(double distancia, double largura) {
+        double indice = distancia / largura;
+        if (indice >= Integer.MAX_VALUE) {
+            throw new IllegalStateException("Distância grande demais para o delta escolhido.");
+        }
+        return (int) indice;
+    }
+
+    private static void inserir(List<ListaDeInteiros> baldes, int v, double distancia, double largura) {
+        int indice = indiceDoBalde(distancia, largura);
+        while (baldes.size() <= indice) {
+            baldes.add(null);
+        }
+        ListaDeInteiros balde = baldes.get(indice);
+        if (balde == null) {
+            balde = new ListaDeInteiros();
+            baldes.set(indice, balde);
+        }
+        balde.adicionar(v);
+    }
+
+    /**
+     * Monta a árvore a partir das distâncias finais: o predecessor de {@code v} é a origem de
+     * uma aresta de entrada com {@code d(u) + peso == d(v)}. Primeiro são aceitas só arestas
+     * com {@code d(u) < d(v)}, que nunca formam ciclos; os vértices que sobrarem (ligados
+     * apenas por arestas de peso zero) são resolvidos por uma busca em largura a partir dos
+     * já resolvidos. A aresta de saída usada por cada vértice é gravada em {@code arestas}.
+     */
+    private static int[] predecessores(GrafoCompacto<?> grafo, double[] distancias, int origem, int[] arestas) {
+        int n = grafo.getNumeroVertices();
+        int[] anteriores = new int[n];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            anteriores[v] = -1;
+            double dv = distancias[v];
+            if (v == origem || dv == Double.POSITIVE_INFINITY) {
+                return;
+            }
+            for (int i = grafo.inicioEntrada(v), fim = grafo.fimEntrada(v); i < fim; i++) {
+                int u = grafo.origem(i);
+                double du = distancias[u];
+                if (du < dv && du + grafo.pesoEntrada(i) == dv) {
+                    anteriores[v] = u;
+                    arestas[v] = grafo.arestaDireta(i);
+                    return;
+                }
+            }
+        });
+
+        ListaDeInteiros fila = new ListaDeInteiros();
+        for (int v = 0; v < n; v++) {
+            if (anteriores[v] < 0 && v != origem && distancias[v] != Double.POSITIVE_INFINITY) {
+                fila.adicionar(v);
+            }
+        }
+        if (fila.isEmpty()) {
+            return anteriores;
+        }
+        boolean[] resolvido = new boolean[n];
+        fila.limpar();
+        for (int v = 0; v < n; v++) {
+            if (v == origem || anteriores[v] >= 0) {
+                resolvido[v] = true;
+                fila.adicionar(v);
+            }
+        }
+        for (int cabeca = 0; cabeca < fila.tamanho(); cabeca++) {
+            int u = fila.get(cabeca);
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                int v = grafo.destino(e);
+                if (!resolvido[v] && distancias[u] + grafo.peso(e) == distancias[v]) {
+                    resolvido[v] = true;
+                    anteriores[v] = u;
+                    arestas[v] = e;
+                    fila.adicionar(v);
+                }
+            }
+        }
+        return anteriores;
+    }
+}
@@ -2,6 +2,7 @@ package algoritmos;
 
 import java.util.*;
 import lib.Grafo;
+import lib.GrafoCompacto;
 import lib.Vertice;
 import lib.Aresta;
 
@@ -9,6 +10,12 @@ import lib.Aresta;
  * Implementação do algoritmo de Dijkstra que encontra os caminhos mais curtos
  * a partir de uma única origem em um grafo ponderado.
  * Esta classe é desacoplada da estrutura do grafo, mantendo seu próprio estado.
+ * <p>
+ * Os métodos {@code executar}/{@code getMenorCaminho}/{@code getDistancia} guardam o resultado
+ * na própria instância e, por isso, não podem ser usados por duas consultas ao mesmo tempo.
+ * Os métodos {@code calcularRota}, {@code calcularArvore}, {@code calcularDistancia} e
+ * {@code encontrarCaminho} não têm estado: devolvem resultados imutáveis e podem ser chamados
+ * concorrentemente sobre a mesma instância.
  *
  * @param <T> O tipo de dado armazenado nos vértices.
  */
@@ -16,8 +23,16 @@ public class Dijkstra<T> {
 
     // Sugestão 3: Os resultados são armazenados como atributos da classe
     private Map<Vertice<T>, Double> distancias;
-    private Map<Vertice<T>, Vertice<T>> anteriores;
+    // Aresta pela qual cada vértice foi alcançado (nula para a origem e os inalcançáveis)
+    private Map<Vertice<T>, Aresta<T>> anteriores;
+    private Vertice<T> origemExecutada;
     private Set<Vertice<T>> verticesProcessados;
+    private MedicaoDeBusca medicao;
+
+    // Resultados da última execução sobre um grafo compacto. O espaço de trabalho é
+    // reaproveitado entre execuções, então consultas repetidas não alocam memória.
+    private GrafoCompacto<T> grafoCompacto;
+    private EspacoDeTrabalho espacoCompacto;
 
     /**
      * Executa o algoritmo de Dijkstra a partir de um vértice de origem.
@@ -33,7 +48,12 @@ public class Dijkstra<T> {
             throw new IllegalArgumentException("Erro: Vértice de origem '" + dadoOrigem + "' não encontrado no grafo.");
         }
 
+        long inicio = Metricas.iniciar();
+        int fixados = 0, insercoes = 1, remocoes = 0, picoDaFila = 1;
+        long relaxacoes = 0;
+
         // Inicializa as estruturas de dados para armazenar o estado do algoritmo
+        limparResultadosCompactos();
         distancias = new HashMap<>();
         anteriores = new HashMap<>();
         verticesProcessados = new HashSet<>();
@@ -44,6 +64,7 @@ public class Dijkstra<T> {
             anteriores.put(vertice, null);
         }
         distancias.put(origem, 0.0); // Sugestão 4: Correção do nome da variável
+        origemExecutada = origem;
 
         // 2. Fila de prioridade com o comparador correto (Sugestão 1)
         PriorityQueue<Vertice<T>> filaPrioridade = new PriorityQueue<>(Comparator.comparingDouble(distancias::get));
@@ -52,15 +73,18 @@ public class Dijkstra<T> {
         // 3. Loop principal do algoritmo
         while (!filaPrioridade.isEmpty()) {
             Vertice<T> u = filaPrioridade.poll();
+            remocoes++;
 
             // Otimização: se já processamos este nó com um caminho menor, ignoramos.
             if (verticesProcessados.contains(u)) {
                 continue;
             }
             verticesProcessados.add(u);
+            fixados++;
 
             // 4. Relaxamento das arestas (usando os mapas - Sugestão 2)
             for (Aresta<T> aresta : u.getArestasSaida()) {
+                relaxacoes++;
                 Vertice<T> v = aresta.getFim();
                 double pesoAresta = aresta.getPeso();
                 double distanciaAtualV = distancias.get(v);
@@ -69,16 +93,519 @@ public class Dijkstra<T> {
                 if (distanciaAtravesU < distanciaAtualV) {
                     // Atualiza a distância e o predecessor
                     distancias.put(v, distanciaAtravesU);
-                    anteriores.put(v, u);
+                    anteriores.put(v, aresta);
                     
                     // Adiciona o vizinho à fila para ser processado.
                     // A fila pode conter duplicatas, mas o `poll` sempre pegará a menor distância.
                     filaPrioridade.add(v);
+                    insercoes++;
+                    picoDaFila = Math.max(picoDaFila, filaPrioridade.size());
+                }
+            }
+        }
+        medicao = Metricas.concluir(Algoritmo.DIJKSTRA, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+    }
+
+    /**
+     * Executa o algoritmo de Dijkstra sobre a fotografia compacta (CSR) de um grafo.
+     * As distâncias e predecessores ficam em vetores primitivos indexados pelo índice
+     * denso de cada vértice, e as consultas posteriores funcionam da mesma forma.
+     *
+     * @param grafo O grafo compacto no qual o algoritmo será executado.
+     * @param dadoOrigem O dado do vértice de origem.
+     */
+    public void executar(GrafoCompacto<T> grafo, T dadoOrigem) {
+        int origem = grafo.getIndice(dadoOrigem);
+
+        if (origem < 0) {
+            throw new IllegalArgumentException("Erro: Vértice de origem '" + dadoOrigem + "' não encontrado no grafo.");
+        }
+
+        distancias = null;
+        anteriores = null;
+        verticesProcessados = null;
+        medicao = null;
+
+        if (espacoCompacto == null) {
+            espacoCompacto = new EspacoDeTrabalho(grafo.getNumeroVertices());
+        }
+        espacoCompacto.garantirCapacidade(grafo.getNumeroVertices());
+        buscar(grafo, espacoCompacto, origem, -1);
+        this.grafoCompacto = grafo;
+    }
+
+    /**
+     * Calcula apenas a distância mínima entre dois vértices de um grafo compacto.
+     * A busca para assim que o destino é fixado e usa o espaço de trabalho da thread
+     * atual, portanto não aloca memória em regime permanente e pode ser chamada
+     * concorrentemente por várias threads.
+     *
+     * @param grafo O grafo compacto.
+     * @param origem O índice do vértice de origem.
+     * @param destino O índice do vértice de destino.
+     * @return A distância mínima, ou {@code Double.POSITIVE_INFINITY} se não houver caminho.
+     */
+    public double calcularDistancia(GrafoCompacto<T> grafo, int origem, int destino) {
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        buscar(grafo, espaco, origem, destino);
+        return espaco.distancia(destino);
+    }
+
+    /**
+     * Encontra o caminho mais curto entre dois vértices de um grafo compacto, parando
+     * assim que o destino é fixado. Apenas a lista devolvida é alocada.
+     *
+     * @return Uma lista de vértices representando o caminho, ou uma lista vazia se não houver caminho.
+     */
+    public List<Vertice<T>> encontrarCaminho(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino) {
+        int origem = grafo.getIndice(dadoOrigem);
+        int destino = grafo.getIndice(dadoDestino);
+        if (origem < 0 || destino < 0) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        buscar(grafo, espaco, origem, destino);
+        return reconstruirCaminho(grafo, espaco, destino);
+    }
+
+    /**
+     * Calcula a rota mais curta entre dois vértices sem guardar estado na instância.
+     * A busca para assim que o destino é fixado.
+     *
+     * @param grafo O grafo a ser percorrido.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @param dadoDestino O dado do vértice de destino.
+     * @return O resultado imutável da consulta ({@link ResultadoRota#vazio()} se não houver caminho).
+     */
+    public ResultadoRota<T> calcularRota(Grafo<T> grafo, T dadoOrigem, T dadoDestino) {
+        Vertice<T> origem = grafo.getVertice(dadoOrigem);
+        Vertice<T> destino = grafo.getVertice(dadoDestino);
+        if (origem == null || destino == null) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+
+        long inicio = Metricas.iniciar();
+        int fixados = 0, insercoes = 1, remocoes = 0, picoDaFila = 1;
+        long relaxacoes = 0;
+        LadoDaBusca<T> busca = new LadoDaBusca<>(origem);
+        boolean encontrado = false;
+        while (!busca.fila.isEmpty()) {
+            EntradaFila<T> entrada = busca.fila.poll();
+            remocoes++;
+            Vertice<T> u = entrada.vertice;
+            if (!busca.fixados.add(u)) {
+                continue;
+            }
+            fixados++;
+            if (u.equals(destino)) {
+                encontrado = true;
+                break;
+            }
+            for (Aresta<T> aresta : u.getArestasSaida()) {
+                relaxacoes++;
+                Vertice<T> v = aresta.getFim();
+                double distancia = entrada.distancia + aresta.getPeso();
+                if (distancia < busca.distancias.getOrDefault(v, Double.POSITIVE_INFINITY)) {
+                    busca.distancias.put(v, distancia);
+                    busca.arestas.put(v, aresta);
+                    busca.fila.add(new EntradaFila<>(v, distancia));
+                    insercoes++;
+                    picoDaFila = Math.max(picoDaFila, busca.fila.size());
+                }
+            }
+        }
+        MedicaoDeBusca estatisticas =
+                Metricas.concluir(Algoritmo.DIJKSTRA, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+        return encontrado ? montarRota(origem, destino, busca.arestas, estatisticas) : ResultadoRota.vazio(estatisticas);
+    }
+
+    /**
+     * Versão sem estado de {@link #calcularRota(Grafo, Object, Object)} sobre um grafo compacto,
+     * usando o espaço de trabalho da thread atual.
+     */
+    public ResultadoRota<T> calcularRota(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino) {
+        int origem = grafo.getIndice(dadoOrigem);
+        int destino = grafo.getIndice(dadoDestino);
+        if (origem < 0 || destino < 0) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        buscar(grafo, espaco, origem, destino);
+        return montarRota(grafo, espaco, destino);
+    }
+
+    /**
+     * Calcula a árvore de caminhos mínimos a partir de uma origem sem guardar estado na instância.
+     *
+     * @param grafo O grafo compacto.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @return Uma árvore imutável com as distâncias e predecessores de todos os vértices.
+     */
+    public ArvoreDeCaminhos<T> calcularArvore(GrafoCompacto<T> grafo, T dadoOrigem) {
+        int origem = grafo.getIndice(dadoOrigem);
+        if (origem < 0) {
+            throw new IllegalArgumentException("Erro: Vértice de origem '" + dadoOrigem + "' não encontrado no grafo.");
+        }
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        buscar(grafo, espaco, origem, -1);
+        return ArvoreDeCaminhos.copiar(grafo, origem, espaco);
+    }
+
+    /**
+     * Dijkstra bidirecional ponto a ponto: busca para frente a partir da origem (arestas de saída)
+     * e para trás a partir do destino (arestas de entrada), sempre expandindo o lado com a menor
+     * fila. A busca termina quando a soma dos topos das duas filas não pode mais melhorar o
+     * melhor caminho já encontrado, e o caminho é costurado no vértice de encontro.
+     *
+     * @param grafo O grafo a ser percorrido.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @param dadoDestino O dado do vértice de destino.
+     * @return O caminho mais curto, ou uma lista vazia se não houver caminho.
+     */
+    public List<Vertice<T>> encontrarCaminhoBidirecional(Grafo<T> grafo, T dadoOrigem, T dadoDestino) {
+        return calcularRotaBidirecional(grafo, dadoOrigem, dadoDestino).getCaminho();
+    }
+
+    /**
+     * Igual a {@link #encontrarCaminhoBidirecional(Grafo, Object, Object)}, mas devolve um
+     * resultado imutável com as arestas percorridas, os custos acumulados e as estatísticas.
+     *
+     * @return O resultado da consulta (sem caminho se o destino for inalcançável).
+     */
+    public ResultadoRota<T> calcularRotaBidirecional(Grafo<T> grafo, T dadoOrigem, T dadoDestino) {
+        Vertice<T> origem = grafo.getVertice(dadoOrigem);
+        Vertice<T> destino = grafo.getVertice(dadoDestino);
+        if (origem == null || destino == null) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+
+        // Os contadores somam os dois lados; o pico é o das duas filas juntas
+        long inicio = Metricas.iniciar();
+        int fixados = 0, insercoes = 2, remocoes = 0, picoDaFila = 2;
+        long relaxacoes = 0;
+        LadoDaBusca<T> frente = new LadoDaBusca<>(origem);
+        LadoDaBusca<T> tras = new LadoDaBusca<>(destino);
+        double melhor = origem.equals(destino) ? 0.0 : Double.POSITIVE_INFINITY;
+        Vertice<T> encontro = origem.equals(destino) ? origem : null;
+
+        while (!frente.fila.isEmpty() && !tras.fila.isEmpty()) {
+            if (frente.topo() + tras.topo() >= melhor) {
+                break;
+            }
+            boolean expandirFrente = frente.fila.size() <= tras.fila.size();
+            LadoDaBusca<T> lado = expandirFrente ? frente : tras;
+            LadoDaBusca<T> outro = expandirFrente ? tras : frente;
+
+            EntradaFila<T> entrada = lado.fila.poll();
+            remocoes++;
+            Vertice<T> u = entrada.vertice;
+            if (!lado.fixados.add(u)) {
+                continue;
+            }
+            fixados++;
+            for (Aresta<T> aresta : expandirFrente ? u.getArestasSaida() : u.getArestasEntrada()) {
+                relaxacoes++;
+                Vertice<T> v = expandirFrente ? aresta.getFim() : aresta.getInicio();
+                double distancia = entrada.distancia + aresta.getPeso();
+                if (distancia < lado.distancias.getOrDefault(v, Double.POSITIVE_INFINITY)) {
+                    lado.distancias.put(v, distancia);
+                    lado.arestas.put(v, aresta);
+                    lado.fila.add(new EntradaFila<>(v, distancia));
+                    insercoes++;
+                    picoDaFila = Math.max(picoDaFila, frente.fila.size() + tras.fila.size());
+                }
+                Double distanciaOutroLado = outro.distancias.get(v);
+                if (distanciaOutroLado != null && lado.distancias.get(v) + distanciaOutroLado < melhor) {
+                    melhor = lado.distancias.get(v) + distanciaOutroLado;
+                    encontro = v;
+                }
+            }
+        }
+        MedicaoDeBusca estatisticas =
+                Metricas.concluir(Algoritmo.DIJKSTRA, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+
+        if (encontro == null) {
+            return ResultadoRota.vazio(estatisticas);
+        }
+        // Metade da frente (origem -> encontro) e metade de trás (encontro -> destino)
+        List<Aresta<T>> arestas = new ArrayList<>();
+        for (Aresta<T> a = frente.arestas.get(encontro); a != null; a = frente.arestas.get(a.getInicio())) {
+            arestas.add(a);
+        }
+        Collections.reverse(arestas);
+        for (Aresta<T> a = tras.arestas.get(encontro); a != null; a = tras.arestas.get(a.getFim())) {
+            arestas.add(a);
+        }
+        return new ResultadoRota<>(origem, arestas, estatisticas);
+    }
+
+    /**
+     * Versão do Dijkstra bidirecional sobre a fotografia compacta (CSR), usando os dois
+     * espaços de trabalho da thread atual e o CSR invertido para o lado de trás.
+     */
+    public List<Vertice<T>> encontrarCaminhoBidirecional(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino) {
+        return calcularRotaBidirecional(grafo, dadoOrigem, dadoDestino).getCaminho();
+    }
+
+    /**
+     * Igual a {@link #encontrarCaminhoBidirecional(GrafoCompacto, Object, Object)}, mas devolve
+     * um resultado imutável com as arestas percorridas, os custos acumulados e as estatísticas.
+     *
+     * @return O resultado da consulta (sem caminho se o destino for inalcançável).
+     */
+    public ResultadoRota<T> calcularRotaBidirecional(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino) {
+        int origem = grafo.getIndice(dadoOrigem);
+        int destino = grafo.getIndice(dadoDestino);
+        if (origem < 0 || destino < 0) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+        EspacoDeTrabalho frente = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        EspacoDeTrabalho tras = EspacoDeTrabalho.reversoDaThreadAtual(grafo.getNumeroVertices());
+        int encontro = buscarBidirecional(grafo, frente, tras, origem, destino);
+        if (encontro < 0) {
+            return ResultadoRota.vazio(frente.medicao());
+        }
+        return montarRotaBidirecional(grafo, frente, tras, encontro);
+    }
+
+    /**
+     * Núcleo do Dijkstra bidirecional sobre vetores primitivos.
+     * @return O vértice de encontro do caminho mais curto, ou -1 se não houver caminho.
+     */
+    static int buscarBidirecional(GrafoCompacto<?> grafo, EspacoDeTrabalho frente, EspacoDeTrabalho tras,
+                                  int origem, int destino) {
+        // Os contadores somam os dois lados e ficam registrados no espaço da frente
+        long inicio = Metricas.iniciar();
+        int fixados = 0, insercoes = 2, remocoes = 0, picoDaFila = 2;
+        long relaxacoes = 0;
+        frente.iniciar();
+        tras.iniciar();
+        HeapIndexado filaFrente = frente.heap();
+        HeapIndexado filaTras = tras.heap();
+        frente.definir(origem, 0.0, -1);
+        tras.definir(destino, 0.0, -1);
+        filaFrente.inserirOuDiminuir(origem, 0.0);
+        filaTras.inserirOuDiminuir(destino, 0.0);
+        double melhor = origem == destino ? 0.0 : Double.POSITIVE_INFINITY;
+        int encontro = origem == destino ? origem : -1;
+
+        while (!filaFrente.isEmpty() && !filaTras.isEmpty()
+                && filaFrente.chaveMinima() + filaTras.chaveMinima() < melhor) {
+            remocoes++;
+            fixados++;
+            if (filaFrente.tamanho() <= filaTras.tamanho()) {
+                double du = filaFrente.chaveMinima();
+                int u = filaFrente.removerMinimo();
+                int primeira = grafo.inicioSaida(u), fim = grafo.fimSaida(u);
+                relaxacoes += fim - primeira;
+                for (int e = primeira; e < fim; e++) {
+                    int v = grafo.destino(e);
+                    double dv = du + grafo.peso(e);
+                    if (dv < frente.distancia(v)) {
+                        frente.definir(v, dv, u, e);
+                        filaFrente.inserirOuDiminuir(v, dv);
+                        insercoes++;
+                        picoDaFila = Math.max(picoDaFila, filaFrente.tamanho() + filaTras.tamanho());
+                    }
+                    double total = frente.distancia(v) + tras.distancia(v);
+                    if (total < melhor) {
+                        melhor = total;
+                        encontro = v;
+                    }
+                }
+            } else {
+                double du = filaTras.chaveMinima();
+                int u = filaTras.removerMinimo();
+                int primeira = grafo.inicioEntrada(u), fim = grafo.fimEntrada(u);
+                relaxacoes += fim - primeira;
+                for (int e = primeira; e < fim; e++) {
+                    int v = grafo.origem(e);
+                    double dv = du + grafo.pesoEntrada(e);
+                    if (dv < tras.distancia(v)) {
+                        // Guarda a aresta de saída de v para u, que é a usada pelo caminho
+                        tras.definir(v, dv, u, grafo.arestaDireta(e));
+                        filaTras.inserirOuDiminuir(v, dv);
+                        insercoes++;
+                        picoDaFila = Math.max(picoDaFila, filaFrente.tamanho() + filaTras.tamanho());
+                    }
+                    double total = frente.distancia(v) + tras.distancia(v);
+                    if (total < melhor) {
+                        melhor = total;
+                        encontro = v;
+                    }
+                }
+            }
+        }
+        frente.concluirBusca(Algoritmo.DIJKSTRA, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+        return encontro;
+    }
+
+    /**
+     * Núcleo do Dijkstra sobre vetores primitivos, com heap indexado (decrease-key).
+     * Se {@code destino} for -1 a busca fixa todos os vértices alcançáveis.
+     */
+    static void buscar(GrafoCompacto<?> grafo, EspacoDeTrabalho espaco, int origem, int destino) {
+        buscar(grafo, espaco, origem, destino, true);
+    }
+
+    /**
+     * Igual a {@link #buscar(GrafoCompacto, EspacoDeTrabalho, int, int)}; com {@code medir} falso
+     * a busca não é registrada nas {@link Metricas}, para as buscas internas de um
+     * pré-processamento não se misturarem às consultas.
+     */
+    static void buscar(GrafoCompacto<?> grafo, EspacoDeTrabalho espaco, int origem, int destino, boolean medir) {
+        long inicio = medir ? Metricas.iniciar() : 0L;
+        int fixados = 0, insercoes = 1, remocoes = 0, picoDaFila = 1;
+        long relaxacoes = 0;
+        espaco.iniciar();
+        HeapIndexado heap = espaco.heap();
+        espaco.definir(origem, 0.0, -1);
+        heap.inserirOuDiminuir(origem, 0.0);
+
+        while (!heap.isEmpty()) {
+            double distanciaU = heap.chaveMinima();
+            int u = heap.removerMinimo();
+            remocoes++;
+            fixados++;
+            if (u == destino) {
+                break;
+            }
+            int primeira = grafo.inicioSaida(u), fim = grafo.fimSaida(u);
+            relaxacoes += fim - primeira;
+            for (int e = primeira; e < fim; e++) {
+                int v = grafo.destino(e);
+                double distanciaAtravesU = distanciaU + grafo.peso(e);
+                if (distanciaAtravesU < espaco.distancia(v)) {
+                    espaco.definir(v, distanciaAtravesU, u, e);
+                    heap.inserirOuDiminuir(v, distanciaAtravesU);
+                    insercoes++;
+                    picoDaFila = Math.max(picoDaFila, heap.tamanho());
+                }
+            }
+        }
+        espaco.concluirBusca(Algoritmo.DIJKSTRA, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+    }
+
+    /**
+     * Igual a {@link #buscar}, mas percorre as arestas de entrada (CSR invertido): a distância
+     * calculada para cada vértice {@code v} é a distância de {@code v} até {@code origem}.
+     */
+    static void buscarReversa(GrafoCompacto<?> grafo, EspacoDeTrabalho espaco, int origem, int destino) {
+        espaco.iniciar();
+        HeapIndexado heap = espaco.heap();
+        espaco.definir(origem, 0.0, -1);
+        heap.inserirOuDiminuir(origem, 0.0);
+
+        while (!heap.isEmpty()) {
+            double distanciaU = heap.chaveMinima();
+            int u = heap.removerMinimo();
+            if (u == destino) {
+                return;
+            }
+            for (int e = grafo.inicioEntrada(u), fim = grafo.fimEntrada(u); e < fim; e++) {
+                int v = grafo.origem(e);
+                double distanciaAtravesU = distanciaU + grafo.pesoEntrada(e);
+                if (distanciaAtravesU < espaco.distancia(v)) {
+                    espaco.definir(v, distanciaAtravesU, u);
+                    heap.inserirOuDiminuir(v, distanciaAtravesU);
                 }
             }
         }
     }
 
+    /**
+     * Monta o resultado de uma busca que registrou as arestas dos predecessores
+     * ({@link EspacoDeTrabalho#definir(int, double, int, int)}), em uma única passada pelo
+     * caminho. O custo acumulado de cada vértice é o seu rótulo menos o da origem.
+     */
+    static <T> ResultadoRota<T> montarRota(GrafoCompacto<T> grafo, EspacoDeTrabalho espaco, int destino) {
+        if (!espaco.visitado(destino)) {
+            return ResultadoRota.vazio(espaco.medicao());
+        }
+        ListaDeInteiros indices = new ListaDeInteiros();
+        for (int v = destino; v >= 0; v = espaco.anterior(v)) {
+            indices.adicionar(v);
+        }
+        int tamanho = indices.tamanho();
+        List<Vertice<T>> caminho = new ArrayList<>(tamanho);
+        List<Aresta<T>> arestas = new ArrayList<>(tamanho - 1);
+        double[] custos = new double[tamanho];
+        double rotuloOrigem = espaco.distancia(indices.get(tamanho - 1));
+        for (int i = tamanho - 1; i >= 0; i--) {
+            int v = indices.get(i);
+            Vertice<T> vertice = grafo.getVertice(v);
+            if (!caminho.isEmpty()) {
+                arestas.add(new Aresta<>(grafo.peso(espaco.aresta(v)), caminho.get(caminho.size() - 1), vertice));
+            }
+            custos[caminho.size()] = espaco.distancia(v) - rotuloOrigem;
+            caminho.add(vertice);
+        }
+        return new ResultadoRota<>(caminho, arestas, custos, espaco.medicao());
+    }
+
+    /**
+     * Monta o resultado de {@link #buscarBidirecional}: a metade da frente segue os predecessores
+     * de {@code frente} até a origem, e a de trás segue os sucessores de {@code tras} até o
+     * destino; os dois lados registram a aresta de saída (índice CSR) de cada passo.
+     */
+    static <T> ResultadoRota<T> montarRotaBidirecional(GrafoCompacto<T> grafo, EspacoDeTrabalho frente,
+                                                       EspacoDeTrabalho tras, int encontro) {
+        ListaDeInteiros indices = new ListaDeInteiros();
+        for (int v = encontro; v >= 0; v = frente.anterior(v)) {
+            indices.adicionar(v);
+        }
+        int tamanho = indices.tamanho();
+        for (int v = tras.anterior(encontro); v >= 0; v = tras.anterior(v)) {
+            tamanho++;
+        }
+        List<Vertice<T>> caminho = new ArrayList<>(tamanho);
+        List<Aresta<T>> arestas = new ArrayList<>(tamanho - 1);
+        double[] custos = new double[tamanho];
+        for (int i = indices.tamanho() - 1; i >= 0; i--) {
+            int v = indices.get(i);
+            Vertice<T> vertice = grafo.getVertice(v);
+            if (!caminho.isEmpty()) {
+                arestas.add(new Aresta<>(grafo.peso(frente.aresta(v)), caminho.get(caminho.size() - 1), vertice));
+            }
+            custos[caminho.size()] = frente.distancia(v);
+            caminho.add(vertice);
+        }
+        for (int u = encontro, v = tras.anterior(u); v >= 0; u = v, v = tras.anterior(v)) {
+            double peso = grafo.peso(tras.aresta(u));
+            Vertice<T> vertice = grafo.getVertice(v);
+            arestas.add(new Aresta<>(peso, caminho.get(caminho.size() - 1), vertice));
+            custos[caminho.size()] = custos[caminho.size() - 1] + peso;
+            caminho.add(vertice);
+        }
+        return new ResultadoRota<>(caminho, arestas, custos, frente.medicao());
+    }
+
+    /**
+     * Versão de {@link #montarRota(GrafoCompacto, EspacoDeTrabalho, int)} para as buscas no
+     * grafo de objetos, que guardam a aresta de chegada de cada vértice em um mapa.
+     */
+    static <T> ResultadoRota<T> montarRota(Vertice<T> origem, Vertice<T> destino, Map<Vertice<T>, Aresta<T>> arestasDeChegada,
+                                           MedicaoDeBusca estatisticas) {
+        List<Aresta<T>> arestas = new ArrayList<>();
+        for (Aresta<T> a = arestasDeChegada.get(destino); a != null; a = arestasDeChegada.get(a.getInicio())) {
+            arestas.add(a);
+        }
+        Collections.reverse(arestas);
+        return new ResultadoRota<>(origem, arestas, estatisticas);
+    }
+
+    static <T> List<Vertice<T>> reconstruirCaminho(GrafoCompacto<T> grafo, EspacoDeTrabalho espaco, int destino) {
+        if (!espaco.visitado(destino)) {
+            return Collections.emptyList();
+        }
+        List<Vertice<T>> caminho = new ArrayList<>();
+        for (int v = destino; v >= 0; v = espaco.anterior(v)) {
+            caminho.add(grafo.getVertice(v));
+        }
+        Collections.reverse(caminho);
+        return caminho;
+    }
+
     /**
      * Retorna o caminho mais curto da origem (definida em executar()) até um vértice alvo.
      *
@@ -86,41 +613,104 @@ public class Dijkstra<T> {
      * @return Uma lista de vértices representando o caminho, ou uma lista vazia se não houver caminho.
      */
     public List<Vertice<T>> getMenorCaminho(Vertice<T> alvo) {
+        if (grafoCompacto != null) {
+            return getMenorCaminhoCompacto(alvo);
+        }
         if (anteriores == null) {
             throw new IllegalStateException("O algoritmo de Dijkstra precisa ser executado primeiro.");
         }
-        
+        // Alvos inalcançáveis ficam com distância infinita; os demais têm a cadeia completa até a origem
+        if (getDistancia(alvo) == Double.POSITIVE_INFINITY) {
+            return Collections.emptyList();
+        }
+
         List<Vertice<T>> caminho = new ArrayList<>();
-        // Usa o mapa 'anteriores' para reconstruir o caminho
-        for (Vertice<T> vertice = alvo; vertice != null; vertice = anteriores.get(vertice)) {
-            caminho.add(vertice);
+        caminho.add(alvo);
+        for (Aresta<T> aresta = anteriores.get(alvo); aresta != null; aresta = anteriores.get(aresta.getInicio())) {
+            caminho.add(aresta.getInicio());
         }
         Collections.reverse(caminho);
-        
-        // Se o caminho não começa na origem, significa que o alvo é inalcançável
-        if (!caminho.isEmpty() && !caminho.get(0).getDado().equals(getOrigemDoCaminho(alvo).getDado())) {
-            return Collections.emptyList();
-        }
-        
         return caminho;
     }
+
+    /**
+     * Retorna a rota da origem (definida em executar()) até um vértice alvo, com as arestas,
+     * os custos acumulados e as estatísticas da execução.
+     *
+     * @param alvo O vértice de destino.
+     * @return A rota, ou um resultado sem caminho se o alvo for inalcançável.
+     */
+    public ResultadoRota<T> getRota(Vertice<T> alvo) {
+        if (grafoCompacto != null) {
+            int indice = grafoCompacto.getIndice(alvo.getDado());
+            return indice < 0 ? ResultadoRota.vazio(espacoCompacto.medicao()) : montarRota(grafoCompacto, espacoCompacto, indice);
+        }
+        if (anteriores == null) {
+            throw new IllegalStateException("O algoritmo de Dijkstra precisa ser executado primeiro.");
+        }
+        if (getDistancia(alvo) == Double.POSITIVE_INFINITY) {
+            return ResultadoRota.vazio(medicao);
+        }
+        return montarRota(origemExecutada, alvo, anteriores, medicao);
+    }
     
     /**
      * Retorna a distância mínima da origem até um vértice alvo.
      */
     public double getDistancia(Vertice<T> alvo){
+        if (grafoCompacto != null) {
+            int indice = grafoCompacto.getIndice(alvo.getDado());
+            return indice < 0 ? Double.POSITIVE_INFINITY : espacoCompacto.distancia(indice);
+        }
         if(distancias == null){
              throw new IllegalStateException("O algoritmo de Dijkstra precisa ser executado primeiro.");
         }
         return distancias.getOrDefault(alvo, Double.POSITIVE_INFINITY);
     }
     
-    // Método auxiliar privado para encontrar a origem real do caminho reconstruído
-    private Vertice<T> getOrigemDoCaminho(Vertice<T> alvo) {
-        Vertice<T> v = alvo;
-        while(anteriores.get(v) != null) {
-            v = anteriores.get(v);
+    private List<Vertice<T>> getMenorCaminhoCompacto(Vertice<T> alvo) {
+        int indice = grafoCompacto.getIndice(alvo.getDado());
+        if (indice < 0) {
+            return Collections.emptyList();
+        }
+        return reconstruirCaminho(grafoCompacto, espacoCompacto, indice);
+    }
+
+    private void limparResultadosCompactos() {
+        grafoCompacto = null;
+    }
+
+    // Estado de um dos lados da busca bidirecional no grafo de objetos
+    private static final class LadoDaBusca<T> {
+        final Map<Vertice<T>, Double> distancias = new HashMap<>();
+        // Aresta pela qual cada vértice foi alcançado (no lado de trás, a que sai dele)
+        final Map<Vertice<T>, Aresta<T>> arestas = new HashMap<>();
+        final Set<Vertice<T>> fixados = new HashSet<>();
+        final PriorityQueue<EntradaFila<T>> fila = new PriorityQueue<>();
+
+        LadoDaBusca(Vertice<T> inicio) {
+            distancias.put(inicio, 0.0);
+            fila.add(new EntradaFila<>(inicio, 0.0));
+        }
+
+        double topo() {
+            return fila.peek().distancia;
+        }
+    }
+
+    // Entrada imutável da fila: a distância fica congelada, então a ordem do heap nunca se corrompe
+    private static final class EntradaFila<T> implements Comparable<EntradaFila<T>> {
+        final Vertice<T> vertice;
+        final double distancia;
+
+        EntradaFila(Vertice<T> vertice, double distancia) {
+            this.vertice = vertice;
+            this.distancia = distancia;
+        }
+
+        @Override
+        public int compareTo(EntradaFila<T> outra) {
+            return Double.compare(distancia, outra.distancia);
         }
-        return v;
     }
-}
\ No newline at end of file
+}
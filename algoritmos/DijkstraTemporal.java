@@ -0,0 +1,122 @@
+package algoritmos;
+
+import lib.GrafoCompacto;
+import lib.PerfisDeTempo;
+
+/**
+ * Dijkstra (ou A*, com uma heurística) dependente do tempo: dado um horário de partida,
+ * encontra a rota que chega mais cedo ao destino quando o tempo de cada aresta depende do
+ * instante em que ela é atravessada ({@link PerfisDeTempo}).
+ * <p>
+ * O rótulo de cada vértice é o instante de chegada, e relaxar a aresta {@code (u, v)} dá
+ * {@code chegada(u) + tempoDeViagem(e, chegada(u))}. Com a propriedade FIFO garantida pelos
+ * perfis, esperar nunca compensa e a busca é tão correta quanto o Dijkstra estático, com o
+ * mesmo espaço de trabalho e heap; o custo extra por aresta é uma interpolação.
+ * <p>
+ * No modo A*, a heurística estima o custo estático restante; ela é multiplicada pelo menor
+ * fator dos perfis para continuar admissível. Não há estado na instância: as consultas podem
+ * ser feitas concorrentemente.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class DijkstraTemporal<T> {
+
+    private final PerfisDeTempo perfis;
+    // Nula no modo Dijkstra, para não pagar a chamada da estimativa a cada relaxação
+    private final Heuristica<T> heuristica;
+    private final double escalaHeuristica;
+
+    /**
+     * Cria a busca sem heurística (Dijkstra).
+     */
+    public DijkstraTemporal(PerfisDeTempo perfis) {
+        this.perfis = perfis;
+        this.heuristica = null;
+        this.escalaHeuristica = 0.0;
+    }
+
+    /**
+     * Cria a busca guiada por uma heurística admissível para os pesos estáticos (A*).
+     */
+    public DijkstraTemporal(PerfisDeTempo perfis, Heuristica<T> heuristica) {
+        this.perfis = perfis;
+        this.heuristica = heuristica;
+        this.escalaHeuristica = perfis.getMenorFator();
+    }
+
+    /**
+     * Calcula a rota mais rápida saindo da origem no instante {@code partida}.
+     *
+     * @param grafo O grafo para o qual os perfis foram montados.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @param dadoDestino O dado do vértice de destino.
+     * @param partida O instante de partida, na mesma unidade dos perfis.
+     * @return A rota; o custo é a duração da viagem, e a chegada é {@code partida + custo}. Os
+     *         custos acumulados são os tempos decorridos até cada vértice, e as arestas trazem
+     *         os pesos estáticos.
+     */
+    public ResultadoRota<T> calcularRota(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino, double partida) {
+        int destino = buscar(grafo, dadoOrigem, dadoDestino, partida);
+        return Dijkstra.montarRota(grafo, EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices()), destino);
+    }
+
+    /**
+     * Calcula o instante de chegada mais cedo ao destino saindo no instante {@code partida}.
+     *
+     * @return O instante de chegada, ou {@code Double.POSITIVE_INFINITY} se não houver caminho.
+     */
+    public double calcularChegada(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino, double partida) {
+        int destino = buscar(grafo, dadoOrigem, dadoDestino, partida);
+        return EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices()).distancia(destino);
+    }
+
+    private int buscar(GrafoCompacto<T> grafo, T dadoOrigem, T dadoDestino, double partida) {
+        if (!perfis.pertenceA(grafo)) {
+            throw new IllegalArgumentException("Os perfis de tempo não foram montados para este grafo.");
+        }
+        if (Double.isNaN(partida) || Double.isInfinite(partida)) {
+            throw new IllegalArgumentException("O instante de partida deve ser finito.");
+        }
+        int origem = grafo.getIndice(dadoOrigem);
+        int destino = grafo.getIndice(dadoDestino);
+        if (origem < 0 || destino < 0) {
+            throw new IllegalArgumentException("Vértice de origem ou destino não encontrado no grafo.");
+        }
+
+        long inicio = Metricas.iniciar();
+        int fixados = 0, insercoes = 1, remocoes = 0, picoDaFila = 1;
+        long relaxacoes = 0;
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        espaco.iniciar();
+        HeapIndexado fila = espaco.heap();
+        espaco.definir(origem, partida, -1);
+        fila.inserirOuDiminuir(origem, partida + estimar(grafo, origem, destino));
+        while (!fila.isEmpty()) {
+            int u = fila.removerMinimo();
+            remocoes++;
+            fixados++;
+            if (u == destino) {
+                break;
+            }
+            double chegadaU = espaco.distancia(u);
+            int primeira = grafo.inicioSaida(u), fim = grafo.fimSaida(u);
+            relaxacoes += fim - primeira;
+            for (int e = primeira; e < fim; e++) {
+                int v = grafo.destino(e);
+                double chegadaV = chegadaU + perfis.tempoDeViagem(e, chegadaU);
+                if (chegadaV < espaco.distancia(v)) {
+                    espaco.definir(v, chegadaV, u, e);
+                    fila.inserirOuDiminuir(v, chegadaV + estimar(grafo, v, destino));
+                    insercoes++;
+                    picoDaFila = Math.max(picoDaFila, fila.tamanho());
+                }
+            }
+        }
+        espaco.concluirBusca(Algoritmo.DIJKSTRA_TEMPORAL, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+        return destino;
+    }
+
+    private double estimar(GrafoCompacto<T> grafo, int v, int destino) {
+        return heuristica == null ? 0.0 : heuristica.estimar(grafo, v, destino) * escalaHeuristica;
+    }
+}
@@ -0,0 +1,180 @@
+package algoritmos;
+
+import java.util.Arrays;
+
+/**
+ * Memória de rascunho reutilizável para buscas sobre um {@link lib.GrafoCompacto}.
+ * Guarda distâncias e predecessores em vetores primitivos e um heap indexado.
+ * <p>
+ * Em vez de reinicializar os vetores a cada consulta (custo O(V)), cada posição carrega
+ * um carimbo de geração: uma posição só é considerada válida se o seu carimbo for igual à
+ * geração atual. Iniciar uma nova consulta é apenas incrementar a geração, de modo que
+ * consultas curtas custam proporcionalmente à região explorada e não alocam memória.
+ * <p>
+ * Um espaço de trabalho não é thread-safe; use {@link #daThreadAtual(int)} para obter
+ * uma instância exclusiva da thread corrente.
+ */
+final class EspacoDeTrabalho {
+
+    private static final ThreadLocal<EspacoDeTrabalho> POR_THREAD =
+            ThreadLocal.withInitial(() -> new EspacoDeTrabalho(0));
+    // Segundo espaço por thread, usado pelo lado reverso das buscas bidirecionais
+    private static final ThreadLocal<EspacoDeTrabalho> REVERSO_POR_THREAD =
+            ThreadLocal.withInitial(() -> new EspacoDeTrabalho(0));
+    // Terceiro espaço por thread, reservado por buscas que chamam código externo no meio do laço
+    private static final ThreadLocal<EspacoDeTrabalho> RESERVAVEL_POR_THREAD =
+            ThreadLocal.withInitial(() -> new EspacoDeTrabalho(0));
+
+    private double[] distancias;
+    private int[] anteriores;
+    // Aresta de saída (índice CSR) pela qual cada vértice foi alcançado, nas buscas que a registram
+    private int[] arestas;
+    private int[] geracoes;
+    private int geracaoAtual;
+    private final HeapIndexado heap;
+    private boolean reservado;
+
+    // Contadores da última busca concluída, para as estatísticas do resultado
+    private Algoritmo algoritmo;
+    private long nanos;
+    private int fixados;
+    private long relaxacoes;
+    private int insercoes;
+    private int remocoes;
+    private int picoDaFila;
+
+    EspacoDeTrabalho(int capacidade) {
+        this.distancias = new double[capacidade];
+        this.anteriores = new int[capacidade];
+        this.arestas = new int[capacidade];
+        this.geracoes = new int[capacidade];
+        this.heap = new HeapIndexado(capacidade);
+    }
+
+    /**
+     * Retorna o espaço de trabalho da thread atual, com capacidade para ao menos {@code capacidade} vértices.
+     */
+    static EspacoDeTrabalho daThreadAtual(int capacidade) {
+        EspacoDeTrabalho espaco = POR_THREAD.get();
+        espaco.garantirCapacidade(capacidade);
+        return espaco;
+    }
+
+    /**
+     * Retorna um segundo espaço de trabalho da thread atual, distinto de {@link #daThreadAtual(int)},
+     * para buscas que precisam de dois espaços ao mesmo tempo (por exemplo, bidirecionais).
+     */
+    static EspacoDeTrabalho reversoDaThreadAtual(int capacidade) {
+        EspacoDeTrabalho espaco = REVERSO_POR_THREAD.get();
+        espaco.garantirCapacidade(capacidade);
+        return espaco;
+    }
+
+    /**
+     * Reserva um espaço de trabalho distinto dos dois acima, para buscas que chamam código
+     * externo (um ouvinte) no meio do laço: esse código pode fazer consultas comuns na mesma
+     * thread, que reiniciam {@link #daThreadAtual(int)}, sem corromper a busca em andamento.
+     * Se o espaço reservável da thread já estiver em uso (uma busca dessas dentro de outra),
+     * é criado um novo. Deve ser devolvido com {@link #devolver()} ao fim da busca.
+     */
+    static EspacoDeTrabalho reservarDaThreadAtual(int capacidade) {
+        EspacoDeTrabalho espaco = RESERVAVEL_POR_THREAD.get();
+        if (espaco.reservado) {
+            espaco = new EspacoDeTrabalho(capacidade);
+        }
+        espaco.garantirCapacidade(capacidade);
+        espaco.reservado = true;
+        return espaco;
+    }
+
+    /** Devolve um espaço obtido com {@link #reservarDaThreadAtual(int)}. */
+    void devolver() {
+        reservado = false;
+    }
+
+    void garantirCapacidade(int capacidade) {
+        if (capacidade > geracoes.length) {
+            int nova = Math.max(capacidade, geracoes.length + (geracoes.length >> 1));
+            distancias = Arrays.copyOf(distancias, nova);
+            anteriores = Arrays.copyOf(anteriores, nova);
+            arestas = Arrays.copyOf(arestas, nova);
+            geracoes = Arrays.copyOf(geracoes, nova);
+        }
+        heap.garantirCapacidade(geracoes.length);
+    }
+
+    /**
+     * Começa uma nova consulta: invalida todas as posições em O(1) e esvazia o heap.
+     */
+    void iniciar() {
+        heap.limpar();
+        if (++geracaoAtual == Integer.MAX_VALUE) {
+            // Estouro do contador (raríssimo): zera os carimbos de verdade
+            Arrays.fill(geracoes, 0);
+            geracaoAtual = 1;
+        }
+    }
+
+    boolean visitado(int v) {
+        return geracoes[v] == geracaoAtual;
+    }
+
+    double distancia(int v) {
+        return geracoes[v] == geracaoAtual ? distancias[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /** Predecessor de {@code v} na consulta atual, ou -1 se não houver. */
+    int anterior(int v) {
+        return geracoes[v] == geracaoAtual ? anteriores[v] : -1;
+    }
+
+    void definir(int v, double distancia, int anterior) {
+        geracoes[v] = geracaoAtual;
+        distancias[v] = distancia;
+        anteriores[v] = anterior;
+    }
+
+    /**
+     * Igual a {@link #definir(int, double, int)}, registrando também a aresta de saída de
+     * {@code anterior} pela qual {@code v} foi alcançado.
+     */
+    void definir(int v, double distancia, int anterior, int aresta) {
+        geracoes[v] = geracaoAtual;
+        distancias[v] = distancia;
+        anteriores[v] = anterior;
+        arestas[v] = aresta;
+    }
+
+    /** Aresta pela qual {@code v} foi alcançado, ou -1 se não houver. */
+    int aresta(int v) {
+        return geracoes[v] == geracaoAtual && anteriores[v] >= 0 ? arestas[v] : -1;
+    }
+
+    /**
+     * Guarda os contadores da busca que acabou de terminar e, se ela foi iniciada com as
+     * {@link Metricas} ativas ({@code inicio != 0}), registra-a nas métricas.
+     */
+    void concluirBusca(Algoritmo algoritmo, long inicio, int fixados, long relaxacoes,
+                       int insercoes, int remocoes, int picoDaFila) {
+        this.algoritmo = algoritmo;
+        this.fixados = fixados;
+        this.relaxacoes = relaxacoes;
+        this.insercoes = insercoes;
+        this.remocoes = remocoes;
+        this.picoDaFila = picoDaFila;
+        this.nanos = inicio != 0L
+                ? Metricas.registrar(algoritmo, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila)
+                : 0L;
+    }
+
+    /**
+     * Retorna os contadores da última busca concluída neste espaço.
+     */
+    MedicaoDeBusca medicao() {
+        return new MedicaoDeBusca(algoritmo, nanos, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+    }
+
+    HeapIndexado heap() {
+        return heap;
+    }
+}
@@ -0,0 +1,141 @@
+package algoritmos;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agregado das buscas de um algoritmo desde a última limpeza: totais dos contadores e
+ * histogramas de latência e de tamanho do espaço de busca (vértices fixados). Todos os
+ * campos são atualizados sem travas, então várias threads podem registrar ao mesmo tempo.
+ * Obtida por {@link Metricas#getEstatisticas(Algoritmo)}.
+ */
+public final class EstatisticasDeBusca implements EstatisticasDeBuscaMBean {
+
+    private final Algoritmo algoritmo;
+    private final Histograma latencia = new Histograma();
+    private final Histograma fixados = new Histograma();
+    private final LongAdder relaxacoes = new LongAdder();
+    private final LongAdder insercoes = new LongAdder();
+    private final LongAdder remocoes = new LongAdder();
+    private final LongAccumulator picoDaFila = new LongAccumulator(Math::max, 0L);
+
+    EstatisticasDeBusca(Algoritmo algoritmo) {
+        this.algoritmo = algoritmo;
+    }
+
+    void registrar(long nanos, int verticesFixados, long arestasRelaxadas, int entradasNaFila,
+                   int saidasDaFila, int maiorFila) {
+        latencia.registrar(nanos);
+        fixados.registrar(verticesFixados);
+        relaxacoes.add(arestasRelaxadas);
+        insercoes.add(entradasNaFila);
+        remocoes.add(saidasDaFila);
+        picoDaFila.accumulate(maiorFila);
+    }
+
+    public Algoritmo getAlgoritmo() {
+        return algoritmo;
+    }
+
+    /**
+     * Retorna o histograma das latências, em nanossegundos.
+     */
+    public Histograma getLatencia() {
+        return latencia;
+    }
+
+    /**
+     * Retorna o histograma da quantidade de vértices fixados por busca.
+     */
+    public Histograma getFixados() {
+        return fixados;
+    }
+
+    @Override
+    public long getConsultas() {
+        return latencia.getQuantidade();
+    }
+
+    @Override
+    public double getLatenciaMediaMicros() {
+        return latencia.getMedia() / 1e3;
+    }
+
+    @Override
+    public double getLatenciaP50Micros() {
+        return latencia.getPercentil(50) / 1e3;
+    }
+
+    @Override
+    public double getLatenciaP90Micros() {
+        return latencia.getPercentil(90) / 1e3;
+    }
+
+    @Override
+    public double getLatenciaP99Micros() {
+        return latencia.getPercentil(99) / 1e3;
+    }
+
+    @Override
+    public double getLatenciaMaximaMicros() {
+        return latencia.getMaximo() / 1e3;
+    }
+
+    @Override
+    public double getFixadosMedio() {
+        return fixados.getMedia();
+    }
+
+    @Override
+    public long getFixadosP50() {
+        return fixados.getPercentil(50);
+    }
+
+    @Override
+    public long getFixadosP99() {
+        return fixados.getPercentil(99);
+    }
+
+    @Override
+    public long getFixadosMaximo() {
+        return fixados.getMaximo();
+    }
+
+    @Override
+    public long getRelaxacoes() {
+        return relaxacoes.sum();
+    }
+
+    @Override
+    public long getInsercoes() {
+        return insercoes.sum();
+    }
+
+    @Override
+    public long getRemocoes() {
+        return remocoes.sum();
+    }
+
+    @Override
+    public long getPicoDaFila() {
+        return picoDaFila.get();
+    }
+
+    @Override
+    public void limpar() {
+        latencia.limpar();
+        fixados.limpar();
+        relaxacoes.reset();
+        insercoes.reset();
+        remocoes.reset();
+        picoDaFila.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EstatisticasDeBusca{%s, consultas=%d, latencia p50=%.1f us p99=%.1f us max=%.1f us, "
+                        + "fixados media=%.1f p99=%d, relaxacoes=%d, picoDaFila=%d}",
+                algoritmo, getConsultas(), getLatenciaP50Micros(), getLatenciaP99Micros(), getLatenciaMaximaMicros(),
+                getFixadosMedio(), getFixadosP99(), getRelaxacoes(), getPicoDaFila());
+    }
+}
@@ -0,0 +1,38 @@
+package algoritmos;
+
+/**
+ * Interface de gerenciamento (JMX) de {@link EstatisticasDeBusca}. Os tempos são expostos
+ * em microssegundos.
+ */
+public interface EstatisticasDeBuscaMBean {
+
+    long getConsultas();
+
+    double getLatenciaMediaMicros();
+
+    double getLatenciaP50Micros();
+
+    double getLatenciaP90Micros();
+
+    double getLatenciaP99Micros();
+
+    double getLatenciaMaximaMicros();
+
+    double getFixadosMedio();
+
+    long getFixadosP50();
+
+    long getFixadosP99();
+
+    long getFixadosMaximo();
+
+    long getRelaxacoes();
+
+    long getInsercoes();
+
+    long getRemocoes();
+
+    long getPicoDaFila();
+
+    void limpar();
+}
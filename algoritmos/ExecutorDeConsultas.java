@@ -0,0 +1,175 @@
+package algoritmos;
+
+import lib.GrafoCompacto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executa muitas consultas de rota em paralelo sobre um mesmo {@link GrafoCompacto}
+ * somente leitura.
+ * <p>
+ * As consultas rodam em um pool limitado de threads de trabalho. Cada thread tem seu
+ * próprio espaço de trabalho (vetores de distância, predecessores e heap), reaproveitado
+ * entre consultas, de modo que não há disputa por memória nem alocação por consulta além
+ * do resultado. A fila de espera também é limitada: quando ela enche, a thread que
+ * submete a consulta a executa ela mesma, o que freia naturalmente quem produz demais.
+ * Depois de {@link #close()}, novas consultas são recusadas com um futuro que termina com
+ * {@link RejectedExecutionException}.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class ExecutorDeConsultas<T> implements AutoCloseable {
+
+    private final GrafoCompacto<T> grafo;
+    private final Dijkstra<T> dijkstra = new Dijkstra<>();
+    private final AEstrela<T> aEstrela;
+    private final BuscaEmLargura<T> buscaEmLargura = new BuscaEmLargura<>();
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * Cria um executor com uma thread por núcleo e A* guiado pela heurística nula.
+     */
+    public ExecutorDeConsultas(GrafoCompacto<T> grafo) {
+        this(grafo, Runtime.getRuntime().availableProcessors(), Heuristica.nula());
+    }
+
+    /**
+     * @param grafo O grafo compartilhado, que não deve mais ser alterado.
+     * @param threads O número de threads de trabalho.
+     * @param heuristica A heurística usada nas consultas de {@link Algoritmo#A_ESTRELA}.
+     */
+    public ExecutorDeConsultas(GrafoCompacto<T> grafo, int threads, Heuristica<T> heuristica) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("O número de threads deve ser positivo.");
+        }
+        this.grafo = Objects.requireNonNull(grafo, "O grafo não pode ser nulo.");
+        this.aEstrela = new AEstrela<>(heuristica);
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 64), new FabricaDeThreads(),
+                new ExecutarNoChamador());
+    }
+
+    /**
+     * Submete uma consulta ponto a ponto.
+     *
+     * @param algoritmo O algoritmo a ser usado: Dijkstra, A* ou busca em largura.
+     * @param dadoOrigem O dado do vértice de origem.
+     * @param dadoDestino O dado do vértice de destino.
+     * @return Um futuro com o resultado imutável da consulta; se o executor já foi fechado, um
+     *         futuro que termina com {@link RejectedExecutionException}.
+     * @throws IllegalArgumentException se o algoritmo não for executado por esta classe.
+     */
+    public CompletableFuture<ResultadoRota<T>> submeter(Algoritmo algoritmo, T dadoOrigem, T dadoDestino) {
+        Objects.requireNonNull(algoritmo, "O algoritmo não pode ser nulo.");
+        if (algoritmo == Algoritmo.DIJKSTRA_TEMPORAL) {
+            throw new IllegalArgumentException("Algoritmo não suportado: " + algoritmo);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> calcular(algoritmo, dadoOrigem, dadoDestino), pool);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<ResultadoRota<T>> recusado = new CompletableFuture<>();
+            recusado.completeExceptionally(e);
+            return recusado;
+        }
+    }
+
+    public CompletableFuture<ResultadoRota<T>> dijkstra(T dadoOrigem, T dadoDestino) {
+        return submeter(Algoritmo.DIJKSTRA, dadoOrigem, dadoDestino);
+    }
+
+    public CompletableFuture<ResultadoRota<T>> aEstrela(T dadoOrigem, T dadoDestino) {
+        return submeter(Algoritmo.A_ESTRELA, dadoOrigem, dadoDestino);
+    }
+
+    public CompletableFuture<ResultadoRota<T>> buscaEmLargura(T dadoOrigem, T dadoDestino) {
+        return submeter(Algoritmo.BUSCA_EM_LARGURA, dadoOrigem, dadoDestino);
+    }
+
+    /**
+     * Executa um lote de consultas em paralelo e espera todas terminarem.
+     *
+     * @param algoritmo O algoritmo usado em todas as consultas.
+     * @param origens Os dados das origens.
+     * @param destinos Os dados dos destinos, na mesma ordem das origens.
+     * @return Os resultados, na mesma ordem das consultas.
+     */
+    public List<ResultadoRota<T>> calcularTodas(Algoritmo algoritmo, List<T> origens, List<T> destinos) {
+        if (origens.size() != destinos.size()) {
+            throw new IllegalArgumentException("As listas de origens e destinos devem ter o mesmo tamanho.");
+        }
+        List<CompletableFuture<ResultadoRota<T>>> futuros = new ArrayList<>(origens.size());
+        for (int i = 0; i < origens.size(); i++) {
+            futuros.add(submeter(algoritmo, origens.get(i), destinos.get(i)));
+        }
+        List<ResultadoRota<T>> resultados = new ArrayList<>(futuros.size());
+        for (CompletableFuture<ResultadoRota<T>> futuro : futuros) {
+            resultados.add(futuro.join());
+        }
+        return resultados;
+    }
+
+    public GrafoCompacto<T> getGrafo() {
+        return grafo;
+    }
+
+    private ResultadoRota<T> calcular(Algoritmo algoritmo, T dadoOrigem, T dadoDestino) {
+        switch (algoritmo) {
+            case DIJKSTRA:
+                return dijkstra.calcularRota(grafo, dadoOrigem, dadoDestino);
+            case A_ESTRELA:
+                return aEstrela.calcularRota(grafo, dadoOrigem, dadoDestino);
+            case BUSCA_EM_LARGURA:
+                return buscaEmLargura.calcularRota(grafo, dadoOrigem, dadoDestino);
+            default:
+                throw new IllegalArgumentException("Algoritmo não suportado: " + algoritmo);
+        }
+    }
+
+    /**
+     * Recusa novas consultas e espera as que estão em andamento (e as já enfileiradas) terminarem.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Fila cheia: quem submete executa a consulta. Depois do close recusa, em vez de descartar
+    // a tarefa em silêncio como a CallerRunsPolicy (o futuro nunca terminaria)
+    private static final class ExecutarNoChamador implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable tarefa, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("O executor de consultas já foi fechado.");
+            }
+            tarefa.run();
+        }
+    }
+
+    // Threads daemon com nome, para não impedir o encerramento da aplicação
+    private static final class FabricaDeThreads implements ThreadFactory {
+        private static final AtomicInteger CONTADOR = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable tarefa) {
+            Thread thread = new Thread(tarefa, "consulta-rota-" + CONTADOR.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
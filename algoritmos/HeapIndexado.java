@@ -0,0 +1,144 @@
+package algoritmos;
+
+import java.util.Arrays;
+
+/**
+ * Fila de prioridade mínima d-ária e indexada sobre índices inteiros de vértices.
+ * Cada vértice aparece no máximo uma vez e sua chave pode ser diminuída em
+ * O(log_d n) (decrease-key), evitando as entradas duplicadas de uma PriorityQueue comum.
+ * As chaves são 'double' primitivos, sem boxing.
+ */
+final class HeapIndexado {
+
+    private final int aridade;
+    private int[] heap;       // posição -> vértice
+    private double[] chaves;  // posição -> chave
+    private int[] posicao;    // vértice -> posição no heap, ou -1 se ausente
+    private int tamanho;
+
+    HeapIndexado(int capacidade) {
+        this(capacidade, 4);
+    }
+
+    HeapIndexado(int capacidade, int aridade) {
+        if (aridade < 2) {
+            throw new IllegalArgumentException("A aridade do heap deve ser pelo menos 2.");
+        }
+        this.aridade = aridade;
+        this.heap = new int[capacidade];
+        this.chaves = new double[capacidade];
+        this.posicao = new int[capacidade];
+        Arrays.fill(posicao, -1);
+    }
+
+    /**
+     * Garante espaço para vértices de índice até {@code capacidade - 1}. Só realoca se necessário.
+     */
+    void garantirCapacidade(int capacidade) {
+        if (capacidade <= posicao.length) {
+            return;
+        }
+        int antiga = posicao.length;
+        heap = Arrays.copyOf(heap, capacidade);
+        chaves = Arrays.copyOf(chaves, capacidade);
+        posicao = Arrays.copyOf(posicao, capacidade);
+        Arrays.fill(posicao, antiga, capacidade, -1);
+    }
+
+    boolean isEmpty() {
+        return tamanho == 0;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    boolean contem(int vertice) {
+        return posicao[vertice] >= 0;
+    }
+
+    double chaveMinima() {
+        return chaves[0];
+    }
+
+    int verticeMinimo() {
+        return heap[0];
+    }
+
+    /**
+     * Insere o vértice com a chave informada ou, se ele já estiver no heap,
+     * diminui sua chave. Chaves maiores que a atual são ignoradas.
+     */
+    void inserirOuDiminuir(int vertice, double chave) {
+        int pos = posicao[vertice];
+        if (pos < 0) {
+            pos = tamanho++;
+        } else if (chave >= chaves[pos]) {
+            return;
+        }
+        subir(pos, vertice, chave);
+    }
+
+    /**
+     * Remove e retorna o vértice de menor chave.
+     */
+    int removerMinimo() {
+        int minimo = heap[0];
+        posicao[minimo] = -1;
+        int ultimo = --tamanho;
+        if (ultimo > 0) {
+            descer(0, heap[ultimo], chaves[ultimo]);
+        }
+        return minimo;
+    }
+
+    /**
+     * Esvazia o heap em O(tamanho), deixando-o pronto para a próxima consulta.
+     */
+    void limpar() {
+        for (int i = 0; i < tamanho; i++) {
+            posicao[heap[i]] = -1;
+        }
+        tamanho = 0;
+    }
+
+    private void subir(int pos, int vertice, double chave) {
+        while (pos > 0) {
+            int pai = (pos - 1) / aridade;
+            if (chaves[pai] <= chave) {
+                break;
+            }
+            mover(heap[pai], chaves[pai], pos);
+            pos = pai;
+        }
+        mover(vertice, chave, pos);
+    }
+
+    private void descer(int pos, int vertice, double chave) {
+        while (true) {
+            int primeiroFilho = pos * aridade + 1;
+            if (primeiroFilho >= tamanho) {
+                break;
+            }
+            int ultimoFilho = Math.min(primeiroFilho + aridade, tamanho);
+            int menor = primeiroFilho;
+            for (int f = primeiroFilho + 1; f < ultimoFilho; f++) {
+                if (chaves[f] < chaves[menor]) {
+                    menor = f;
+                }
+            }
+            if (chaves[menor] >= chave) {
+                break;
+            }
+            mover(heap[menor], chaves[menor], pos);
+            pos = menor;
+        }
+        mover(vertice, chave, pos);
+    }
+
+    private void mover(int vertice, double chave, int pos) {
+        heap[pos] = vertice;
+        chaves[pos] = chave;
+        posicao[vertice] = pos;
+    }
+}
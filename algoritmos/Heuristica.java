@@ -0,0 +1,45 @@
+package algoritmos;
+
+import lib.GrafoCompacto;
+import lib.Vertice;
+
+import java.util.function.BiFunction;
+
+/**
+ * Estimativa do custo restante de um vértice até o objetivo, usada pelo {@link AEstrela}.
+ * Para que o A* encontre o caminho ótimo, a heurística deve ser admissível, ou seja,
+ * nunca superestimar o custo real até o objetivo.
+ * <p>
+ * Estende {@link BiFunction} apenas por compatibilidade; os algoritmos chamam
+ * {@link #estimar(Vertice, Vertice)}, que devolve um 'double' primitivo sem boxing.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+@FunctionalInterface
+public interface Heuristica<T> extends BiFunction<Vertice<T>, Vertice<T>, Double> {
+
+    double estimar(Vertice<T> atual, Vertice<T> objetivo);
+
+    /**
+     * Versão da estimativa para índices de um {@link GrafoCompacto}, chamada pelo A* a cada
+     * relaxação. A implementação padrão cria os dois vértices a cada chamada (e, em grafos
+     * serializados, também os dados); heurísticas usadas em grafos grandes devem sobrescrever
+     * este método e ler o que precisam pelo índice, como as de {@link Heuristicas} e
+     * {@link Landmarks}.
+     */
+    default double estimar(GrafoCompacto<T> grafo, int atual, int objetivo) {
+        return estimar(grafo.getVertice(atual), grafo.getVertice(objetivo));
+    }
+
+    @Override
+    default Double apply(Vertice<T> atual, Vertice<T> objetivo) {
+        return estimar(atual, objetivo);
+    }
+
+    /**
+     * Heurística trivial (sempre zero): o A* se comporta como o Dijkstra.
+     */
+    static <T> Heuristica<T> nula() {
+        return (atual, objetivo) -> 0.0;
+    }
+}
@@ -0,0 +1,126 @@
+package algoritmos;
+
+import lib.Aresta;
+import lib.Grafo;
+import lib.GrafoComCoordenadas;
+import lib.GrafoCompacto;
+import lib.Localidade;
+import lib.Vertice;
+
+/**
+ * Heurísticas prontas para grafos de {@link Localidade}, baseadas nas coordenadas (x, y).
+ * <p>
+ * Com fator de escala 1.0 as heurísticas só são admissíveis se o peso de cada aresta for pelo
+ * menos o comprimento euclidiano dela (a distância entre as coordenadas das pontas); se algum
+ * peso for menor, o A* pode devolver rotas mais caras que a ótima. Quando os pesos estão em
+ * outra unidade (por exemplo, tempo de viagem) ou não seguem as coordenadas, use o fator de
+ * escala para converter distância em custo: ele deve ser o menor custo possível por unidade
+ * de distância (por exemplo, 1 / velocidade máxima), que {@link #fatorAdmissivel} calcula a
+ * partir das arestas do grafo.
+ * <p>
+ * Sobre um {@link GrafoCompacto}, as estimativas leem as coordenadas pelo índice
+ * ({@link GrafoComCoordenadas} ou {@link GrafoCompacto#getDado}), sem criar vértices nem
+ * localidades: o A* compacto continua sem alocação por relaxação.
+ */
+public final class Heuristicas {
+
+    private Heuristicas() {
+    }
+
+    /**
+     * Distância em linha reta entre as coordenadas. Admissível só se nenhum peso for menor que
+     * o comprimento euclidiano da aresta.
+     */
+    public static Heuristica<Localidade> euclidiana() {
+        return euclidiana(1.0);
+    }
+
+    /** Distância em linha reta multiplicada por {@code fatorEscala}. */
+    public static Heuristica<Localidade> euclidiana(double fatorEscala) {
+        validarFator(fatorEscala);
+        return new HeuristicaDeCoordenadas(fatorEscala) {
+            @Override
+            double distancia(int x1, int y1, int x2, int y2) {
+                double dx = x1 - x2;
+                double dy = y1 - y2;
+                return Math.sqrt(dx * dx + dy * dy);
+            }
+        };
+    }
+
+    /**
+     * Distância de Manhattan (|dx| + |dy|). Só é admissível em malhas onde as ruas seguem
+     * os eixos, pois pode superestimar deslocamentos em diagonal.
+     */
+    public static Heuristica<Localidade> manhattan() {
+        return manhattan(1.0);
+    }
+
+    /** Distância de Manhattan multiplicada por {@code fatorEscala}. */
+    public static Heuristica<Localidade> manhattan(double fatorEscala) {
+        validarFator(fatorEscala);
+        return new HeuristicaDeCoordenadas(fatorEscala) {
+            @Override
+            double distancia(int x1, int y1, int x2, int y2) {
+                return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+            }
+        };
+    }
+
+    /**
+     * Retorna o maior fator de escala que mantém as heurísticas euclidianas admissíveis no grafo:
+     * o menor peso por unidade de comprimento entre as suas arestas (arestas de comprimento zero
+     * não limitam o fator). É 1.0 quando todo peso é pelo menos o comprimento da aresta, e 0.0
+     * (A* equivalente ao Dijkstra) se não houver arestas com comprimento ou houver pesos negativos.
+     */
+    public static double fatorAdmissivel(Grafo<Localidade> grafo) {
+        double fator = Double.POSITIVE_INFINITY;
+        for (Aresta<Localidade> aresta : grafo.getArestas()) {
+            Localidade p1 = aresta.getInicio().getDado();
+            Localidade p2 = aresta.getFim().getDado();
+            double dx = p1.getX() - p2.getX();
+            double dy = p1.getY() - p2.getY();
+            double comprimento = Math.sqrt(dx * dx + dy * dy);
+            if (comprimento > 0.0) {
+                fator = Math.min(fator, aresta.getPeso() / comprimento);
+            }
+        }
+        return fator == Double.POSITIVE_INFINITY ? 0.0 : Math.max(fator, 0.0);
+    }
+
+    // Base das heurísticas geométricas: só muda a distância entre as coordenadas
+    private abstract static class HeuristicaDeCoordenadas implements Heuristica<Localidade> {
+        private final double fatorEscala;
+
+        HeuristicaDeCoordenadas(double fatorEscala) {
+            this.fatorEscala = fatorEscala;
+        }
+
+        abstract double distancia(int x1, int y1, int x2, int y2);
+
+        @Override
+        public double estimar(Vertice<Localidade> atual, Vertice<Localidade> objetivo) {
+            Localidade p1 = atual.getDado();
+            Localidade p2 = objetivo.getDado();
+            return distancia(p1.getX(), p1.getY(), p2.getX(), p2.getY()) * fatorEscala;
+        }
+
+        @Override
+        public double estimar(GrafoCompacto<Localidade> grafo, int atual, int objetivo) {
+            if (grafo instanceof GrafoComCoordenadas) {
+                GrafoComCoordenadas coordenadas = (GrafoComCoordenadas) grafo;
+                return distancia(coordenadas.getX(atual), coordenadas.getY(atual),
+                        coordenadas.getX(objetivo), coordenadas.getY(objetivo)) * fatorEscala;
+            }
+            Localidade p1 = grafo.getDado(atual);
+            Localidade p2 = grafo.getDado(objetivo);
+            return distancia(p1.getX(), p1.getY(), p2.getX(), p2.getY()) * fatorEscala;
+        }
+    }
+
+    private static void validarFator(double fatorEscala) {
+        if (!(fatorEscala >= 0.0)) {
+            throw new IllegalArgumentException("O fator de escala da heurística deve ser não negativo.");
+        }
+    }
+}
@@ -0,0 +1,656 @@
+package algoritmos;
+
+import lib.Aresta;
+import lib.Grafo;
+import lib.GrafoCompacto;
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction Hierarchies (CH): pré-processamento que permite consultas ponto a ponto
+ * muito mais rápidas que o Dijkstra em mapas grandes e estáticos.
+ * <p>
+ * Os vértices são contraídos em ordem crescente de "importância". Ao contrair {@code v},
+ * para cada par de vizinhos {@code u -> v -> w} cujo caminho mais curto passa por {@code v}
+ * é criado um atalho {@code u -> w}, que registra as duas arestas que substitui (e, portanto,
+ * o vértice que pula). A ordem é escolhida pela diferença de arestas (atalhos criados menos
+ * arestas removidas) somada ao número de vizinhos já contraídos. A contração acontece em
+ * rodadas de vértices independentes entre si, de modo que as buscas de testemunha (que provam
+ * que um atalho é desnecessário) e o recálculo das prioridades rodam em paralelo.
+ * <p>
+ * A consulta é um Dijkstra bidirecional que só sobe na hierarquia: a busca para frente usa
+ * arestas para vértices de nível maior e a busca para trás, arestas vindas de vértices de
+ * nível maior, com stall-on-demand. O caminho encontrado é então desempacotado até as arestas
+ * originais e devolvido como {@code List<Vertice<T>>}, como nos demais algoritmos.
+ * <p>
+ * A estrutura é imutável depois de construída e pode ser consultada por várias threads.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class HierarquiaDeContracao<T> {
+
+    // Limites de vértices fixados por busca de testemunha; se estourar, o atalho é mantido.
+    // A simulação usada só para ordenar os vértices pode ser menos precisa que a contração real.
+    private static final int LIMITE_TESTEMUNHA = 500;
+    private static final int LIMITE_TESTEMUNHA_SIMULACAO = 50;
+
+    private final GrafoCompacto<T> grafo;
+
+    // Todas as arestas (originais e atalhos); 'filho1'/'filho2' = -1 indica aresta original
+    private final int[] arestaOrigem;
+    private final int[] arestaDestino;
+    private final double[] arestaPeso;
+    private final int[] arestaMeio;
+    private final int[] arestaFilho1;
+    private final int[] arestaFilho2;
+
+    // Grafo de subida para a busca para frente: arestas u -> w com nivel[u] < nivel[w], agrupadas por u
+    private final int[] inicioSubida;
+    private final int[] subida;
+    // Grafo de subida para a busca para trás: arestas u -> w com nivel[u] > nivel[w], agrupadas por w
+    private final int[] inicioDescida;
+    private final int[] descida;
+
+    private HierarquiaDeContracao(GrafoCompacto<T> grafo, Construtor construtor) {
+        this.grafo = grafo;
+        int m = construtor.numeroArestas;
+        this.arestaOrigem = Arrays.copyOf(construtor.origem, m);
+        this.arestaDestino = Arrays.copyOf(construtor.destino, m);
+        this.arestaPeso = Arrays.copyOf(construtor.peso, m);
+        this.arestaFilho1 = Arrays.copyOf(construtor.filho1, m);
+        this.arestaFilho2 = Arrays.copyOf(construtor.filho2, m);
+        this.arestaMeio = new int[m];
+        for (int e = 0; e < m; e++) {
+            arestaMeio[e] = arestaFilho1[e] < 0 ? -1 : arestaDestino[arestaFilho1[e]];
+        }
+
+        int n = grafo.getNumeroVertices();
+        this.inicioSubida = new int[n + 1];
+        this.inicioDescida = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            inicioSubida[v + 1] = inicioSubida[v] + construtor.subida[v].tamanho();
+            inicioDescida[v + 1] = inicioDescida[v] + construtor.descida[v].tamanho();
+        }
+        this.subida = new int[inicioSubida[n]];
+        this.descida = new int[inicioDescida[n]];
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < construtor.subida[v].tamanho(); i++) {
+                subida[inicioSubida[v] + i] = construtor.subida[v].get(i);
+            }
+            for (int i = 0; i < construtor.descida[v].tamanho(); i++) {
+                descida[inicioDescida[v] + i] = construtor.descida[v].get(i);
+            }
+        }
+    }
+
+    /**
+     * Congela o grafo e constrói a hierarquia sobre ele.
+     */
+    public static <T> HierarquiaDeContracao<T> construir(Grafo<T> grafo) {
+        return construir(grafo.congelar());
+    }
+
+    /**
+     * Constrói a hierarquia de contração de um grafo compacto.
+     * @param grafo O grafo a ser pré-processado.
+     * @return A hierarquia pronta para consultas.
+     */
+    public static <T> HierarquiaDeContracao<T> construir(GrafoCompacto<T> grafo) {
+        Construtor construtor = new Construtor(grafo);
+        construtor.contrairTodos();
+        return new HierarquiaDeContracao<>(grafo, construtor);
+    }
+
+    public GrafoCompacto<T> getGrafo() {
+        return grafo;
+    }
+
+    /**
+     * Número total de arestas da hierarquia, incluindo os atalhos.
+     */
+    public int getNumeroArestas() {
+        return arestaOrigem.length;
+    }
+
+    /**
+     * Número de atalhos criados durante a contração.
+     */
+    public int getNumeroAtalhos() {
+        int atalhos = 0;
+        for (int e = 0; e < arestaFilho1.length; e++) {
+            if (arestaFilho1[e] >= 0) {
+                atalhos++;
+            }
+        }
+        return atalhos;
+    }
+
+    /**
+     * Calcula a distância mínima entre dois vértices.
+     * @return A distância, ou {@code Double.POSITIVE_INFINITY} se não houver caminho.
+     */
+    public double calcularDistancia(T dadoOrigem, T dadoDestino) {
+        int origem = indiceObrigatorio(dadoOrigem);
+        int destino = indiceObrigatorio(dadoDestino);
+        EspacoDeTrabalho frente = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        EspacoDeTrabalho tras = EspacoDeTrabalho.reversoDaThreadAtual(grafo.getNumeroVertices());
+        int encontro = buscar(frente, tras, origem, destino);
+        return encontro < 0 ? Double.POSITIVE_INFINITY : frente.distancia(encontro) + tras.distancia(encontro);
+    }
+
+    /**
+     * Encontra o caminho mais curto entre dois vértices, já desempacotado até as arestas originais.
+     * @return Uma lista de vértices representando o caminho, ou uma lista vazia se não houver caminho.
+     */
+    public List<Vertice<T>> encontrarCaminhoMaisCurto(T dadoOrigem, T dadoDestino) {
+        int origem = indiceObrigatorio(dadoOrigem);
+        ListaDeInteiros originais = buscarArestasOriginais(origem, indiceObrigatorio(dadoDestino));
+        if (originais == null) {
+            return Collections.emptyList();
+        }
+        List<Vertice<T>> caminho = new ArrayList<>(originais.tamanho() + 1);
+        caminho.add(grafo.getVertice(origem));
+        for (int i = 0; i < originais.tamanho(); i++) {
+            caminho.add(grafo.getVertice(arestaDestino[originais.get(i)]));
+        }
+        return caminho;
+    }
+
+    /**
+     * Calcula a rota mais curta entre dois vértices como um {@link ResultadoRota}, com as
+     * arestas originais (atalhos desempacotados) e os custos acumulados, sem estatísticas
+     * de busca ({@link ResultadoRota#getEstatisticas()} é nulo).
+     */
+    public ResultadoRota<T> calcularRota(T dadoOrigem, T dadoDestino) {
+        int origem = indiceObrigatorio(dadoOrigem);
+        ListaDeInteiros originais = buscarArestasOriginais(origem, indiceObrigatorio(dadoDestino));
+        if (originais == null) {
+            return ResultadoRota.vazio();
+        }
+        int tamanho = originais.tamanho();
+        List<Vertice<T>> caminho = new ArrayList<>(tamanho + 1);
+        List<Aresta<T>> arestas = new ArrayList<>(tamanho);
+        double[] custos = new double[tamanho + 1];
+        caminho.add(grafo.getVertice(origem));
+        for (int i = 0; i < tamanho; i++) {
+            int e = originais.get(i);
+            Vertice<T> vertice = grafo.getVertice(arestaDestino[e]);
+            arestas.add(new Aresta<>(arestaPeso[e], caminho.get(i), vertice));
+            custos[i + 1] = custos[i] + arestaPeso[e];
+            caminho.add(vertice);
+        }
+        return new ResultadoRota<>(caminho, arestas, custos, null);
+    }
+
+    // Arestas originais do caminho mínimo, em ordem, ou null se não houver caminho
+    private ListaDeInteiros buscarArestasOriginais(int origem, int destino) {
+        EspacoDeTrabalho frente = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        EspacoDeTrabalho tras = EspacoDeTrabalho.reversoDaThreadAtual(grafo.getNumeroVertices());
+        int encontro = buscar(frente, tras, origem, destino);
+        if (encontro < 0) {
+            return null;
+        }
+
+        // Arestas da hierarquia no caminho: metade de subida (origem -> encontro) e de descida
+        ListaDeInteiros arestas = new ListaDeInteiros();
+        for (int e = frente.anterior(encontro); e >= 0; e = frente.anterior(arestaOrigem[e])) {
+            arestas.adicionar(e);
+        }
+        int[] primeiraMetade = arestas.paraVetor();
+        arestas.limpar();
+        for (int i = primeiraMetade.length - 1; i >= 0; i--) {
+            arestas.adicionar(primeiraMetade[i]);
+        }
+        for (int e = tras.anterior(encontro); e >= 0; e = tras.anterior(arestaDestino[e])) {
+            arestas.adicionar(e);
+        }
+
+        ListaDeInteiros originais = new ListaDeInteiros(arestas.tamanho() * 2);
+        ListaDeInteiros pilha = new ListaDeInteiros();
+        for (int i = 0; i < arestas.tamanho(); i++) {
+            desempacotar(arestas.get(i), pilha, originais);
+        }
+        return originais;
+    }
+
+    public List<Vertice<T>> encontrarCaminhoMaisCurto(Vertice<T> inicio, Vertice<T> objetivo) {
+        return encontrarCaminhoMaisCurto(inicio.getDado(), objetivo.getDado());
+    }
+
+    /**
+     * Retorna o vértice que um atalho pula, ou -1 se a aresta for original.
+     */
+    int getVerticePulado(int aresta) {
+        return arestaMeio[aresta];
+    }
+
+    // Substitui um atalho pelas arestas originais, sem recursão (a hierarquia pode ser profunda)
+    private void desempacotar(int aresta, ListaDeInteiros pilha, ListaDeInteiros originais) {
+        pilha.limpar();
+        pilha.adicionar(aresta);
+        while (!pilha.isEmpty()) {
+            int e = pilha.removerUltimo();
+            if (arestaFilho1[e] < 0) {
+                originais.adicionar(e);
+            } else {
+                pilha.adicionar(arestaFilho2[e]);
+                pilha.adicionar(arestaFilho1[e]);
+            }
+        }
+    }
+
+    /**
+     * Consulta bidirecional de subida. No espaço de trabalho, o "anterior" de cada vértice guarda
+     * a aresta da hierarquia pela qual ele foi alcançado (e não o vértice anterior).
+     * @return O vértice de encontro, ou -1 se não houver caminho.
+     */
+    int buscar(EspacoDeTrabalho frente, EspacoDeTrabalho tras, int origem, int destino) {
+        frente.iniciar();
+        tras.iniciar();
+        HeapIndexado filaFrente = frente.heap();
+        HeapIndexado filaTras = tras.heap();
+        frente.definir(origem, 0.0, -1);
+        tras.definir(destino, 0.0, -1);
+        filaFrente.inserirOuDiminuir(origem, 0.0);
+        filaTras.inserirOuDiminuir(destino, 0.0);
+        double melhor = Double.POSITIVE_INFINITY;
+        int encontro = -1;
+
+        // Diferente do Dijkstra bidirecional comum, cada lado só para quando o seu próprio
+        // mínimo já não pode melhorar o melhor caminho: o encontro está no topo da hierarquia.
+        while (true) {
+            boolean frenteAtiva = !filaFrente.isEmpty() && filaFrente.chaveMinima() < melhor;
+            boolean trasAtiva = !filaTras.isEmpty() && filaTras.chaveMinima() < melhor;
+            if (!frenteAtiva && !trasAtiva) {
+                break;
+            }
+            boolean vezDaFrente = frenteAtiva && (!trasAtiva || filaFrente.chaveMinima() <= filaTras.chaveMinima());
+
+            EspacoDeTrabalho lado = vezDaFrente ? frente : tras;
+            EspacoDeTrabalho outro = vezDaFrente ? tras : frente;
+            HeapIndexado fila = lado.heap();
+            double du = fila.chaveMinima();
+            int u = fila.removerMinimo();
+            double total = du + outro.distancia(u);
+            if (total < melhor) {
+                melhor = total;
+                encontro = u;
+            }
+
+            // Stall-on-demand: se um vértice de nível maior já alcança 'u' por um caminho mais
+            // curto, a distância de 'u' não é a definitiva e não vale a pena expandi-lo
+            int[] inicioContrario = vezDaFrente ? inicioDescida : inicioSubida;
+            int[] arestasContrarias = vezDaFrente ? descida : subida;
+            int[] extremidadeContraria = vezDaFrente ? arestaOrigem : arestaDestino;
+            if (parado(lado, du, inicioContrario[u], inicioContrario[u + 1], arestasContrarias, extremidadeContraria)) {
+                continue;
+            }
+
+            int[] inicio = vezDaFrente ? inicioSubida : inicioDescida;
+            int[] arestas = vezDaFrente ? subida : descida;
+            int[] extremidade = vezDaFrente ? arestaDestino : arestaOrigem;
+            for (int i = inicio[u], fim = inicio[u + 1]; i < fim; i++) {
+                int e = arestas[i];
+                int v = extremidade[e];
+                double dv = du + arestaPeso[e];
+                if (dv < lado.distancia(v)) {
+                    lado.definir(v, dv, e);
+                    fila.inserirOuDiminuir(v, dv);
+                }
+            }
+        }
+        return encontro;
+    }
+
+    /**
+     * Busca de subida completa em uma só direção (sem destino), com stall-on-demand.
+     * Os vértices fixados e não parados são acrescentados a {@code alcancados}; suas distâncias
+     * ficam no espaço de trabalho. Usada pelo cálculo de matrizes de distância por baldes.
+     */
+    void buscarSubida(EspacoDeTrabalho espaco, int origem, boolean paraFrente, ListaDeInteiros alcancados) {
+        espaco.iniciar();
+        HeapIndexado fila = espaco.heap();
+        espaco.definir(origem, 0.0, -1);
+        fila.inserirOuDiminuir(origem, 0.0);
+
+        int[] inicio = paraFrente ? inicioSubida : inicioDescida;
+        int[] arestas = paraFrente ? subida : descida;
+        int[] extremidade = paraFrente ? arestaDestino : arestaOrigem;
+        int[] inicioContrario = paraFrente ? inicioDescida : inicioSubida;
+        int[] arestasContrarias = paraFrente ? descida : subida;
+        int[] extremidadeContraria = paraFrente ? arestaOrigem : arestaDestino;
+
+        while (!fila.isEmpty()) {
+            double du = fila.chaveMinima();
+            int u = fila.removerMinimo();
+            if (parado(espaco, du, inicioContrario[u], inicioContrario[u + 1], arestasContrarias, extremidadeContraria)) {
+                continue;
+            }
+            alcancados.adicionar(u);
+            for (int i = inicio[u], fim = inicio[u + 1]; i < fim; i++) {
+                int e = arestas[i];
+                int v = extremidade[e];
+                double dv = du + arestaPeso[e];
+                if (dv < espaco.distancia(v)) {
+                    espaco.definir(v, dv, e);
+                    fila.inserirOuDiminuir(v, dv);
+                }
+            }
+        }
+    }
+
+    private boolean parado(EspacoDeTrabalho lado, double du, int inicio, int fim, int[] arestas, int[] extremidade) {
+        for (int i = inicio; i < fim; i++) {
+            int e = arestas[i];
+            if (lado.distancia(extremidade[e]) + arestaPeso[e] < du) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int indiceObrigatorio(T dado) {
+        int indice = grafo.getIndice(dado);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Vértice '" + dado + "' não encontrado no grafo.");
+        }
+        return indice;
+    }
+
+    /**
+     * Estado mutável usado apenas durante o pré-processamento.
+     */
+    private static final class Construtor {
+        final int n;
+        final ListaDeInteiros[] saida;
+        final ListaDeInteiros[] entrada;
+        final ListaDeInteiros[] subida;
+        final ListaDeInteiros[] descida;
+        final boolean[] contraido;
+        final boolean[] emContracao;
+        final int[] vizinhosContraidos;
+        final int[] profundidade;
+        final int[] nivel;
+
+        int[] origem;
+        int[] destino;
+        double[] peso;
+        int[] filho1;
+        int[] filho2;
+        int numeroArestas;
+
+        Construtor(GrafoCompacto<?> grafo) {
+            this.n = grafo.getNumeroVertices();
+            this.saida = new ListaDeInteiros[n];
+            this.entrada = new ListaDeInteiros[n];
+            this.subida = new ListaDeInteiros[n];
+            this.descida = new ListaDeInteiros[n];
+            for (int v = 0; v < n; v++) {
+                saida[v] = new ListaDeInteiros(grafo.fimSaida(v) - grafo.inicioSaida(v) + 1);
+                entrada[v] = new ListaDeInteiros(grafo.fimEntrada(v) - grafo.inicioEntrada(v) + 1);
+            }
+            this.contraido = new boolean[n];
+            this.emContracao = new boolean[n];
+            this.vizinhosContraidos = new int[n];
+            this.profundidade = new int[n];
+            this.nivel = new int[n];
+
+            int capacidade = Math.max(16, grafo.getNumeroArestas() * 2);
+            this.origem = new int[capacidade];
+            this.destino = new int[capacidade];
+            this.peso = new double[capacidade];
+            this.filho1 = new int[capacidade];
+            this.filho2 = new int[capacidade];
+
+            for (int u = 0; u < n; u++) {
+                for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                    int w = grafo.destino(e);
+                    if (w != u) {
+                        adicionarOuMelhorar(u, w, grafo.peso(e), -1, -1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Contrai o grafo em rodadas. Em cada rodada é escolhido um conjunto independente de
+         * vértices (cada um com prioridade menor que a de todos os seus vizinhos), cujos atalhos
+         * são calculados em paralelo, já que nenhum deles é vizinho de outro.
+         * Os atalhos são aplicados em sequência e as prioridades dos vizinhos afetados são
+         * recalculadas, também em paralelo.
+         */
+        void contrairTodos() {
+            double[] prioridades = new double[n];
+            IntStream.range(0, n).parallel().forEach(v -> prioridades[v] = prioridade(v));
+
+            int[] restantes = new int[n];
+            for (int v = 0; v < n; v++) {
+                restantes[v] = v;
+            }
+            int numeroRestantes = n;
+            int proximoNivel = 0;
+            int[] marcaDaRodada = new int[n];
+            int rodada = 0;
+            ListaDeInteiros escolhidos = new ListaDeInteiros();
+            ListaDeInteiros vizinhos = new ListaDeInteiros();
+
+            while (numeroRestantes > 0) {
+                escolhidos.limpar();
+                for (int i = 0; i < numeroRestantes; i++) {
+                    if (minimoLocal(restantes[i], prioridades)) {
+                        escolhidos.adicionar(restantes[i]);
+                    }
+                }
+
+                // As buscas de testemunha não podem passar por outro vértice da mesma rodada:
+                // dois vértices poderiam servir de testemunha um para o outro e ambos sumiriam
+                int[] conjunto = escolhidos.paraVetor();
+                for (int v : conjunto) {
+                    emContracao[v] = true;
+                }
+                ListaDeInteiros[] atalhos = new ListaDeInteiros[conjunto.length];
+                IntStream.range(0, conjunto.length).parallel().forEach(i -> {
+                    atalhos[i] = new ListaDeInteiros();
+                    simularContracao(conjunto[i], atalhos[i]);
+                });
+
+                rodada++;
+                vizinhos.limpar();
+                for (int i = 0; i < conjunto.length; i++) {
+                    int v = conjunto[i];
+                    ListaDeInteiros novos = atalhos[i];
+                    for (int j = 0; j < novos.tamanho(); j += 2) {
+                        int e1 = novos.get(j);
+                        int e2 = novos.get(j + 1);
+                        adicionarOuMelhorar(origem[e1], destino[e2], peso[e1] + peso[e2], e1, e2);
+                    }
+                    nivel[v] = proximoNivel++;
+                    contraido[v] = true;
+                    emContracao[v] = false;
+                    subida[v] = saida[v];
+                    descida[v] = entrada[v];
+
+                    for (int j = 0; j < saida[v].tamanho(); j++) {
+                        int e = saida[v].get(j);
+                        removerAresta(entrada[destino[e]], e);
+                        registrarVizinho(destino[e], v, rodada, marcaDaRodada, vizinhos);
+                    }
+                    for (int j = 0; j < entrada[v].tamanho(); j++) {
+                        int e = entrada[v].get(j);
+                        removerAresta(saida[origem[e]], e);
+                        registrarVizinho(origem[e], v, rodada, marcaDaRodada, vizinhos);
+                    }
+                }
+
+                int[] afetados = vizinhos.paraVetor();
+                IntStream.range(0, afetados.length).parallel()
+                        .forEach(i -> prioridades[afetados[i]] = prioridade(afetados[i]));
+
+                int mantidos = 0;
+                for (int i = 0; i < numeroRestantes; i++) {
+                    if (!contraido[restantes[i]]) {
+                        restantes[mantidos++] = restantes[i];
+                    }
+                }
+                numeroRestantes = mantidos;
+            }
+        }
+
+        // Um vértice entra na rodada se nenhum vizinho ainda não contraído tiver prioridade menor
+        // (empates são decididos pelo índice, garantindo que o conjunto seja independente)
+        private boolean minimoLocal(int v, double[] prioridades) {
+            double p = prioridades[v];
+            for (int i = 0; i < saida[v].tamanho(); i++) {
+                int u = destino[saida[v].get(i)];
+                if (prioridades[u] < p || (prioridades[u] == p && u < v)) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < entrada[v].tamanho(); i++) {
+                int u = origem[entrada[v].get(i)];
+                if (prioridades[u] < p || (prioridades[u] == p && u < v)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void registrarVizinho(int u, int contraidoAgora, int rodada, int[] marcaDaRodada, ListaDeInteiros vizinhos) {
+            vizinhosContraidos[u]++;
+            profundidade[u] = Math.max(profundidade[u], profundidade[contraidoAgora] + 1);
+            if (marcaDaRodada[u] != rodada) {
+                marcaDaRodada[u] = rodada;
+                vizinhos.adicionar(u);
+            }
+        }
+
+        // Vértices que geram poucos atalhos, com poucos vizinhos já contraídos e em regiões ainda
+        // rasas da hierarquia são contraídos primeiro; isso espalha a contração de maneira uniforme
+        private double prioridade(int v) {
+            int atalhos = simularContracao(v, null);
+            int diferencaDeArestas = atalhos - saida[v].tamanho() - entrada[v].tamanho();
+            return 2.0 * diferencaDeArestas + vizinhosContraidos[v] + profundidade[v];
+        }
+
+        /**
+         * Conta os atalhos necessários para contrair {@code v}. Se {@code atalhos} não for nulo,
+         * cada atalho é registrado nele como o par de arestas (u -> v, v -> w) que substitui.
+         * Não altera o grafo, podendo rodar em paralelo.
+         */
+        private int simularContracao(int v, ListaDeInteiros atalhos) {
+            int contador = 0;
+            ListaDeInteiros arestasEntrada = entrada[v];
+            ListaDeInteiros arestasSaida = saida[v];
+            if (arestasSaida.isEmpty()) {
+                return 0;
+            }
+            EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(n);
+            int limite = atalhos != null ? LIMITE_TESTEMUNHA : LIMITE_TESTEMUNHA_SIMULACAO;
+            for (int i = 0; i < arestasEntrada.tamanho(); i++) {
+                int entradaUV = arestasEntrada.get(i);
+                int u = origem[entradaUV];
+                double pesoUV = peso[entradaUV];
+
+                double maximo = 0.0;
+                for (int j = 0; j < arestasSaida.tamanho(); j++) {
+                    int w = destino[arestasSaida.get(j)];
+                    if (w != u) {
+                        maximo = Math.max(maximo, pesoUV + peso[arestasSaida.get(j)]);
+                    }
+                }
+                buscarTestemunha(espaco, u, v, maximo, limite);
+
+                for (int j = 0; j < arestasSaida.tamanho(); j++) {
+                    int saidaVW = arestasSaida.get(j);
+                    int w = destino[saidaVW];
+                    if (w == u || espaco.distancia(w) <= pesoUV + peso[saidaVW]) {
+                        continue;
+                    }
+                    contador++;
+                    if (atalhos != null) {
+                        atalhos.adicionar(entradaUV);
+                        atalhos.adicionar(saidaVW);
+                    }
+                }
+            }
+            return contador;
+        }
+
+        // Dijkstra local a partir de 'u' no grafo ainda não contraído, ignorando 'ignorado'
+        private void buscarTestemunha(EspacoDeTrabalho espaco, int u, int ignorado, double limite, int limiteFixados) {
+            espaco.iniciar();
+            HeapIndexado fila = espaco.heap();
+            espaco.definir(u, 0.0, -1);
+            fila.inserirOuDiminuir(u, 0.0);
+            int fixados = 0;
+            while (!fila.isEmpty() && fila.chaveMinima() <= limite && fixados++ < limiteFixados) {
+                double dx = fila.chaveMinima();
+                int x = fila.removerMinimo();
+                ListaDeInteiros arestas = saida[x];
+                for (int i = 0; i < arestas.tamanho(); i++) {
+                    int e = arestas.get(i);
+                    int y = destino[e];
+                    if (y == ignorado || emContracao[y]) {
+                        continue;
+                    }
+                    double dy = dx + peso[e];
+                    if (dy < espaco.distancia(y)) {
+                        espaco.definir(y, dy, x);
+                        fila.inserirOuDiminuir(y, dy);
+                    }
+                }
+            }
+        }
+
+        // Mantém apenas a aresta mais leve entre cada par (u, w) no grafo ainda não contraído
+        private void adicionarOuMelhorar(int u, int w, double pesoNovo, int f1, int f2) {
+            ListaDeInteiros arestas = saida[u];
+            for (int i = 0; i < arestas.tamanho(); i++) {
+                int e = arestas.get(i);
+                if (destino[e] == w) {
+                    if (peso[e] <= pesoNovo) {
+                        return;
+                    }
+                    arestas.removerTrocando(i);
+                    removerAresta(entrada[w], e);
+                    break;
+                }
+            }
+            int e = novaAresta(u, w, pesoNovo, f1, f2);
+            saida[u].adicionar(e);
+            entrada[w].adicionar(e);
+        }
+
+        private int novaAresta(int u, int w, double p, int f1, int f2) {
+            if (numeroArestas == origem.length) {
+                int capacidade = origem.length * 2;
+                origem = Arrays.copyOf(origem, capacidade);
+                destino = Arrays.copyOf(destino, capacidade);
+                peso = Arrays.copyOf(peso, capacidade);
+                filho1 = Arrays.copyOf(filho1, capacidade);
+                filho2 = Arrays.copyOf(filho2, capacidade);
+            }
+            int e = numeroArestas++;
+            origem[e] = u;
+            destino[e] = w;
+            peso[e] = p;
+            filho1[e] = f1;
+            filho2[e] = f2;
+            return e;
+        }
+
+        private static void removerAresta(ListaDeInteiros lista, int aresta) {
+            for (int i = 0; i < lista.tamanho(); i++) {
+                if (lista.get(i) == aresta) {
+                    lista.removerTrocando(i);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package algoritmos;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de valores inteiros não negativos, sem travas, para registro concorrente a
+ * partir de várias threads.
+ * <p>
+ * As faixas são log-lineares: valores abaixo de 16 têm faixa própria e, a partir daí, cada
+ * potência de 2 é dividida em 16 faixas iguais, o que limita o erro relativo dos percentis a
+ * 1/16 (cerca de 6%) com apenas 960 contadores para toda a faixa de {@code long}. Registrar
+ * um valor é um cálculo de índice e um incremento atômico.
+ */
+public final class Histograma {
+
+    private static final int BITS_SUBFAIXA = 4;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+    private static final int FAIXAS = (64 - BITS_SUBFAIXA) * SUBFAIXAS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Registra um valor. Valores negativos são tratados como zero.
+     */
+    public void registrar(long valor) {
+        if (valor < 0) {
+            valor = 0;
+        }
+        contagens.incrementAndGet(faixa(valor));
+        quantidade.increment();
+        soma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    public long getQuantidade() {
+        return quantidade.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    public double getMedia() {
+        long total = quantidade.sum();
+        return total == 0 ? 0.0 : (double) soma.sum() / total;
+    }
+
+    /**
+     * Retorna uma estimativa do percentil pedido: o limite superior da faixa em que ele cai,
+     * nunca acima do maior valor registrado. Registros concorrentes podem ou não ser incluídos.
+     *
+     * @param percentil Um valor em {@code [0, 100]}.
+     * @return O valor estimado, ou 0 se o histograma estiver vazio.
+     */
+    public long getPercentil(double percentil) {
+        if (!(percentil >= 0.0 && percentil <= 100.0)) {
+            throw new IllegalArgumentException("O percentil deve estar entre 0 e 100.");
+        }
+        long[] copia = new long[FAIXAS];
+        long total = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            copia[i] = contagens.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+    /**
+     * Zera o histograma. Registros feitos durante a limpeza podem ser preservados em parte.
+     */
+    public void limpar() {
+        for (int i = 0; i < FAIXAS; i++) {
+            contagens.set(i, 0);
+        }
+        quantidade.reset();
+        soma.reset();
+        maximo.reset();
+    }
+
+    static int faixa(long valor) {
+        if (valor < SUBFAIXAS) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int deslocamento = expoente - BITS_SUBFAIXA;
+        int subfaixa = (int) (valor >>> deslocamento) & (SUBFAIXAS - 1);
+        return (deslocamento + 1) * SUBFAIXAS + subfaixa;
+    }
+
+    static long limiteSuperior(int faixa) {
+        if (faixa < SUBFAIXAS) {
+            return faixa;
+        }
+        int deslocamento = faixa / SUBFAIXAS - 1;
+        long inicio = (long) (SUBFAIXAS + faixa % SUBFAIXAS) << deslocamento;
+        long largura = 1L << deslocamento;
+        // A última faixa termina em Long.MAX_VALUE; evita o estouro de inicio + largura
+        return inicio + (largura - 1);
+    }
+}
@@ -0,0 +1,178 @@
+package algoritmos;
+
+import lib.GrafoCompacto;
+import lib.Localidade;
+
+import java.util.Arrays;
+
+/**
+ * Polígono de isócrona de uma {@link RegiaoAlcancavel} sobre as coordenadas das
+ * {@link Localidade}s: a área alcançável a partir da origem dentro do raio da região.
+ * <p>
+ * O polígono é a envoltória convexa (cadeia monótona de Andrew) dos vértices fixados e dos
+ * pontos de fronteira: em cada aresta que sai da região e ultrapassa o raio, o ponto até onde
+ * ainda se chega, interpolado linearmente pelo custo restante. Assim o contorno acompanha o
+ * meio das ruas em vez de parar no último cruzamento. Regiões muito côncavas (um rio, uma
+ * via expressa sem acessos) ficam superestimadas pela envoltória.
+ * <p>
+ * Os pontos ficam em sentido anti-horário. A instância é imutável.
+ */
+public final class Isocrona {
+
+    private final double[] xs;
+    private final double[] ys;
+
+    private Isocrona(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Calcula a isócrona da região.
+     *
+     * @param regiao O resultado de uma {@link BuscaLimitada} sobre um grafo de localidades.
+     * @return O polígono; com um ou dois pontos se a região for um ponto ou um segmento.
+     */
+    public static Isocrona de(RegiaoAlcancavel<Localidade> regiao) {
+        GrafoCompacto<Localidade> grafo = regiao.getGrafo();
+        double raio = regiao.getRaio();
+        int tamanho = regiao.tamanho();
+        double[] px = new double[tamanho * 2];
+        double[] py = new double[tamanho * 2];
+        int pontos = 0;
+        for (int p = 0; p < tamanho; p++) {
+            int u = regiao.indice(p);
+            Localidade origem = grafo.getVertice(u).getDado();
+            if (pontos + 1 + grafo.fimSaida(u) - grafo.inicioSaida(u) > px.length) {
+                int capacidade = Math.max(px.length * 2, pontos + 1 + grafo.fimSaida(u) - grafo.inicioSaida(u));
+                px = Arrays.copyOf(px, capacidade);
+                py = Arrays.copyOf(py, capacidade);
+            }
+            px[pontos] = origem.getX();
+            py[pontos++] = origem.getY();
+
+            double custo = regiao.getCusto(p);
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                double peso = grafo.peso(e);
+                if (peso > 0.0 && custo + peso > raio) {
+                    Localidade destino = grafo.getVertice(grafo.destino(e)).getDado();
+                    double fracao = (raio - custo) / peso;
+                    px[pontos] = origem.getX() + fracao * (destino.getX() - origem.getX());
+                    py[pontos++] = origem.getY() + fracao * (destino.getY() - origem.getY());
+                }
+            }
+        }
+        return envoltoria(px, py, pontos);
+    }
+
+    // Cadeia monótona de Andrew: ordena por (x, y), descarta repetidos e monta as metades de
+    // baixo e de cima
+    private static Isocrona envoltoria(double[] px, double[] py, int pontos) {
+        Integer[] ordem = new Integer[pontos];
+        for (int i = 0; i < pontos; i++) {
+            ordem[i] = i;
+        }
+        Arrays.sort(ordem, (a, b) -> px[a] != px[b] ? Double.compare(px[a], px[b]) : Double.compare(py[a], py[b]));
+        double[] sx = new double[pontos];
+        double[] sy = new double[pontos];
+        int distintos = 0;
+        for (int i = 0; i < pontos; i++) {
+            double x = px[ordem[i]], y = py[ordem[i]];
+            if (distintos == 0 || x != sx[distintos - 1] || y != sy[distintos - 1]) {
+                sx[distintos] = x;
+                sy[distintos++] = y;
+            }
+        }
+        if (distintos <= 2) {
+            return new Isocrona(Arrays.copyOf(sx, distintos), Arrays.copyOf(sy, distintos));
+        }
+
+        double[] hx = new double[2 * distintos];
+        double[] hy = new double[2 * distintos];
+        int k = 0;
+        for (int i = 0; i < distintos; i++) {
+            k = empilhar(hx, hy, k, 2, sx[i], sy[i]);
+        }
+        int base = k + 1;
+        for (int i = distintos - 2; i >= 0; i--) {
+            k = empilhar(hx, hy, k, base, sx[i], sy[i]);
+        }
+        // O último ponto empilhado repete o primeiro
+        return new Isocrona(Arrays.copyOf(hx, k - 1), Arrays.copyOf(hy, k - 1));
+    }
+
+    // Descarta do topo os pontos que não fazem uma curva à esquerda e empilha (x, y)
+    private static int empilhar(double[] hx, double[] hy, int k, int minimo, double x, double y) {
+        while (k >= minimo && produtoVetorial(hx[k - 2], hy[k - 2], hx[k - 1], hy[k - 1], x, y) <= 0.0) {
+            k--;
+        }
+        hx[k] = x;
+        hy[k] = y;
+        return k + 1;
+    }
+
+    private static double produtoVetorial(double ox, double oy, double ax, double ay, double bx, double by) {
+        return (ax - ox) * (by - oy) - (ay - oy) * (bx - ox);
+    }
+
+    public int getNumeroPontos() {
+        return xs.length;
+    }
+
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    /**
+     * Retorna a área do polígono (fórmula do laço).
+     */
+    public double getArea() {
+        double soma = 0.0;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            soma += xs[j] * ys[i] - xs[i] * ys[j];
+        }
+        return Math.abs(soma) / 2.0;
+    }
+
+    /**
+     * Indica se o ponto está dentro do polígono ou na sua borda.
+     */
+    public boolean contem(double x, double y) {
+        if (xs.length < 3) {
+            // Ponto ou segmento: só contém os pontos sobre ele
+            for (int i = 0; i < xs.length; i++) {
+                int j = (i + 1) % xs.length;
+                if (produtoVetorial(xs[i], ys[i], xs[j], ys[j], x, y) == 0.0
+                        && x >= Math.min(xs[i], xs[j]) && x <= Math.max(xs[i], xs[j])
+                        && y >= Math.min(ys[i], ys[j]) && y <= Math.max(ys[i], ys[j])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        // Anti-horário e convexo: o ponto deve estar à esquerda (ou sobre) de todas as arestas
+        for (int i = 0; i < xs.length; i++) {
+            int j = (i + 1) % xs.length;
+            if (produtoVetorial(xs[i], ys[i], xs[j], ys[j], x, y) < 0.0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Isocrona[");
+        for (int i = 0; i < xs.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(String.format("(%.1f, %.1f)", xs[i], ys[i]));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,199 @@
+package algoritmos;
+
+import lib.Grafo;
+import lib.GrafoCompacto;
+import lib.Vertice;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Pré-processamento ALT (A*, Landmarks e desigualdade Triangular).
+ * <p>
+ * São escolhidos {@code k} vértices de referência (landmarks) e, para cada um deles,
+ * calculadas as distâncias de ida (landmark até todos) e de volta (todos até o landmark).
+ * Pela desigualdade triangular, para qualquer landmark L:
+ * <pre>
+ *   d(v, t) &gt;= d(L, t) - d(L, v)
+ *   d(v, t) &gt;= d(v, L) - d(t, L)
+ * </pre>
+ * O maior desses limites é uma heurística admissível e consistente para o {@link AEstrela},
+ * muito mais justa que a distância euclidiana quando os pesos são tempos de viagem.
+ * <p>
+ * As tabelas ficam em vetores primitivos organizados por vértice (as {@code k} distâncias de
+ * um vértice são contíguas) e o cálculo é feito em paralelo, uma tarefa por landmark.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class Landmarks<T> implements Heuristica<T> {
+
+    private final GrafoCompacto<T> grafo;
+    private final int[] landmarks;
+    private final double[] distanciasIda;   // [v * k + l] = d(L_l, v)
+    private final double[] distanciasVolta; // [v * k + l] = d(v, L_l)
+
+    private Landmarks(GrafoCompacto<T> grafo, int[] landmarks, double[] distanciasIda, double[] distanciasVolta) {
+        this.grafo = grafo;
+        this.landmarks = landmarks;
+        this.distanciasIda = distanciasIda;
+        this.distanciasVolta = distanciasVolta;
+    }
+
+    /**
+     * Congela o grafo e pré-processa {@code quantidade} landmarks sobre ele.
+     */
+    public static <T> Landmarks<T> calcular(Grafo<T> grafo, int quantidade) {
+        return calcular(grafo.congelar(), quantidade);
+    }
+
+    /**
+     * Escolhe {@code quantidade} landmarks por seleção do ponto mais distante e calcula,
+     * em paralelo, as tabelas de distância de ida e de volta de cada um.
+     *
+     * @param grafo O grafo compacto a ser pré-processado.
+     * @param quantidade O número de landmarks (tipicamente entre 4 e 16).
+     * @return A heurística ALT pronta para uso no {@link AEstrela}.
+     */
+    public static <T> Landmarks<T> calcular(GrafoCompacto<T> grafo, int quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("A quantidade de landmarks deve ser positiva.");
+        }
+        int n = grafo.getNumeroVertices();
+        int[] escolhidos = selecionarMaisDistantes(grafo, Math.min(quantidade, n));
+        int k = escolhidos.length;
+
+        double[] ida = new double[n * k];
+        double[] volta = new double[n * k];
+        IntStream.range(0, k).parallel().forEach(l -> {
+            EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(n);
+            Dijkstra.buscar(grafo, espaco, escolhidos[l], -1, false);
+            for (int v = 0; v < n; v++) {
+                ida[v * k + l] = espaco.distancia(v);
+            }
+            Dijkstra.buscarReversa(grafo, espaco, escolhidos[l], -1);
+            for (int v = 0; v < n; v++) {
+                volta[v * k + l] = espaco.distancia(v);
+            }
+        });
+        return new Landmarks<>(grafo, escolhidos, ida, volta);
+    }
+
+    /**
+     * Seleção do ponto mais distante: cada novo landmark é o vértice mais longe (em número
+     * de arestas, ignorando o sentido) dos landmarks já escolhidos. Vértices em componentes
+     * ainda não cobertas são preferidos, para que toda componente receba um landmark.
+     */
+    private static int[] selecionarMaisDistantes(GrafoCompacto<?> grafo, int quantidade) {
+        int n = grafo.getNumeroVertices();
+        int[] escolhidos = new int[quantidade];
+        if (quantidade == 0) {
+            return escolhidos;
+        }
+        int[] menorDistancia = new int[n];
+        Arrays.fill(menorDistancia, Integer.MAX_VALUE);
+        int[] saltos = new int[n];
+        int[] fila = new int[n];
+
+        // O primeiro landmark é o vértice mais distante do vértice 0
+        larguraNaoDirecionada(grafo, 0, saltos, fila);
+        int proximo = maisDistante(saltos);
+        for (int i = 0; i < quantidade; i++) {
+            escolhidos[i] = proximo;
+            larguraNaoDirecionada(grafo, proximo, saltos, fila);
+            for (int v = 0; v < n; v++) {
+                menorDistancia[v] = Math.min(menorDistancia[v], saltos[v]);
+            }
+            proximo = maisDistante(menorDistancia);
+        }
+        return escolhidos;
+    }
+
+    private static int maisDistante(int[] distancias) {
+        int melhor = 0;
+        for (int v = 1; v < distancias.length; v++) {
+            if (distancias[v] > distancias[melhor]) {
+                melhor = v;
+            }
+        }
+        return melhor;
+    }
+
+    // BFS sobre arestas de saída e de entrada; vértices inalcançáveis ficam com Integer.MAX_VALUE
+    private static void larguraNaoDirecionada(GrafoCompacto<?> grafo, int origem, int[] saltos, int[] fila) {
+        Arrays.fill(saltos, Integer.MAX_VALUE);
+        int cabeca = 0, cauda = 0;
+        saltos[origem] = 0;
+        fila[cauda++] = origem;
+        while (cabeca < cauda) {
+            int u = fila[cabeca++];
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                int v = grafo.destino(e);
+                if (saltos[v] == Integer.MAX_VALUE) {
+                    saltos[v] = saltos[u] + 1;
+                    fila[cauda++] = v;
+                }
+            }
+            for (int e = grafo.inicioEntrada(u), fim = grafo.fimEntrada(u); e < fim; e++) {
+                int v = grafo.origem(e);
+                if (saltos[v] == Integer.MAX_VALUE) {
+                    saltos[v] = saltos[u] + 1;
+                    fila[cauda++] = v;
+                }
+            }
+        }
+    }
+
+    public GrafoCompacto<T> getGrafo() {
+        return grafo;
+    }
+
+    /**
+     * Retorna os vértices escolhidos como landmarks.
+     */
+    public Vertice<T>[] getLandmarks() {
+        @SuppressWarnings("unchecked")
+        Vertice<T>[] vertices = (Vertice<T>[]) new Vertice<?>[landmarks.length];
+        for (int i = 0; i < landmarks.length; i++) {
+            vertices[i] = grafo.getVertice(landmarks[i]);
+        }
+        return vertices;
+    }
+
+    @Override
+    public double estimar(Vertice<T> atual, Vertice<T> objetivo) {
+        int v = grafo.getIndice(atual.getDado());
+        int t = grafo.getIndice(objetivo.getDado());
+        if (v < 0 || t < 0) {
+            return 0.0;
+        }
+        return estimar(v, t);
+    }
+
+    @Override
+    public double estimar(GrafoCompacto<T> grafoConsulta, int atual, int objetivo) {
+        if (grafoConsulta != grafo) {
+            // Índices de outro grafo não correspondem às tabelas; converte pelos dados
+            return estimar(grafoConsulta.getVertice(atual), grafoConsulta.getVertice(objetivo));
+        }
+        return estimar(atual, objetivo);
+    }
+
+    private double estimar(int v, int t) {
+        int k = landmarks.length;
+        int baseV = v * k;
+        int baseT = t * k;
+        double melhor = 0.0;
+        for (int l = 0; l < k; l++) {
+            // Termos com distâncias infinitas não dão limite útil e são ignorados
+            double limiteIda = distanciasIda[baseT + l] - distanciasIda[baseV + l];
+            if (limiteIda > melhor && limiteIda != Double.POSITIVE_INFINITY) {
+                melhor = limiteIda;
+            }
+            double limiteVolta = distanciasVolta[baseV + l] - distanciasVolta[baseT + l];
+            if (limiteVolta > melhor && limiteVolta != Double.POSITIVE_INFINITY) {
+                melhor = limiteVolta;
+            }
+        }
+        return melhor;
+    }
+}
@@ -0,0 +1,60 @@
+package algoritmos;
+
+import java.util.Arrays;
+
+/**
+ * Lista dinâmica de 'int' primitivos, sem o boxing de uma {@code List<Integer>}.
+ */
+final class ListaDeInteiros {
+
+    private int[] valores;
+    private int tamanho;
+
+    ListaDeInteiros() {
+        this(8);
+    }
+
+    ListaDeInteiros(int capacidade) {
+        this.valores = new int[Math.max(1, capacidade)];
+    }
+
+    void adicionar(int valor) {
+        if (tamanho == valores.length) {
+            valores = Arrays.copyOf(valores, tamanho * 2);
+        }
+        valores[tamanho++] = valor;
+    }
+
+    int get(int i) {
+        return valores[i];
+    }
+
+    void set(int i, int valor) {
+        valores[i] = valor;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    boolean isEmpty() {
+        return tamanho == 0;
+    }
+
+    /** Remove a posição {@code i} trocando-a pelo último elemento (não preserva a ordem). */
+    void removerTrocando(int i) {
+        valores[i] = valores[--tamanho];
+    }
+
+    int removerUltimo() {
+        return valores[--tamanho];
+    }
+
+    void limpar() {
+        tamanho = 0;
+    }
+
+    int[] paraVetor() {
+        return Arrays.copyOf(valores, tamanho);
+    }
+}
@@ -0,0 +1,252 @@
+package algoritmos;
+
+import lib.Grafo;
+import lib.GrafoCompacto;
+import lib.Vertice;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Matriz de distâncias origem × destino (muitos para muitos), usada para lotes de entrega.
+ * <p>
+ * Os valores ficam em um único vetor {@code double[]} em ordem de linhas: a distância da
+ * origem {@code i} ao destino {@code j} está em {@code [i * numeroDestinos + j]}. Pares sem
+ * caminho valem {@code Double.POSITIVE_INFINITY}.
+ * <p>
+ * Há dois modos de cálculo:
+ * <ul>
+ *   <li>sobre um {@link GrafoCompacto}: um Dijkstra de um para muitos por origem, em paralelo,
+ *       que para assim que todos os destinos foram fixados;</li>
+ *   <li>sobre uma {@link HierarquiaDeContracao}: o método dos baldes. Cada destino faz uma única
+ *       busca de subida para trás e deixa, em cada vértice alcançado, um registro (destino,
+ *       distância) no balde desse vértice. Em seguida cada origem faz uma busca de subida para
+ *       frente e combina a sua distância com os baldes dos vértices que fixa. Os espaços de busca
+ *       para trás são, assim, calculados uma vez só e reaproveitados por todas as origens.</li>
+ * </ul>
+ * A matriz é imutável depois de calculada.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public final class MatrizDeDistancias<T> {
+
+    private final List<Vertice<T>> origens;
+    private final List<Vertice<T>> destinos;
+    private final double[] valores;
+
+    private MatrizDeDistancias(List<Vertice<T>> origens, List<Vertice<T>> destinos, double[] valores) {
+        this.origens = origens;
+        this.destinos = destinos;
+        this.valores = valores;
+    }
+
+    /**
+     * Congela o grafo e calcula a matriz com buscas de um para muitos.
+     */
+    public static <T> MatrizDeDistancias<T> calcular(Grafo<T> grafo, List<T> origens, List<T> destinos) {
+        return calcular(grafo.congelar(), origens, destinos);
+    }
+
+    /**
+     * Calcula a matriz com um Dijkstra por origem, executados em paralelo. Cada busca termina
+     * assim que todos os destinos distintos foram fixados, sem varrer o restante do grafo.
+     *
+     * @param grafo O grafo compacto.
+     * @param origens Os dados dos vértices de origem (linhas da matriz).
+     * @param destinos Os dados dos vértices de destino (colunas da matriz).
+     * @return A matriz de distâncias.
+     */
+    public static <T> MatrizDeDistancias<T> calcular(GrafoCompacto<T> grafo, List<T> origens, List<T> destinos) {
+        int[] indicesOrigem = indices(grafo, origens);
+        int[] indicesDestino = indices(grafo, destinos);
+        int n = grafo.getNumeroVertices();
+        int colunas = indicesDestino.length;
+
+        // Consulta compartilhada (somente leitura) para saber se um vértice fixado é destino
+        boolean[] ehDestino = new boolean[n];
+        int destinosDistintos = 0;
+        for (int t : indicesDestino) {
+            if (!ehDestino[t]) {
+                ehDestino[t] = true;
+                destinosDistintos++;
+            }
+        }
+        final int totalDestinos = destinosDistintos;
+
+        double[] valores = new double[indicesOrigem.length * colunas];
+        IntStream.range(0, indicesOrigem.length).parallel().forEach(i -> {
+            EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(n);
+            buscarDestinos(grafo, espaco, indicesOrigem[i], ehDestino, totalDestinos);
+            int base = i * colunas;
+            for (int j = 0; j < colunas; j++) {
+                valores[base + j] = espaco.distancia(indicesDestino[j]);
+            }
+        });
+        return new MatrizDeDistancias<>(vertices(grafo, indicesOrigem), vertices(grafo, indicesDestino), valores);
+    }
+
+    /**
+     * Calcula a matriz pelo método dos baldes sobre uma hierarquia de contração já construída.
+     * As buscas para trás (uma por destino) e para frente (uma por origem) rodam em paralelo.
+     *
+     * @param hierarquia A hierarquia de contração do grafo.
+     * @param origens Os dados dos vértices de origem (linhas da matriz).
+     * @param destinos Os dados dos vértices de destino (colunas da matriz).
+     * @return A matriz de distâncias.
+     */
+    public static <T> MatrizDeDistancias<T> calcular(HierarquiaDeContracao<T> hierarquia, List<T> origens, List<T> destinos) {
+        GrafoCompacto<T> grafo = hierarquia.getGrafo();
+        int[] indicesOrigem = indices(grafo, origens);
+        int[] indicesDestino = indices(grafo, destinos);
+        int n = grafo.getNumeroVertices();
+        int colunas = indicesDestino.length;
+
+        // 1) Espaço de busca para trás de cada destino: vértices fixados e suas distâncias
+        int[][] alcancados = new int[colunas][];
+        double[][] distancias = new double[colunas][];
+        IntStream.range(0, colunas).parallel().forEach(j -> {
+            EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(n);
+            ListaDeInteiros lista = new ListaDeInteiros();
+            hierarquia.buscarSubida(espaco, indicesDestino[j], false, lista);
+            int[] vs = lista.paraVetor();
+            double[] ds = new double[vs.length];
+            for (int k = 0; k < vs.length; k++) {
+                ds[k] = espaco.distancia(vs[k]);
+            }
+            alcancados[j] = vs;
+            distancias[j] = ds;
+        });
+
+        // 2) Baldes em formato CSR: para cada vértice, os pares (coluna, distância até o destino)
+        int[] inicioBalde = new int[n + 1];
+        for (int[] vs : alcancados) {
+            for (int v : vs) {
+                inicioBalde[v + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            inicioBalde[v + 1] += inicioBalde[v];
+        }
+        int[] baldeColuna = new int[inicioBalde[n]];
+        double[] baldeDistancia = new double[inicioBalde[n]];
+        int[] proximo = Arrays.copyOf(inicioBalde, n);
+        for (int j = 0; j < colunas; j++) {
+            int[] vs = alcancados[j];
+            double[] ds = distancias[j];
+            for (int k = 0; k < vs.length; k++) {
+                int posicao = proximo[vs[k]]++;
+                baldeColuna[posicao] = j;
+                baldeDistancia[posicao] = ds[k];
+            }
+        }
+
+        // 3) Busca para frente de cada origem, combinando com os baldes dos vértices fixados
+        double[] valores = new double[indicesOrigem.length * colunas];
+        Arrays.fill(valores, Double.POSITIVE_INFINITY);
+        IntStream.range(0, indicesOrigem.length).parallel().forEach(i -> {
+            EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(n);
+            ListaDeInteiros lista = new ListaDeInteiros();
+            hierarquia.buscarSubida(espaco, indicesOrigem[i], true, lista);
+            int base = i * colunas;
+            for (int k = 0; k < lista.tamanho(); k++) {
+                int u = lista.get(k);
+                double du = espaco.distancia(u);
+                for (int b = inicioBalde[u], fim = inicioBalde[u + 1]; b < fim; b++) {
+                    double total = du + baldeDistancia[b];
+                    int posicao = base + baldeColuna[b];
+                    if (total < valores[posicao]) {
+                        valores[posicao] = total;
+                    }
+                }
+            }
+        });
+        return new MatrizDeDistancias<>(vertices(grafo, indicesOrigem), vertices(grafo, indicesDestino), valores);
+    }
+
+    // Dijkstra de um para muitos: para quando 'restantes' destinos distintos tiverem sido fixados
+    private static void buscarDestinos(GrafoCompacto<?> grafo, EspacoDeTrabalho espaco, int origem,
+                                       boolean[] ehDestino, int restantes) {
+        espaco.iniciar();
+        HeapIndexado heap = espaco.heap();
+        espaco.definir(origem, 0.0, -1);
+        heap.inserirOuDiminuir(origem, 0.0);
+
+        while (!heap.isEmpty() && restantes > 0) {
+            double distanciaU = heap.chaveMinima();
+            int u = heap.removerMinimo();
+            if (ehDestino[u]) {
+                restantes--;
+            }
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                int v = grafo.destino(e);
+                double distanciaAtravesU = distanciaU + grafo.peso(e);
+                if (distanciaAtravesU < espaco.distancia(v)) {
+                    espaco.definir(v, distanciaAtravesU, u);
+                    heap.inserirOuDiminuir(v, distanciaAtravesU);
+                }
+            }
+        }
+    }
+
+    private static <T> int[] indices(GrafoCompacto<T> grafo, List<T> dados) {
+        int[] indices = new int[dados.size()];
+        for (int i = 0; i < indices.length; i++) {
+            T dado = dados.get(i);
+            indices[i] = grafo.getIndice(dado);
+            if (indices[i] < 0) {
+                throw new IllegalArgumentException("Vértice '" + dado + "' não encontrado no grafo.");
+            }
+        }
+        return indices;
+    }
+
+    private static <T> List<Vertice<T>> vertices(GrafoCompacto<T> grafo, int[] indices) {
+        @SuppressWarnings("unchecked")
+        Vertice<T>[] vertices = (Vertice<T>[]) new Vertice<?>[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            vertices[i] = grafo.getVertice(indices[i]);
+        }
+        return Arrays.asList(vertices);
+    }
+
+    public int getNumeroOrigens() {
+        return origens.size();
+    }
+
+    public int getNumeroDestinos() {
+        return destinos.size();
+    }
+
+    /**
+     * Retorna a origem da linha {@code i}.
+     */
+    public Vertice<T> getOrigem(int i) {
+        return origens.get(i);
+    }
+
+    /**
+     * Retorna o destino da coluna {@code j}.
+     */
+    public Vertice<T> getDestino(int j) {
+        return destinos.get(j);
+    }
+
+    /**
+     * Retorna a distância da origem {@code i} ao destino {@code j}, ou
+     * {@code Double.POSITIVE_INFINITY} se não houver caminho.
+     */
+    public double get(int i, int j) {
+        if (i < 0 || i >= origens.size() || j < 0 || j >= destinos.size()) {
+            throw new IndexOutOfBoundsException("Posição (" + i + ", " + j + ") fora da matriz.");
+        }
+        return valores[i * destinos.size() + j];
+    }
+
+    /**
+     * Retorna uma cópia dos valores em ordem de linhas ({@code [i * numeroDestinos + j]}).
+     */
+    public double[] getValores() {
+        return valores.clone();
+    }
+}
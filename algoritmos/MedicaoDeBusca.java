@@ -0,0 +1,81 @@
+package algoritmos;
+
+/**
+ * Contadores imutáveis de uma única busca, entregues aos {@link OuvinteDeMetricas} e
+ * anexados a cada {@link ResultadoRota}.
+ */
+public final class MedicaoDeBusca {
+
+    private final Algoritmo algoritmo;
+    private final long nanos;
+    private final int fixados;
+    private final long relaxacoes;
+    private final int insercoes;
+    private final int remocoes;
+    private final int picoDaFila;
+
+    MedicaoDeBusca(Algoritmo algoritmo, long nanos, int fixados, long relaxacoes,
+                   int insercoes, int remocoes, int picoDaFila) {
+        this.algoritmo = algoritmo;
+        this.nanos = nanos;
+        this.fixados = fixados;
+        this.relaxacoes = relaxacoes;
+        this.insercoes = insercoes;
+        this.remocoes = remocoes;
+        this.picoDaFila = picoDaFila;
+    }
+
+    public Algoritmo getAlgoritmo() {
+        return algoritmo;
+    }
+
+    /**
+     * Retorna a duração da busca em nanossegundos (sem a montagem do caminho devolvido), ou 0
+     * se as {@link Metricas} estavam desativadas.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Retorna quantos vértices foram fixados (retirados da fila com a distância final),
+     * contando o destino.
+     */
+    public int getFixados() {
+        return fixados;
+    }
+
+    /**
+     * Retorna quantas arestas foram examinadas.
+     */
+    public long getRelaxacoes() {
+        return relaxacoes;
+    }
+
+    /**
+     * Retorna quantas vezes um vértice entrou na fila ou teve a chave diminuída.
+     */
+    public int getInsercoes() {
+        return insercoes;
+    }
+
+    /**
+     * Retorna quantos vértices foram retirados da fila.
+     */
+    public int getRemocoes() {
+        return remocoes;
+    }
+
+    /**
+     * Retorna o maior tamanho que a fila atingiu.
+     */
+    public int getPicoDaFila() {
+        return picoDaFila;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MedicaoDeBusca{%s, %.3f ms, fixados=%d, relaxacoes=%d, insercoes=%d, remocoes=%d, picoDaFila=%d}",
+                algoritmo, nanos / 1e6, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+    }
+}
@@ -0,0 +1,142 @@
+package algoritmos;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Instrumentação das buscas de {@link Dijkstra}, {@link AEstrela}, {@link BuscaEmLargura} e
+ * {@link DijkstraTemporal}. As variantes bidirecionais do Dijkstra e da busca em largura são
+ * registradas sob {@link Algoritmo#DIJKSTRA} e {@link Algoritmo#BUSCA_EM_LARGURA}, com os
+ * contadores dos dois lados somados e o pico das duas filas juntas. Buscas internas de
+ * pré-processamento (como as de {@link Landmarks}) não são registradas.
+ * <p>
+ * Cada busca conta, em variáveis locais, os vértices fixados, as arestas relaxadas, as
+ * entradas e saídas da fila e o maior tamanho da fila. Com as métricas ativas, ao fim da
+ * busca esses números e a latência são agregados nas {@link EstatisticasDeBusca} do algoritmo
+ * e entregues aos {@link OuvinteDeMetricas} registrados. Desativadas (o padrão), o custo é
+ * a leitura de um campo volátil por busca: nem o relógio é consultado.
+ * <p>
+ * As estatísticas podem ser publicadas no servidor JMX da plataforma com
+ * {@link #registrarNoJmx()}, sob {@code grafos:type=EstatisticasDeBusca,algoritmo=...}.
+ */
+public final class Metricas {
+
+    private static final String DOMINIO_JMX = "grafos:type=EstatisticasDeBusca,algoritmo=";
+
+    private static volatile boolean ativa;
+    private static final Map<Algoritmo, EstatisticasDeBusca> ESTATISTICAS = new EnumMap<>(Algoritmo.class);
+    private static final CopyOnWriteArrayList<OuvinteDeMetricas> OUVINTES = new CopyOnWriteArrayList<>();
+
+    static {
+        for (Algoritmo algoritmo : Algoritmo.values()) {
+            ESTATISTICAS.put(algoritmo, new EstatisticasDeBusca(algoritmo));
+        }
+    }
+
+    private Metricas() {
+    }
+
+    public static void ativar() {
+        ativa = true;
+    }
+
+    public static void desativar() {
+        ativa = false;
+    }
+
+    public static boolean isAtiva() {
+        return ativa;
+    }
+
+    /**
+     * Retorna o agregado das buscas do algoritmo. A instância é sempre a mesma.
+     */
+    public static EstatisticasDeBusca getEstatisticas(Algoritmo algoritmo) {
+        return ESTATISTICAS.get(Objects.requireNonNull(algoritmo, "O algoritmo não pode ser nulo."));
+    }
+
+    /**
+     * Zera as estatísticas de todos os algoritmos.
+     */
+    public static void limpar() {
+        for (EstatisticasDeBusca estatisticas : ESTATISTICAS.values()) {
+            estatisticas.limpar();
+        }
+    }
+
+    public static void adicionarOuvinte(OuvinteDeMetricas ouvinte) {
+        OUVINTES.add(Objects.requireNonNull(ouvinte, "O ouvinte não pode ser nulo."));
+    }
+
+    public static boolean removerOuvinte(OuvinteDeMetricas ouvinte) {
+        return OUVINTES.remove(ouvinte);
+    }
+
+    /**
+     * Registra as estatísticas de cada algoritmo no servidor JMX da plataforma, para
+     * consulta pelo JConsole ou VisualVM. Chamadas repetidas não têm efeito.
+     *
+     * @throws IllegalStateException se o servidor JMX recusar o registro.
+     */
+    public static synchronized void registrarNoJmx() {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (EstatisticasDeBusca estatisticas : ESTATISTICAS.values()) {
+                ObjectName nome = new ObjectName(DOMINIO_JMX + estatisticas.getAlgoritmo());
+                if (!servidor.isRegistered(nome)) {
+                    servidor.registerMBean(estatisticas, nome);
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Não foi possível registrar as métricas no JMX.", e);
+        }
+    }
+
+    /**
+     * Marca o início de uma busca: retorna o instante atual, ou 0 se as métricas estiverem
+     * desativadas (nesse caso a busca não deve chamar {@link #registrar}).
+     */
+    static long iniciar() {
+        if (!ativa) {
+            return 0L;
+        }
+        long agora = System.nanoTime();
+        return agora == 0L ? 1L : agora;
+    }
+
+    /**
+     * Registra o fim de uma busca iniciada com {@link #iniciar()}.
+     *
+     * @return A duração da busca, em nanossegundos.
+     */
+    static long registrar(Algoritmo algoritmo, long inicio, int fixados, long relaxacoes,
+                          int insercoes, int remocoes, int picoDaFila) {
+        long nanos = System.nanoTime() - inicio;
+        ESTATISTICAS.get(algoritmo).registrar(nanos, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+        if (!OUVINTES.isEmpty()) {
+            MedicaoDeBusca medicao = new MedicaoDeBusca(algoritmo, nanos, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+            for (OuvinteDeMetricas ouvinte : OUVINTES) {
+                ouvinte.buscaConcluida(medicao);
+            }
+        }
+        return nanos;
+    }
+
+    /**
+     * Conclui uma busca que não usa um {@link EspacoDeTrabalho}: registra-a se ela foi
+     * iniciada com as métricas ativas e devolve os contadores para o resultado.
+     */
+    static MedicaoDeBusca concluir(Algoritmo algoritmo, long inicio, int fixados, long relaxacoes,
+                                   int insercoes, int remocoes, int picoDaFila) {
+        long nanos = inicio != 0L
+                ? registrar(algoritmo, inicio, fixados, relaxacoes, insercoes, remocoes, picoDaFila)
+                : 0L;
+        return new MedicaoDeBusca(algoritmo, nanos, fixados, relaxacoes, insercoes, remocoes, picoDaFila);
+    }
+}
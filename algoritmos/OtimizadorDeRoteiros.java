@@ -0,0 +1,422 @@
+package algoritmos;
+
+import lib.Aresta;
+import lib.Grafo;
+import lib.GrafoCompacto;
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Otimizador de roteiros com várias paradas (problema do caixeiro-viajante) sobre os
+ * caminhos mínimos do grafo.
+ * <p>
+ * Primeiro a {@link MatrizDeDistancias} entre todas as paradas é calculada. Sobre ela, cada
+ * thread repete, até o tempo acabar:
+ * <ol>
+ *   <li>uma construção pelo vizinho mais próximo (a primeira exata, as demais sorteando entre
+ *   os três mais próximos) ou uma perturbação "double-bridge" do melhor roteiro da thread;</li>
+ *   <li>uma busca local com 2-opt (inversão de um trecho) e Or-opt (mudança de lugar de um
+ *   trecho de até três paradas), até nenhum movimento melhorar o custo.</li>
+ * </ol>
+ * O melhor roteiro de todas as threads é então costurado, trecho a trecho, em uma única rota.
+ * A primeira busca roda na thread que chamou o otimizador e as demais em threads criadas para
+ * a chamada, fora do pool comum do ForkJoin.
+ * <p>
+ * Os custos podem ser assimétricos (ruas de mão única): o 2-opt calcula o custo do trecho
+ * invertido com somas de prefixo nos dois sentidos, sem percorrer o trecho. Como o trabalho
+ * é limitado por tempo, execuções diferentes podem devolver roteiros diferentes (todos
+ * localmente ótimos).
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class OtimizadorDeRoteiros<T> {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAIOR_TRECHO_OR_OPT = 3;
+    private static final int CANDIDATOS_SORTEADOS = 3;
+
+    private final long nanosLimite;
+    private final int threads;
+    private final long semente;
+
+    /**
+     * Cria um otimizador com uma thread por núcleo.
+     * @param milissegundos O tempo máximo dedicado à busca local.
+     */
+    public OtimizadorDeRoteiros(long milissegundos) {
+        this(milissegundos, Runtime.getRuntime().availableProcessors(), 42);
+    }
+
+    /**
+     * @param milissegundos O tempo máximo dedicado à busca local.
+     * @param threads O número de buscas independentes em paralelo.
+     * @param semente A semente dos sorteios das reconstruções e perturbações.
+     */
+    public OtimizadorDeRoteiros(long milissegundos, int threads, long semente) {
+        if (milissegundos < 0) {
+            throw new IllegalArgumentException("O tempo limite não pode ser negativo.");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("O número de threads deve ser positivo.");
+        }
+        this.nanosLimite = milissegundos * 1_000_000L;
+        this.threads = threads;
+        this.semente = semente;
+    }
+
+    /**
+     * Congela o grafo e otimiza o roteiro.
+     */
+    public Roteiro<T> otimizar(Grafo<T> grafo, T dadoInicio, List<T> paradas, boolean voltarAoInicio) {
+        return otimizar(grafo.congelar(), dadoInicio, paradas, voltarAoInicio);
+    }
+
+    /**
+     * Otimiza o roteiro calculando as distâncias e os trechos com Dijkstra.
+     *
+     * @param grafo O grafo compacto.
+     * @param dadoInicio O ponto de partida (depósito).
+     * @param paradas As paradas a visitar; repetições e o próprio ponto de partida são ignorados.
+     * @param voltarAoInicio Se o roteiro termina de volta no ponto de partida.
+     * @return O melhor roteiro encontrado dentro do tempo limite.
+     * @throws IllegalArgumentException se alguma parada não puder ser alcançada.
+     */
+    public Roteiro<T> otimizar(GrafoCompacto<T> grafo, T dadoInicio, List<T> paradas, boolean voltarAoInicio) {
+        List<T> pontos = pontos(dadoInicio, paradas);
+        MatrizDeDistancias<T> matriz = MatrizDeDistancias.calcular(grafo, pontos, pontos);
+        Dijkstra<T> dijkstra = new Dijkstra<>();
+        return montar(matriz, pontos, voltarAoInicio, (a, b) -> dijkstra.calcularRota(grafo, a, b));
+    }
+
+    /**
+     * Otimiza o roteiro calculando as distâncias pelo método dos baldes e os trechos pela
+     * hierarquia de contração; indicado para muitas paradas em grafos grandes.
+     */
+    public Roteiro<T> otimizar(HierarquiaDeContracao<T> hierarquia, T dadoInicio, List<T> paradas, boolean voltarAoInicio) {
+        List<T> pontos = pontos(dadoInicio, paradas);
+        MatrizDeDistancias<T> matriz = MatrizDeDistancias.calcular(hierarquia, pontos, pontos);
+        return montar(matriz, pontos, voltarAoInicio, hierarquia::calcularRota);
+    }
+
+    // Ponto de partida seguido das paradas distintas
+    private static <T> List<T> pontos(T dadoInicio, List<T> paradas) {
+        Set<T> distintos = new LinkedHashSet<>();
+        distintos.add(dadoInicio);
+        distintos.addAll(paradas);
+        return new ArrayList<>(distintos);
+    }
+
+    @FunctionalInterface
+    private interface Trecho<T> {
+        ResultadoRota<T> rota(T origem, T destino);
+    }
+
+    private Roteiro<T> montar(MatrizDeDistancias<T> matriz, List<T> pontos, boolean voltarAoInicio, Trecho<T> trecho) {
+        int n = pontos.size();
+        double[] custos = matriz.getValores();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (custos[i * n + j] == Double.POSITIVE_INFINITY && (voltarAoInicio || j != 0)) {
+                    throw new IllegalArgumentException("Não há caminho de '" + pontos.get(i)
+                            + "' até '" + pontos.get(j) + "'.");
+                }
+            }
+        }
+        if (!voltarAoInicio) {
+            // Um roteiro aberto é um ciclo em que voltar ao início não custa nada
+            for (int i = 0; i < n; i++) {
+                custos[i * n] = 0.0;
+            }
+        }
+
+        int[] ordem = otimizarOrdem(custos, n, nanosLimite, threads, semente);
+
+        int paradasNoRoteiro = voltarAoInicio && n > 1 ? n + 1 : n;
+        int[] visita = Arrays.copyOf(ordem, paradasNoRoteiro);
+        List<Vertice<T>> paradas = new ArrayList<>(paradasNoRoteiro);
+        for (int p : visita) {
+            paradas.add(matriz.getOrigem(p));
+        }
+
+        // Os trechos são independentes e calculados em paralelo; a costura só junta as arestas
+        List<ResultadoRota<T>> trechos = new ArrayList<>();
+        for (int k = 0; k + 1 < visita.length; k++) {
+            trechos.add(null);
+        }
+        IntStream.range(0, trechos.size()).parallel().forEach(k ->
+                trechos.set(k, trecho.rota(pontos.get(visita[k]), pontos.get(visita[k + 1]))));
+        List<Aresta<T>> arestas = new ArrayList<>();
+        for (ResultadoRota<T> parte : trechos) {
+            arestas.addAll(parte.getArestas());
+        }
+        return new Roteiro<>(paradas, new ResultadoRota<>(paradas.get(0), arestas, null));
+    }
+
+    /**
+     * Encontra uma boa ordem de visita para uma matriz de custos {@code n × n} (em ordem de
+     * linhas), começando no ponto 0 e voltando a ele.
+     *
+     * @return A ordem de visita, com o ponto 0 na primeira posição.
+     */
+    static int[] otimizarOrdem(double[] custos, int n, long nanosLimite, int threads, long semente) {
+        if (n <= 3) {
+            // Com até três pontos só há uma ordem por sentido; a busca local escolhe o sentido
+            int[] ordem = new int[n];
+            for (int i = 0; i < n; i++) {
+                ordem[i] = i;
+            }
+            new BuscaLocal(custos, n).melhorar(ordem, Long.MAX_VALUE);
+            return ordem;
+        }
+        long fim = System.nanoTime() + nanosLimite;
+        int[][] melhores = new int[threads][];
+        Throwable[] falhas = new Throwable[threads];
+        // Threads próprias, e não o pool comum do ForkJoin: as buscas ocupam as threads pelo
+        // tempo limite inteiro e deixariam sem vez o resto da aplicação que usa aquele pool
+        Thread[] auxiliares = new Thread[threads - 1];
+        for (int t = 1; t < threads; t++) {
+            int indice = t;
+            auxiliares[t - 1] = new Thread(() -> {
+                try {
+                    melhores[indice] = buscar(custos, n, fim, new Random(semente + indice), false);
+                } catch (Throwable e) {
+                    falhas[indice] = e;
+                }
+            }, "otimizador-roteiros-" + t);
+            auxiliares[t - 1].setDaemon(true);
+            auxiliares[t - 1].start();
+        }
+        melhores[0] = buscar(custos, n, fim, new Random(semente), true);
+        boolean interrompida = false;
+        for (Thread auxiliar : auxiliares) {
+            while (auxiliar.isAlive()) {
+                try {
+                    auxiliar.join();
+                } catch (InterruptedException e) {
+                    interrompida = true;
+                }
+            }
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+        for (Throwable falha : falhas) {
+            if (falha instanceof RuntimeException) {
+                throw (RuntimeException) falha;
+            }
+            if (falha instanceof Error) {
+                throw (Error) falha;
+            }
+        }
+        int[] melhor = melhores[0];
+        for (int[] ordem : melhores) {
+            if (custoDoCiclo(custos, n, ordem) < custoDoCiclo(custos, n, melhor) - EPSILON) {
+                melhor = ordem;
+            }
+        }
+        return melhor;
+    }
+
+    // Busca local iterada de uma thread: sempre ao menos uma construção, mesmo sem tempo
+    private static int[] buscar(double[] custos, int n, long fim, Random aleatorio, boolean exataPrimeiro) {
+        BuscaLocal busca = new BuscaLocal(custos, n);
+        int[] melhor = null;
+        double custoMelhor = Double.POSITIVE_INFINITY;
+        for (int iteracao = 0; melhor == null || System.nanoTime() < fim; iteracao++) {
+            int[] ordem;
+            if (melhor == null || iteracao % 2 == 0) {
+                ordem = vizinhoMaisProximo(custos, n, iteracao == 0 && exataPrimeiro ? null : aleatorio);
+            } else {
+                ordem = perturbar(melhor, aleatorio);
+            }
+            busca.melhorar(ordem, fim);
+            double custo = custoDoCiclo(custos, n, ordem);
+            if (custo < custoMelhor - EPSILON) {
+                custoMelhor = custo;
+                melhor = ordem;
+            }
+        }
+        return melhor;
+    }
+
+    // Sem sorteio, escolhe sempre o mais próximo; com sorteio, um dos mais próximos
+    private static int[] vizinhoMaisProximo(double[] custos, int n, Random aleatorio) {
+        int[] ordem = new int[n];
+        boolean[] visitado = new boolean[n];
+        visitado[0] = true;
+        int[] candidatos = new int[CANDIDATOS_SORTEADOS];
+        for (int k = 1; k < n; k++) {
+            int atual = ordem[k - 1];
+            int quantidade = 0;
+            for (int j = 1; j < n; j++) {
+                if (visitado[j]) {
+                    continue;
+                }
+                // Insere j entre os candidatos, que ficam ordenados pelo custo a partir de 'atual'
+                int limite = aleatorio == null ? 1 : CANDIDATOS_SORTEADOS;
+                int posicao = Math.min(quantidade, limite);
+                while (posicao > 0 && custos[atual * n + j] < custos[atual * n + candidatos[posicao - 1]]) {
+                    posicao--;
+                }
+                if (posicao < limite) {
+                    for (int q = Math.min(quantidade, limite - 1); q > posicao; q--) {
+                        candidatos[q] = candidatos[q - 1];
+                    }
+                    candidatos[posicao] = j;
+                    quantidade = Math.min(quantidade + 1, limite);
+                }
+            }
+            int escolhido = candidatos[aleatorio == null ? 0 : aleatorio.nextInt(quantidade)];
+            ordem[k] = escolhido;
+            visitado[escolhido] = true;
+        }
+        return ordem;
+    }
+
+    // Double-bridge: corta o roteiro em quatro partes A B C D e as reúne como A C B D
+    private static int[] perturbar(int[] ordem, Random aleatorio) {
+        int n = ordem.length;
+        int[] cortes = {1 + aleatorio.nextInt(n - 1), 1 + aleatorio.nextInt(n - 1), 1 + aleatorio.nextInt(n - 1)};
+        Arrays.sort(cortes);
+        int[] nova = new int[n];
+        int k = 0;
+        for (int i = 0; i < cortes[0]; i++) {
+            nova[k++] = ordem[i];
+        }
+        for (int i = cortes[1]; i < cortes[2]; i++) {
+            nova[k++] = ordem[i];
+        }
+        for (int i = cortes[0]; i < cortes[1]; i++) {
+            nova[k++] = ordem[i];
+        }
+        for (int i = cortes[2]; i < n; i++) {
+            nova[k++] = ordem[i];
+        }
+        return nova;
+    }
+
+    static double custoDoCiclo(double[] custos, int n, int[] ordem) {
+        double total = 0.0;
+        for (int k = 0; k < n; k++) {
+            total += custos[ordem[k] * n + ordem[(k + 1) % n]];
+        }
+        return total;
+    }
+
+    /**
+     * 2-opt e Or-opt com primeira melhora sobre um ciclo com o ponto 0 fixo na posição 0.
+     */
+    private static final class BuscaLocal {
+        private final double[] custos;
+        private final int n;
+        // Somas de prefixo do ciclo atual nos dois sentidos: ida[k] = custo de ordem[0..k]
+        // percorrido para frente, volta[k] = o mesmo trecho percorrido de trás para frente
+        private final double[] ida;
+        private final double[] volta;
+        private final int[] auxiliar;
+
+        BuscaLocal(double[] custos, int n) {
+            this.custos = custos;
+            this.n = n;
+            this.ida = new double[n];
+            this.volta = new double[n];
+            this.auxiliar = new int[n];
+        }
+
+        private double c(int a, int b) {
+            return custos[a * n + b];
+        }
+
+        void melhorar(int[] ordem, long fim) {
+            boolean melhorou = true;
+            while (melhorou && System.nanoTime() < fim) {
+                melhorou = doisOpt(ordem) | orOpt(ordem);
+            }
+        }
+
+        private void prefixos(int[] ordem) {
+            for (int k = 1; k < n; k++) {
+                ida[k] = ida[k - 1] + c(ordem[k - 1], ordem[k]);
+                volta[k] = volta[k - 1] + c(ordem[k], ordem[k - 1]);
+            }
+        }
+
+        // Inverte o trecho ordem[i+1..j] quando isso reduz o custo
+        private boolean doisOpt(int[] ordem) {
+            boolean melhorou = false;
+            prefixos(ordem);
+            for (int i = 0; i < n - 2; i++) {
+                for (int j = i + 2; j < n; j++) {
+                    int a = ordem[i], b = ordem[i + 1], d = ordem[j], e = ordem[(j + 1) % n];
+                    double antes = c(a, b) + (ida[j] - ida[i + 1]) + c(d, e);
+                    double depois = c(a, d) + (volta[j] - volta[i + 1]) + c(b, e);
+                    if (depois < antes - EPSILON) {
+                        for (int p = i + 1, q = j; p < q; p++, q--) {
+                            int troca = ordem[p];
+                            ordem[p] = ordem[q];
+                            ordem[q] = troca;
+                        }
+                        prefixos(ordem);
+                        melhorou = true;
+                    }
+                }
+            }
+            return melhorou;
+        }
+
+        // Move um trecho de 1 a 3 paradas para outra posição do ciclo, sem invertê-lo
+        private boolean orOpt(int[] ordem) {
+            boolean melhorou = false;
+            for (int tamanho = 1; tamanho <= MAIOR_TRECHO_OR_OPT && tamanho < n - 1; tamanho++) {
+                for (int s = 1; s + tamanho <= n; s++) {
+                    int fimTrecho = s + tamanho - 1;
+                    int anterior = ordem[s - 1], primeiro = ordem[s], ultimo = ordem[fimTrecho];
+                    int proximo = ordem[(fimTrecho + 1) % n];
+                    double ganhoRemocao = c(anterior, primeiro) + c(ultimo, proximo) - c(anterior, proximo);
+                    int melhorPosicao = -1;
+                    double melhorDelta = -EPSILON;
+                    for (int p = 0; p < n; p++) {
+                        if (p >= s - 1 && p <= fimTrecho) {
+                            continue; // dentro do trecho ou na posição atual
+                        }
+                        int x = ordem[p], y = ordem[(p + 1) % n];
+                        double delta = c(x, primeiro) + c(ultimo, y) - c(x, y) - ganhoRemocao;
+                        if (delta < melhorDelta) {
+                            melhorDelta = delta;
+                            melhorPosicao = p;
+                        }
+                    }
+                    if (melhorPosicao >= 0) {
+                        mover(ordem, s, tamanho, melhorPosicao);
+                        melhorou = true;
+                    }
+                }
+            }
+            return melhorou;
+        }
+
+        // Reposiciona ordem[s..s+tamanho-1] logo depois de ordem[p]
+        private void mover(int[] ordem, int s, int tamanho, int p) {
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                if (i >= s && i < s + tamanho) {
+                    continue;
+                }
+                auxiliar[k++] = ordem[i];
+                if (i == p) {
+                    for (int q = s; q < s + tamanho; q++) {
+                        auxiliar[k++] = ordem[q];
+                    }
+                }
+            }
+            System.arraycopy(auxiliar, 0, ordem, 0, n);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package algoritmos;
+
+import lib.Vertice;
+
+/**
+ * Recebe cada vértice fixado por uma {@link BuscaLimitada}, em ordem crescente de custo, no
+ * momento em que o seu custo mínimo se torna definitivo.
+ * <p>
+ * É chamado na própria thread da busca, dentro do laço principal: deve ser rápido.
+ * <p>
+ * Pode fazer consultas sobre o grafo e sobre qualquer outro, inclusive rotas com
+ * {@link Dijkstra}, {@link AEstrela} e os demais algoritmos, e até outra {@link BuscaLimitada}:
+ * a busca em andamento usa um espaço de trabalho reservado, que essas consultas não tocam. Os
+ * vértices recebidos não devem ser usados para alterar o {@link lib.Grafo} de onde o grafo
+ * compacto foi congelado esperando que a busca perceba (ela continua com a fotografia). Uma
+ * exceção lançada pelo ouvinte interrompe a busca e é propagada para quem chamou
+ * {@code explorar}.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+@FunctionalInterface
+public interface OuvinteDeFixacao<T> {
+
+    void verticeFixado(Vertice<T> vertice, double custo);
+}
@@ -0,0 +1,14 @@
+package algoritmos;
+
+/**
+ * Recebe a medição de cada busca enquanto as {@link Metricas} estão ativas, por exemplo para
+ * repassá-las a um sistema de monitoramento externo.
+ * <p>
+ * É chamado na própria thread da consulta, logo depois da busca: deve ser rápido e
+ * thread-safe. Exceções lançadas pelo ouvinte chegam a quem fez a consulta.
+ */
+@FunctionalInterface
+public interface OuvinteDeMetricas {
+
+    void buscaConcluida(MedicaoDeBusca medicao);
+}
@@ -0,0 +1,189 @@
+package algoritmos;
+
+import lib.Aresta;
+import lib.GrafoCompacto;
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resultado imutável de uma {@link BuscaLimitada}: os vértices fixados, em ordem crescente de
+ * custo, com o custo mínimo e o predecessor de cada um.
+ * <p>
+ * Guarda só a região explorada (não vetores do tamanho do grafo). Consultas por vértice usam
+ * uma busca binária sobre os índices ordenados.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public final class RegiaoAlcancavel<T> {
+
+    private final GrafoCompacto<T> grafo;
+    private final double raio;
+    // Por posição na ordem de fixação
+    private final int[] indices;
+    private final double[] custos;
+    private final int[] anteriores;
+    private final int[] arestas;
+    // (índice do vértice << 32 | posição), ordenado pelo índice
+    private final long[] posicoes;
+
+    private RegiaoAlcancavel(GrafoCompacto<T> grafo, double raio, int[] indices, double[] custos,
+                             int[] anteriores, int[] arestas) {
+        this.grafo = grafo;
+        this.raio = raio;
+        this.indices = indices;
+        this.custos = custos;
+        this.anteriores = anteriores;
+        this.arestas = arestas;
+        this.posicoes = new long[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            posicoes[i] = ((long) indices[i] << 32) | i;
+        }
+        Arrays.sort(posicoes);
+    }
+
+    // Copia do espaço de trabalho apenas os vértices fixados
+    static <T> RegiaoAlcancavel<T> copiar(GrafoCompacto<T> grafo, ListaDeInteiros fixados, EspacoDeTrabalho espaco,
+                                          double raio) {
+        int tamanho = fixados.tamanho();
+        int[] indices = fixados.paraVetor();
+        double[] custos = new double[tamanho];
+        int[] anteriores = new int[tamanho];
+        int[] arestas = new int[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            custos[i] = espaco.distancia(indices[i]);
+            anteriores[i] = espaco.anterior(indices[i]);
+            arestas[i] = espaco.aresta(indices[i]);
+        }
+        return new RegiaoAlcancavel<>(grafo, raio, indices, custos, anteriores, arestas);
+    }
+
+    public GrafoCompacto<T> getGrafo() {
+        return grafo;
+    }
+
+    public Vertice<T> getOrigem() {
+        return grafo.getVertice(indices[0]);
+    }
+
+    /**
+     * Retorna o custo até o qual a região está completa: todo vértice com custo menor está nela.
+     * É o custo máximo da busca ou, se ela parou pela quantidade de alvos, o custo do último
+     * vértice fixado.
+     */
+    public double getRaio() {
+        return raio;
+    }
+
+    /**
+     * Retorna quantos vértices foram fixados.
+     */
+    public int tamanho() {
+        return indices.length;
+    }
+
+    /**
+     * Retorna o {@code posicao}-ésimo vértice fixado (0 é a origem).
+     */
+    public Vertice<T> getVertice(int posicao) {
+        return grafo.getVertice(indices[posicao]);
+    }
+
+    /**
+     * Retorna o custo do {@code posicao}-ésimo vértice fixado.
+     */
+    public double getCusto(int posicao) {
+        return custos[posicao];
+    }
+
+    /**
+     * Retorna os vértices fixados, em ordem crescente de custo.
+     */
+    public List<Vertice<T>> getVertices() {
+        List<Vertice<T>> vertices = new ArrayList<>(indices.length);
+        for (int indice : indices) {
+            vertices.add(grafo.getVertice(indice));
+        }
+        return vertices;
+    }
+
+    public boolean contem(Vertice<T> vertice) {
+        return posicao(grafo.getIndice(vertice.getDado())) >= 0;
+    }
+
+    /**
+     * Retorna o custo mínimo da origem até o vértice, ou {@code Double.POSITIVE_INFINITY} se
+     * ele não estiver na região.
+     */
+    public double getCusto(Vertice<T> vertice) {
+        int posicao = posicao(grafo.getIndice(vertice.getDado()));
+        return posicao < 0 ? Double.POSITIVE_INFINITY : custos[posicao];
+    }
+
+    /**
+     * Retorna a rota da origem até um vértice da região, ou um resultado sem caminho se ele
+     * não estiver nela. A rota não traz estatísticas de busca.
+     */
+    public ResultadoRota<T> getRota(Vertice<T> alvo) {
+        int posicao = posicao(grafo.getIndice(alvo.getDado()));
+        if (posicao < 0) {
+            return ResultadoRota.vazio();
+        }
+        ListaDeInteiros caminhoInvertido = new ListaDeInteiros();
+        for (int p = posicao; p >= 0; p = posicao(anteriores[p])) {
+            caminhoInvertido.adicionar(p);
+        }
+        int tamanho = caminhoInvertido.tamanho();
+        List<Vertice<T>> caminho = new ArrayList<>(tamanho);
+        List<Aresta<T>> arestasDoCaminho = new ArrayList<>(tamanho - 1);
+        double[] custosDoCaminho = new double[tamanho];
+        for (int i = tamanho - 1; i >= 0; i--) {
+            int p = caminhoInvertido.get(i);
+            Vertice<T> vertice = grafo.getVertice(indices[p]);
+            if (!caminho.isEmpty()) {
+                arestasDoCaminho.add(new Aresta<>(grafo.peso(arestas[p]), caminho.get(caminho.size() - 1), vertice));
+            }
+            custosDoCaminho[caminho.size()] = custos[p];
+            caminho.add(vertice);
+        }
+        return new ResultadoRota<>(caminho, arestasDoCaminho, custosDoCaminho, null);
+    }
+
+    /**
+     * Posição do vértice de índice {@code indice} na ordem de fixação, ou -1 se ele não
+     * estiver na região (ou se o índice for negativo).
+     */
+    int posicao(int indice) {
+        if (indice < 0) {
+            return -1;
+        }
+        int baixo = 0, alto = posicoes.length - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int indiceDoMeio = (int) (posicoes[meio] >>> 32);
+            if (indiceDoMeio < indice) {
+                baixo = meio + 1;
+            } else if (indiceDoMeio > indice) {
+                alto = meio - 1;
+            } else {
+                return (int) posicoes[meio];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Índice, no grafo, do {@code posicao}-ésimo vértice fixado.
+     */
+    int indice(int posicao) {
+        return indices[posicao];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RegiaoAlcancavel{origem=%s, vertices=%d, raio=%.2f}",
+                getOrigem(), indices.length, raio);
+    }
+}
@@ -0,0 +1,136 @@
+package algoritmos;
+
+import lib.Aresta;
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado imutável de uma consulta de rota ponto a ponto.
+ * Pode ser compartilhado livremente entre threads.
+ * <p>
+ * Além dos vértices, guarda as arestas efetivamente percorridas (a aresta escolhida pela
+ * busca, mesmo havendo arestas paralelas) e o custo acumulado até cada vértice do caminho.
+ * Os algoritmos montam tudo isso a partir dos predecessores registrados durante a própria
+ * busca, em O(tamanho do caminho), sem procurar as arestas de novo no grafo.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public final class ResultadoRota<T> {
+
+    private static final double[] SEM_CUSTOS = new double[0];
+    private static final ResultadoRota<?> VAZIO =
+            new ResultadoRota<>(Collections.emptyList(), Collections.emptyList(), SEM_CUSTOS, null);
+
+    private final List<Vertice<T>> caminho;
+    private final List<Aresta<T>> arestas;
+    // custosAcumulados[i] = custo da origem até caminho.get(i)
+    private final double[] custosAcumulados;
+    private final MedicaoDeBusca estatisticas;
+
+    /**
+     * Cria o resultado a partir das arestas percorridas, em ordem. O custo acumulado é a
+     * soma dos pesos das arestas.
+     *
+     * @param origem O primeiro vértice do caminho.
+     * @param arestas As arestas do caminho; cada uma deve começar onde a anterior termina.
+     * @param estatisticas Os contadores da busca que produziu a rota, ou {@code null}.
+     * @throws IllegalArgumentException se as arestas não formarem um caminho a partir da origem.
+     */
+    public ResultadoRota(Vertice<T> origem, List<Aresta<T>> arestas, MedicaoDeBusca estatisticas) {
+        List<Vertice<T>> vertices = new ArrayList<>(arestas.size() + 1);
+        double[] custos = new double[arestas.size() + 1];
+        vertices.add(origem);
+        for (int i = 0; i < arestas.size(); i++) {
+            Aresta<T> aresta = arestas.get(i);
+            if (!aresta.getInicio().equals(vertices.get(i))) {
+                throw new IllegalArgumentException("A aresta " + aresta + " não começa no fim do trecho anterior.");
+            }
+            vertices.add(aresta.getFim());
+            custos[i + 1] = custos[i] + aresta.getPeso();
+        }
+        this.caminho = Collections.unmodifiableList(vertices);
+        this.arestas = Collections.unmodifiableList(new ArrayList<>(arestas));
+        this.custosAcumulados = custos;
+        this.estatisticas = estatisticas;
+    }
+
+    /**
+     * Construtor usado pelos algoritmos, que já montaram as listas e os custos (não copia).
+     */
+    ResultadoRota(List<Vertice<T>> caminho, List<Aresta<T>> arestas, double[] custosAcumulados,
+                  MedicaoDeBusca estatisticas) {
+        this.caminho = Collections.unmodifiableList(caminho);
+        this.arestas = Collections.unmodifiableList(arestas);
+        this.custosAcumulados = custosAcumulados;
+        this.estatisticas = estatisticas;
+    }
+
+    /**
+     * Resultado de uma consulta sem caminho entre a origem e o destino.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ResultadoRota<T> vazio() {
+        return (ResultadoRota<T>) VAZIO;
+    }
+
+    /**
+     * Resultado sem caminho que ainda carrega as estatísticas da busca que falhou.
+     */
+    static <T> ResultadoRota<T> vazio(MedicaoDeBusca estatisticas) {
+        return new ResultadoRota<>(Collections.emptyList(), Collections.emptyList(), SEM_CUSTOS, estatisticas);
+    }
+
+    /**
+     * Retorna os vértices do caminho, da origem ao destino (lista vazia se não houver caminho).
+     */
+    public List<Vertice<T>> getCaminho() {
+        return caminho;
+    }
+
+    /**
+     * Retorna as arestas percorridas, em ordem; há uma a menos que vértices.
+     */
+    public List<Aresta<T>> getArestas() {
+        return arestas;
+    }
+
+    /**
+     * Retorna o custo total do caminho, ou {@code Double.POSITIVE_INFINITY} se não houver caminho.
+     */
+    public double getCusto() {
+        return custosAcumulados.length == 0 ? Double.POSITIVE_INFINITY : custosAcumulados[custosAcumulados.length - 1];
+    }
+
+    /**
+     * Retorna o custo da origem até o vértice {@code getCaminho().get(indice)}.
+     */
+    public double getCustoAcumulado(int indice) {
+        return custosAcumulados[indice];
+    }
+
+    /**
+     * Retorna os contadores da busca que produziu a rota (a duração só é medida com as
+     * {@link Metricas} ativas), ou {@code null} se a rota não veio de uma das buscas de
+     * {@link Algoritmo}. É nulo nas rotas de {@link HierarquiaDeContracao} e
+     * {@link RoteamentoCustomizavel} (buscas sobre atalhos, que não se comparam às do grafo
+     * original), de {@link CaminhosAlternativos} (cada rota junta trechos de várias buscas),
+     * nas extraídas de estruturas já calculadas ({@link ArvoreDeCaminhos},
+     * {@link RegiaoAlcancavel}, {@link CaminhosDinamicos}), nos roteiros de
+     * {@link OtimizadorDeRoteiros} (trechos costurados) e em {@link #vazio()}.
+     */
+    public MedicaoDeBusca getEstatisticas() {
+        return estatisticas;
+    }
+
+    public boolean isEncontrado() {
+        return !caminho.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResultadoRota{caminho=%s, custo=%.2f}", caminho, getCusto());
+    }
+}
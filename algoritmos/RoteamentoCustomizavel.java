@@ -0,0 +1,798 @@
+package algoritmos;
+
+import lib.Aresta;
+import lib.Grafo;
+import lib.GrafoCompacto;
+import lib.Localidade;
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Customizable Route Planning (CRP): consultas ponto a ponto rápidas em mapas cujos pesos
+ * mudam várias vezes ao dia (trânsito, interdições), sem refazer o pré-processamento.
+ * <p>
+ * O trabalho é dividido em três fases:
+ * <ol>
+ *   <li><b>Partição</b> (independente dos pesos, feita uma vez): bisseção inercial recursiva
+ *   sobre as coordenadas dos vértices. Cada faixa é dividida ao meio pela mediana da projeção
+ *   em quatro direções (0°, 45°, 90° e 135°), ficando a que corta menos arestas. Os nós da
+ *   árvore de bisseção com no máximo {@code tamanhosDasCelulas[i]} vértices formam as células
+ *   do nível {@code i + 1}, de modo que cada célula está contida em uma célula de cada nível
+ *   acima. Um vértice é de borda em um nível se tem aresta de ou para outra célula desse nível.</li>
+ *   <li><b>Customização</b> (a cada mudança de pesos): para cada célula, a matriz das distâncias
+ *   entre os seus vértices de borda andando só por dentro dela (a "clique" da célula). No
+ *   primeiro nível isso é um Dijkstra sobre as arestas originais da célula; nos demais, sobre
+ *   as cliques das subcélulas e as arestas entre elas. As células de um nível são independentes
+ *   e rodam em paralelo. Só são recalculadas as células que contêm arestas cujo peso mudou
+ *   (e as que as contêm, nos níveis acima).</li>
+ *   <li><b>Consulta</b>: Dijkstra bidirecional sobre a sobreposição. Cada vértice é expandido
+ *   no nível mais alto em que a sua célula não contém nem a origem nem o destino: perto deles
+ *   pelas arestas originais e, longe, pelas cliques das células grandes e as arestas entre
+ *   elas. As cliques do caminho encontrado são desempacotadas recursivamente, nível a nível,
+ *   até as arestas originais.</li>
+ * </ol>
+ * Uma customização monta uma métrica nova (pesos e cliques) e a publica de uma só vez:
+ * consultas concorrentes usam a métrica anterior ou a nova, nunca uma mistura. A qualidade
+ * da partição só afeta o desempenho, não a correção das rotas.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public class RoteamentoCustomizavel<T> {
+
+    private static final int[] TAMANHOS_PADRAO = {1 << 8, 1 << 12, 1 << 16, 1 << 20};
+    // Código, no espaço de trabalho, de um vértice alcançado por uma clique e não por uma aresta original
+    private static final int CLIQUE = -2;
+
+    private final GrafoCompacto<T> grafo;
+    // Os níveis vão de 1 a 'niveis'; a posição 0 dos vetores por nível não é usada
+    private final int niveis;
+    // celulas[nivel][v]: célula de v no nível; celulaPai[nivel][c]: célula do nível seguinte que contém c
+    private final int[][] celulas;
+    private final int[][] celulaPai;
+    // Vértices de borda de cada célula, agrupados por célula, e a posição de cada um no seu grupo
+    private final int[][] inicioBorda;
+    private final int[][] bordas;
+    private final int[][] posicaoNaBorda;
+    // Posição da matriz (bordas x bordas, por linhas) de cada célula no vetor de cliques do nível
+    private final int[][] inicioMatriz;
+    private final int[] tamanhoMatrizes;
+
+    private volatile Metrica metrica;
+
+    // Pesos das arestas (índices CSR de 'grafo') e as cliques calculadas com eles
+    private static final class Metrica {
+        final double[] pesos;
+        final double[][] cliques;
+
+        Metrica(double[] pesos, double[][] cliques) {
+            this.pesos = pesos;
+            this.cliques = cliques;
+        }
+    }
+
+    private RoteamentoCustomizavel(GrafoCompacto<T> grafo, Particionador particionador) {
+        this.grafo = grafo;
+        this.niveis = particionador.niveis;
+        this.celulas = particionador.celulas;
+        this.celulaPai = new int[niveis + 1][];
+        for (int nivel = 1; nivel <= niveis; nivel++) {
+            celulaPai[nivel] = particionador.pais[nivel].paraVetor();
+        }
+
+        int n = grafo.getNumeroVertices();
+        // Maior nível em que cada vértice é de borda (0 se em nenhum)
+        int[] nivelDeBorda = new int[n];
+        for (int u = 0; u < n; u++) {
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                int v = grafo.destino(e);
+                int nivel = niveis;
+                while (nivel >= 1 && celulas[nivel][u] == celulas[nivel][v]) {
+                    nivel--;
+                }
+                nivelDeBorda[u] = Math.max(nivelDeBorda[u], nivel);
+                nivelDeBorda[v] = Math.max(nivelDeBorda[v], nivel);
+            }
+        }
+
+        this.inicioBorda = new int[niveis + 1][];
+        this.bordas = new int[niveis + 1][];
+        this.posicaoNaBorda = new int[niveis + 1][];
+        this.inicioMatriz = new int[niveis + 1][];
+        this.tamanhoMatrizes = new int[niveis + 1];
+        for (int nivel = 1; nivel <= niveis; nivel++) {
+            int numeroCelulas = celulaPai[nivel].length;
+            int[] inicio = new int[numeroCelulas + 1];
+            for (int v = 0; v < n; v++) {
+                if (nivelDeBorda[v] >= nivel) {
+                    inicio[celulas[nivel][v] + 1]++;
+                }
+            }
+            for (int c = 0; c < numeroCelulas; c++) {
+                inicio[c + 1] += inicio[c];
+            }
+            int[] grupo = new int[inicio[numeroCelulas]];
+            int[] posicao = new int[n];
+            Arrays.fill(posicao, -1);
+            int[] proxima = new int[numeroCelulas];
+            for (int v = 0; v < n; v++) {
+                if (nivelDeBorda[v] >= nivel) {
+                    int c = celulas[nivel][v];
+                    posicao[v] = proxima[c]++;
+                    grupo[inicio[c] + posicao[v]] = v;
+                }
+            }
+
+            int[] matriz = new int[numeroCelulas];
+            long total = 0;
+            for (int c = 0; c < numeroCelulas; c++) {
+                matriz[c] = (int) total;
+                long b = inicio[c + 1] - inicio[c];
+                total += b * b;
+                if (total > Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("As células do nível " + nivel + " têm vértices de borda demais; "
+                            + "use células menores.");
+                }
+            }
+            inicioBorda[nivel] = inicio;
+            bordas[nivel] = grupo;
+            posicaoNaBorda[nivel] = posicao;
+            inicioMatriz[nivel] = matriz;
+            tamanhoMatrizes[nivel] = (int) total;
+        }
+    }
+
+    /**
+     * Congela o grafo e constrói a estrutura com a partição pelas coordenadas das localidades.
+     */
+    public static RoteamentoCustomizavel<Localidade> construir(Grafo<Localidade> grafo) {
+        return construir(grafo.congelar());
+    }
+
+    /**
+     * Constrói a estrutura com a partição pelas coordenadas das localidades, com células de até
+     * 2^8, 2^12, 2^16 e 2^20 vértices (só os níveis menores que o grafo), e faz a primeira
+     * customização com os pesos atuais.
+     */
+    public static RoteamentoCustomizavel<Localidade> construir(GrafoCompacto<Localidade> grafo) {
+        return construir(grafo, Localidade::getX, Localidade::getY, TAMANHOS_PADRAO);
+    }
+
+    /**
+     * Constrói a estrutura e faz a primeira customização com os pesos atuais do grafo.
+     *
+     * @param grafo O grafo compacto; a topologia fica fixa, só os pesos podem mudar depois.
+     * @param x A coordenada horizontal de cada vértice, usada na partição.
+     * @param y A coordenada vertical de cada vértice, usada na partição.
+     * @param tamanhosDasCelulas O número máximo de vértices por célula em cada nível, do mais
+     *                           baixo ao mais alto; níveis com células do tamanho do grafo são ignorados.
+     * @return A estrutura pronta para consultas.
+     */
+    public static <T> RoteamentoCustomizavel<T> construir(GrafoCompacto<T> grafo, ToDoubleFunction<? super T> x,
+                                                          ToDoubleFunction<? super T> y, int... tamanhosDasCelulas) {
+        for (int i = 0; i < tamanhosDasCelulas.length; i++) {
+            if (tamanhosDasCelulas[i] <= 0 || (i > 0 && tamanhosDasCelulas[i] <= tamanhosDasCelulas[i - 1])) {
+                throw new IllegalArgumentException("Os tamanhos das células devem ser positivos e crescentes.");
+            }
+        }
+        int n = grafo.getNumeroVertices();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int v = 0; v < n; v++) {
+            T dado = grafo.getVertice(v).getDado();
+            xs[v] = x.applyAsDouble(dado);
+            ys[v] = y.applyAsDouble(dado);
+        }
+        int niveis = 0;
+        while (niveis < tamanhosDasCelulas.length && tamanhosDasCelulas[niveis] < n) {
+            niveis++;
+        }
+        Particionador particionador = new Particionador(grafo, xs, ys, Arrays.copyOf(tamanhosDasCelulas, niveis));
+        particionador.dividir(0, n, niveis);
+
+        RoteamentoCustomizavel<T> roteamento = new RoteamentoCustomizavel<>(grafo, particionador);
+        roteamento.customizar(grafo);
+        return roteamento;
+    }
+
+    public GrafoCompacto<T> getGrafo() {
+        return grafo;
+    }
+
+    public int getNumeroNiveis() {
+        return niveis;
+    }
+
+    /**
+     * Número de células de um nível (de 1 a {@link #getNumeroNiveis()}).
+     */
+    public int getNumeroCelulas(int nivel) {
+        return celulaPai[validarNivel(nivel)].length;
+    }
+
+    /**
+     * Número de vértices de borda de um nível, somando todas as células.
+     */
+    public int getNumeroVerticesDeBorda(int nivel) {
+        return bordas[validarNivel(nivel)].length;
+    }
+
+    private int validarNivel(int nivel) {
+        if (nivel < 1 || nivel > niveis) {
+            throw new IllegalArgumentException("Nível " + nivel + " inexistente; há " + niveis + " níveis.");
+        }
+        return nivel;
+    }
+
+    /**
+     * Congela o grafo e customiza com os pesos dele.
+     */
+    public int customizar(Grafo<T> grafo) {
+        return customizar(grafo.congelar());
+    }
+
+    /**
+     * Lê os pesos de uma fotografia com a mesma topologia (os mesmos vértices e arestas, em
+     * qualquer ordem; por exemplo, uma versão de um {@link lib.GrafoVersionado} ou o grafo
+     * congelado de novo depois de {@link Grafo#alterarPeso}) e recalcula as cliques das células
+     * afetadas pelas arestas cujo peso mudou. A nova métrica é publicada ao final; até lá as
+     * consultas continuam com a anterior.
+     *
+     * @param fotografia O grafo com os pesos novos.
+     * @return Quantas células foram recalculadas, somando todos os níveis.
+     * @throws IllegalArgumentException se a topologia for diferente (por exemplo, depois da
+     *         compactação de um grafo versionado); nesse caso a estrutura deve ser reconstruída.
+     */
+    public synchronized int customizar(GrafoCompacto<T> fotografia) {
+        double[] pesos = lerPesos(fotografia);
+        Metrica anterior = metrica;
+        boolean[][] sujas = new boolean[niveis + 1][];
+        for (int nivel = 1; nivel <= niveis; nivel++) {
+            sujas[nivel] = new boolean[celulaPai[nivel].length];
+            if (anterior == null) {
+                Arrays.fill(sujas[nivel], true);
+            }
+        }
+        if (anterior != null) {
+            marcarSujas(anterior.pesos, pesos, sujas);
+        }
+
+        double[][] cliques = new double[niveis + 1][];
+        Metrica nova = new Metrica(pesos, cliques);
+        int recalculadas = 0;
+        for (int nivel = 1; nivel <= niveis; nivel++) {
+            ListaDeInteiros lista = new ListaDeInteiros();
+            for (int c = 0; c < sujas[nivel].length; c++) {
+                if (sujas[nivel][c]) {
+                    lista.adicionar(c);
+                }
+            }
+            if (lista.isEmpty()) {
+                cliques[nivel] = anterior.cliques[nivel];
+                continue;
+            }
+            cliques[nivel] = anterior == null ? new double[tamanhoMatrizes[nivel]] : anterior.cliques[nivel].clone();
+            int nivelAtual = nivel;
+            int[] paraRecalcular = lista.paraVetor();
+            IntStream.range(0, paraRecalcular.length).parallel()
+                    .forEach(i -> customizarCelula(nova, nivelAtual, paraRecalcular[i]));
+            recalculadas += paraRecalcular.length;
+        }
+        metrica = nova;
+        return recalculadas;
+    }
+
+    // Pesos da fotografia na ordem das arestas de 'grafo', casando as arestas pelos vértices
+    private double[] lerPesos(GrafoCompacto<T> fotografia) {
+        int n = grafo.getNumeroVertices();
+        double[] pesos = new double[grafo.getNumeroArestas()];
+        if (fotografia == grafo) {
+            for (int e = 0; e < pesos.length; e++) {
+                pesos[e] = grafo.peso(e);
+            }
+            return pesos;
+        }
+        if (fotografia.getNumeroVertices() != n || fotografia.getNumeroArestas() != pesos.length) {
+            throw new IllegalArgumentException("A fotografia não tem a mesma topologia do grafo particionado.");
+        }
+        int[] correspondente = new int[n];
+        int[] nosso = new int[n];
+        Arrays.fill(nosso, -1);
+        for (int v = 0; v < n; v++) {
+            correspondente[v] = fotografia.getIndice(grafo.getVertice(v).getDado());
+            if (correspondente[v] < 0) {
+                throw new IllegalArgumentException("Vértice '" + grafo.getVertice(v).getDado() + "' não encontrado na fotografia.");
+            }
+            nosso[correspondente[v]] = v;
+        }
+        for (int u = 0; u < n; u++) {
+            int primeira = grafo.inicioSaida(u), grau = grafo.fimSaida(u) - primeira;
+            int primeiraDela = fotografia.inicioSaida(correspondente[u]);
+            if (fotografia.fimSaida(correspondente[u]) - primeiraDela != grau) {
+                throw new IllegalArgumentException("O vértice '" + grafo.getVertice(u).getDado()
+                        + "' não tem as mesmas arestas na fotografia.");
+            }
+            boolean mesmaOrdem = true;
+            for (int j = 0; j < grau && mesmaOrdem; j++) {
+                mesmaOrdem = nosso[fotografia.destino(primeiraDela + j)] == grafo.destino(primeira + j);
+            }
+            if (mesmaOrdem) {
+                for (int j = 0; j < grau; j++) {
+                    pesos[primeira + j] = fotografia.peso(primeiraDela + j);
+                }
+            } else {
+                casarArestas(fotografia, u, nosso, correspondente[u], pesos);
+            }
+        }
+        return pesos;
+    }
+
+    // Arestas de u em outra ordem: ordena as duas listas por destino (e as da fotografia pelo
+    // peso, entre paralelas) e casa uma a uma
+    private void casarArestas(GrafoCompacto<T> fotografia, int u, int[] nosso, int uNaFotografia, double[] pesos) {
+        int primeira = grafo.inicioSaida(u), grau = grafo.fimSaida(u) - primeira;
+        int primeiraDela = fotografia.inicioSaida(uNaFotografia);
+        Integer[] nossas = new Integer[grau];
+        Integer[] delas = new Integer[grau];
+        for (int j = 0; j < grau; j++) {
+            nossas[j] = primeira + j;
+            delas[j] = primeiraDela + j;
+        }
+        Arrays.sort(nossas, (a, b) -> Integer.compare(grafo.destino(a), grafo.destino(b)));
+        Arrays.sort(delas, (a, b) -> {
+            int porDestino = Integer.compare(nosso[fotografia.destino(a)], nosso[fotografia.destino(b)]);
+            return porDestino != 0 ? porDestino : Double.compare(fotografia.peso(a), fotografia.peso(b));
+        });
+        for (int j = 0; j < grau; j++) {
+            if (grafo.destino(nossas[j]) != nosso[fotografia.destino(delas[j])]) {
+                throw new IllegalArgumentException("O vértice '" + grafo.getVertice(u).getDado()
+                        + "' não tem as mesmas arestas na fotografia.");
+            }
+            pesos[nossas[j]] = fotografia.peso(delas[j]);
+        }
+    }
+
+    // Uma aresta alterada entre duas células diferentes só entra nas cliques a partir do
+    // primeiro nível em que as duas estão na mesma célula; essa célula e as que a contêm mudam
+    private void marcarSujas(double[] antigos, double[] novos, boolean[][] sujas) {
+        for (int u = 0; u < grafo.getNumeroVertices(); u++) {
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                if (Double.compare(antigos[e], novos[e]) == 0) {
+                    continue;
+                }
+                int v = grafo.destino(e);
+                int nivel = 1;
+                while (nivel <= niveis && celulas[nivel][u] != celulas[nivel][v]) {
+                    nivel++;
+                }
+                for (int c = nivel <= niveis ? celulas[nivel][u] : -1; c >= 0 && !sujas[nivel][c]; c = celulaPai[nivel++][c]) {
+                    sujas[nivel][c] = true;
+                    if (nivel == niveis) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // Preenche a clique de uma célula com uma busca a partir de cada vértice de borda
+    private void customizarCelula(Metrica metrica, int nivel, int celula) {
+        EspacoDeTrabalho espaco = EspacoDeTrabalho.daThreadAtual(grafo.getNumeroVertices());
+        int inicio = inicioBorda[nivel][celula];
+        int b = inicioBorda[nivel][celula + 1] - inicio;
+        double[] clique = metrica.cliques[nivel];
+        int base = inicioMatriz[nivel][celula];
+        for (int i = 0; i < b; i++) {
+            buscarNaCelula(metrica, nivel, celula, bordas[nivel][inicio + i], -1, espaco);
+            for (int j = 0; j < b; j++) {
+                clique[base + i * b + j] = espaco.distancia(bordas[nivel][inicio + j]);
+            }
+        }
+    }
+
+    /**
+     * Dijkstra dentro de uma célula, a partir de um vértice de borda dela (ou de uma subcélula),
+     * até fixar {@code alvo} ou esgotar a célula. No nível 1 usa as arestas originais da célula;
+     * acima, as cliques das subcélulas e as arestas originais entre subcélulas. Os vértices
+     * alcançados por uma clique ficam com a aresta {@link #CLIQUE} e não expandem a clique de novo.
+     */
+    private void buscarNaCelula(Metrica metrica, int nivel, int celula, int origem, int alvo, EspacoDeTrabalho espaco) {
+        espaco.iniciar();
+        HeapIndexado heap = espaco.heap();
+        espaco.definir(origem, 0.0, -1, -1);
+        heap.inserirOuDiminuir(origem, 0.0);
+        int[] celulasDoNivel = celulas[nivel];
+        while (!heap.isEmpty()) {
+            double distanciaU = heap.chaveMinima();
+            int u = heap.removerMinimo();
+            if (u == alvo) {
+                return;
+            }
+            int subcelula = nivel == 1 ? -1 : celulas[nivel - 1][u];
+            // Quem chegou pela clique da subcélula só sai dela pelas arestas originais: pela
+            // clique de novo não melhora (desigualdade triangular)
+            if (nivel > 1 && espaco.aresta(u) != CLIQUE) {
+                relaxarClique(metrica, nivel - 1, u, distanciaU, espaco, heap);
+            }
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                int v = grafo.destino(e);
+                if (celulasDoNivel[v] != celula || (nivel > 1 && celulas[nivel - 1][v] == subcelula)) {
+                    continue;
+                }
+                relaxar(espaco, heap, v, distanciaU + metrica.pesos[e], u, e);
+            }
+        }
+    }
+
+    // Arestas da clique de u na sua célula do nível: de u para os demais vértices de borda
+    private void relaxarClique(Metrica metrica, int nivel, int u, double distanciaU, EspacoDeTrabalho espaco,
+                               HeapIndexado heap) {
+        int c = celulas[nivel][u];
+        int inicio = inicioBorda[nivel][c];
+        int b = inicioBorda[nivel][c + 1] - inicio;
+        double[] clique = metrica.cliques[nivel];
+        int linha = inicioMatriz[nivel][c] + posicaoNaBorda[nivel][u] * b;
+        for (int j = 0; j < b; j++) {
+            relaxar(espaco, heap, bordas[nivel][inicio + j], distanciaU + clique[linha + j], u, CLIQUE);
+        }
+    }
+
+    // Arestas da clique que chegam a u: dos demais vértices de borda da célula para u
+    private void relaxarCliqueReversa(Metrica metrica, int nivel, int u, double distanciaU, EspacoDeTrabalho espaco,
+                                      HeapIndexado heap) {
+        int c = celulas[nivel][u];
+        int inicio = inicioBorda[nivel][c];
+        int b = inicioBorda[nivel][c + 1] - inicio;
+        double[] clique = metrica.cliques[nivel];
+        int coluna = inicioMatriz[nivel][c] + posicaoNaBorda[nivel][u];
+        for (int j = 0; j < b; j++) {
+            relaxar(espaco, heap, bordas[nivel][inicio + j], distanciaU + clique[coluna + j * b], u, CLIQUE);
+        }
+    }
+
+    private static boolean relaxar(EspacoDeTrabalho espaco, HeapIndexado heap, int v, double distancia, int u, int aresta) {
+        if (distancia < espaco.distancia(v)) {
+            espaco.definir(v, distancia, u, aresta);
+            heap.inserirOuDiminuir(v, distancia);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Calcula a distância mínima entre dois vértices.
+     * @return A distância, ou {@code Double.POSITIVE_INFINITY} se não houver caminho.
+     */
+    public double calcularDistancia(T dadoOrigem, T dadoDestino) {
+        int origem = indiceObrigatorio(dadoOrigem);
+        int destino = indiceObrigatorio(dadoDestino);
+        Consulta consulta = consultar(metrica, origem, destino);
+        return consulta.distancia;
+    }
+
+    /**
+     * Calcula a rota mais curta entre dois vértices com os pesos da última customização, com as
+     * arestas originais (cliques desempacotadas) e os custos acumulados, sem estatísticas de
+     * busca ({@link ResultadoRota#getEstatisticas()} é nulo).
+     */
+    public ResultadoRota<T> calcularRota(T dadoOrigem, T dadoDestino) {
+        int origem = indiceObrigatorio(dadoOrigem);
+        int destino = indiceObrigatorio(dadoDestino);
+        Metrica atual = metrica;
+        Consulta consulta = consultar(atual, origem, destino);
+        if (consulta.encontro < 0) {
+            return ResultadoRota.vazio();
+        }
+        ListaDeInteiros originais = desempacotar(atual, consulta);
+
+        List<Vertice<T>> caminho = new ArrayList<>(originais.tamanho() + 1);
+        List<Aresta<T>> arestas = new ArrayList<>(originais.tamanho());
+        double[] custos = new double[originais.tamanho() + 1];
+        caminho.add(grafo.getVertice(origem));
+        for (int i = 0; i < originais.tamanho(); i++) {
+            int e = originais.get(i);
+            Vertice<T> vertice = grafo.getVertice(grafo.destino(e));
+            arestas.add(new Aresta<>(atual.pesos[e], caminho.get(i), vertice));
+            custos[i + 1] = custos[i] + atual.pesos[e];
+            caminho.add(vertice);
+        }
+        return new ResultadoRota<>(caminho, arestas, custos, null);
+    }
+
+    // Resultado da busca bidirecional, ainda nos espaços de trabalho da thread
+    private static final class Consulta {
+        final int origem;
+        final int destino;
+        final int encontro;
+        final double distancia;
+        final EspacoDeTrabalho frente;
+        final EspacoDeTrabalho tras;
+
+        Consulta(int origem, int destino, int encontro, double distancia, EspacoDeTrabalho frente, EspacoDeTrabalho tras) {
+            this.origem = origem;
+            this.destino = destino;
+            this.encontro = encontro;
+            this.distancia = distancia;
+            this.frente = frente;
+            this.tras = tras;
+        }
+    }
+
+    private Consulta consultar(Metrica metrica, int origem, int destino) {
+        int n = grafo.getNumeroVertices();
+        EspacoDeTrabalho frente = EspacoDeTrabalho.daThreadAtual(n);
+        EspacoDeTrabalho tras = EspacoDeTrabalho.reversoDaThreadAtual(n);
+        frente.iniciar();
+        tras.iniciar();
+        HeapIndexado heapFrente = frente.heap();
+        HeapIndexado heapTras = tras.heap();
+        frente.definir(origem, 0.0, -1, -1);
+        heapFrente.inserirOuDiminuir(origem, 0.0);
+        tras.definir(destino, 0.0, -1, -1);
+        heapTras.inserirOuDiminuir(destino, 0.0);
+
+        double melhor = origem == destino ? 0.0 : Double.POSITIVE_INFINITY;
+        int encontro = origem == destino ? origem : -1;
+        while (!heapFrente.isEmpty() && !heapTras.isEmpty()
+                && heapFrente.chaveMinima() + heapTras.chaveMinima() < melhor) {
+            boolean paraFrente = heapFrente.tamanho() <= heapTras.tamanho();
+            EspacoDeTrabalho lado = paraFrente ? frente : tras;
+            EspacoDeTrabalho outro = paraFrente ? tras : frente;
+            HeapIndexado heap = lado.heap();
+            double distanciaU = heap.chaveMinima();
+            int u = heap.removerMinimo();
+
+            int nivel = nivelDeConsulta(u, origem, destino);
+            if (nivel > 0 && lado.aresta(u) != CLIQUE) {
+                if (paraFrente) {
+                    relaxarClique(metrica, nivel, u, distanciaU, lado, heap);
+                } else {
+                    relaxarCliqueReversa(metrica, nivel, u, distanciaU, lado, heap);
+                }
+                int c = celulas[nivel][u];
+                int inicio = inicioBorda[nivel][c];
+                for (int j = inicio, fim = inicioBorda[nivel][c + 1]; j < fim; j++) {
+                    int v = bordas[nivel][j];
+                    if (outro.visitado(v) && lado.distancia(v) + outro.distancia(v) < melhor) {
+                        melhor = lado.distancia(v) + outro.distancia(v);
+                        encontro = v;
+                    }
+                }
+            }
+            int[] celulasDoNivel = nivel > 0 ? celulas[nivel] : null;
+            int primeira = paraFrente ? grafo.inicioSaida(u) : grafo.inicioEntrada(u);
+            int fim = paraFrente ? grafo.fimSaida(u) : grafo.fimEntrada(u);
+            for (int e = primeira; e < fim; e++) {
+                int v = paraFrente ? grafo.destino(e) : grafo.origem(e);
+                // Acima do nível 0, só as arestas que saem da célula de u
+                if (nivel > 0 && celulasDoNivel[v] == celulasDoNivel[u]) {
+                    continue;
+                }
+                int direta = paraFrente ? e : grafo.arestaDireta(e);
+                relaxar(lado, heap, v, distanciaU + metrica.pesos[direta], u, direta);
+                if (outro.visitado(v) && lado.distancia(v) + outro.distancia(v) < melhor) {
+                    melhor = lado.distancia(v) + outro.distancia(v);
+                    encontro = v;
+                }
+            }
+        }
+        return new Consulta(origem, destino, encontro, melhor, frente, tras);
+    }
+
+    /**
+     * Nível em que {@code v} é expandido numa consulta de {@code origem} a {@code destino}: o
+     * mais alto em que a célula de {@code v} não contém nenhum dos dois, ou 0 (arestas
+     * originais) se a célula do nível 1 já contém um deles.
+     */
+    private int nivelDeConsulta(int v, int origem, int destino) {
+        for (int nivel = niveis; nivel >= 1; nivel--) {
+            int c = celulas[nivel][v];
+            if (c != celulas[nivel][origem] && c != celulas[nivel][destino]) {
+                return nivel;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Troca as cliques do caminho da consulta pelas arestas originais, sem recursão: cada
+     * clique do nível {@code l} é refeita com uma busca na sua célula, que devolve arestas
+     * originais e cliques do nível {@code l - 1}, e assim por diante.
+     */
+    private ListaDeInteiros desempacotar(Metrica metrica, Consulta consulta) {
+        // Pilha de passos (nível, de, para); nível 0 é uma aresta original, cujo índice vai em 'de'
+        ListaDeInteiros pilha = new ListaDeInteiros();
+        // Metade de trás (encontro -> destino), empilhada do fim para o começo
+        ListaDeInteiros metadeDeTras = new ListaDeInteiros();
+        for (int v = consulta.encontro; v != consulta.destino; v = consulta.tras.anterior(v)) {
+            metadeDeTras.adicionar(v);
+        }
+        for (int i = metadeDeTras.tamanho() - 1; i >= 0; i--) {
+            int v = metadeDeTras.get(i);
+            empilharPasso(pilha, consulta.tras.aresta(v), v, consulta.tras.anterior(v), consulta);
+        }
+        // Metade da frente (origem -> encontro), do encontro para trás
+        for (int v = consulta.encontro; v != consulta.origem; v = consulta.frente.anterior(v)) {
+            empilharPasso(pilha, consulta.frente.aresta(v), consulta.frente.anterior(v), v, consulta);
+        }
+
+        // Os espaços da consulta já foram lidos; o da frente é reaproveitado nas buscas nas células
+        EspacoDeTrabalho espaco = consulta.frente;
+        ListaDeInteiros originais = new ListaDeInteiros();
+        while (!pilha.isEmpty()) {
+            int para = pilha.removerUltimo();
+            int de = pilha.removerUltimo();
+            int nivel = pilha.removerUltimo();
+            if (nivel == 0) {
+                originais.adicionar(de);
+                continue;
+            }
+            buscarNaCelula(metrica, nivel, celulas[nivel][de], de, para, espaco);
+            for (int v = para; v != de; v = espaco.anterior(v)) {
+                int aresta = espaco.aresta(v);
+                pilha.adicionar(aresta == CLIQUE ? nivel - 1 : 0);
+                pilha.adicionar(aresta == CLIQUE ? espaco.anterior(v) : aresta);
+                pilha.adicionar(v);
+            }
+        }
+        return originais;
+    }
+
+    private void empilharPasso(ListaDeInteiros pilha, int aresta, int de, int para, Consulta consulta) {
+        pilha.adicionar(aresta == CLIQUE ? nivelDeConsulta(de, consulta.origem, consulta.destino) : 0);
+        pilha.adicionar(aresta == CLIQUE ? de : aresta);
+        pilha.adicionar(para);
+    }
+
+    private int indiceObrigatorio(T dado) {
+        int indice = grafo.getIndice(dado);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Vértice '" + dado + "' não encontrado no grafo.");
+        }
+        return indice;
+    }
+
+    /**
+     * Bisseção inercial recursiva sobre a permutação {@code ordem}: cada faixa é um nó da
+     * árvore de bisseção, dividida ao meio na direção que corta menos arestas.
+     */
+    private static final class Particionador {
+
+        private static final int DIRECOES = 4;
+
+        final GrafoCompacto<?> grafo;
+        final double[] xs;
+        final double[] ys;
+        final int[] tamanhos;
+        final int niveis;
+        final int[][] celulas;
+        final ListaDeInteiros[] pais;
+
+        private final int[] ordem;
+        private final int[] trabalho;
+        private final int[] melhor;
+        private final double[] chave;
+        // Lado de cada vértice na bisseção em avaliação: 'rotuloAtual' ou 'rotuloAtual + 1'
+        private final int[] lado;
+        private int rotuloAtual = 2;
+
+        Particionador(GrafoCompacto<?> grafo, double[] xs, double[] ys, int[] tamanhos) {
+            int n = grafo.getNumeroVertices();
+            this.grafo = grafo;
+            this.xs = xs;
+            this.ys = ys;
+            this.tamanhos = tamanhos;
+            this.niveis = tamanhos.length;
+            this.celulas = new int[niveis + 1][];
+            this.pais = new ListaDeInteiros[niveis + 1];
+            for (int nivel = 1; nivel <= niveis; nivel++) {
+                celulas[nivel] = new int[n];
+                pais[nivel] = new ListaDeInteiros();
+            }
+            this.ordem = new int[n];
+            for (int v = 0; v < n; v++) {
+                ordem[v] = v;
+            }
+            this.trabalho = new int[n];
+            this.melhor = new int[n];
+            this.chave = new double[n];
+            this.lado = new int[n];
+        }
+
+        // Atribui as células dos níveis em que a faixa já cabe e divide o restante
+        void dividir(int inicio, int fim, int nivel) {
+            int tamanho = fim - inicio;
+            while (nivel >= 1 && tamanho <= tamanhos[nivel - 1]) {
+                int celula = pais[nivel].tamanho();
+                for (int i = inicio; i < fim; i++) {
+                    celulas[nivel][ordem[i]] = celula;
+                }
+                pais[nivel].adicionar(nivel < niveis ? celulas[nivel + 1][ordem[inicio]] : -1);
+                nivel--;
+            }
+            if (nivel == 0 || tamanho <= 1) {
+                return;
+            }
+            int meio = inicio + tamanho / 2;
+            bissectar(inicio, fim, meio);
+            dividir(inicio, meio, nivel);
+            dividir(meio, fim, nivel);
+        }
+
+        private void bissectar(int inicio, int fim, int meio) {
+            int menorCorte = Integer.MAX_VALUE;
+            for (int d = 0; d < DIRECOES; d++) {
+                double angulo = Math.PI * d / DIRECOES;
+                double cos = Math.cos(angulo), sen = Math.sin(angulo);
+                for (int i = inicio; i < fim; i++) {
+                    int v = ordem[i];
+                    chave[v] = xs[v] * cos + ys[v] * sen;
+                    trabalho[i] = v;
+                }
+                selecionar(trabalho, inicio, fim, meio, chave);
+
+                int rotulo = rotuloAtual;
+                rotuloAtual += 2;
+                for (int i = inicio; i < fim; i++) {
+                    lado[trabalho[i]] = i < meio ? rotulo : rotulo + 1;
+                }
+                int corte = 0;
+                for (int i = inicio; i < fim; i++) {
+                    int u = trabalho[i];
+                    int outroLado = lado[u] == rotulo ? rotulo + 1 : rotulo;
+                    for (int e = grafo.inicioSaida(u), f = grafo.fimSaida(u); e < f; e++) {
+                        if (lado[grafo.destino(e)] == outroLado) {
+                            corte++;
+                        }
+                    }
+                }
+                if (corte < menorCorte) {
+                    menorCorte = corte;
+                    System.arraycopy(trabalho, inicio, melhor, inicio, fim - inicio);
+                }
+            }
+            System.arraycopy(melhor, inicio, ordem, inicio, fim - inicio);
+        }
+
+        // Seleção (quickselect com partição em três vias, por causa das chaves repetidas das
+        // grades): deixa em [inicio, k) as menores chaves e em [k, fim) as demais
+        private static void selecionar(int[] a, int inicio, int fim, int k, double[] chave) {
+            while (fim - inicio > 1) {
+                int meio = (inicio + fim) >>> 1;
+                double pivo = medianaDeTres(chave[a[inicio]], chave[a[meio]], chave[a[fim - 1]]);
+                int menores = inicio, i = inicio, maiores = fim - 1;
+                while (i <= maiores) {
+                    double c = chave[a[i]];
+                    if (c < pivo) {
+                        trocar(a, menores++, i++);
+                    } else if (c > pivo) {
+                        trocar(a, i, maiores--);
+                    } else {
+                        i++;
+                    }
+                }
+                if (k < menores) {
+                    fim = menores;
+                } else if (k > maiores) {
+                    inicio = maiores + 1;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private static double medianaDeTres(double a, double b, double c) {
+            return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+        }
+
+        private static void trocar(int[] a, int i, int j) {
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+}
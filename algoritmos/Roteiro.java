@@ -0,0 +1,58 @@
+package algoritmos;
+
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado imutável de {@link OtimizadorDeRoteiros}: a ordem de visita das paradas e a
+ * rota completa que as liga, trecho a trecho, pelos caminhos mínimos do grafo.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public final class Roteiro<T> {
+
+    private final List<Vertice<T>> paradas;
+    private final ResultadoRota<T> rota;
+
+    Roteiro(List<Vertice<T>> paradas, ResultadoRota<T> rota) {
+        this.paradas = Collections.unmodifiableList(new ArrayList<>(paradas));
+        this.rota = rota;
+    }
+
+    /**
+     * Retorna as paradas na ordem de visita, começando pelo ponto de partida (e terminando
+     * nele de novo, se o roteiro voltar ao início).
+     */
+    public List<Vertice<T>> getParadas() {
+        return paradas;
+    }
+
+    /**
+     * Retorna a rota completa, com todos os vértices percorridos entre as paradas.
+     */
+    public ResultadoRota<T> getRota() {
+        return rota;
+    }
+
+    /**
+     * Retorna todos os vértices percorridos, da partida ao fim do roteiro.
+     */
+    public List<Vertice<T>> getCaminho() {
+        return rota.getCaminho();
+    }
+
+    /**
+     * Retorna o custo total do roteiro.
+     */
+    public double getCusto() {
+        return rota.getCusto();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Roteiro{paradas=%s, custo=%.2f}", paradas, rota.getCusto());
+    }
+}
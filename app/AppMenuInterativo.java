@@ -1,15 +1,22 @@
 import algoritmos.AEstrela;
 import algoritmos.BuscaEmLargura;
 import algoritmos.Dijkstra;
+import algoritmos.Heuristicas;
+import algoritmos.MedicaoDeBusca;
+import algoritmos.Metricas;
+import algoritmos.ResultadoRota;
+import lib.CarregadorDeMapas;
 import lib.Grafo;
+import lib.IndiceDeLocalidades;
 import lib.Localidade;
 import lib.Vertice;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 import java.util.StringJoiner;
-import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 public class AppMenuInterativo {
@@ -56,41 +63,27 @@ public class AppMenuInterativo {
     }
 
     // Adaptado para receber a nova estrutura de resultados
-    private static void imprimirResultado(String algoritmo, List<Vertice<Localidade>> caminho, double distancia, long tempoExecucao) {
+    private static void imprimirResultado(String algoritmo, ResultadoRota<Localidade> rota, long tempoExecucao) {
         System.out.println("\n--- RESULTADO ---");
-        if (caminho == null || caminho.isEmpty()) {
+        if (!rota.isEncontrado()) {
             System.out.println("Não foi possível encontrar um caminho com o algoritmo " + algoritmo + ".");
         } else {
             System.out.println("Rota encontrada com " + algoritmo + ":");
             StringJoiner sj = new StringJoiner(" -> ");
-            caminho.forEach(vertice -> sj.add(vertice.getDado().getNome()));
+            rota.getCaminho().forEach(vertice -> sj.add(vertice.getDado().getNome()));
             
             System.out.println("  Caminho: " + sj.toString());
-            System.out.printf("  Distância Total: %.1f\n", distancia);
+            System.out.printf("  Distância Total: %.1f\n", rota.getCusto());
             System.out.printf("  Tempo de Execução: %.4f ms\n", tempoExecucao / 1_000_000.0);
         }
+        MedicaoDeBusca medicao = rota.getEstatisticas();
+        if (medicao != null) {
+            System.out.printf("  Espaço de Busca: %d vértices fixados, %d arestas relaxadas, fila máxima de %d\n",
+                    medicao.getFixados(), medicao.getRelaxacoes(), medicao.getPicoDaFila());
+        }
         System.out.println("-----------------");
     }
     
-    // Função auxiliar para calcular a distância de um caminho retornado (A* e BFS)
-    private static double calcularDistanciaCaminho(List<Vertice<Localidade>> caminho) {
-        double distancia = 0.0;
-        if (caminho == null || caminho.size() < 2) {
-            return 0.0;
-        }
-        for (int i = 0; i < caminho.size() - 1; i++) {
-            Vertice<Localidade> atual = caminho.get(i);
-            Vertice<Localidade> proximo = caminho.get(i + 1);
-            // Encontra a aresta que liga 'atual' a 'proximo' para somar o peso
-            distancia += atual.getArestasSaida().stream()
-                .filter(aresta -> aresta.getFim().equals(proximo))
-                .mapToDouble(aresta -> aresta.getPeso())
-                .findFirst()
-                .orElse(0.0);
-        }
-        return distancia;
-    }
-
     // --- LÓGICA DO MENU INTERATIVO ---
 
     private static void mostrarMenu() {
@@ -105,39 +98,60 @@ public class AppMenuInterativo {
         System.out.println("----------------------------------------------");
     }
 
-    private static Vertice<Localidade> obterPontoDoUsuario(Grafo<Localidade> grafo, Scanner scanner, String tipoPonto) {
+    private static Vertice<Localidade> obterPontoDoUsuario(IndiceDeLocalidades indice, Scanner scanner, String tipoPonto) {
         Vertice<Localidade> vertice = null;
         while (vertice == null) {
-            System.out.print("Digite o nome do ponto de " + tipoPonto + ": ");
-            String nomePonto = scanner.nextLine();
-            // Busca o vértice cujo dado (Localidade) tem o nome correspondente
-            vertice = grafo.getVertices().stream()
-                .filter(v -> v.getDado().getNome().equalsIgnoreCase(nomePonto))
-                .findFirst()
-                .orElse(null);
-            
+            System.out.print("Digite o nome do ponto de " + tipoPonto + " (ou coordenadas x,y): ");
+            String nomePonto = scanner.nextLine().trim();
+            // Busca o vértice pelo nome no índice, sem percorrer o grafo
+            vertice = indice.buscarPorNome(nomePonto);
+            if (vertice == null) {
+                // Coordenadas digitadas são ajustadas para o ponto mais próximo do mapa
+                String[] partes = nomePonto.split(",");
+                if (partes.length == 2) {
+                    try {
+                        vertice = indice.maisProximo(Double.parseDouble(partes[0].trim()), Double.parseDouble(partes[1].trim()));
+                        if (vertice != null) {
+                            System.out.println("Ponto mais próximo: " + vertice.getDado().getNome());
+                        }
+                    } catch (NumberFormatException e) {
+                        // não eram coordenadas
+                    }
+                }
+            }
+
             if (vertice == null) {
                 System.out.println("Ponto '" + nomePonto + "' não encontrado. Tente novamente.");
+                List<Vertice<Localidade>> sugestoes = indice.buscarPorPrefixo(nomePonto, 10);
+                if (!sugestoes.isEmpty()) {
+                    System.out.println("Você quis dizer: " + sugestoes.stream()
+                        .map(v -> v.getDado().getNome())
+                        .collect(Collectors.joining(" | ")) + "?");
+                }
             }
         }
         return vertice;
     }
 
-    public static void main(String[] args) {
-        Grafo<Localidade> mapa = criarMapaDeEntregas();
+    public static void main(String[] args) throws IOException {
+        // Com dois argumentos (CSV de vértices e CSV de arestas) o mapa é carregado dos arquivos
+        Grafo<Localidade> mapa = args.length >= 2
+                ? CarregadorDeMapas.carregarGrafo(Paths.get(args[0]), Paths.get(args[1]), true)
+                : criarMapaDeEntregas();
+        IndiceDeLocalidades indice = new IndiceDeLocalidades(mapa);
         Scanner scanner = new Scanner(System.in);
 
-        // --- Definindo a heurística para o A* ---
-        BiFunction<Vertice<Localidade>, Vertice<Localidade>, Double> heuristica = (v1, v2) -> {
-            Localidade p1 = v1.getDado();
-            Localidade p2 = v2.getDado();
-            return Math.sqrt(Math.pow(p1.getX() - p2.getX(), 2) + Math.pow(p1.getY() - p2.getY(), 2));
-        };
-        // Instanciando os algoritmos
+        // Instanciando os algoritmos. O A* usa a distância euclidiana entre as localidades,
+        // escalada para nunca superar o custo real: no mapa de demonstração os pesos são menores
+        // que as distâncias entre as coordenadas
         Dijkstra<Localidade> dijkstra = new Dijkstra<>();
-        AEstrela<Localidade> aEstrela = new AEstrela<Localidade>(heuristica);
+        AEstrela<Localidade> aEstrela = new AEstrela<>(Heuristicas.euclidiana(Heuristicas.fatorAdmissivel(mapa)));
         BuscaEmLargura<Localidade> bfs = new BuscaEmLargura<>();
 
+        // Métricas das buscas: cada resultado traz as suas e os agregados ficam no JMX
+        Metricas.registrarNoJmx();
+        Metricas.ativar();
+
         while (true) {
             mostrarMenu();
             System.out.print("Digite sua opção: ");
@@ -154,16 +168,17 @@ public class AppMenuInterativo {
             }
             
             System.out.println("\nPontos disponíveis no mapa:");
+            // Mapas carregados de arquivo podem ter milhões de pontos: lista só os primeiros
             String localidadesDisponiveis = mapa.getVertices().stream()
+                .limit(50)
                 .map(v -> v.getDado().getNome())
                 .collect(Collectors.joining(" | "));
-            System.out.println(localidadesDisponiveis + "\n");
+            System.out.println(localidadesDisponiveis + (mapa.getVertices().size() > 50 ? " | ..." : "") + "\n");
             
-            Vertice<Localidade> inicio = obterPontoDoUsuario(mapa, scanner, "PARTIDA");
-            Vertice<Localidade> fim = obterPontoDoUsuario(mapa, scanner, "DESTINO");
+            Vertice<Localidade> inicio = obterPontoDoUsuario(indice, scanner, "PARTIDA");
+            Vertice<Localidade> fim = obterPontoDoUsuario(indice, scanner, "DESTINO");
 
-            List<Vertice<Localidade>> caminho = null;
-            double distancia = 0.0;
+            ResultadoRota<Localidade> rota = ResultadoRota.vazio();
             String nomeAlgoritmo = "";
             
             long tempoInicio = System.nanoTime();
@@ -171,27 +186,21 @@ public class AppMenuInterativo {
             switch (escolha) {
                 case "1":
                     nomeAlgoritmo = "Dijkstra";
-                    // Nova forma de chamar o Dijkstra
-                    dijkstra.executar(mapa, inicio.getDado());
-                    caminho = dijkstra.getMenorCaminho(fim);
-                    distancia = dijkstra.getDistancia(fim);
+                    // Cada algoritmo devolve a rota com as arestas, o custo e as estatísticas da busca
+                    rota = dijkstra.calcularRota(mapa, inicio.getDado(), fim.getDado());
                     break;
                 case "2":
                     nomeAlgoritmo = "A*";
-                    // Nova forma de chamar o A*
-                    caminho = aEstrela.encontrarCaminhoMaisCurto(mapa, inicio, fim);
-                    distancia = calcularDistanciaCaminho(caminho);
+                    rota = aEstrela.calcularRota(mapa, inicio.getDado(), fim.getDado());
                     break;
                 case "3":
                     nomeAlgoritmo = "Busca em Largura (BFS)";
-                    // Nova forma de chamar o BFS
-                    caminho = bfs.encontrarCaminho(mapa, inicio.getDado(), fim.getDado());
-                    distancia = calcularDistanciaCaminho(caminho);
+                    rota = bfs.calcularRota(mapa, inicio.getDado(), fim.getDado());
                     break;
             }
             
             long tempoFim = System.nanoTime();
-            imprimirResultado(nomeAlgoritmo, caminho, distancia, (tempoFim - tempoInicio));
+            imprimirResultado(nomeAlgoritmo, rota, (tempoFim - tempoInicio));
 
             System.out.print("\nPressione Enter para voltar ao menu...");
             scanner.nextLine();
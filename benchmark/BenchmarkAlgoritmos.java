@@ -0,0 +1,135 @@
+package benchmark;
+
+import algoritmos.AEstrela;
+import algoritmos.BuscaEmLargura;
+import algoritmos.Dijkstra;
+import algoritmos.Heuristicas;
+import algoritmos.ResultadoRota;
+import lib.Aresta;
+import lib.Grafo;
+import lib.GrafoCompacto;
+import lib.GrafoForaDoHeap;
+import lib.Localidade;
+import lib.Vertice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mede {@link Dijkstra}, {@link AEstrela} e {@link BuscaEmLargura}, além da construção de um
+ * grafo por {@link Grafo#adicionarAresta}, em três famílias de grafos sintéticos gerados com
+ * semente fixa: grade, geométrico aleatório e livre de escala. Para cada medição são
+ * impressos a vazão, os percentis de latência e os bytes alocados por operação.
+ * <p>
+ * As consultas compactas também são medidas sobre uma cópia {@link GrafoForaDoHeap}, e o
+ * benchmark falha se, em regime, uma consulta do A* ali alocar mais do que a rota devolvida:
+ * o lixo por consulta não pode crescer com a região explorada.
+ * <p>
+ * Uso: {@code java benchmark.BenchmarkAlgoritmos [vertices] [segundosPorMedicao]}
+ */
+public class BenchmarkAlgoritmos {
+
+    private static final long SEMENTE = 42;
+    private static final int PARES_DE_CONSULTA = 1024;
+    // Folga da verificação de alocação: bytes por vértice da rota devolvida, mais um valor fixo
+    private static final long BYTES_POR_VERTICE_DA_ROTA = 1024;
+    private static final long BYTES_FIXOS_POR_CONSULTA = 4096;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        double segundos = args.length > 1 ? Double.parseDouble(args[1]) : 3.0;
+        Medidor medidor = new Medidor(Math.max(1.0, segundos / 2), segundos);
+
+        int lado = (int) Math.sqrt(n);
+        medirGrafo("grade " + lado + "x" + lado, GeradorDeGrafos.grade(lado, lado, SEMENTE), medidor);
+        medirGrafo("geometrico", GeradorDeGrafos.geometrico(n, 3, SEMENTE), medidor);
+        medirGrafo("livre de escala", GeradorDeGrafos.livreDeEscala(n, 3, SEMENTE), medidor);
+    }
+
+    private static void medirGrafo(String nomeGrafo, Grafo<Localidade> grafo, Medidor medidor) {
+        GrafoCompacto<Localidade> compacto = grafo.congelar();
+        System.out.println();
+        System.out.println("== " + nomeGrafo + ": " + compacto.getNumeroVertices() + " vértices, "
+                + compacto.getNumeroArestas() + " arestas ==");
+        System.out.println(Medidor.cabecalho());
+
+        // Pares origem/destino sorteados uma única vez, iguais para todos os algoritmos
+        Random aleatorio = new Random(SEMENTE);
+        List<Localidade> origens = new ArrayList<>(PARES_DE_CONSULTA);
+        List<Localidade> destinos = new ArrayList<>(PARES_DE_CONSULTA);
+        for (int i = 0; i < PARES_DE_CONSULTA; i++) {
+            origens.add(compacto.getVertice(aleatorio.nextInt(compacto.getNumeroVertices())).getDado());
+            destinos.add(compacto.getVertice(aleatorio.nextInt(compacto.getNumeroVertices())).getDado());
+        }
+
+        Dijkstra<Localidade> dijkstra = new Dijkstra<>();
+        AEstrela<Localidade> aEstrela = new AEstrela<>(Heuristicas.euclidiana());
+        BuscaEmLargura<Localidade> bfs = new BuscaEmLargura<>();
+
+        medidor.medir(nomeGrafo + " / Dijkstra.executar (Grafo)", i -> {
+            dijkstra.executar(grafo, origens.get(i % PARES_DE_CONSULTA));
+            return dijkstra.getDistancia(grafo.getVertice(destinos.get(i % PARES_DE_CONSULTA)));
+        });
+        medidor.medir(nomeGrafo + " / Dijkstra.calcularRota (compacto)", i ->
+                dijkstra.calcularRota(compacto, origens.get(i % PARES_DE_CONSULTA), destinos.get(i % PARES_DE_CONSULTA)).getCusto());
+        medidor.medir(nomeGrafo + " / AEstrela (Grafo)", i -> aEstrela.encontrarCaminhoMaisCurto(grafo,
+                grafo.getVertice(origens.get(i % PARES_DE_CONSULTA)), grafo.getVertice(destinos.get(i % PARES_DE_CONSULTA))).size());
+        medidor.medir(nomeGrafo + " / AEstrela.calcularRota (compacto)", i ->
+                aEstrela.calcularRota(compacto, origens.get(i % PARES_DE_CONSULTA), destinos.get(i % PARES_DE_CONSULTA)).getCusto());
+        try (GrafoForaDoHeap foraDoHeap = GrafoForaDoHeap.copiar(compacto)) {
+            medidor.medir(nomeGrafo + " / Dijkstra.calcularRota (fora do heap)", i ->
+                    dijkstra.calcularRota(foraDoHeap, origens.get(i % PARES_DE_CONSULTA), destinos.get(i % PARES_DE_CONSULTA)).getCusto());
+            medidor.medir(nomeGrafo + " / AEstrela.calcularRota (fora do heap)", i ->
+                    aEstrela.calcularRota(foraDoHeap, origens.get(i % PARES_DE_CONSULTA), destinos.get(i % PARES_DE_CONSULTA)).getCusto());
+            verificarAlocacao(nomeGrafo + " / AEstrela.calcularRota (fora do heap)", foraDoHeap, aEstrela, origens, destinos);
+        }
+        medidor.medir(nomeGrafo + " / BuscaEmLargura (Grafo)", i ->
+                bfs.encontrarCaminho(grafo, origens.get(i % PARES_DE_CONSULTA), destinos.get(i % PARES_DE_CONSULTA)).size());
+        medidor.medir(nomeGrafo + " / BuscaEmLargura.calcularRota (compacto)", i ->
+                bfs.calcularRota(compacto, origens.get(i % PARES_DE_CONSULTA), destinos.get(i % PARES_DE_CONSULTA)).getCusto());
+
+        // Construção: a mesma sequência de vértices e arestas reinserida em um grafo novo
+        List<Localidade> localidades = new ArrayList<>();
+        for (Vertice<Localidade> vertice : grafo.getVertices()) {
+            localidades.add(vertice.getDado());
+        }
+        List<Aresta<Localidade>> arestas = grafo.getArestas();
+        medidor.medir(nomeGrafo + " / construcao (adicionarAresta)", i -> {
+            Grafo<Localidade> novo = new Grafo<>();
+            for (Localidade localidade : localidades) {
+                novo.adicionarVertice(localidade);
+            }
+            for (Aresta<Localidade> aresta : arestas) {
+                novo.adicionarAresta(aresta.getPeso(), aresta.getInicio().getDado(), aresta.getFim().getDado());
+            }
+            return novo.getArestas().size();
+        });
+    }
+
+    /**
+     * Refaz as consultas do A* (já aquecidas pela medição) uma a uma e lança
+     * {@link IllegalStateException} se alguma alocar mais do que a rota devolvida justifica.
+     */
+    private static void verificarAlocacao(String nome, GrafoCompacto<Localidade> grafo, AEstrela<Localidade> aEstrela,
+                                          List<Localidade> origens, List<Localidade> destinos) {
+        if (Medidor.bytesAlocados() < 0) {
+            System.out.println(nome + ": alocação não verificada (a JVM não mede bytes por thread)");
+            return;
+        }
+        long maiorExcesso = Long.MIN_VALUE;
+        for (int i = 0; i < PARES_DE_CONSULTA; i++) {
+            long antes = Medidor.bytesAlocados();
+            ResultadoRota<Localidade> rota = aEstrela.calcularRota(grafo, origens.get(i), destinos.get(i));
+            long bytes = Medidor.bytesAlocados() - antes;
+            long limite = BYTES_FIXOS_POR_CONSULTA + BYTES_POR_VERTICE_DA_ROTA * rota.getCaminho().size();
+            if (bytes > limite) {
+                throw new IllegalStateException(nome + ": a consulta " + i + " alocou " + bytes
+                        + " bytes para uma rota de " + rota.getCaminho().size() + " vértices (limite " + limite + ").");
+            }
+            maiorExcesso = Math.max(maiorExcesso, bytes - limite);
+        }
+        System.out.println(nome + ": alocação limitada à rota devolvida (folga mínima "
+                + (-maiorExcesso) + " bytes)");
+    }
+}
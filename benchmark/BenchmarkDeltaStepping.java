@@ -0,0 +1,70 @@
+package benchmark;
+
+import algoritmos.ArvoreDeCaminhos;
+import algoritmos.DeltaStepping;
+import algoritmos.Dijkstra;
+import lib.GrafoCompacto;
+import lib.Localidade;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compara o tempo de parede do {@link DeltaStepping} com o do {@link Dijkstra} sequencial
+ * em um grafo geométrico, variando o número de threads (1, 2, 4, ... até o número de núcleos).
+ * <p>
+ * Uso: {@code java benchmark.BenchmarkDeltaStepping [vertices] [repeticoes]}
+ */
+public class BenchmarkDeltaStepping {
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int repeticoes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        System.out.println("Gerando grafo geométrico com " + n + " vértices...");
+        GrafoCompacto<Localidade> grafo = GeradorDeGrafos.geometrico(n, 3, 42).congelar();
+        Localidade origem = grafo.getVertice(0).getDado();
+        System.out.println("Arestas: " + grafo.getNumeroArestas());
+
+        Dijkstra<Localidade> dijkstra = new Dijkstra<>();
+        ArvoreDeCaminhos<Localidade> referencia = dijkstra.calcularArvore(grafo, origem);
+        double tempoDijkstra = medir(repeticoes, () -> dijkstra.calcularArvore(grafo, origem));
+        System.out.printf("%-22s %10.1f ms%n", "Dijkstra (sequencial)", tempoDijkstra);
+
+        DeltaStepping<Localidade> deltaStepping = new DeltaStepping<>();
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= nucleos; threads = threads < nucleos ? Math.min(threads * 2, nucleos) : threads + 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                // Streams paralelos iniciados dentro de um ForkJoinPool usam esse pool, e não o comum
+                ArvoreDeCaminhos<Localidade> arvore = pool.submit(() -> deltaStepping.calcularArvore(grafo, origem)).get();
+                verificar(grafo, referencia, arvore);
+                double tempo = pool.submit(() -> medir(repeticoes, () -> deltaStepping.calcularArvore(grafo, origem))).get();
+                System.out.printf("%-22s %10.1f ms   (%.2fx o Dijkstra)%n",
+                        "Delta-stepping, " + threads + (threads == 1 ? " thread" : " threads"), tempo, tempoDijkstra / tempo);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Tempo médio em milissegundos, depois de uma execução de aquecimento
+    private static double medir(int repeticoes, Runnable tarefa) {
+        tarefa.run();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            tarefa.run();
+        }
+        return (System.nanoTime() - inicio) / 1e6 / repeticoes;
+    }
+
+    private static void verificar(GrafoCompacto<Localidade> grafo, ArvoreDeCaminhos<Localidade> esperada,
+                                  ArvoreDeCaminhos<Localidade> obtida) {
+        for (int v = 0; v < grafo.getNumeroVertices(); v++) {
+            if (Double.compare(esperada.getDistancia(v), obtida.getDistancia(v)) != 0) {
+                throw new IllegalStateException("Distâncias diferentes no vértice " + v + ": "
+                        + esperada.getDistancia(v) + " != " + obtida.getDistancia(v));
+            }
+        }
+    }
+}
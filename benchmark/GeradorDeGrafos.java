@@ -0,0 +1,182 @@
+package benchmark;
+
+import lib.Grafo;
+import lib.Localidade;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Geradores de grafos sintéticos e reprodutíveis (a mesma semente gera sempre o mesmo grafo)
+ * para as medições de desempenho.
+ */
+public final class GeradorDeGrafos {
+
+    private GeradorDeGrafos() {
+    }
+
+    /**
+     * Grafo geométrico aleatório: {@code n} localidades espalhadas uniformemente em um quadrado,
+     * cada uma ligada nos dois sentidos às {@code vizinhos} localidades mais próximas entre as
+     * das células vizinhas (uma aproximação dos vizinhos mais próximos, suficiente aqui).
+     * O peso de cada aresta é a distância euclidiana mais um, parecido com um mapa de ruas.
+     *
+     * @param n O número de localidades.
+     * @param vizinhos Quantos vizinhos mais próximos cada localidade liga.
+     * @param semente A semente do gerador de números aleatórios.
+     * @return O grafo gerado.
+     */
+    public static Grafo<Localidade> geometrico(int n, int vizinhos, long semente) {
+        Random aleatorio = new Random(semente);
+        // Lado escolhido para ter, em média, uma localidade por célula de 10 x 10
+        int celula = 10;
+        int celulasPorLado = Math.max(1, (int) Math.sqrt(n));
+        int lado = celulasPorLado * celula;
+
+        Grafo<Localidade> grafo = new Grafo<>();
+        Localidade[] localidades = new Localidade[n];
+        for (int i = 0; i < n; i++) {
+            localidades[i] = new Localidade("p" + i, aleatorio.nextInt(lado), aleatorio.nextInt(lado));
+            grafo.adicionarVertice(localidades[i]);
+        }
+
+        // Localidades agrupadas por célula (ordenação por contagem)
+        int[] inicioCelula = new int[celulasPorLado * celulasPorLado + 1];
+        int[] celulaDe = new int[n];
+        for (int i = 0; i < n; i++) {
+            celulaDe[i] = (localidades[i].getY() / celula) * celulasPorLado + localidades[i].getX() / celula;
+            inicioCelula[celulaDe[i] + 1]++;
+        }
+        for (int c = 0; c < celulasPorLado * celulasPorLado; c++) {
+            inicioCelula[c + 1] += inicioCelula[c];
+        }
+        int[] porCelula = new int[n];
+        int[] proxima = Arrays.copyOf(inicioCelula, inicioCelula.length - 1);
+        for (int i = 0; i < n; i++) {
+            porCelula[proxima[celulaDe[i]]++] = i;
+        }
+
+        long[] candidatos = new long[64];
+        for (int i = 0; i < n; i++) {
+            int cx = localidades[i].getX() / celula;
+            int cy = localidades[i].getY() / celula;
+            int quantidade = 0;
+            // Procura nas células vizinhas, ampliando o raio até achar vizinhos suficientes
+            for (int raio = 1; quantidade < vizinhos && raio <= celulasPorLado; raio++) {
+                quantidade = 0;
+                for (int y = Math.max(0, cy - raio); y <= Math.min(celulasPorLado - 1, cy + raio); y++) {
+                    for (int x = Math.max(0, cx - raio); x <= Math.min(celulasPorLado - 1, cx + raio); x++) {
+                        int c = y * celulasPorLado + x;
+                        for (int k = inicioCelula[c]; k < inicioCelula[c + 1]; k++) {
+                            int j = porCelula[k];
+                            if (j == i) {
+                                continue;
+                            }
+                            long dx = localidades[i].getX() - localidades[j].getX();
+                            long dy = localidades[i].getY() - localidades[j].getY();
+                            if (quantidade == candidatos.length) {
+                                candidatos = Arrays.copyOf(candidatos, quantidade * 2);
+                            }
+                            // Distância ao quadrado nos bits altos e o índice nos baixos: ordenar ordena por distância
+                            candidatos[quantidade++] = ((dx * dx + dy * dy) << 32) | j;
+                        }
+                    }
+                }
+            }
+            Arrays.sort(candidatos, 0, quantidade);
+            for (int k = 0; k < Math.min(vizinhos, quantidade); k++) {
+                int j = (int) (candidatos[k] & 0xFFFFFFFFL);
+                double peso = Math.sqrt(candidatos[k] >>> 32) + 1.0;
+                grafo.adicionarAresta(peso, localidades[i], localidades[j]);
+                grafo.adicionarAresta(peso, localidades[j], localidades[i]);
+            }
+        }
+        return grafo;
+    }
+
+    /**
+     * Grade de {@code linhas} x {@code colunas} localidades espaçadas de 10 em 10, com arestas
+     * nos dois sentidos entre vizinhos horizontais e verticais. Os pesos variam entre 10 e 15,
+     * nunca menores que a distância euclidiana (a heurística euclidiana continua admissível).
+     */
+    public static Grafo<Localidade> grade(int linhas, int colunas, long semente) {
+        Random aleatorio = new Random(semente);
+        Grafo<Localidade> grafo = new Grafo<>();
+        Localidade[] localidades = new Localidade[linhas * colunas];
+        for (int l = 0; l < linhas; l++) {
+            for (int c = 0; c < colunas; c++) {
+                localidades[l * colunas + c] = new Localidade("g" + l + "_" + c, c * 10, l * 10);
+                grafo.adicionarVertice(localidades[l * colunas + c]);
+            }
+        }
+        for (int l = 0; l < linhas; l++) {
+            for (int c = 0; c < colunas; c++) {
+                Localidade atual = localidades[l * colunas + c];
+                if (c + 1 < colunas) {
+                    double peso = 10.0 + aleatorio.nextDouble() * 5.0;
+                    grafo.adicionarAresta(peso, atual, localidades[l * colunas + c + 1]);
+                    grafo.adicionarAresta(peso, localidades[l * colunas + c + 1], atual);
+                }
+                if (l + 1 < linhas) {
+                    double peso = 10.0 + aleatorio.nextDouble() * 5.0;
+                    grafo.adicionarAresta(peso, atual, localidades[(l + 1) * colunas + c]);
+                    grafo.adicionarAresta(peso, localidades[(l + 1) * colunas + c], atual);
+                }
+            }
+        }
+        return grafo;
+    }
+
+    /**
+     * Grafo livre de escala pelo modelo de Barabási–Albert: cada nova localidade se liga, nos
+     * dois sentidos, a {@code ligacoes} localidades já existentes escolhidas com probabilidade
+     * proporcional ao grau, o que gera poucos vértices com grau muito alto. As coordenadas
+     * são aleatórias e o peso é a distância euclidiana mais um.
+     */
+    public static Grafo<Localidade> livreDeEscala(int n, int ligacoes, long semente) {
+        Random aleatorio = new Random(semente);
+        int lado = Math.max(10, (int) Math.sqrt(n) * 10);
+        Grafo<Localidade> grafo = new Grafo<>();
+        Localidade[] localidades = new Localidade[n];
+        for (int i = 0; i < n; i++) {
+            localidades[i] = new Localidade("s" + i, aleatorio.nextInt(lado), aleatorio.nextInt(lado));
+            grafo.adicionarVertice(localidades[i]);
+        }
+
+        // Cada aresta deixa as suas duas pontas nesta lista: sortear uma posição dela
+        // equivale a sortear um vértice com probabilidade proporcional ao grau
+        int[] pontas = new int[2 * n * ligacoes];
+        int totalPontas = 0;
+        int[] escolhidos = new int[ligacoes];
+        for (int i = 1; i < n; i++) {
+            int quantidade = Math.min(ligacoes, i);
+            for (int k = 0; k < quantidade; k++) {
+                int j;
+                boolean repetido;
+                do {
+                    j = totalPontas == 0 ? aleatorio.nextInt(i) : pontas[aleatorio.nextInt(totalPontas)];
+                    repetido = false;
+                    for (int anterior = 0; anterior < k; anterior++) {
+                        repetido |= escolhidos[anterior] == j;
+                    }
+                } while (repetido);
+                escolhidos[k] = j;
+            }
+            for (int k = 0; k < quantidade; k++) {
+                int j = escolhidos[k];
+                double peso = distancia(localidades[i], localidades[j]) + 1.0;
+                grafo.adicionarAresta(peso, localidades[i], localidades[j]);
+                grafo.adicionarAresta(peso, localidades[j], localidades[i]);
+                pontas[totalPontas++] = i;
+                pontas[totalPontas++] = j;
+            }
+        }
+        return grafo;
+    }
+
+    private static double distancia(Localidade a, Localidade b) {
+        double dx = a.getX() - b.getX();
+        double dy = a.getY() - b.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,147 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Medidor de desempenho simples, sem dependências externas. Cada medição roda a operação
+ * durante um tempo de aquecimento (para o JIT compilar o código) e depois durante o tempo de
+ * medição, cronometrando cada execução. O resultado traz a vazão, os percentis de latência e
+ * os bytes alocados por operação (quando a JVM expõe esse contador por thread).
+ */
+public final class Medidor {
+
+    // Limite de amostras guardadas por medição (8 MB); a medição termina ao atingi-lo
+    private static final int MAXIMO_AMOSTRAS = 1 << 20;
+
+    /**
+     * Uma operação a ser medida. Recebe o número da execução (para escolher a entrada) e
+     * devolve um valor qualquer derivado do resultado, que é consumido para que o JIT não
+     * elimine o trabalho.
+     */
+    @FunctionalInterface
+    public interface Operacao {
+        double executar(int execucao);
+    }
+
+    private static volatile double sumidouro;
+
+    private final long nanosAquecimento;
+    private final long nanosMedicao;
+    private final long[] amostras = new long[MAXIMO_AMOSTRAS];
+
+    /**
+     * @param segundosAquecimento Duração do aquecimento de cada medição.
+     * @param segundosMedicao Duração da medição propriamente dita.
+     */
+    public Medidor(double segundosAquecimento, double segundosMedicao) {
+        this.nanosAquecimento = (long) (segundosAquecimento * 1e9);
+        this.nanosMedicao = (long) (segundosMedicao * 1e9);
+    }
+
+    /**
+     * Mede uma operação e imprime uma linha com o resultado.
+     */
+    public Resultado medir(String nome, Operacao operacao) {
+        double acumulado = 0.0;
+        int execucao = 0;
+        long fimAquecimento = System.nanoTime() + nanosAquecimento;
+        while (System.nanoTime() < fimAquecimento) {
+            acumulado += operacao.executar(execucao++);
+        }
+
+        long bytesAntes = bytesAlocados();
+        int quantidade = 0;
+        long inicio = System.nanoTime();
+        long fim = inicio + nanosMedicao;
+        long agora = inicio;
+        while (agora < fim && quantidade < MAXIMO_AMOSTRAS) {
+            long antes = agora;
+            acumulado += operacao.executar(execucao++);
+            agora = System.nanoTime();
+            amostras[quantidade++] = agora - antes;
+        }
+        long bytesDepois = bytesAlocados();
+        sumidouro += acumulado;
+
+        long[] latencias = Arrays.copyOf(amostras, quantidade);
+        Arrays.sort(latencias);
+        double bytesPorOperacao = bytesAntes < 0 ? Double.NaN : (double) (bytesDepois - bytesAntes) / quantidade;
+        Resultado resultado = new Resultado(nome, quantidade, agora - inicio, latencias, bytesPorOperacao);
+        System.out.println(resultado);
+        return resultado;
+    }
+
+    /**
+     * Cabeçalho da tabela impressa por {@link Resultado#toString()}.
+     */
+    public static String cabecalho() {
+        return String.format(Locale.ROOT, "%-56s %12s %10s %10s %10s %10s %10s %14s",
+                "benchmark", "ops/s", "p50 (us)", "p90 (us)", "p99 (us)", "p99.9 (us)", "max (us)", "bytes/op");
+    }
+
+    // Bytes alocados pela thread atual, ou -1 se a JVM não oferecer essa medida
+    static long bytesAlocados() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threadsSun = (com.sun.management.ThreadMXBean) threads;
+            if (threadsSun.isThreadAllocatedMemorySupported() && threadsSun.isThreadAllocatedMemoryEnabled()) {
+                return threadsSun.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Resultado imutável de uma medição.
+     */
+    public static final class Resultado {
+        private final String nome;
+        private final int operacoes;
+        private final long nanosTotais;
+        private final long[] latenciasOrdenadas;
+        private final double bytesPorOperacao;
+
+        Resultado(String nome, int operacoes, long nanosTotais, long[] latenciasOrdenadas, double bytesPorOperacao) {
+            this.nome = nome;
+            this.operacoes = operacoes;
+            this.nanosTotais = nanosTotais;
+            this.latenciasOrdenadas = latenciasOrdenadas;
+            this.bytesPorOperacao = bytesPorOperacao;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        /** Operações por segundo durante a medição. */
+        public double getVazao() {
+            return operacoes / (nanosTotais / 1e9);
+        }
+
+        /**
+         * Retorna o percentil {@code p} (entre 0 e 100) das latências, em nanossegundos.
+         */
+        public long getPercentil(double p) {
+            if (latenciasOrdenadas.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(p / 100.0 * latenciasOrdenadas.length) - 1;
+            return latenciasOrdenadas[Math.max(0, Math.min(latenciasOrdenadas.length - 1, indice))];
+        }
+
+        /** Bytes alocados por operação, ou {@code NaN} se a JVM não oferecer essa medida. */
+        public double getBytesPorOperacao() {
+            return bytesPorOperacao;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-56s %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f %14.0f",
+                    nome, getVazao(), getPercentil(50) / 1e3, getPercentil(90) / 1e3, getPercentil(99) / 1e3,
+                    getPercentil(99.9) / 1e3, getPercentil(100) / 1e3, bytesPorOperacao);
+        }
+    }
+}
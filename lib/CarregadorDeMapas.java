@@ -0,0 +1,591 @@
+package lib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Carrega mapas de ruas a partir de arquivos CSV de vértices e de arestas.
+ * <p>
+ * Formatos esperados (uma linha de cabeçalho opcional é ignorada; colunas extras no fim da
+ * linha também):
+ * <pre>
+ *   vértices: id,nome,x,y          (id inteiro, por exemplo o id do OpenStreetMap; x e y inteiros)
+ *   arestas:  origemId,destinoId,peso
+ * </pre>
+ * O nome pode vir entre aspas (com {@code ""} representando uma aspa); se estiver vazio, o
+ * próprio id é usado como nome. Como {@link Localidade} é identificada pelo nome, os nomes
+ * devem ser únicos no arquivo; um nome repetido é rejeitado em todas as formas de carga.
+ * <p>
+ * Os arquivos são lidos por {@link FileChannel#map} em blocos alinhados a quebras de linha, e
+ * os números são convertidos diretamente dos bytes, sem criar {@code String}s intermediárias.
+ * No modo paralelo cada bloco é analisado por uma thread diferente, de modo que o tempo de
+ * carga fica limitado pela leitura do disco, e não pela conversão do texto.
+ */
+public final class CarregadorDeMapas {
+
+    // Tamanho nominal de cada bloco mapeado; o bloco real termina na quebra de linha seguinte
+    private static final long TAMANHO_BLOCO = 64L << 20;
+
+    private static final double[] POTENCIAS_DE_DEZ = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private CarregadorDeMapas() {
+    }
+
+    /**
+     * Carrega o mapa em um {@link Grafo}, lendo os arquivos sequencialmente.
+     * @param arquivoVertices O CSV de vértices.
+     * @param arquivoArestas O CSV de arestas.
+     * @return O grafo carregado.
+     * @throws IOException se algum arquivo não puder ser lido.
+     * @throws IllegalArgumentException se algum arquivo estiver mal formatado ou houver nomes repetidos.
+     */
+    public static Grafo<Localidade> carregarGrafo(Path arquivoVertices, Path arquivoArestas) throws IOException {
+        return carregarGrafo(arquivoVertices, arquivoArestas, false);
+    }
+
+    /**
+     * Carrega o mapa em um {@link Grafo}. Com {@code paralelo} verdadeiro, os blocos dos
+     * arquivos são analisados em paralelo; a inserção no grafo é sempre sequencial.
+     */
+    public static Grafo<Localidade> carregarGrafo(Path arquivoVertices, Path arquivoArestas, boolean paralelo)
+            throws IOException {
+        Mapa mapa = ler(arquivoVertices, arquivoArestas, paralelo);
+        Grafo<Localidade> grafo = new Grafo<>();
+        for (Localidade localidade : mapa.localidades) {
+            grafo.adicionarVertice(localidade);
+        }
+        for (int e = 0; e < mapa.pesos.length; e++) {
+            grafo.adicionarAresta(mapa.pesos[e], mapa.localidades[mapa.origens[e]], mapa.localidades[mapa.destinos[e]]);
+        }
+        return grafo;
+    }
+
+    /**
+     * Carrega o mapa diretamente em um {@link GrafoCompacto}, sem criar um objeto por aresta.
+     * Indicado para mapas grandes que só serão consultados.
+     * @throws IOException se algum arquivo não puder ser lido.
+     * @throws IllegalArgumentException se algum arquivo estiver mal formatado ou houver nomes repetidos.
+     */
+    public static GrafoCompacto<Localidade> carregarGrafoCompacto(Path arquivoVertices, Path arquivoArestas,
+                                                                 boolean paralelo) throws IOException {
+        Mapa mapa = ler(arquivoVertices, arquivoArestas, paralelo);
+        return new GrafoEmVetores<>(Arrays.asList(mapa.localidades), mapa.origens, mapa.destinos, mapa.pesos);
+    }
+
+    // --- Leitura ---
+
+    private static Mapa ler(Path arquivoVertices, Path arquivoArestas, boolean paralelo) throws IOException {
+        List<BlocoDeVertices> blocosVertices = lerBlocos(arquivoVertices, paralelo,
+                cursor -> lerVertices(cursor));
+        int n = 0;
+        for (BlocoDeVertices bloco : blocosVertices) {
+            n += bloco.tamanho;
+        }
+        Localidade[] localidades = new Localidade[n];
+        IndicePorId indices = new IndicePorId(n);
+        // Localidade é identificada pelo nome: dois ids com o mesmo nome virariam um só vértice
+        Map<String, Long> idPorNome = new HashMap<>(n * 2);
+        int proximo = 0;
+        for (BlocoDeVertices bloco : blocosVertices) {
+            for (int i = 0; i < bloco.tamanho; i++) {
+                if (!indices.adicionar(bloco.ids[i], proximo)) {
+                    throw new IllegalArgumentException("Id de vértice repetido em " + arquivoVertices + ": " + bloco.ids[i]);
+                }
+                Long outroId = idPorNome.putIfAbsent(bloco.localidades[i].getNome(), bloco.ids[i]);
+                if (outroId != null) {
+                    throw new IllegalArgumentException("Nome de localidade repetido em " + arquivoVertices + ": '"
+                            + bloco.localidades[i].getNome() + "' (ids " + outroId + " e " + bloco.ids[i] + ").");
+                }
+                localidades[proximo++] = bloco.localidades[i];
+            }
+        }
+
+        List<BlocoDeArestas> blocosArestas = lerBlocos(arquivoArestas, paralelo,
+                cursor -> lerArestas(cursor, indices));
+        int m = 0;
+        for (BlocoDeArestas bloco : blocosArestas) {
+            m += bloco.tamanho;
+        }
+        int[] origens = new int[m];
+        int[] destinos = new int[m];
+        double[] pesos = new double[m];
+        int posicao = 0;
+        for (BlocoDeArestas bloco : blocosArestas) {
+            System.arraycopy(bloco.origens, 0, origens, posicao, bloco.tamanho);
+            System.arraycopy(bloco.destinos, 0, destinos, posicao, bloco.tamanho);
+            System.arraycopy(bloco.pesos, 0, pesos, posicao, bloco.tamanho);
+            posicao += bloco.tamanho;
+        }
+        return new Mapa(localidades, origens, destinos, pesos);
+    }
+
+    private interface LeitorDeBloco<R> {
+        R ler(Cursor cursor);
+    }
+
+    // Divide o arquivo em blocos alinhados a quebras de linha, mapeia e analisa cada um
+    private static <R> List<R> lerBlocos(Path arquivo, boolean paralelo, LeitorDeBloco<R> leitor) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long[] limites = limitesDosBlocos(canal);
+            IntStream blocos = IntStream.range(0, limites.length - 1);
+            if (paralelo) {
+                blocos = blocos.parallel();
+            }
+            @SuppressWarnings("unchecked")
+            R[] resultados = (R[]) new Object[limites.length - 1];
+            try {
+                blocos.forEach(b -> {
+                    try {
+                        long inicio = limites[b];
+                        ByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, inicio, limites[b + 1] - inicio);
+                        resultados[b] = leitor.ler(new Cursor(arquivo, buffer, inicio));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return Arrays.asList(resultados);
+        }
+    }
+
+    // Cada limite (exceto 0 e o tamanho do arquivo) é a posição logo após um '\n'
+    private static long[] limitesDosBlocos(FileChannel canal) throws IOException {
+        long tamanho = canal.size();
+        List<Long> limites = new ArrayList<>();
+        limites.add(0L);
+        ByteBuffer leitura = ByteBuffer.allocate(8192);
+        long candidato = TAMANHO_BLOCO;
+        while (candidato < tamanho) {
+            long limite = tamanho;
+            long posicao = candidato - 1;
+            procura:
+            while (posicao < tamanho) {
+                leitura.clear();
+                int lidos = canal.read(leitura, posicao);
+                if (lidos <= 0) {
+                    break;
+                }
+                for (int i = 0; i < lidos; i++) {
+                    if (leitura.get(i) == '\n') {
+                        limite = posicao + i + 1;
+                        break procura;
+                    }
+                }
+                posicao += lidos;
+            }
+            if (limite < tamanho) {
+                limites.add(limite);
+            }
+            candidato = limite + TAMANHO_BLOCO;
+        }
+        limites.add(tamanho);
+        long[] resultado = new long[limites.size()];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = limites.get(i);
+        }
+        return resultado;
+    }
+
+    private static BlocoDeVertices lerVertices(Cursor cursor) {
+        BlocoDeVertices bloco = new BlocoDeVertices();
+        cursor.pularCabecalho();
+        while (cursor.proximaLinha()) {
+            long id = cursor.lerLong();
+            cursor.separador();
+            String nome = cursor.lerTexto();
+            cursor.separador();
+            int x = cursor.lerInt();
+            cursor.separador();
+            int y = cursor.lerInt();
+            cursor.terminarLinha();
+            bloco.adicionar(id, new Localidade(nome.isEmpty() ? Long.toString(id) : nome, x, y));
+        }
+        return bloco;
+    }
+
+    private static BlocoDeArestas lerArestas(Cursor cursor, IndicePorId indices) {
+        BlocoDeArestas bloco = new BlocoDeArestas();
+        cursor.pularCabecalho();
+        while (cursor.proximaLinha()) {
+            int origem = cursor.lerVertice(indices);
+            cursor.separador();
+            int destino = cursor.lerVertice(indices);
+            cursor.separador();
+            double peso = cursor.lerDouble();
+            cursor.terminarLinha();
+            bloco.adicionar(origem, destino, peso);
+        }
+        return bloco;
+    }
+
+    /**
+     * Posição de leitura dentro de um bloco mapeado. Lê os bytes por acesso absoluto e
+     * converte números sem passar por {@code String}.
+     */
+    private static final class Cursor {
+        private final Path arquivo;
+        private final ByteBuffer buffer;
+        private final long deslocamento;
+        private final int fim;
+        private int posicao;
+        private byte[] rascunho = new byte[64];
+
+        Cursor(Path arquivo, ByteBuffer buffer, long deslocamento) {
+            this.arquivo = arquivo;
+            this.buffer = buffer;
+            this.deslocamento = deslocamento;
+            this.fim = buffer.limit();
+        }
+
+        // Só o primeiro bloco do arquivo pode ter cabeçalho: uma linha que não começa por número
+        void pularCabecalho() {
+            if (deslocamento != 0) {
+                return;
+            }
+            // Marca de ordem de bytes (BOM) do UTF-8
+            if (fim >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+                posicao = 3;
+            }
+            if (!proximaLinha()) {
+                return;
+            }
+            pularEspacos();
+            byte b = posicao < fim ? buffer.get(posicao) : (byte) '0';
+            if ((b < '0' || b > '9') && b != '-' && b != '+') {
+                while (posicao < fim && buffer.get(posicao++) != '\n') {
+                    // descarta a linha
+                }
+            }
+        }
+
+        /** Pula linhas em branco; retorna falso no fim do bloco. */
+        boolean proximaLinha() {
+            while (posicao < fim) {
+                byte b = buffer.get(posicao);
+                if (b != '\n' && b != '\r') {
+                    return true;
+                }
+                posicao++;
+            }
+            return false;
+        }
+
+        void separador() {
+            pularEspacos();
+            if (posicao >= fim || buffer.get(posicao) != ',') {
+                throw erro("',' esperada");
+            }
+            posicao++;
+        }
+
+        // Ignora colunas extras e consome a quebra de linha
+        void terminarLinha() {
+            while (posicao < fim && buffer.get(posicao++) != '\n') {
+                // colunas adicionais não são usadas
+            }
+        }
+
+        int lerInt() {
+            long valor = lerLong();
+            if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+                throw erro("inteiro fora do intervalo");
+            }
+            return (int) valor;
+        }
+
+        int lerVertice(IndicePorId indices) {
+            long id = lerLong();
+            int indice = indices.get(id);
+            if (indice < 0) {
+                throw erro("vértice " + id + " não encontrado no arquivo de vértices");
+            }
+            return indice;
+        }
+
+        long lerLong() {
+            pularEspacos();
+            boolean negativo = false;
+            if (posicao < fim && (buffer.get(posicao) == '-' || buffer.get(posicao) == '+')) {
+                negativo = buffer.get(posicao++) == '-';
+            }
+            int inicio = posicao;
+            long valor = 0;
+            while (posicao < fim) {
+                int digito = buffer.get(posicao) - '0';
+                if (digito < 0 || digito > 9) {
+                    break;
+                }
+                valor = valor * 10 + digito;
+                posicao++;
+            }
+            if (posicao == inicio) {
+                throw erro("número inteiro esperado");
+            }
+            if (posicao - inicio > 18) {
+                throw erro("número inteiro longo demais");
+            }
+            return negativo ? -valor : valor;
+        }
+
+        /**
+         * Converte um decimal (com ponto e expoente opcionais). Mantissas menores que 2^53
+         * com expoente decimal até 22 são convertidas exatamente com uma única multiplicação
+         * ou divisão; os demais casos, raros, recorrem a {@link Double#parseDouble}.
+         */
+        double lerDouble() {
+            pularEspacos();
+            int inicio = posicao;
+            boolean negativo = false;
+            if (posicao < fim && (buffer.get(posicao) == '-' || buffer.get(posicao) == '+')) {
+                negativo = buffer.get(posicao++) == '-';
+            }
+            long mantissa = 0;
+            int digitos = 0;
+            int expoente = 0;
+            boolean algumDigito = false;
+            boolean exato = true;
+            while (posicao < fim) {
+                int digito = buffer.get(posicao) - '0';
+                if (digito < 0 || digito > 9) {
+                    break;
+                }
+                if (digitos < 18) {
+                    mantissa = mantissa * 10 + digito;
+                    if (mantissa != 0) {
+                        digitos++;
+                    }
+                } else {
+                    expoente++;
+                    exato = false;
+                }
+                algumDigito = true;
+                posicao++;
+            }
+            if (posicao < fim && buffer.get(posicao) == '.') {
+                posicao++;
+                while (posicao < fim) {
+                    int digito = buffer.get(posicao) - '0';
+                    if (digito < 0 || digito > 9) {
+                        break;
+                    }
+                    if (digitos < 18) {
+                        mantissa = mantissa * 10 + digito;
+                        if (mantissa != 0) {
+                            digitos++;
+                        }
+                        expoente--;
+                    } else {
+                        exato = false;
+                    }
+                    algumDigito = true;
+                    posicao++;
+                }
+            }
+            if (!algumDigito) {
+                throw erro("número esperado");
+            }
+            if (posicao < fim && (buffer.get(posicao) == 'e' || buffer.get(posicao) == 'E')) {
+                posicao++;
+                boolean expoenteNegativo = false;
+                if (posicao < fim && (buffer.get(posicao) == '-' || buffer.get(posicao) == '+')) {
+                    expoenteNegativo = buffer.get(posicao++) == '-';
+                }
+                int inicioExpoente = posicao;
+                int valorExpoente = 0;
+                while (posicao < fim) {
+                    int digito = buffer.get(posicao) - '0';
+                    if (digito < 0 || digito > 9) {
+                        break;
+                    }
+                    valorExpoente = Math.min(valorExpoente * 10 + digito, 100_000);
+                    posicao++;
+                }
+                if (posicao == inicioExpoente) {
+                    throw erro("expoente esperado");
+                }
+                expoente += expoenteNegativo ? -valorExpoente : valorExpoente;
+            }
+
+            double valor;
+            if (exato && mantissa < (1L << 53) && expoente >= -22 && expoente <= 22) {
+                valor = expoente < 0 ? mantissa / POTENCIAS_DE_DEZ[-expoente] : mantissa * POTENCIAS_DE_DEZ[expoente];
+            } else {
+                return Double.parseDouble(texto(inicio, posicao));
+            }
+            return negativo ? -valor : valor;
+        }
+
+        /** Lê um campo de texto (UTF-8), com ou sem aspas. */
+        String lerTexto() {
+            pularEspacos();
+            int tamanho = 0;
+            if (posicao < fim && buffer.get(posicao) == '"') {
+                posicao++;
+                while (true) {
+                    if (posicao >= fim) {
+                        throw erro("aspas não fechadas");
+                    }
+                    byte b = buffer.get(posicao++);
+                    if (b == '"') {
+                        if (posicao < fim && buffer.get(posicao) == '"') {
+                            posicao++;
+                        } else {
+                            break;
+                        }
+                    }
+                    tamanho = guardar(tamanho, b);
+                }
+            } else {
+                while (posicao < fim) {
+                    byte b = buffer.get(posicao);
+                    if (b == ',' || b == '\n' || b == '\r') {
+                        break;
+                    }
+                    tamanho = guardar(tamanho, b);
+                    posicao++;
+                }
+                while (tamanho > 0 && (rascunho[tamanho - 1] == ' ' || rascunho[tamanho - 1] == '\t')) {
+                    tamanho--;
+                }
+            }
+            return new String(rascunho, 0, tamanho, StandardCharsets.UTF_8);
+        }
+
+        private int guardar(int tamanho, byte b) {
+            if (tamanho == rascunho.length) {
+                rascunho = Arrays.copyOf(rascunho, tamanho * 2);
+            }
+            rascunho[tamanho] = b;
+            return tamanho + 1;
+        }
+
+        private String texto(int inicio, int fimTexto) {
+            byte[] bytes = new byte[fimTexto - inicio];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(inicio + i);
+            }
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        private void pularEspacos() {
+            while (posicao < fim && (buffer.get(posicao) == ' ' || buffer.get(posicao) == '\t')) {
+                posicao++;
+            }
+        }
+
+        private IllegalArgumentException erro(String mensagem) {
+            return new IllegalArgumentException("Erro de formato em " + arquivo + " (byte "
+                    + (deslocamento + posicao) + "): " + mensagem + ".");
+        }
+    }
+
+    /**
+     * Tabela de espalhamento aberta de id (long) para índice denso, sem boxing.
+     * Chave e valor ficam lado a lado no mesmo vetor, de modo que cada consulta custa uma
+     * única falta de cache. Depois de preenchida é somente leitura e pode ser consultada
+     * por várias threads.
+     */
+    private static final class IndicePorId {
+        private final long[] tabela; // [2i] = id, [2i + 1] = índice + 1 (0 marca posição livre)
+        private final int mascara;
+
+        IndicePorId(int capacidade) {
+            int tamanho = Integer.highestOneBit(Math.max(4, capacidade * 2 - 1)) << 1;
+            this.tabela = new long[tamanho * 2];
+            this.mascara = tamanho - 1;
+        }
+
+        private int posicaoInicial(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+
+        /** Retorna falso se o id já existir. */
+        boolean adicionar(long id, int indice) {
+            int i = posicaoInicial(id);
+            while (tabela[2 * i + 1] != 0) {
+                if (tabela[2 * i] == id) {
+                    return false;
+                }
+                i = (i + 1) & mascara;
+            }
+            tabela[2 * i] = id;
+            tabela[2 * i + 1] = indice + 1L;
+            return true;
+        }
+
+        int get(long id) {
+            int i = posicaoInicial(id);
+            while (tabela[2 * i + 1] != 0) {
+                if (tabela[2 * i] == id) {
+                    return (int) tabela[2 * i + 1] - 1;
+                }
+                i = (i + 1) & mascara;
+            }
+            return -1;
+        }
+    }
+
+    private static final class BlocoDeVertices {
+        long[] ids = new long[1024];
+        Localidade[] localidades = new Localidade[1024];
+        int tamanho;
+
+        void adicionar(long id, Localidade localidade) {
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+                localidades = Arrays.copyOf(localidades, tamanho * 2);
+            }
+            ids[tamanho] = id;
+            localidades[tamanho++] = localidade;
+        }
+    }
+
+    private static final class BlocoDeArestas {
+        int[] origens = new int[1024];
+        int[] destinos = new int[1024];
+        double[] pesos = new double[1024];
+        int tamanho;
+
+        void adicionar(int origem, int destino, double peso) {
+            if (tamanho == origens.length) {
+                origens = Arrays.copyOf(origens, tamanho * 2);
+                destinos = Arrays.copyOf(destinos, tamanho * 2);
+                pesos = Arrays.copyOf(pesos, tamanho * 2);
+            }
+            origens[tamanho] = origem;
+            destinos[tamanho] = destino;
+            pesos[tamanho++] = peso;
+        }
+    }
+
+    private static final class Mapa {
+        final Localidade[] localidades;
+        final int[] origens;
+        final int[] destinos;
+        final double[] pesos;
+
+        Mapa(Localidade[] localidades, int[] origens, int[] destinos, double[] pesos) {
+            this.localidades = localidades;
+            this.origens = origens;
+            this.destinos = destinos;
+            this.pesos = pesos;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Grava um {@link GrafoCompacto} de localidades no formato descrito em {@link GrafoBinario}.
+ * O arquivo é escrito em sequência por um buffer único e só substitui o destino, com uma
+ * troca de nome, depois de completo; um leitor nunca vê um arquivo pela metade.
+ * <p>
+ * As mesmas seções podem ser escritas em memória fora do heap, cada uma em um buffer direto
+ * do tamanho exato, para o {@link GrafoForaDoHeap}.
+ */
+final class EscritorDeGrafo {
+
+    private static final int TAMANHO_BUFFER = 1 << 20;
+
+    // Gravação em arquivo: o canal e o deslocamento de cada seção (nulos em memória)
+    private final FileChannel canal;
+    private final long[] deslocamentos;
+    // Gravação em memória: um buffer por seção (nulo em arquivo)
+    private final ByteBuffer[] secoes;
+    private final long[] tamanhos;
+    private ByteBuffer buffer;
+    private long posicao;
+
+    private EscritorDeGrafo(FileChannel canal, long[] deslocamentos, ByteBuffer[] secoes, long[] tamanhos) {
+        this.canal = canal;
+        this.deslocamentos = deslocamentos;
+        this.secoes = secoes;
+        this.tamanhos = tamanhos;
+        if (canal != null) {
+            this.buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    static void gravar(GrafoCompacto<Localidade> grafo, Path arquivo) throws IOException {
+        TabelaDeNomes nomes = new TabelaDeNomes(grafo);
+        long[] tamanhos = GrafoBinario.tamanhosDasSecoes(grafo.getNumeroVertices(), grafo.getNumeroArestas(),
+                nomes.tabela.length, nomes.bytes);
+        long[] deslocamentos = new long[GrafoBinario.NUMERO_SECOES];
+        long proxima = alinhar(GrafoBinario.TAMANHO_CABECALHO);
+        for (int s = 0; s < GrafoBinario.NUMERO_SECOES; s++) {
+            deslocamentos[s] = proxima;
+            proxima = alinhar(proxima + tamanhos[s]);
+        }
+
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            EscritorDeGrafo escritor = new EscritorDeGrafo(canal, deslocamentos, null, tamanhos);
+            escritor.escreverCabecalho(grafo.getNumeroVertices(), grafo.getNumeroArestas(), nomes.tabela.length);
+            escritor.escreverSecoes(grafo, nomes);
+            escritor.descarregar();
+        }
+        try {
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Escreve as seções do grafo em buffers diretos, um por seção, guardados em {@code secoes}
+     * à medida que são alocados: se faltar memória no meio, o chamador ainda tem os já
+     * alocados para liberar. Ao final, cada buffer está com a posição em 0.
+     * @throws IllegalArgumentException se alguma seção passar de 2 GB.
+     */
+    static void escreverEmMemoria(GrafoCompacto<Localidade> grafo, ByteBuffer[] secoes) {
+        TabelaDeNomes nomes = new TabelaDeNomes(grafo);
+        long[] tamanhos = GrafoBinario.tamanhosDasSecoes(grafo.getNumeroVertices(), grafo.getNumeroArestas(),
+                nomes.tabela.length, nomes.bytes);
+        for (int s = 0; s < GrafoBinario.NUMERO_SECOES; s++) {
+            if (tamanhos[s] > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("A seção " + s + " do grafo excede o limite de 2 GB de um buffer.");
+            }
+        }
+        try {
+            new EscritorDeGrafo(null, null, secoes, tamanhos).escreverSecoes(grafo, nomes);
+        } catch (IOException e) {
+            // Só a gravação em arquivo faz E/S
+            throw new AssertionError(e);
+        }
+        for (ByteBuffer secao : secoes) {
+            secao.clear();
+        }
+    }
+
+    // Deslocamentos no bloco de texto dos nomes e tabela de espalhamento (índice + 1; 0 = livre)
+    private static final class TabelaDeNomes {
+        final int[] inicio;
+        final int[] tabela;
+        final long bytes;
+
+        TabelaDeNomes(GrafoCompacto<Localidade> grafo) {
+            int n = grafo.getNumeroVertices();
+            int tamanhoTabela = 2;
+            while (tamanhoTabela < 2L * n + 1) {
+                tamanhoTabela <<= 1;
+            }
+            tabela = new int[tamanhoTabela];
+            inicio = new int[n + 1];
+            long total = 0;
+            for (int v = 0; v < n; v++) {
+                String nome = grafo.getVertice(v).getDado().getNome();
+                total += nome.getBytes(StandardCharsets.UTF_8).length;
+                if (total > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Os nomes das localidades excedem o limite de 2 GB do formato.");
+                }
+                inicio[v + 1] = (int) total;
+                int i = GrafoBinario.espalhar(nome, tamanhoTabela - 1);
+                while (tabela[i] != 0) {
+                    i = (i + 1) & (tamanhoTabela - 1);
+                }
+                tabela[i] = v + 1;
+            }
+            bytes = total;
+        }
+    }
+
+    private void escreverSecoes(GrafoCompacto<Localidade> grafo, TabelaDeNomes nomes) throws IOException {
+        int n = grafo.getNumeroVertices();
+        int m = grafo.getNumeroArestas();
+        iniciarSecao(GrafoBinario.INICIO_SAIDA);
+        for (int v = 0; v < n; v++) {
+            escreverInt(grafo.inicioSaida(v));
+        }
+        escreverInt(m);
+        iniciarSecao(GrafoBinario.DESTINOS);
+        for (int e = 0; e < m; e++) {
+            escreverInt(grafo.destino(e));
+        }
+        iniciarSecao(GrafoBinario.PESOS);
+        for (int e = 0; e < m; e++) {
+            escreverDouble(grafo.peso(e));
+        }
+        iniciarSecao(GrafoBinario.INICIO_ENTRADA);
+        for (int v = 0; v < n; v++) {
+            escreverInt(grafo.inicioEntrada(v));
+        }
+        escreverInt(m);
+        iniciarSecao(GrafoBinario.ORIGENS);
+        for (int e = 0; e < m; e++) {
+            escreverInt(grafo.origem(e));
+        }
+        iniciarSecao(GrafoBinario.PESOS_ENTRADA);
+        for (int e = 0; e < m; e++) {
+            escreverDouble(grafo.pesoEntrada(e));
+        }
+        iniciarSecao(GrafoBinario.ARESTA_DIRETA);
+        for (int e = 0; e < m; e++) {
+            escreverInt(grafo.arestaDireta(e));
+        }
+        iniciarSecao(GrafoBinario.COORDENADAS);
+        for (int v = 0; v < n; v++) {
+            Localidade localidade = grafo.getVertice(v).getDado();
+            escreverInt(localidade.getX());
+            escreverInt(localidade.getY());
+        }
+        iniciarSecao(GrafoBinario.INICIO_NOMES);
+        for (int v = 0; v <= n; v++) {
+            escreverInt(nomes.inicio[v]);
+        }
+        iniciarSecao(GrafoBinario.NOMES);
+        for (int v = 0; v < n; v++) {
+            escreverBytes(grafo.getVertice(v).getDado().getNome().getBytes(StandardCharsets.UTF_8));
+        }
+        iniciarSecao(GrafoBinario.TABELA_NOMES);
+        for (int valor : nomes.tabela) {
+            escreverInt(valor);
+        }
+    }
+
+    private static long alinhar(long posicao) {
+        return (posicao + 7) & ~7L;
+    }
+
+    private void escreverCabecalho(int n, int m, int tamanhoTabela) throws IOException {
+        escreverBytes(GrafoBinario.ASSINATURA);
+        escreverInt(GrafoBinario.VERSAO);
+        escreverInt(GrafoBinario.NUMERO_SECOES);
+        escreverInt(n);
+        escreverInt(m);
+        escreverInt(tamanhoTabela);
+        escreverInt(0); // reservado
+        for (int s = 0; s < GrafoBinario.NUMERO_SECOES; s++) {
+            escreverLong(deslocamentos[s]);
+            escreverLong(tamanhos[s]);
+        }
+    }
+
+    // Em arquivo, completa com zeros até o início da seção; em memória, aloca o buffer dela
+    private void iniciarSecao(int secao) throws IOException {
+        if (canal == null) {
+            buffer = ByteBuffer.allocateDirect((int) tamanhos[secao]).order(ByteOrder.LITTLE_ENDIAN);
+            secoes[secao] = buffer;
+            return;
+        }
+        while (posicao < deslocamentos[secao]) {
+            garantirEspaco(1);
+            buffer.put((byte) 0);
+            posicao++;
+        }
+    }
+
+    private void escreverInt(int valor) throws IOException {
+        garantirEspaco(4);
+        buffer.putInt(valor);
+        posicao += 4;
+    }
+
+    private void escreverLong(long valor) throws IOException {
+        garantirEspaco(8);
+        buffer.putLong(valor);
+        posicao += 8;
+    }
+
+    private void escreverDouble(double valor) throws IOException {
+        garantirEspaco(8);
+        buffer.putDouble(valor);
+        posicao += 8;
+    }
+
+    private void escreverBytes(byte[] bytes) throws IOException {
+        int escritos = 0;
+        while (escritos < bytes.length) {
+            garantirEspaco(1);
+            int quantidade = Math.min(buffer.remaining(), bytes.length - escritos);
+            buffer.put(bytes, escritos, quantidade);
+            escritos += quantidade;
+        }
+        posicao += bytes.length;
+    }
+
+    // Em memória, cada buffer já tem o tamanho exato da seção
+    private void garantirEspaco(int bytes) throws IOException {
+        if (canal != null && buffer.remaining() < bytes) {
+            descarregar();
+        }
+    }
+
+    private void descarregar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Classe que representa um grafo direcionado genérico.
@@ -21,10 +22,16 @@ public class Grafo<T> {
     // O 'final' garante que a coleção em si não será trocada após a criação do objeto.
     private final Map<T, Vertice<T>> vertices;
     private final List<Aresta<T>> arestas;
+    // Vértices na ordem em que foram adicionados, para que índices possam acompanhar o grafo
+    // processando apenas os vértices novos
+    private final List<Vertice<T>> ordemDeInsercao;
+    // Incrementada a cada alteração, para que quem guarda resultados saiba quando descartá-los
+    private final AtomicLong versao = new AtomicLong();
 
     public Grafo() {
         this.vertices = new HashMap<>();
         this.arestas = new ArrayList<>();
+        this.ordemDeInsercao = new ArrayList<>();
     }
 
     /**
@@ -35,7 +42,13 @@ public class Grafo<T> {
     public Vertice<T> adicionarVertice(T dado) {
         // computeIfAbsent é uma forma moderna e segura de adicionar um valor se a chave não existir.
         // O segundo argumento é uma função que cria um novo Vertice se necessário.
-        return this.vertices.computeIfAbsent(dado, Vertice::new);
+        int quantidadeAntes = this.vertices.size();
+        Vertice<T> vertice = this.vertices.computeIfAbsent(dado, Vertice::new);
+        if (this.vertices.size() != quantidadeAntes) {
+            this.ordemDeInsercao.add(vertice);
+            this.versao.incrementAndGet();
+        }
+        return vertice;
     }
 
     /**
@@ -63,6 +76,44 @@ public class Grafo<T> {
         inicio.adicionarArestaSaida(aresta);
         fim.adicionarArestaEntrada(aresta);
         this.arestas.add(aresta);
+        this.versao.incrementAndGet();
+    }
+
+    /**
+     * Remove uma aresta do grafo. Com arestas paralelas iguais (mesmos vértices e peso),
+     * apenas uma delas é removida.
+     * @param aresta A aresta a ser removida.
+     * @return true se a aresta estava no grafo e foi removida.
+     */
+    public boolean removerAresta(Aresta<T> aresta) {
+        // A lista global é percorrida (O(m)); as listas dos vértices são curtas
+        if (!this.arestas.remove(aresta)) {
+            return false;
+        }
+        aresta.getInicio().removerArestaSaida(aresta);
+        aresta.getFim().removerArestaEntrada(aresta);
+        this.versao.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Troca o peso de uma aresta. Como {@link Aresta} é imutável, a aresta antiga é
+     * removida e uma nova, com os mesmos vértices, é adicionada no lugar.
+     * @param aresta A aresta atual.
+     * @param novoPeso O novo peso.
+     * @return A nova aresta.
+     * @throws IllegalArgumentException se a aresta não estiver no grafo.
+     */
+    public Aresta<T> alterarPeso(Aresta<T> aresta, double novoPeso) {
+        if (!removerAresta(aresta)) {
+            throw new IllegalArgumentException("Aresta '" + aresta + "' não encontrada no grafo.");
+        }
+        Aresta<T> nova = new Aresta<>(novoPeso, aresta.getInicio(), aresta.getFim());
+        aresta.getInicio().adicionarArestaSaida(nova);
+        aresta.getFim().adicionarArestaEntrada(nova);
+        this.arestas.add(nova);
+        this.versao.incrementAndGet();
+        return nova;
     }
 
     /**
@@ -83,6 +134,16 @@ public class Grafo<T> {
         return Collections.unmodifiableCollection(this.vertices.values());
     }
     
+    /**
+     * Retorna uma lista não modificável dos vértices na ordem em que foram adicionados.
+     * Como vértices nunca são removidos, os vértices adicionados depois de uma leitura
+     * com {@code k} elementos ocupam as posições a partir de {@code k}.
+     * @return Uma lista de vértices.
+     */
+    public List<Vertice<T>> getVerticesEmOrdemDeInsercao() {
+        return Collections.unmodifiableList(this.ordemDeInsercao);
+    }
+
     /**
      * Retorna uma lista não modificável de todas as arestas do grafo.
      * @return Uma lista de arestas.
@@ -90,4 +151,22 @@ public class Grafo<T> {
     public List<Aresta<T>> getArestas() {
         return Collections.unmodifiableList(this.arestas);
     }
+
+    /**
+     * Retorna a versão atual do grafo, um contador que aumenta a cada vértice ou aresta
+     * adicionados e a cada aresta removida ou com peso alterado. Duas leituras com o mesmo valor indicam que o grafo não mudou entre elas.
+     * @return A versão atual.
+     */
+    public long getVersao() {
+        return this.versao.get();
+    }
+
+    /**
+     * Gera uma fotografia imutável e compacta (CSR) do estado atual do grafo,
+     * indicada para consultas de rota repetidas sobre um mapa que não muda mais.
+     * @return O grafo compacto com índices densos para os vértices.
+     */
+    public GrafoCompacto<T> congelar() {
+        return GrafoCompacto.de(this);
+    }
 }
\ No newline at end of file
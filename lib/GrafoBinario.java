@@ -0,0 +1,346 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * {@link GrafoCompacto} de {@link Localidade}s lido diretamente de um arquivo binário
+ * mapeado em memória.
+ * <p>
+ * O arquivo tem um cabeçalho seguido de seções alinhadas a 8 bytes, todas em little-endian:
+ * <pre>
+ *   cabeçalho:  "GRAFOBIN", versão, número de seções, n, m, tamanho da tabela de nomes,
+ *               e para cada seção o seu deslocamento e tamanho em bytes
+ *   seções:     inícios de saída (n+1 int), destinos (m int), pesos (m double),
+ *               inícios de entrada (n+1 int), origens (m int), pesos de entrada (m double),
+ *               arestas diretas (m int), coordenadas (x, y: 2n int),
+ *               inícios dos nomes (n+1 int), nomes (bytes UTF-8),
+ *               tabela de espalhamento dos nomes (índice + 1 por posição; 0 = livre)
+ * </pre>
+ * Abrir um arquivo apenas lê o cabeçalho e mapeia cada seção com {@link FileChannel#map}: nada
+ * é copiado para o heap, e as páginas são trazidas do disco pelo sistema operacional à medida
+ * que as consultas as tocam. Um serviço pode, assim, responder à primeira consulta poucos
+ * milissegundos depois de iniciar, mesmo com mapas grandes.
+ * <p>
+ * Os vértices ({@link Vertice} e {@link Localidade}) são criados sob demanda a cada chamada de
+ * {@link #getVertice(int)}; as coordenadas também podem ser lidas pelo índice, sem criar nada
+ * ({@link GrafoComCoordenadas}). A busca de um índice por nome usa a tabela de espalhamento
+ * gravada no próprio arquivo. A estrutura é imutável e pode ser consultada por várias threads.
+ * <p>
+ * Para manter o grafo inteiro residente, sem depender do cache de páginas, e liberar a memória
+ * em um ponto conhecido, veja {@link GrafoForaDoHeap}.
+ */
+public final class GrafoBinario extends GrafoCompacto<Localidade> implements GrafoComCoordenadas {
+
+    static final byte[] ASSINATURA = "GRAFOBIN".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSAO = 1;
+
+    static final int INICIO_SAIDA = 0;
+    static final int DESTINOS = 1;
+    static final int PESOS = 2;
+    static final int INICIO_ENTRADA = 3;
+    static final int ORIGENS = 4;
+    static final int PESOS_ENTRADA = 5;
+    static final int ARESTA_DIRETA = 6;
+    static final int COORDENADAS = 7;
+    static final int INICIO_NOMES = 8;
+    static final int NOMES = 9;
+    static final int TABELA_NOMES = 10;
+    static final int NUMERO_SECOES = 11;
+
+    static final int TAMANHO_CABECALHO = 32 + 16 * NUMERO_SECOES;
+
+    private final int n;
+    private final int m;
+    private final ByteBuffer[] secoes;
+    private final IntBuffer inicioSaida;
+    private final IntBuffer destinos;
+    private final DoubleBuffer pesos;
+    private final IntBuffer inicioEntrada;
+    private final IntBuffer origens;
+    private final DoubleBuffer pesosEntrada;
+    private final IntBuffer arestaDireta;
+    private final IntBuffer coordenadas;
+    private final IntBuffer inicioNomes;
+    private final ByteBuffer nomes;
+    private final IntBuffer tabelaNomes;
+    private final int mascaraNomes;
+    private final List<Vertice<Localidade>> vertices;
+
+    GrafoBinario(int n, int m, ByteBuffer[] secoes) {
+        this.n = n;
+        this.m = m;
+        this.secoes = secoes;
+        this.inicioSaida = inteiros(secoes[INICIO_SAIDA]);
+        this.destinos = inteiros(secoes[DESTINOS]);
+        this.pesos = reais(secoes[PESOS]);
+        this.inicioEntrada = inteiros(secoes[INICIO_ENTRADA]);
+        this.origens = inteiros(secoes[ORIGENS]);
+        this.pesosEntrada = reais(secoes[PESOS_ENTRADA]);
+        this.arestaDireta = inteiros(secoes[ARESTA_DIRETA]);
+        this.coordenadas = inteiros(secoes[COORDENADAS]);
+        this.inicioNomes = inteiros(secoes[INICIO_NOMES]);
+        this.nomes = secoes[NOMES];
+        this.tabelaNomes = inteiros(secoes[TABELA_NOMES]);
+        this.mascaraNomes = tabelaNomes.limit() - 1;
+        this.vertices = new ListaDeVertices();
+    }
+
+    /** As seções do grafo, na ordem do formato (usadas por {@link GrafoForaDoHeap}). */
+    ByteBuffer[] getSecoes() {
+        return secoes;
+    }
+
+    private static IntBuffer inteiros(ByteBuffer secao) {
+        return secao.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static DoubleBuffer reais(ByteBuffer secao) {
+        return secao.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+
+    /**
+     * Grava um grafo compacto de localidades no formato binário. Os índices dos vértices e as
+     * posições das arestas são preservados, de modo que estruturas pré-processadas sobre o
+     * grafo original continuam válidas para o grafo reaberto.
+     * @param grafo O grafo a ser gravado.
+     * @param arquivo O arquivo de destino (sobrescrito se existir).
+     * @throws IOException se o arquivo não puder ser escrito.
+     */
+    public static void gravar(GrafoCompacto<Localidade> grafo, Path arquivo) throws IOException {
+        EscritorDeGrafo.gravar(grafo, arquivo);
+    }
+
+    /**
+     * Abre um arquivo gravado por {@link #gravar}, mapeando as suas seções em memória.
+     * O arquivo continua mapeado enquanto o grafo estiver em uso.
+     * @param arquivo O arquivo binário.
+     * @return O grafo pronto para consultas.
+     * @throws IOException se o arquivo não puder ser lido.
+     * @throws IllegalArgumentException se o arquivo não estiver no formato esperado.
+     */
+    public static GrafoBinario abrir(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanhoArquivo = canal.size();
+            if (tamanhoArquivo < TAMANHO_CABECALHO) {
+                throw invalido(arquivo, "arquivo curto demais");
+            }
+            ByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMANHO_CABECALHO)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < ASSINATURA.length; i++) {
+                if (cabecalho.get(i) != ASSINATURA[i]) {
+                    throw invalido(arquivo, "assinatura desconhecida");
+                }
+            }
+            int versao = cabecalho.getInt(8);
+            if (versao != VERSAO) {
+                throw invalido(arquivo, "versão " + versao + " não suportada (esperada " + VERSAO + ")");
+            }
+            if (cabecalho.getInt(12) != NUMERO_SECOES) {
+                throw invalido(arquivo, "número de seções inesperado");
+            }
+            int n = cabecalho.getInt(16);
+            int m = cabecalho.getInt(20);
+            int tamanhoTabela = cabecalho.getInt(24);
+            if (n < 0 || m < 0 || tamanhoTabela <= 0 || Integer.bitCount(tamanhoTabela) != 1) {
+                throw invalido(arquivo, "cabeçalho corrompido");
+            }
+
+            long[] esperado = tamanhosDasSecoes(n, m, tamanhoTabela, -1);
+            ByteBuffer[] secoes = new ByteBuffer[NUMERO_SECOES];
+            for (int s = 0; s < NUMERO_SECOES; s++) {
+                long deslocamento = cabecalho.getLong(32 + 16 * s);
+                long tamanho = cabecalho.getLong(40 + 16 * s);
+                boolean tamanhoCorreto = esperado[s] < 0 || tamanho == esperado[s];
+                if (!tamanhoCorreto || deslocamento < TAMANHO_CABECALHO || tamanho > Integer.MAX_VALUE
+                        || deslocamento + tamanho > tamanhoArquivo) {
+                    throw invalido(arquivo, "seção " + s + " corrompida");
+                }
+                secoes[s] = canal.map(FileChannel.MapMode.READ_ONLY, deslocamento, tamanho);
+            }
+            return new GrafoBinario(n, m, secoes);
+        }
+    }
+
+    /**
+     * Tamanho em bytes de cada seção. O tamanho da seção de nomes só é conhecido depois de
+     * codificados os nomes; se {@code bytesNomes} for negativo, ele fica como -1 (não verificado).
+     */
+    static long[] tamanhosDasSecoes(int n, int m, int tamanhoTabela, long bytesNomes) {
+        long[] tamanhos = new long[NUMERO_SECOES];
+        tamanhos[INICIO_SAIDA] = 4L * (n + 1);
+        tamanhos[DESTINOS] = 4L * m;
+        tamanhos[PESOS] = 8L * m;
+        tamanhos[INICIO_ENTRADA] = 4L * (n + 1);
+        tamanhos[ORIGENS] = 4L * m;
+        tamanhos[PESOS_ENTRADA] = 8L * m;
+        tamanhos[ARESTA_DIRETA] = 4L * m;
+        tamanhos[COORDENADAS] = 8L * n;
+        tamanhos[INICIO_NOMES] = 4L * (n + 1);
+        tamanhos[NOMES] = bytesNomes;
+        tamanhos[TABELA_NOMES] = 4L * tamanhoTabela;
+        return tamanhos;
+    }
+
+    /** Posição inicial de um nome na tabela de espalhamento (o hash de String é estável entre JVMs). */
+    static int espalhar(String nome, int mascara) {
+        int h = nome.hashCode();
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    private static IllegalArgumentException invalido(Path arquivo, String motivo) {
+        return new IllegalArgumentException("Arquivo '" + arquivo + "' não é um grafo binário válido: " + motivo + ".");
+    }
+
+    /**
+     * Retorna a localidade de um vértice, lida do arquivo.
+     */
+    public Localidade getLocalidade(int indice) {
+        return new Localidade(getNome(indice), coordenadas.get(2 * indice), coordenadas.get(2 * indice + 1));
+    }
+
+    @Override
+    public int getX(int indice) {
+        return coordenadas.get(2 * indice);
+    }
+
+    @Override
+    public int getY(int indice) {
+        return coordenadas.get(2 * indice + 1);
+    }
+
+    private String getNome(int indice) {
+        int inicio = inicioNomes.get(indice);
+        byte[] bytes = new byte[inicioNomes.get(indice + 1) - inicio];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = nomes.get(inicio + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean nomeIgual(int indice, byte[] nome) {
+        int inicio = inicioNomes.get(indice);
+        if (inicioNomes.get(indice + 1) - inicio != nome.length) {
+            return false;
+        }
+        for (int i = 0; i < nome.length; i++) {
+            if (nomes.get(inicio + i) != nome[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getNumeroVertices() {
+        return n;
+    }
+
+    @Override
+    public int getNumeroArestas() {
+        return m;
+    }
+
+    @Override
+    public Vertice<Localidade> getVertice(int indice) {
+        return new Vertice<>(getLocalidade(indice));
+    }
+
+    @Override
+    public Localidade getDado(int indice) {
+        return getLocalidade(indice);
+    }
+
+    @Override
+    public int getIndice(Localidade dado) {
+        if (dado == null) {
+            return -1;
+        }
+        byte[] nome = dado.getNome().getBytes(StandardCharsets.UTF_8);
+        for (int i = espalhar(dado.getNome(), mascaraNomes); ; i = (i + 1) & mascaraNomes) {
+            int valor = tabelaNomes.get(i);
+            if (valor == 0) {
+                return -1;
+            }
+            if (nomeIgual(valor - 1, nome)) {
+                return valor - 1;
+            }
+        }
+    }
+
+    @Override
+    public List<Vertice<Localidade>> getVertices() {
+        return vertices;
+    }
+
+    @Override
+    public int inicioSaida(int v) {
+        return inicioSaida.get(v);
+    }
+
+    @Override
+    public int fimSaida(int v) {
+        return inicioSaida.get(v + 1);
+    }
+
+    @Override
+    public int destino(int aresta) {
+        return destinos.get(aresta);
+    }
+
+    @Override
+    public double peso(int aresta) {
+        return pesos.get(aresta);
+    }
+
+    @Override
+    public int inicioEntrada(int v) {
+        return inicioEntrada.get(v);
+    }
+
+    @Override
+    public int fimEntrada(int v) {
+        return inicioEntrada.get(v + 1);
+    }
+
+    @Override
+    public int origem(int arestaEntrada) {
+        return origens.get(arestaEntrada);
+    }
+
+    @Override
+    public double pesoEntrada(int arestaEntrada) {
+        return pesosEntrada.get(arestaEntrada);
+    }
+
+    @Override
+    public int arestaDireta(int arestaEntrada) {
+        return arestaDireta.get(arestaEntrada);
+    }
+
+    // Visão dos vértices que os cria sob demanda, sem materializar a lista inteira
+    private final class ListaDeVertices extends AbstractList<Vertice<Localidade>> implements RandomAccess {
+        @Override
+        public Vertice<Localidade> get(int indice) {
+            if (indice < 0 || indice >= n) {
+                throw new IndexOutOfBoundsException("Índice " + indice + " fora do grafo.");
+            }
+            return getVertice(indice);
+        }
+
+        @Override
+        public int size() {
+            return n;
+        }
+    }
+}
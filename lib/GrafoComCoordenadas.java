@@ -0,0 +1,16 @@
+package lib;
+
+/**
+ * Grafo compacto que informa as coordenadas de um vértice pelo índice, sem criar a
+ * {@link Localidade}. As heurísticas geométricas do A* consultam as coordenadas a cada
+ * relaxação; nos grafos que guardam a localidade serializada ({@link GrafoBinario},
+ * {@link GrafoForaDoHeap}), criá-la a cada consulta geraria lixo proporcional à busca.
+ */
+public interface GrafoComCoordenadas {
+
+    /** Coordenada x do vértice de índice {@code indice}. */
+    int getX(int indice);
+
+    /** Coordenada y do vértice de índice {@code indice}. */
+    int getY(int indice);
+}
@@ -0,0 +1,124 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fotografia imutável de um {@link Grafo} no formato CSR (compressed sparse row).
+ * Cada vértice recebe um índice inteiro denso (0..n-1) e as arestas ficam guardadas
+ * em vetores primitivos contíguos: as arestas de saída do vértice {@code v} ocupam as
+ * posições {@code [inicioSaida(v), fimSaida(v))} dos vetores de destinos e pesos.
+ * Um segundo CSR, invertido, guarda as arestas de entrada de cada vértice.
+ * <p>
+ * Como não há um objeto por aresta, a estrutura ocupa bem menos memória e os
+ * algoritmos percorrem a vizinhança de forma sequencial, sem indireções.
+ * Alterações feitas no grafo original depois do congelamento não são refletidas aqui, e os
+ * vértices devolvidos não têm as listas de arestas do grafo original (são iguais a eles por
+ * {@link Vertice#equals}).
+ * <p>
+ * Esta classe define apenas o acesso ao CSR; onde os vetores ficam guardados é decidido
+ * pelas implementações: em vetores Java ({@link Grafo#congelar()}) ou em um arquivo
+ * binário mapeado em memória ({@link GrafoBinario}).
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public abstract class GrafoCompacto<T> {
+
+    GrafoCompacto() {
+    }
+
+    /**
+     * Cria a versão compacta de um grafo. Prefira {@link Grafo#congelar()}.
+     * @param grafo O grafo de origem.
+     * @return Uma fotografia imutável do grafo.
+     */
+    static <T> GrafoCompacto<T> de(Grafo<T> grafo) {
+        List<Vertice<T>> vertices = new ArrayList<>(grafo.getVertices());
+        List<T> dados = new ArrayList<>(vertices.size());
+        Map<Vertice<T>, Integer> ids = new HashMap<>(vertices.size() * 2);
+        for (int i = 0; i < vertices.size(); i++) {
+            ids.put(vertices.get(i), i);
+            dados.add(vertices.get(i).getDado());
+        }
+
+        List<Aresta<T>> arestas = grafo.getArestas();
+        int m = arestas.size();
+        int[] origens = new int[m];
+        int[] destinos = new int[m];
+        double[] pesos = new double[m];
+        for (int e = 0; e < m; e++) {
+            Aresta<T> aresta = arestas.get(e);
+            origens[e] = ids.get(aresta.getInicio());
+            destinos[e] = ids.get(aresta.getFim());
+            pesos[e] = aresta.getPeso();
+        }
+        return new GrafoEmVetores<>(dados, origens, destinos, pesos);
+    }
+
+    public abstract int getNumeroVertices();
+
+    public abstract int getNumeroArestas();
+
+    /**
+     * Retorna o vértice associado a um índice denso.
+     * @param indice Um índice entre 0 e {@code getNumeroVertices() - 1}.
+     * @return O vértice correspondente.
+     */
+    public abstract Vertice<T> getVertice(int indice);
+
+    /**
+     * Retorna o dado do vértice de um índice denso. As implementações que guardam os dados
+     * devolvem-no sem criar o {@link Vertice}; use este método nos laços das buscas.
+     * @param indice Um índice entre 0 e {@code getNumeroVertices() - 1}.
+     * @return O dado do vértice.
+     */
+    public T getDado(int indice) {
+        return getVertice(indice).getDado();
+    }
+
+    /**
+     * Retorna o índice denso de um dado.
+     * @param dado O dado do vértice procurado.
+     * @return O índice do vértice ou -1 se o dado não pertencer ao grafo.
+     */
+    public abstract int getIndice(T dado);
+
+    /**
+     * Retorna uma lista não modificável com todos os vértices, na ordem dos índices.
+     * @return Uma lista de vértices.
+     */
+    public abstract List<Vertice<T>> getVertices();
+
+    // --- Arestas de saída ---
+
+    /** Primeira posição das arestas de saída de {@code v}. */
+    public abstract int inicioSaida(int v);
+
+    /** Posição seguinte à última aresta de saída de {@code v}. */
+    public abstract int fimSaida(int v);
+
+    public abstract int destino(int aresta);
+
+    public abstract double peso(int aresta);
+
+    // --- Arestas de entrada (CSR invertido) ---
+
+    /** Primeira posição das arestas de entrada de {@code v}. */
+    public abstract int inicioEntrada(int v);
+
+    /** Posição seguinte à última aresta de entrada de {@code v}. */
+    public abstract int fimEntrada(int v);
+
+    public abstract int origem(int arestaEntrada);
+
+    public abstract double pesoEntrada(int arestaEntrada);
+
+    /**
+     * Converte a posição de uma aresta no CSR invertido para a sua posição no CSR de saída.
+     * @param arestaEntrada A posição da aresta no CSR de entrada.
+     * @return A posição da mesma aresta no CSR de saída.
+     */
+    public abstract int arestaDireta(int arestaEntrada);
+}
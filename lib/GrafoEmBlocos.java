@@ -0,0 +1,352 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link GrafoCompacto} cujos vetores de arestas são divididos em blocos de tamanho fixo,
+ * para que versões sucessivas do grafo compartilhem tudo o que não mudou. Cada versão tem
+ * os seus próprios vetores de blocos (uma referência por bloco), mas só os blocos alterados
+ * são copiados; os demais são os mesmos objetos da versão anterior. Usado por
+ * {@link GrafoVersionado}.
+ * <p>
+ * Uma aresta removida deixa de existir como um laço de peso infinito no próprio vértice (no
+ * CSR de saída e no invertido), que nenhum algoritmo de caminho consegue usar; as posições
+ * das demais arestas não mudam. Um vértice removido perde todas as suas arestas e deixa de
+ * ser encontrado por {@link #getIndice}. As posições ocupadas por esses restos só são
+ * liberadas por {@link #compactar}.
+ * <p>
+ * Uma instância recém-criada por {@link #rascunho} pode ser alterada pela thread que a
+ * criou até ser publicada; depois disso é imutável.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+final class GrafoEmBlocos<T> extends GrafoCompacto<T> {
+
+    static final int BITS_BLOCO = 12;
+    private static final int TAMANHO_BLOCO = 1 << BITS_BLOCO;
+    private static final int MASCARA = TAMANHO_BLOCO - 1;
+
+    // Vértices, índices e a forma do CSR não mudam entre versões e são compartilhados. Da
+    // base guarda só os dados dos vértices: as arestas já estão copiadas nos blocos
+    private final TabelaDeVertices<T> vertices;
+    private final int n;
+    private final int m;
+    private final int[] inicioSaida;
+    private final int[] inicioEntrada;
+    private final int[] arestaDireta;
+    // Inverso de 'arestaDireta': posição no CSR de entrada de cada aresta de saída
+    private final int[] arestaReversa;
+
+    // Blocos copiados sob demanda
+    private final int[][] destinos;
+    private final double[][] pesos;
+    private final int[][] origens;
+    private final double[][] pesosEntrada;
+    private final long[][] removidos;
+
+    private final long versao;
+    private int arestasRemovidas;
+    private int verticesRemovidos;
+
+    // Blocos que já pertencem a este rascunho; nulos depois da publicação
+    private boolean[] propriosSaida;
+    private boolean[] propriosEntrada;
+    private boolean[] propriosRemovidos;
+
+    GrafoEmBlocos(GrafoCompacto<T> base, long versao) {
+        this.vertices = base instanceof GrafoEmVetores
+                ? ((GrafoEmVetores<T>) base).getTabela()
+                : TabelaDeVertices.de(base);
+        this.versao = versao;
+        this.n = base.getNumeroVertices();
+        this.m = base.getNumeroArestas();
+        this.inicioSaida = new int[n + 1];
+        this.inicioEntrada = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            inicioSaida[v] = base.inicioSaida(v);
+            inicioEntrada[v] = base.inicioEntrada(v);
+        }
+        inicioSaida[n] = m;
+        inicioEntrada[n] = m;
+
+        int blocos = quantidadeDeBlocos(m);
+        this.destinos = new int[blocos][];
+        this.pesos = new double[blocos][];
+        this.origens = new int[blocos][];
+        this.pesosEntrada = new double[blocos][];
+        for (int b = 0; b < blocos; b++) {
+            int tamanho = Math.min(TAMANHO_BLOCO, m - (b << BITS_BLOCO));
+            destinos[b] = new int[tamanho];
+            pesos[b] = new double[tamanho];
+            origens[b] = new int[tamanho];
+            pesosEntrada[b] = new double[tamanho];
+        }
+        this.arestaDireta = new int[m];
+        this.arestaReversa = new int[m];
+        for (int e = 0; e < m; e++) {
+            destinos[e >>> BITS_BLOCO][e & MASCARA] = base.destino(e);
+            pesos[e >>> BITS_BLOCO][e & MASCARA] = base.peso(e);
+            origens[e >>> BITS_BLOCO][e & MASCARA] = base.origem(e);
+            pesosEntrada[e >>> BITS_BLOCO][e & MASCARA] = base.pesoEntrada(e);
+            arestaDireta[e] = base.arestaDireta(e);
+            arestaReversa[arestaDireta[e]] = e;
+        }
+
+        int palavras = (n + 63) >>> 6;
+        this.removidos = new long[quantidadeDeBlocos(palavras)][];
+        for (int b = 0; b < removidos.length; b++) {
+            removidos[b] = new long[Math.min(TAMANHO_BLOCO, palavras - (b << BITS_BLOCO))];
+        }
+    }
+
+    // Rascunho da próxima versão: os vetores de blocos são copiados, os blocos não
+    private GrafoEmBlocos(GrafoEmBlocos<T> anterior) {
+        this.vertices = anterior.vertices;
+        this.versao = anterior.versao + 1;
+        this.n = anterior.n;
+        this.m = anterior.m;
+        this.inicioSaida = anterior.inicioSaida;
+        this.inicioEntrada = anterior.inicioEntrada;
+        this.arestaDireta = anterior.arestaDireta;
+        this.arestaReversa = anterior.arestaReversa;
+        this.destinos = anterior.destinos.clone();
+        this.pesos = anterior.pesos.clone();
+        this.origens = anterior.origens.clone();
+        this.pesosEntrada = anterior.pesosEntrada.clone();
+        this.removidos = anterior.removidos.clone();
+        this.arestasRemovidas = anterior.arestasRemovidas;
+        this.verticesRemovidos = anterior.verticesRemovidos;
+        this.propriosSaida = new boolean[destinos.length];
+        this.propriosEntrada = new boolean[origens.length];
+        this.propriosRemovidos = new boolean[removidos.length];
+    }
+
+    private static int quantidadeDeBlocos(int tamanho) {
+        return (tamanho + TAMANHO_BLOCO - 1) >>> BITS_BLOCO;
+    }
+
+    /**
+     * Cria um rascunho alterável da próxima versão.
+     */
+    GrafoEmBlocos<T> rascunho() {
+        return new GrafoEmBlocos<>(this);
+    }
+
+    /**
+     * Encerra as alterações do rascunho; a partir daqui ele pode ser lido por outras threads.
+     */
+    void publicar() {
+        propriosSaida = null;
+        propriosEntrada = null;
+        propriosRemovidos = null;
+    }
+
+    /**
+     * Cria uma versão sem os restos de arestas e vértices removidos, com índices e posições
+     * novos. Custa O(n + m) e não compartilha nada com as versões anteriores.
+     */
+    GrafoEmBlocos<T> compactar() {
+        int[] novoIndice = new int[n];
+        List<T> vivos = new ArrayList<>(n - verticesRemovidos);
+        for (int v = 0; v < n; v++) {
+            if (isRemovido(v)) {
+                novoIndice[v] = -1;
+            } else {
+                novoIndice[v] = vivos.size();
+                vivos.add(vertices.getDado(v));
+            }
+        }
+        int vivas = m - arestasRemovidas;
+        int[] origensVivas = new int[vivas];
+        int[] destinosVivos = new int[vivas];
+        double[] pesosVivos = new double[vivas];
+        int k = 0;
+        for (int u = 0; u < n; u++) {
+            for (int e = inicioSaida[u], fim = inicioSaida[u + 1]; e < fim; e++) {
+                if (!isArestaRemovida(u, e)) {
+                    origensVivas[k] = novoIndice[u];
+                    destinosVivos[k] = novoIndice[destino(e)];
+                    pesosVivos[k] = peso(e);
+                    k++;
+                }
+            }
+        }
+        if (k < vivas) {
+            // Laços de peso infinito que já vieram no grafo original também são descartados
+            origensVivas = Arrays.copyOf(origensVivas, k);
+            destinosVivos = Arrays.copyOf(destinosVivos, k);
+            pesosVivos = Arrays.copyOf(pesosVivos, k);
+        }
+        return new GrafoEmBlocos<>(new GrafoEmVetores<>(vivos, origensVivas, destinosVivos, pesosVivos), versao);
+    }
+
+    // --- Alterações (apenas em rascunhos) ---
+
+    /**
+     * Troca o peso da aresta de saída {@code e} e da sua cópia no CSR invertido.
+     */
+    void definirPeso(int e, double peso) {
+        int i = arestaReversa[e];
+        blocoDePesos(e)[e & MASCARA] = peso;
+        blocoDePesosEntrada(i)[i & MASCARA] = peso;
+    }
+
+    /**
+     * Remove a aresta de saída {@code e} do vértice {@code u}, transformando-a em laços de
+     * peso infinito nos dois CSRs.
+     */
+    void removerAresta(int u, int e) {
+        int i = arestaReversa[e];
+        int v = destino(e);
+        blocoDePesos(e)[e & MASCARA] = Double.POSITIVE_INFINITY;
+        destinos[e >>> BITS_BLOCO][e & MASCARA] = u;
+        blocoDePesosEntrada(i)[i & MASCARA] = Double.POSITIVE_INFINITY;
+        origens[i >>> BITS_BLOCO][i & MASCARA] = v;
+        arestasRemovidas++;
+    }
+
+    void marcarRemovido(int v) {
+        verificarRascunho();
+        int palavra = v >>> 6;
+        int b = palavra >>> BITS_BLOCO;
+        if (!propriosRemovidos[b]) {
+            removidos[b] = removidos[b].clone();
+            propriosRemovidos[b] = true;
+        }
+        removidos[b][palavra & MASCARA] |= 1L << v;
+        verticesRemovidos++;
+    }
+
+    // Os blocos de destinos e pesos são copiados juntos, pois a remoção altera os dois
+    private double[] blocoDePesos(int e) {
+        verificarRascunho();
+        int b = e >>> BITS_BLOCO;
+        if (!propriosSaida[b]) {
+            destinos[b] = destinos[b].clone();
+            pesos[b] = pesos[b].clone();
+            propriosSaida[b] = true;
+        }
+        return pesos[b];
+    }
+
+    private double[] blocoDePesosEntrada(int i) {
+        verificarRascunho();
+        int b = i >>> BITS_BLOCO;
+        if (!propriosEntrada[b]) {
+            origens[b] = origens[b].clone();
+            pesosEntrada[b] = pesosEntrada[b].clone();
+            propriosEntrada[b] = true;
+        }
+        return pesosEntrada[b];
+    }
+
+    private void verificarRascunho() {
+        if (propriosSaida == null) {
+            throw new IllegalStateException("Esta versão do grafo já foi publicada e não pode ser alterada.");
+        }
+    }
+
+    // --- Consultas ---
+
+    long getVersao() {
+        return versao;
+    }
+
+    int getArestasRemovidas() {
+        return arestasRemovidas;
+    }
+
+    int getVerticesRemovidos() {
+        return verticesRemovidos;
+    }
+
+    boolean isRemovido(int v) {
+        int palavra = v >>> 6;
+        return (removidos[palavra >>> BITS_BLOCO][palavra & MASCARA] & (1L << v)) != 0;
+    }
+
+    /**
+     * Indica se a aresta de saída {@code e} do vértice {@code u} é o resto de uma remoção.
+     */
+    boolean isArestaRemovida(int u, int e) {
+        return destino(e) == u && peso(e) == Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public int getNumeroVertices() {
+        return n;
+    }
+
+    @Override
+    public int getNumeroArestas() {
+        return m;
+    }
+
+    @Override
+    public Vertice<T> getVertice(int indice) {
+        return vertices.getVertice(indice);
+    }
+
+    @Override
+    public T getDado(int indice) {
+        return vertices.getDado(indice);
+    }
+
+    @Override
+    public int getIndice(T dado) {
+        int indice = vertices.getIndice(dado);
+        return indice >= 0 && isRemovido(indice) ? -1 : indice;
+    }
+
+    @Override
+    public List<Vertice<T>> getVertices() {
+        return vertices.getVertices();
+    }
+
+    @Override
+    public int inicioSaida(int v) {
+        return inicioSaida[v];
+    }
+
+    @Override
+    public int fimSaida(int v) {
+        return inicioSaida[v + 1];
+    }
+
+    @Override
+    public int destino(int aresta) {
+        return destinos[aresta >>> BITS_BLOCO][aresta & MASCARA];
+    }
+
+    @Override
+    public double peso(int aresta) {
+        return pesos[aresta >>> BITS_BLOCO][aresta & MASCARA];
+    }
+
+    @Override
+    public int inicioEntrada(int v) {
+        return inicioEntrada[v];
+    }
+
+    @Override
+    public int fimEntrada(int v) {
+        return inicioEntrada[v + 1];
+    }
+
+    @Override
+    public int origem(int arestaEntrada) {
+        return origens[arestaEntrada >>> BITS_BLOCO][arestaEntrada & MASCARA];
+    }
+
+    @Override
+    public double pesoEntrada(int arestaEntrada) {
+        return pesosEntrada[arestaEntrada >>> BITS_BLOCO][arestaEntrada & MASCARA];
+    }
+
+    @Override
+    public int arestaDireta(int arestaEntrada) {
+        return arestaDireta[arestaEntrada];
+    }
+}
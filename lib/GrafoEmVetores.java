@@ -0,0 +1,153 @@
+package lib;
+
+import java.util.List;
+
+/**
+ * {@link GrafoCompacto} guardado em vetores Java no heap. É a implementação devolvida por
+ * {@link Grafo#congelar()}.
+ * <p>
+ * Guarda só os dados dos vértices (veja {@link TabelaDeVertices}), não os {@link Vertice}s e
+ * {@link Aresta}s do grafo de origem: depois do congelamento, o {@link Grafo} pode ser
+ * descartado e a sua memória é liberada.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+final class GrafoEmVetores<T> extends GrafoCompacto<T> {
+
+    private final TabelaDeVertices<T> vertices;
+
+    // CSR das arestas de saída
+    private final int[] inicioSaida;
+    private final int[] destinos;
+    private final double[] pesos;
+
+    // CSR invertido (arestas de entrada); 'arestaDireta' aponta para a mesma aresta no CSR de saída
+    private final int[] inicioEntrada;
+    private final int[] origens;
+    private final double[] pesosEntrada;
+    private final int[] arestaDireta;
+
+    /**
+     * @param dados Os dados dos vértices, na ordem dos índices (sem repetições).
+     * @param origensArestas O índice da origem de cada aresta.
+     * @param destinosArestas O índice do destino de cada aresta.
+     * @param pesosArestas O peso de cada aresta.
+     */
+    GrafoEmVetores(List<T> dados, int[] origensArestas, int[] destinosArestas, double[] pesosArestas) {
+        this.vertices = new TabelaDeVertices<>(dados);
+        int n = vertices.tamanho();
+        int m = origensArestas.length;
+
+        // Contagem dos graus de saída e de entrada
+        this.inicioSaida = new int[n + 1];
+        this.inicioEntrada = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            inicioSaida[origensArestas[e] + 1]++;
+            inicioEntrada[destinosArestas[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inicioSaida[v + 1] += inicioSaida[v];
+            inicioEntrada[v + 1] += inicioEntrada[v];
+        }
+
+        // Distribuição das arestas (ordenação por contagem, estável)
+        this.destinos = new int[m];
+        this.pesos = new double[m];
+        this.origens = new int[m];
+        this.pesosEntrada = new double[m];
+        this.arestaDireta = new int[m];
+        int[] proximaSaida = new int[n];
+        int[] proximaEntrada = new int[n];
+        for (int e = 0; e < m; e++) {
+            int u = origensArestas[e];
+            int v = destinosArestas[e];
+            int posSaida = inicioSaida[u] + proximaSaida[u]++;
+            destinos[posSaida] = v;
+            pesos[posSaida] = pesosArestas[e];
+
+            int posEntrada = inicioEntrada[v] + proximaEntrada[v]++;
+            origens[posEntrada] = u;
+            pesosEntrada[posEntrada] = pesosArestas[e];
+            arestaDireta[posEntrada] = posSaida;
+        }
+    }
+
+    TabelaDeVertices<T> getTabela() {
+        return vertices;
+    }
+
+    @Override
+    public int getNumeroVertices() {
+        return vertices.tamanho();
+    }
+
+    @Override
+    public int getNumeroArestas() {
+        return destinos.length;
+    }
+
+    @Override
+    public Vertice<T> getVertice(int indice) {
+        return vertices.getVertice(indice);
+    }
+
+    @Override
+    public T getDado(int indice) {
+        return vertices.getDado(indice);
+    }
+
+    @Override
+    public int getIndice(T dado) {
+        return vertices.getIndice(dado);
+    }
+
+    @Override
+    public List<Vertice<T>> getVertices() {
+        return vertices.getVertices();
+    }
+
+    @Override
+    public int inicioSaida(int v) {
+        return inicioSaida[v];
+    }
+
+    @Override
+    public int fimSaida(int v) {
+        return inicioSaida[v + 1];
+    }
+
+    @Override
+    public int destino(int aresta) {
+        return destinos[aresta];
+    }
+
+    @Override
+    public double peso(int aresta) {
+        return pesos[aresta];
+    }
+
+    @Override
+    public int inicioEntrada(int v) {
+        return inicioEntrada[v];
+    }
+
+    @Override
+    public int fimEntrada(int v) {
+        return inicioEntrada[v + 1];
+    }
+
+    @Override
+    public int origem(int arestaEntrada) {
+        return origens[arestaEntrada];
+    }
+
+    @Override
+    public double pesoEntrada(int arestaEntrada) {
+        return pesosEntrada[arestaEntrada];
+    }
+
+    @Override
+    public int arestaDireta(int arestaEntrada) {
+        return arestaDireta[arestaEntrada];
+    }
+}
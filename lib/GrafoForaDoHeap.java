@@ -0,0 +1,277 @@
+package lib;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * {@link GrafoCompacto} de {@link Localidade}s guardado inteiro fora do heap, com liberação
+ * explícita da memória.
+ * <p>
+ * Topologia, pesos, coordenadas e nomes ficam em buffers diretos ({@link ByteBuffer#allocateDirect}),
+ * uma seção por buffer, no mesmo leiaute do {@link GrafoBinario}. O heap guarda só alguns
+ * objetos por grafo, qualquer que seja o tamanho do mapa: a coleta de lixo não percorre nem
+ * copia as arestas, e as pausas não crescem com o mapa. Os algoritmos rodam sobre ele pela
+ * mesma interface de {@link GrafoCompacto}; os vértices são criados sob demanda, e as
+ * coordenadas usadas pelas heurísticas do A* são lidas direto da seção de coordenadas
+ * ({@link GrafoComCoordenadas}), sem criar objetos: em regime, uma consulta só aloca a rota
+ * devolvida.
+ * <p>
+ * Diferente do arquivo mapeado de {@link GrafoBinario#abrir}, o grafo fica residente desde a
+ * carga (nenhuma consulta espera o disco) e a memória é devolvida ao sistema em
+ * {@link #close()}, e não quando o coletor decidir. Depois de fechado, qualquer acesso lança
+ * {@link IllegalStateException}. O fechamento só pode ser feito quando nenhuma consulta estiver
+ * em andamento: uma consulta concorrente poderia ler memória já liberada. Cabe a quem fecha
+ * garantir que o fim de cada consulta aconteça antes de {@link #close()} (por exemplo,
+ * esperando os futuros ou com {@link java.util.concurrent.ExecutorService#awaitTermination});
+ * o campo volátil só garante que as consultas começadas depois do fechamento o enxerguem e
+ * falhem, em vez de lerem a memória liberada.
+ * <p>
+ * A memória direta é limitada por {@code -XX:MaxDirectMemorySize} (por padrão, o tamanho máximo
+ * do heap); para mapas grandes, aumente esse limite em vez do heap.
+ */
+public final class GrafoForaDoHeap extends GrafoCompacto<Localidade> implements GrafoComCoordenadas, AutoCloseable {
+
+    private static final Liberador LIBERADOR = criarLiberador();
+
+    private final ByteBuffer[] secoes;
+    private final long bytes;
+    // Volátil: uma thread que comece a ler depois do close() precisa ver o campo nulo
+    private volatile GrafoBinario grafo;
+
+    private GrafoForaDoHeap(int n, int m, ByteBuffer[] secoes) {
+        this.secoes = secoes;
+        long total = 0;
+        for (ByteBuffer secao : secoes) {
+            total += secao.capacity();
+        }
+        this.bytes = total;
+        this.grafo = new GrafoBinario(n, m, secoes);
+    }
+
+    /**
+     * Copia um grafo compacto para fora do heap, preservando os índices dos vértices e as
+     * posições das arestas. Depois da cópia, o grafo original pode ser descartado.
+     * @param grafo O grafo a ser copiado.
+     * @return A cópia fora do heap.
+     * @throws IllegalArgumentException se alguma seção passar de 2 GB.
+     */
+    public static GrafoForaDoHeap copiar(GrafoCompacto<Localidade> grafo) {
+        ByteBuffer[] secoes = new ByteBuffer[GrafoBinario.NUMERO_SECOES];
+        try {
+            EscritorDeGrafo.escreverEmMemoria(grafo, secoes);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            liberar(secoes);
+            throw e;
+        }
+        return new GrafoForaDoHeap(grafo.getNumeroVertices(), grafo.getNumeroArestas(), secoes);
+    }
+
+    /**
+     * Carrega para fora do heap um arquivo gravado por {@link GrafoBinario#gravar}. O arquivo é
+     * lido inteiro e pode ser apagado ou substituído em seguida.
+     * @param arquivo O arquivo binário.
+     * @return O grafo carregado.
+     * @throws IOException se o arquivo não puder ser lido.
+     * @throws IllegalArgumentException se o arquivo não estiver no formato esperado.
+     */
+    public static GrafoForaDoHeap carregar(Path arquivo) throws IOException {
+        GrafoBinario mapeado = GrafoBinario.abrir(arquivo);
+        ByteBuffer[] mapeadas = mapeado.getSecoes();
+        ByteBuffer[] secoes = new ByteBuffer[GrafoBinario.NUMERO_SECOES];
+        try {
+            for (int s = 0; s < secoes.length; s++) {
+                secoes[s] = ByteBuffer.allocateDirect(mapeadas[s].capacity());
+                secoes[s].put(mapeadas[s].duplicate()).clear();
+            }
+        } catch (RuntimeException | OutOfMemoryError e) {
+            liberar(secoes);
+            throw e;
+        } finally {
+            // Desfaz o mapeamento já, sem esperar a coleta do buffer
+            liberar(mapeadas);
+        }
+        return new GrafoForaDoHeap(mapeado.getNumeroVertices(), mapeado.getNumeroArestas(), secoes);
+    }
+
+    /**
+     * Retorna quantos bytes o grafo ocupa fora do heap.
+     */
+    public long getBytesForaDoHeap() {
+        return bytes;
+    }
+
+    public boolean isAberto() {
+        return grafo != null;
+    }
+
+    /**
+     * Libera a memória do grafo. Chamadas repetidas não têm efeito.
+     */
+    @Override
+    public synchronized void close() {
+        if (grafo != null) {
+            grafo = null;
+            liberar(secoes);
+        }
+    }
+
+    private GrafoBinario aberto() {
+        GrafoBinario atual = grafo;
+        if (atual == null) {
+            throw new IllegalStateException("O grafo fora do heap já foi fechado.");
+        }
+        return atual;
+    }
+
+    /**
+     * Retorna a localidade de um vértice.
+     */
+    public Localidade getLocalidade(int indice) {
+        return aberto().getLocalidade(indice);
+    }
+
+    @Override
+    public int getNumeroVertices() {
+        return aberto().getNumeroVertices();
+    }
+
+    @Override
+    public int getNumeroArestas() {
+        return aberto().getNumeroArestas();
+    }
+
+    @Override
+    public Vertice<Localidade> getVertice(int indice) {
+        return aberto().getVertice(indice);
+    }
+
+    @Override
+    public Localidade getDado(int indice) {
+        return aberto().getLocalidade(indice);
+    }
+
+    @Override
+    public int getX(int indice) {
+        return aberto().getX(indice);
+    }
+
+    @Override
+    public int getY(int indice) {
+        return aberto().getY(indice);
+    }
+
+    @Override
+    public int getIndice(Localidade dado) {
+        return aberto().getIndice(dado);
+    }
+
+    @Override
+    public List<Vertice<Localidade>> getVertices() {
+        return aberto().getVertices();
+    }
+
+    @Override
+    public int inicioSaida(int v) {
+        return aberto().inicioSaida(v);
+    }
+
+    @Override
+    public int fimSaida(int v) {
+        return aberto().fimSaida(v);
+    }
+
+    @Override
+    public int destino(int aresta) {
+        return aberto().destino(aresta);
+    }
+
+    @Override
+    public double peso(int aresta) {
+        return aberto().peso(aresta);
+    }
+
+    @Override
+    public int inicioEntrada(int v) {
+        return aberto().inicioEntrada(v);
+    }
+
+    @Override
+    public int fimEntrada(int v) {
+        return aberto().fimEntrada(v);
+    }
+
+    @Override
+    public int origem(int arestaEntrada) {
+        return aberto().origem(arestaEntrada);
+    }
+
+    @Override
+    public double pesoEntrada(int arestaEntrada) {
+        return aberto().pesoEntrada(arestaEntrada);
+    }
+
+    @Override
+    public int arestaDireta(int arestaEntrada) {
+        return aberto().arestaDireta(arestaEntrada);
+    }
+
+    @Override
+    public String toString() {
+        return isAberto()
+                ? String.format("GrafoForaDoHeap{vertices=%d, arestas=%d, bytes=%d}",
+                        getNumeroVertices(), getNumeroArestas(), bytes)
+                : "GrafoForaDoHeap{fechado}";
+    }
+
+    // --- Liberação explícita de buffers diretos ---
+
+    private interface Liberador {
+        void liberar(ByteBuffer buffer) throws ReflectiveOperationException;
+    }
+
+    private static void liberar(ByteBuffer[] buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer != null && buffer.isDirect()) {
+                try {
+                    LIBERADOR.liberar(buffer);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // Sem acesso ao mecanismo interno: a memória volta ao sistema na coleta do buffer
+                }
+            }
+        }
+    }
+
+    /**
+     * A API padrão não libera um buffer direto antes da coleta. A partir do Java 9 há
+     * {@code Unsafe.invokeCleaner}; no Java 8, o {@code cleaner()} do próprio buffer. Se nenhum
+     * dos dois estiver acessível, a liberação fica para o coletor.
+     */
+    private static Liberador criarLiberador() {
+        try {
+            Class<?> classeUnsafe = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = classeUnsafe.getMethod("invokeCleaner", ByteBuffer.class);
+            Field campo = classeUnsafe.getDeclaredField("theUnsafe");
+            campo.setAccessible(true);
+            Object unsafe = campo.get(null);
+            return buffer -> invokeCleaner.invoke(unsafe, buffer);
+        } catch (ReflectiveOperationException | RuntimeException java9) {
+            try {
+                Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                return buffer -> {
+                    Object limpador = cleaner.invoke(buffer);
+                    if (limpador != null) {
+                        clean.invoke(limpador);
+                    }
+                };
+            } catch (ReflectiveOperationException | RuntimeException java8) {
+                return buffer -> {
+                };
+            }
+        }
+    }
+}
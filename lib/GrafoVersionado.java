@@ -0,0 +1,222 @@
+package lib;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Grafo compacto que aceita alterações (novo peso de aresta, remoção de aresta e remoção de
+ * vértice) enquanto consultas de rota continuam rodando, por meio de versões imutáveis
+ * (MVCC com cópia na escrita).
+ * <p>
+ * Leitores chamam {@link #fotografia()} e recebem, sem travas, a versão publicada mais
+ * recente: um {@link GrafoCompacto} comum, que nunca muda e pode ser usado por qualquer
+ * algoritmo pelo tempo que for preciso. Escritores agrupam alterações em
+ * {@link #atualizar}; elas são aplicadas em um rascunho e publicadas de uma só vez, então
+ * nenhum leitor vê uma atualização pela metade. Escritas concorrentes são serializadas.
+ * <p>
+ * Os vetores de arestas são divididos em blocos de 4096 posições e cada versão copia apenas
+ * os blocos que alterou; o restante é compartilhado com a versão anterior. Uma atualização
+ * de peso custa, portanto, algumas cópias de blocos, e não uma cópia do grafo inteiro.
+ * Remoções deixam restos (arestas de peso infinito e vértices marcados) que ocupam espaço
+ * até que a fração removida passe de um quarto; nesse ponto a versão publicada é
+ * compactada, com novos índices para os vértices.
+ * <p>
+ * Vértices removidos continuam em {@link GrafoCompacto#getVertices()} até a compactação,
+ * mas {@link GrafoCompacto#getIndice} já não os encontra. Resultados pré-calculados sobre
+ * uma versão (hierarquias de contração, landmarks) não valem para as seguintes.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+public final class GrafoVersionado<T> {
+
+    private static final double FRACAO_COMPACTACAO = 0.25;
+
+    private volatile GrafoEmBlocos<T> atual;
+
+    /**
+     * Cria o grafo versionado a partir de uma fotografia do grafo.
+     */
+    public GrafoVersionado(Grafo<T> grafo) {
+        this(grafo.congelar());
+    }
+
+    /**
+     * Cria o grafo versionado a partir de um grafo compacto, que é copiado.
+     */
+    public GrafoVersionado(GrafoCompacto<T> grafo) {
+        GrafoEmBlocos<T> inicial = new GrafoEmBlocos<>(Objects.requireNonNull(grafo, "O grafo não pode ser nulo."), 0);
+        inicial.publicar();
+        this.atual = inicial;
+    }
+
+    /**
+     * Retorna a versão publicada mais recente. Não bloqueia e nunca vê alterações parciais.
+     */
+    public GrafoCompacto<T> fotografia() {
+        return atual;
+    }
+
+    /**
+     * Número da versão publicada mais recente; começa em 0 e aumenta a cada atualização.
+     */
+    public long getVersao() {
+        return atual.getVersao();
+    }
+
+    /**
+     * Aplica um lote de alterações e publica o resultado como uma nova versão. Se o lote
+     * lançar uma exceção, nada é publicado.
+     *
+     * @param alteracoes O código que faz as alterações por meio da {@link Edicao} recebida.
+     * @return O número da versão publicada.
+     */
+    public synchronized long atualizar(Consumer<Edicao<T>> alteracoes) {
+        Edicao<T> edicao = new Edicao<>(atual.rascunho());
+        alteracoes.accept(edicao);
+        GrafoEmBlocos<T> nova = edicao.concluir();
+        if (nova.getArestasRemovidas() > FRACAO_COMPACTACAO * nova.getNumeroArestas()
+                || nova.getVerticesRemovidos() > FRACAO_COMPACTACAO * nova.getNumeroVertices()) {
+            nova = nova.compactar();
+            nova.publicar();
+        }
+        atual = nova;
+        return nova.getVersao();
+    }
+
+    /**
+     * Troca o peso de todas as arestas de {@code origem} para {@code destino} e publica.
+     * @return O número de arestas alteradas.
+     */
+    public int alterarPeso(T origem, T destino, double novoPeso) {
+        int[] alteradas = new int[1];
+        atualizar(edicao -> alteradas[0] = edicao.alterarPeso(origem, destino, novoPeso));
+        return alteradas[0];
+    }
+
+    /**
+     * Remove todas as arestas de {@code origem} para {@code destino} e publica.
+     * @return O número de arestas removidas.
+     */
+    public int removerAresta(T origem, T destino) {
+        int[] removidas = new int[1];
+        atualizar(edicao -> removidas[0] = edicao.removerAresta(origem, destino));
+        return removidas[0];
+    }
+
+    /**
+     * Remove um vértice e todas as suas arestas e publica.
+     * @return true se o vértice existia.
+     */
+    public boolean removerVertice(T dado) {
+        boolean[] removido = new boolean[1];
+        atualizar(edicao -> removido[0] = edicao.removerVertice(dado));
+        return removido[0];
+    }
+
+    /**
+     * Alterações de um lote, válidas apenas dentro de {@link GrafoVersionado#atualizar}.
+     * As consultas feitas pela edição já enxergam as alterações anteriores do mesmo lote.
+     *
+     * @param <T> O tipo de dado armazenado nos vértices.
+     */
+    public static final class Edicao<T> {
+
+        private GrafoEmBlocos<T> rascunho;
+
+        private Edicao(GrafoEmBlocos<T> rascunho) {
+            this.rascunho = rascunho;
+        }
+
+        /**
+         * Troca o peso de todas as arestas de {@code origem} para {@code destino}. O peso
+         * infinito é recusado: um laço com esse peso não se distinguiria do resto de uma
+         * remoção. Para tirar a aresta, use {@link #removerAresta}.
+         * @return O número de arestas alteradas.
+         * @throws IllegalArgumentException se um dos vértices não existir ou o peso não for
+         *         finito e não negativo.
+         */
+        public int alterarPeso(T origem, T destino, double novoPeso) {
+            if (!(novoPeso >= 0.0) || Double.isInfinite(novoPeso)) {
+                throw new IllegalArgumentException("O peso deve ser um número finito e não negativo.");
+            }
+            GrafoEmBlocos<T> grafo = rascunho();
+            int u = indice(grafo, origem);
+            int v = indice(grafo, destino);
+            int alteradas = 0;
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                if (grafo.destino(e) == v && !grafo.isArestaRemovida(u, e)) {
+                    grafo.definirPeso(e, novoPeso);
+                    alteradas++;
+                }
+            }
+            return alteradas;
+        }
+
+        /**
+         * Remove todas as arestas de {@code origem} para {@code destino}.
+         * @return O número de arestas removidas.
+         * @throws IllegalArgumentException se um dos vértices não existir.
+         */
+        public int removerAresta(T origem, T destino) {
+            GrafoEmBlocos<T> grafo = rascunho();
+            int u = indice(grafo, origem);
+            int v = indice(grafo, destino);
+            int removidas = 0;
+            for (int e = grafo.inicioSaida(u), fim = grafo.fimSaida(u); e < fim; e++) {
+                if (grafo.destino(e) == v && !grafo.isArestaRemovida(u, e)) {
+                    grafo.removerAresta(u, e);
+                    removidas++;
+                }
+            }
+            return removidas;
+        }
+
+        /**
+         * Remove um vértice e todas as arestas que saem dele ou chegam nele.
+         * @return true se o vértice existia.
+         */
+        public boolean removerVertice(T dado) {
+            GrafoEmBlocos<T> grafo = rascunho();
+            int x = grafo.getIndice(dado);
+            if (x < 0) {
+                return false;
+            }
+            for (int e = grafo.inicioSaida(x), fim = grafo.fimSaida(x); e < fim; e++) {
+                if (!grafo.isArestaRemovida(x, e)) {
+                    grafo.removerAresta(x, e);
+                }
+            }
+            for (int i = grafo.inicioEntrada(x), fim = grafo.fimEntrada(x); i < fim; i++) {
+                int u = grafo.origem(i);
+                int e = grafo.arestaDireta(i);
+                if (u != x && !grafo.isArestaRemovida(u, e)) {
+                    grafo.removerAresta(u, e);
+                }
+            }
+            grafo.marcarRemovido(x);
+            return true;
+        }
+
+        private static <T> int indice(GrafoEmBlocos<T> grafo, T dado) {
+            int indice = grafo.getIndice(dado);
+            if (indice < 0) {
+                throw new IllegalArgumentException("Vértice com dado '" + dado + "' não encontrado.");
+            }
+            return indice;
+        }
+
+        private GrafoEmBlocos<T> rascunho() {
+            if (rascunho == null) {
+                throw new IllegalStateException("A edição já foi concluída.");
+            }
+            return rascunho;
+        }
+
+        private GrafoEmBlocos<T> concluir() {
+            GrafoEmBlocos<T> grafo = rascunho();
+            grafo.publicar();
+            rascunho = null;
+            return grafo;
+        }
+    }
+}
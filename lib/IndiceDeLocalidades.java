@@ -0,0 +1,346 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Índices sobre as localidades de um {@link Grafo}: uma grade espacial uniforme sobre as
+ * coordenadas, para achar os vértices mais próximos de um ponto ou dentro de um raio, e um
+ * índice de nomes sem distinção de maiúsculas e minúsculas, com busca por prefixo.
+ * <p>
+ * A grade divide o plano em células quadradas guardadas em um mapa de espalhamento (só as
+ * células ocupadas existem), com lado escolhido para que cada uma tenha poucos pontos. Uma
+ * busca pelos mais próximos examina anéis de células em volta do ponto e para assim que
+ * nenhuma célula ainda não vista pode conter um ponto melhor.
+ * <p>
+ * O índice acompanha o grafo: antes de cada consulta, se a {@link Grafo#getVersao() versão}
+ * mudou, apenas os vértices adicionados desde a última consulta são inseridos. Quando o
+ * número de pontos dobra, a grade é refeita com um novo lado de célula. Instâncias não são
+ * seguras para uso concorrente.
+ */
+public final class IndiceDeLocalidades {
+
+    // Pontos por célula desejados ao escolher o lado da grade
+    private static final double PONTOS_POR_CELULA = 2.0;
+
+    private final Grafo<Localidade> grafo;
+    private long versaoIndexada = -1;
+
+    // Pontos indexados, na ordem de inserção do grafo
+    private final List<Vertice<Localidade>> vertices = new ArrayList<>();
+    private int[] xs = new int[16];
+    private int[] ys = new int[16];
+
+    // Grade espacial
+    private final Map<Long, Celula> celulas = new HashMap<>();
+    private double lado = 1.0;
+    private int tamanhoNaConstrucao;
+    private int celulaMinX, celulaMaxX, celulaMinY, celulaMaxY;
+
+    // Nomes em minúsculas; cada nome aponta para os vértices que o usam, na ordem de inserção
+    private final TreeMap<String, List<Vertice<Localidade>>> nomes = new TreeMap<>();
+
+    /**
+     * Cria os índices sobre todos os vértices atuais do grafo.
+     */
+    public IndiceDeLocalidades(Grafo<Localidade> grafo) {
+        this.grafo = Objects.requireNonNull(grafo, "O grafo não pode ser nulo.");
+        atualizar();
+    }
+
+    /**
+     * Insere nos índices os vértices adicionados ao grafo desde a última atualização.
+     * É chamado automaticamente pelas consultas.
+     */
+    public void atualizar() {
+        long versao = grafo.getVersao();
+        if (versao == versaoIndexada) {
+            return;
+        }
+        List<Vertice<Localidade>> todos = grafo.getVerticesEmOrdemDeInsercao();
+        int anteriores = vertices.size();
+        for (int i = anteriores; i < todos.size(); i++) {
+            adicionar(todos.get(i));
+        }
+        if (vertices.size() > 2 * tamanhoNaConstrucao) {
+            reconstruirGrade();
+        } else {
+            for (int id = anteriores; id < vertices.size(); id++) {
+                inserirNaGrade(id);
+            }
+        }
+        versaoIndexada = versao;
+    }
+
+    private void adicionar(Vertice<Localidade> vertice) {
+        int id = vertices.size();
+        if (id == xs.length) {
+            xs = Arrays.copyOf(xs, id * 2);
+            ys = Arrays.copyOf(ys, id * 2);
+        }
+        Localidade localidade = vertice.getDado();
+        vertices.add(vertice);
+        xs[id] = localidade.getX();
+        ys[id] = localidade.getY();
+        nomes.computeIfAbsent(normalizar(localidade.getNome()), chave -> new ArrayList<>(1)).add(vertice);
+    }
+
+    // Escolhe o lado da célula pela área ocupada e redistribui todos os pontos
+    private void reconstruirGrade() {
+        int n = vertices.size();
+        long minX = Long.MAX_VALUE, maxX = Long.MIN_VALUE, minY = Long.MAX_VALUE, maxY = Long.MIN_VALUE;
+        for (int id = 0; id < n; id++) {
+            minX = Math.min(minX, xs[id]);
+            maxX = Math.max(maxX, xs[id]);
+            minY = Math.min(minY, ys[id]);
+            maxY = Math.max(maxY, ys[id]);
+        }
+        double area = (double) (maxX - minX + 1) * (maxY - minY + 1);
+        lado = Math.max(1.0, Math.sqrt(area * PONTOS_POR_CELULA / n));
+        celulas.clear();
+        celulaMinX = celulaMinY = Integer.MAX_VALUE;
+        celulaMaxX = celulaMaxY = Integer.MIN_VALUE;
+        for (int id = 0; id < n; id++) {
+            inserirNaGrade(id);
+        }
+        tamanhoNaConstrucao = n;
+    }
+
+    private void inserirNaGrade(int id) {
+        int cx = celula(xs[id]);
+        int cy = celula(ys[id]);
+        celulas.computeIfAbsent(chave(cx, cy), c -> new Celula()).adicionar(id);
+        celulaMinX = Math.min(celulaMinX, cx);
+        celulaMaxX = Math.max(celulaMaxX, cx);
+        celulaMinY = Math.min(celulaMinY, cy);
+        celulaMaxY = Math.max(celulaMaxY, cy);
+    }
+
+    private int celula(double coordenada) {
+        return (int) Math.floor(coordenada / lado);
+    }
+
+    private static long chave(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private static String normalizar(String nome) {
+        return nome.toLowerCase(Locale.ROOT);
+    }
+
+    // --- Consultas por nome ---
+
+    /**
+     * Procura um vértice pelo nome, sem distinguir maiúsculas de minúsculas. Se mais de uma
+     * localidade tiver o mesmo nome nessas condições, devolve a primeira adicionada.
+     *
+     * @param nome O nome procurado.
+     * @return O vértice ou null se nenhum tiver esse nome.
+     */
+    public Vertice<Localidade> buscarPorNome(String nome) {
+        atualizar();
+        List<Vertice<Localidade>> encontrados = nomes.get(normalizar(nome));
+        return encontrados == null ? null : encontrados.get(0);
+    }
+
+    /**
+     * Lista os vértices cujo nome começa com o prefixo (sem distinguir maiúsculas de
+     * minúsculas), em ordem alfabética.
+     *
+     * @param prefixo O início do nome.
+     * @param limite O número máximo de vértices devolvidos.
+     * @return Uma lista com até {@code limite} vértices.
+     */
+    public List<Vertice<Localidade>> buscarPorPrefixo(String prefixo, int limite) {
+        atualizar();
+        String chave = normalizar(prefixo);
+        List<Vertice<Localidade>> resultado = new ArrayList<>();
+        for (Map.Entry<String, List<Vertice<Localidade>>> entrada : nomes.tailMap(chave, true).entrySet()) {
+            if (!entrada.getKey().startsWith(chave)) {
+                break;
+            }
+            for (Vertice<Localidade> vertice : entrada.getValue()) {
+                if (resultado.size() == limite) {
+                    return resultado;
+                }
+                resultado.add(vertice);
+            }
+        }
+        return resultado;
+    }
+
+    // --- Consultas espaciais ---
+
+    /**
+     * Encontra o vértice mais próximo de um ponto (distância euclidiana).
+     *
+     * @return O vértice mais próximo ou null se o grafo estiver vazio.
+     */
+    public Vertice<Localidade> maisProximo(double x, double y) {
+        List<Vertice<Localidade>> proximos = maisProximos(x, y, 1);
+        return proximos.isEmpty() ? null : proximos.get(0);
+    }
+
+    /**
+     * Encontra os {@code k} vértices mais próximos de um ponto, do mais perto para o mais
+     * longe. Empates são desfeitos pela ordem de inserção no grafo.
+     *
+     * @param x A coordenada x do ponto.
+     * @param y A coordenada y do ponto.
+     * @param k O número de vértices desejados.
+     * @return Uma lista com até {@code k} vértices.
+     */
+    public List<Vertice<Localidade>> maisProximos(double x, double y, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("O número de vértices deve ser positivo.");
+        }
+        atualizar();
+        if (vertices.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Fila com o pior candidato no topo
+        PriorityQueue<Candidato> melhores = new PriorityQueue<>(Math.min(k, 64), (a, b) -> b.compareTo(a));
+        int cx = celula(x);
+        int cy = celula(y);
+        // Os anéis começam no primeiro que toca as células ocupadas e terminam no que as cobre
+        int primeiroAnel = Math.max(Math.max(celulaMinX - cx, cx - celulaMaxX), Math.max(celulaMinY - cy, cy - celulaMaxY));
+        int ultimoAnel = Math.max(Math.max(cx - celulaMinX, celulaMaxX - cx), Math.max(cy - celulaMinY, celulaMaxY - cy));
+        for (int anel = Math.max(0, primeiroAnel); anel <= ultimoAnel; anel++) {
+            // Só a parte do anel dentro do retângulo das células ocupadas é visitada
+            int dx0 = Math.max(-anel, celulaMinX - cx), dx1 = Math.min(anel, celulaMaxX - cx);
+            int dy0 = Math.max(-anel, celulaMinY - cy), dy1 = Math.min(anel, celulaMaxY - cy);
+            for (int dx = dx0; dx <= dx1; dx++) {
+                boolean borda = dx == -anel || dx == anel;
+                for (int dy = dy0; dy <= dy1; dy++) {
+                    if (!borda && dy != -anel && dy != anel) {
+                        // No meio do anel só as pontas de cada coluna pertencem a ele
+                        if (dy < anel) {
+                            dy = anel - 1;
+                        }
+                        continue;
+                    }
+                    Celula celula = celulas.get(chave(cx + dx, cy + dy));
+                    if (celula != null) {
+                        for (int i = 0; i < celula.tamanho; i++) {
+                            int id = celula.ids[i];
+                            Candidato candidato = new Candidato(id, distancia2(id, x, y));
+                            if (melhores.size() < k) {
+                                melhores.add(candidato);
+                            } else if (candidato.compareTo(melhores.peek()) < 0) {
+                                melhores.poll();
+                                melhores.add(candidato);
+                            }
+                        }
+                    }
+                }
+            }
+            // Qualquer ponto fora dos anéis já vistos está a pelo menos 'anel * lado' do ponto
+            double limite = anel * lado;
+            if (melhores.size() == k && melhores.peek().distancia2 <= limite * limite) {
+                break;
+            }
+        }
+        Candidato[] ordenados = melhores.toArray(new Candidato[0]);
+        Arrays.sort(ordenados);
+        List<Vertice<Localidade>> resultado = new ArrayList<>(ordenados.length);
+        for (Candidato candidato : ordenados) {
+            resultado.add(vertices.get(candidato.id));
+        }
+        return resultado;
+    }
+
+    /**
+     * Lista os vértices a no máximo {@code raio} de um ponto, do mais perto para o mais longe.
+     */
+    public List<Vertice<Localidade>> noRaio(double x, double y, double raio) {
+        if (!(raio >= 0.0)) {
+            throw new IllegalArgumentException("O raio não pode ser negativo.");
+        }
+        atualizar();
+        List<Candidato> dentro = new ArrayList<>();
+        double raio2 = raio * raio;
+        int x0 = Math.max(celula(x - raio), celulaMinX);
+        int x1 = Math.min(celula(x + raio), celulaMaxX);
+        int y0 = Math.max(celula(y - raio), celulaMinY);
+        int y1 = Math.min(celula(y + raio), celulaMaxY);
+        if ((double) (x1 - x0 + 1) * (y1 - y0 + 1) > celulas.size()) {
+            // Raio grande: é mais barato olhar cada célula ocupada do que cada posição da grade
+            for (Celula celula : celulas.values()) {
+                coletar(celula, x, y, raio2, dentro);
+            }
+        } else {
+            for (int cx = x0; cx <= x1; cx++) {
+                for (int cy = y0; cy <= y1; cy++) {
+                    Celula celula = celulas.get(chave(cx, cy));
+                    if (celula != null) {
+                        coletar(celula, x, y, raio2, dentro);
+                    }
+                }
+            }
+        }
+        Collections.sort(dentro);
+        List<Vertice<Localidade>> resultado = new ArrayList<>(dentro.size());
+        for (Candidato candidato : dentro) {
+            resultado.add(vertices.get(candidato.id));
+        }
+        return resultado;
+    }
+
+    private void coletar(Celula celula, double x, double y, double raio2, List<Candidato> dentro) {
+        for (int i = 0; i < celula.tamanho; i++) {
+            int id = celula.ids[i];
+            double distancia2 = distancia2(id, x, y);
+            if (distancia2 <= raio2) {
+                dentro.add(new Candidato(id, distancia2));
+            }
+        }
+    }
+
+    private double distancia2(int id, double x, double y) {
+        double dx = xs[id] - x;
+        double dy = ys[id] - y;
+        return dx * dx + dy * dy;
+    }
+
+    /** Número de vértices indexados. */
+    public int tamanho() {
+        atualizar();
+        return vertices.size();
+    }
+
+    private static final class Celula {
+        int[] ids = new int[4];
+        int tamanho;
+
+        void adicionar(int id) {
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+            }
+            ids[tamanho++] = id;
+        }
+    }
+
+    private static final class Candidato implements Comparable<Candidato> {
+        final int id;
+        final double distancia2;
+
+        Candidato(int id, double distancia2) {
+            this.id = id;
+            this.distancia2 = distancia2;
+        }
+
+        @Override
+        public int compareTo(Candidato outro) {
+            int comparacao = Double.compare(distancia2, outro.distancia2);
+            return comparacao != 0 ? comparacao : Integer.compare(id, outro.id);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package lib;
+
+import java.util.Arrays;
+
+/**
+ * Tempos de viagem que variam com o horário, para as arestas de um {@link GrafoCompacto}.
+ * <p>
+ * Cada perfil é uma função linear por partes e periódica (por exemplo, ao longo de um dia)
+ * que dá um fator multiplicativo sobre o peso estático da aresta: o tempo para atravessar
+ * a aresta {@code e} saindo no instante {@code t} é {@code peso(e) * fator(t)}. Assim, um
+ * único perfil ("hora do rush no centro") serve a milhares de arestas de comprimentos
+ * diferentes. Arestas sem perfil mantêm o peso estático.
+ * <p>
+ * Os pontos de todos os perfis ficam em vetores primitivos compartilhados, no mesmo estilo
+ * CSR do grafo: os pontos do perfil {@code p} ocupam as posições
+ * {@code [inicioPerfil[p], inicioPerfil[p + 1])}. Por aresta há só um {@code int} com o
+ * número do perfil.
+ * <p>
+ * Para que o Dijkstra dependente do tempo seja correto, toda aresta precisa respeitar a
+ * propriedade FIFO (sair mais tarde nunca faz chegar mais cedo), ou seja,
+ * {@code peso(e) * declive >= -1} em todos os trechos do perfil; isso é verificado ao
+ * associar um perfil a uma aresta. Instâncias são imutáveis.
+ */
+public final class PerfisDeTempo {
+
+    private static final int SEM_PERFIL = -1;
+
+    private final GrafoCompacto<?> grafo;
+    private final double periodo;
+    private final int[] perfilDaAresta;
+    private final int[] inicioPerfil;
+    private final double[] horarios;
+    private final double[] fatores;
+    // Declive do trecho que começa em cada ponto (até o ponto seguinte, ou até o primeiro no próximo período)
+    private final double[] declives;
+    private final double menorFator;
+
+    private PerfisDeTempo(Construtor construtor) {
+        this.grafo = construtor.grafo;
+        this.periodo = construtor.periodo;
+        this.perfilDaAresta = construtor.perfilDaAresta.clone();
+        int perfis = construtor.quantidadePerfis;
+        this.inicioPerfil = Arrays.copyOf(construtor.inicioPerfil, perfis + 1);
+        int pontos = inicioPerfil[perfis];
+        this.horarios = Arrays.copyOf(construtor.horarios, pontos);
+        this.fatores = Arrays.copyOf(construtor.fatores, pontos);
+        this.declives = Arrays.copyOf(construtor.declives, pontos);
+
+        double menor = 1.0;
+        boolean[] usado = new boolean[perfis];
+        for (int perfil : perfilDaAresta) {
+            if (perfil != SEM_PERFIL) {
+                usado[perfil] = true;
+            }
+        }
+        for (int p = 0; p < perfis; p++) {
+            if (usado[p]) {
+                for (int i = inicioPerfil[p]; i < inicioPerfil[p + 1]; i++) {
+                    menor = Math.min(menor, fatores[i]);
+                }
+            }
+        }
+        this.menorFator = menor;
+    }
+
+    /**
+     * Inicia a montagem dos perfis de um grafo.
+     *
+     * @param grafo O grafo cujas arestas receberão perfis.
+     * @param periodo A duração do ciclo dos perfis (por exemplo, 86400 segundos ou 1440 minutos).
+     */
+    public static Construtor construtor(GrafoCompacto<?> grafo, double periodo) {
+        return new Construtor(grafo, periodo);
+    }
+
+    /**
+     * Tempo para atravessar a aresta de saída {@code aresta} partindo no instante {@code partida}.
+     */
+    public double tempoDeViagem(int aresta, double partida) {
+        int perfil = perfilDaAresta[aresta];
+        double peso = grafo.peso(aresta);
+        return perfil == SEM_PERFIL ? peso : peso * fator(perfil, partida);
+    }
+
+    /**
+     * Valor do perfil no instante dado, interpolado linearmente entre os pontos vizinhos.
+     */
+    public double fator(int perfil, double instante) {
+        int inicio = inicioPerfil[perfil];
+        int fim = inicioPerfil[perfil + 1];
+        double t = instante % periodo;
+        if (t < 0) {
+            t += periodo;
+        }
+        // Último ponto com horário <= t; antes do primeiro ponto vale o trecho que vem do último
+        int baixo = inicio, alto = fim - 1;
+        if (t < horarios[inicio]) {
+            baixo = alto;
+            t += periodo;
+        } else {
+            while (baixo < alto) {
+                int meio = (baixo + alto + 1) >>> 1;
+                if (horarios[meio] <= t) {
+                    baixo = meio;
+                } else {
+                    alto = meio - 1;
+                }
+            }
+        }
+        return fatores[baixo] + declives[baixo] * (t - horarios[baixo]);
+    }
+
+    /**
+     * Menor fator entre os perfis em uso (no máximo 1). Multiplicar uma estimativa admissível
+     * para os pesos estáticos por esse valor a mantém admissível para os tempos variáveis.
+     */
+    public double getMenorFator() {
+        return menorFator;
+    }
+
+    public double getPeriodo() {
+        return periodo;
+    }
+
+    public int getNumeroPerfis() {
+        return inicioPerfil.length - 1;
+    }
+
+    /**
+     * Retorna o perfil da aresta de saída {@code aresta}, ou -1 se ela usa o peso estático.
+     */
+    public int getPerfil(int aresta) {
+        return perfilDaAresta[aresta];
+    }
+
+    /**
+     * Indica se os perfis foram montados para este grafo.
+     */
+    public boolean pertenceA(GrafoCompacto<?> outro) {
+        return grafo == outro;
+    }
+
+    /**
+     * Monta os perfis e as associações com as arestas antes de criar a instância imutável.
+     */
+    public static final class Construtor {
+        private final GrafoCompacto<?> grafo;
+        private final double periodo;
+        private final int[] perfilDaAresta;
+        private int[] inicioPerfil = new int[9];
+        private double[] horarios = new double[64];
+        private double[] fatores = new double[64];
+        private double[] declives = new double[64];
+        private double[] menorDeclive = new double[8];
+        private int quantidadePerfis;
+
+        private Construtor(GrafoCompacto<?> grafo, double periodo) {
+            if (!(periodo > 0.0) || Double.isInfinite(periodo)) {
+                throw new IllegalArgumentException("O período deve ser positivo e finito.");
+            }
+            this.grafo = grafo;
+            this.periodo = periodo;
+            this.perfilDaAresta = new int[grafo.getNumeroArestas()];
+            Arrays.fill(perfilDaAresta, SEM_PERFIL);
+        }
+
+        /**
+         * Adiciona um perfil dado por pontos (horário, fator).
+         *
+         * @param horariosDoPerfil Os horários dos pontos, crescentes e dentro de {@code [0, periodo)}.
+         * @param fatoresDoPerfil Os fatores nesses horários, positivos.
+         * @return O número do perfil, usado em {@link #associar}.
+         */
+        public int adicionarPerfil(double[] horariosDoPerfil, double[] fatoresDoPerfil) {
+            int quantidade = horariosDoPerfil.length;
+            if (quantidade == 0 || quantidade != fatoresDoPerfil.length) {
+                throw new IllegalArgumentException("O perfil precisa de pelo menos um ponto e de um fator por horário.");
+            }
+            for (int i = 0; i < quantidade; i++) {
+                double horario = horariosDoPerfil[i];
+                if (!(horario >= 0.0 && horario < periodo) || (i > 0 && !(horario > horariosDoPerfil[i - 1]))) {
+                    throw new IllegalArgumentException("Os horários do perfil devem ser crescentes e estar dentro do período.");
+                }
+                if (!(fatoresDoPerfil[i] > 0.0) || Double.isInfinite(fatoresDoPerfil[i])) {
+                    throw new IllegalArgumentException("Os fatores do perfil devem ser positivos e finitos.");
+                }
+            }
+
+            int p = quantidadePerfis;
+            if (p + 1 == inicioPerfil.length) {
+                inicioPerfil = Arrays.copyOf(inicioPerfil, inicioPerfil.length * 2);
+                menorDeclive = Arrays.copyOf(menorDeclive, menorDeclive.length * 2);
+            }
+            int inicio = inicioPerfil[p];
+            int fim = inicio + quantidade;
+            if (fim > horarios.length) {
+                int capacidade = Math.max(fim, horarios.length * 2);
+                horarios = Arrays.copyOf(horarios, capacidade);
+                fatores = Arrays.copyOf(fatores, capacidade);
+                declives = Arrays.copyOf(declives, capacidade);
+            }
+            System.arraycopy(horariosDoPerfil, 0, horarios, inicio, quantidade);
+            System.arraycopy(fatoresDoPerfil, 0, fatores, inicio, quantidade);
+            double menor = 0.0;
+            for (int i = 0; i < quantidade; i++) {
+                // O último trecho liga o último ponto ao primeiro do período seguinte
+                double proximoHorario = i + 1 < quantidade ? horariosDoPerfil[i + 1] : horariosDoPerfil[0] + periodo;
+                double proximoFator = fatoresDoPerfil[(i + 1) % quantidade];
+                double declive = (proximoFator - fatoresDoPerfil[i]) / (proximoHorario - horariosDoPerfil[i]);
+                declives[inicio + i] = declive;
+                menor = Math.min(menor, declive);
+            }
+            menorDeclive[p] = menor;
+            inicioPerfil[p + 1] = fim;
+            quantidadePerfis++;
+            return p;
+        }
+
+        /**
+         * Associa um perfil à aresta de saída {@code aresta} do grafo.
+         * @throws IllegalArgumentException se a aresta deixaria de respeitar a propriedade FIFO.
+         */
+        public Construtor associar(int aresta, int perfil) {
+            if (perfil < 0 || perfil >= quantidadePerfis) {
+                throw new IllegalArgumentException("Perfil " + perfil + " inexistente.");
+            }
+            if (grafo.peso(aresta) * menorDeclive[perfil] < -1.0) {
+                throw new IllegalArgumentException("O perfil " + perfil + " cai rápido demais para a aresta " + aresta
+                        + ": sair mais tarde faria chegar mais cedo.");
+            }
+            perfilDaAresta[aresta] = perfil;
+            return this;
+        }
+
+        /**
+         * Associa um perfil a todas as arestas do grafo.
+         */
+        public Construtor associarTodas(int perfil) {
+            for (int e = 0; e < perfilDaAresta.length; e++) {
+                associar(e, perfil);
+            }
+            return this;
+        }
+
+        public PerfisDeTempo construir() {
+            return new PerfisDeTempo(this);
+        }
+    }
+}
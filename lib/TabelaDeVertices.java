@@ -0,0 +1,95 @@
+package lib;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Dados dos vértices de um {@link GrafoCompacto}, na ordem dos índices, e o índice de cada dado.
+ * <p>
+ * Guarda só os dados, e não os {@link Vertice}s do {@link Grafo} de origem: cada um deles
+ * carrega as suas listas de {@link Aresta}s, e mantê-los vivos prenderia o grafo inteiro na
+ * memória depois do congelamento. Os vértices devolvidos são criados sob demanda, sem arestas
+ * (como em {@link GrafoBinario}), e são iguais aos originais por {@link Vertice#equals}.
+ *
+ * @param <T> O tipo de dado armazenado nos vértices.
+ */
+final class TabelaDeVertices<T> {
+
+    private final Object[] dados;
+    private final Map<T, Integer> indices;
+    private final List<Vertice<T>> vertices = new ListaDeVertices();
+
+    /**
+     * @param dados Os dados dos vértices, na ordem dos índices.
+     * @throws IllegalArgumentException se houver dados repetidos.
+     */
+    TabelaDeVertices(List<T> dados) {
+        int n = dados.size();
+        this.dados = dados.toArray();
+        this.indices = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            if (indices.put(dados.get(i), i) != null) {
+                throw new IllegalArgumentException("Vértice com dado '" + dados.get(i) + "' repetido.");
+            }
+        }
+    }
+
+    /**
+     * Copia os dados dos vértices de um grafo compacto qualquer.
+     */
+    static <T> TabelaDeVertices<T> de(GrafoCompacto<T> grafo) {
+        return new TabelaDeVertices<>(new AbstractList<T>() {
+            @Override
+            public T get(int indice) {
+                return grafo.getDado(indice);
+            }
+
+            @Override
+            public int size() {
+                return grafo.getNumeroVertices();
+            }
+        });
+    }
+
+    int tamanho() {
+        return dados.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    T getDado(int indice) {
+        return (T) dados[indice];
+    }
+
+    Vertice<T> getVertice(int indice) {
+        return new Vertice<>(getDado(indice));
+    }
+
+    /** Índice do dado, ou -1 se ele não pertencer ao grafo. */
+    int getIndice(T dado) {
+        Integer indice = indices.get(dado);
+        return indice == null ? -1 : indice;
+    }
+
+    /** Visão não modificável dos vértices, criados sob demanda. */
+    List<Vertice<T>> getVertices() {
+        return vertices;
+    }
+
+    private final class ListaDeVertices extends AbstractList<Vertice<T>> implements RandomAccess {
+        @Override
+        public Vertice<T> get(int indice) {
+            if (indice < 0 || indice >= dados.length) {
+                throw new IndexOutOfBoundsException("Índice " + indice + " fora do grafo.");
+            }
+            return getVertice(indice);
+        }
+
+        @Override
+        public int size() {
+            return dados.length;
+        }
+    }
+}
@@ -44,6 +44,14 @@ public class Vertice<T> {
         this.arestasSaida.add(aresta);
     }
 
+    public boolean removerArestaEntrada(Aresta<T> aresta) {
+        return this.arestasEntrada.remove(aresta);
+    }
+
+    public boolean removerArestaSaida(Aresta<T> aresta) {
+        return this.arestasSaida.remove(aresta);
+    }
+
     // Sugestão 2: Retornar uma lista não modificável para proteger o encapsulamento
     public List<Aresta<T>> getArestasEntrada() {
         return Collections.unmodifiableList(arestasEntrada);